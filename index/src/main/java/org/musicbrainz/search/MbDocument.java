@@ -36,6 +36,8 @@ import org.apache.lucene.util.NumericUtils;
 import org.musicbrainz.search.index.Index;
 import org.musicbrainz.search.index.IndexField;
 import org.musicbrainz.search.index.MetaIndexField;
+import org.musicbrainz.search.index.MusicBrainzFieldTypes;
+import org.musicbrainz.search.index.Utils;
 
 import java.util.Date;
 
@@ -70,6 +72,16 @@ public class MbDocument {
         doc.add(new Field(field.getName(), value, field.getFieldType()));
     }
 
+    /**
+     * Add stored only binary field
+     *
+     * @param field
+     * @param value
+     */
+    public void addField(IndexField field, byte[] value) {
+        doc.add(new StoredField(field.getName(), value));
+    }
+
     /**
      * Used to add database ids, just added as string because range searches ectera make no sense for them
      *
@@ -82,29 +94,25 @@ public class MbDocument {
     
     
     /**
-     * Add integral numeric field, handled specially so that ranges searches work properly
+     * Add integral numeric field, indexed at several precisions so that ranges searches only visit a few terms
      *
      * @param field
      * @param value
      */
     public void addNumericField(IndexField field, Integer value) {
-
-        BytesRefBuilder bytes = new BytesRefBuilder();
-        NumericUtils.intToPrefixCoded(value, 0, bytes);
-        doc.add(new Field(field.getName(),bytes.toBytesRef().utf8ToString(), field.getFieldType()));
+        doc.add(new IntField(field.getName(), value,
+                field.getFieldType().stored() ? MusicBrainzFieldTypes.INT_STORED : MusicBrainzFieldTypes.INT_NOT_STORED));
     }
 
     /**
-     * Add float numeric field, handled specially so that ranges searches work properly
+     * Add float numeric field, indexed at several precisions so that ranges searches only visit a few terms
      *
      * @param field
      * @param value
      */
     public void addNumericField(IndexField field,Float value) {
-
-        BytesRefBuilder bytes = new BytesRefBuilder();
-        NumericUtils.intToPrefixCoded(NumericUtils.floatToSortableInt(value), 0, bytes);
-        doc.add(new Field(field.getName(),bytes.toBytesRef().utf8ToString(), field.getFieldType()));
+        doc.add(new FloatField(field.getName(), value,
+                field.getFieldType().stored() ? MusicBrainzFieldTypes.FLOAT_STORED : MusicBrainzFieldTypes.FLOAT_NOT_STORED));
     }
 
 
@@ -134,6 +142,23 @@ public class MbDocument {
     }
 
 
+    /**
+     * Add date field if not empty, the date is kept as a keyword and also added as a numeric yyyymmdd so that
+     * range searches are numeric
+     *
+     * @param field
+     * @param value
+     */
+    public void addDateField(IndexField field, String value) {
+        if (value != null && !value.isEmpty()) {
+            addField(field, value);
+            Integer date = Utils.dateToInt(value);
+            if (date != null) {
+                addNumericField(field, date);
+            }
+        }
+    }
+
     /**
      * Add field to document if not empty, otherwise add 'unknown' so can be search for
      * @param field
@@ -173,6 +198,10 @@ public class MbDocument {
         return doc.get(indexField.getName());
     }
 
+    public BytesRef getBinaryValue(IndexField indexField) {
+        return doc.getBinaryValue(indexField.getName());
+    }
+
     public Number getNumericField(IndexField indexField) {
         return doc.getField(indexField.getName()).numericValue();
     }
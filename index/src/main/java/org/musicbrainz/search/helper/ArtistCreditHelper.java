@@ -68,6 +68,17 @@ public class ArtistCreditHelper {
         return (ArtistCredit) MMDSerializer.unserialize(artistCreditSerilized, ArtistCredit.class);
     }
 
+    /**
+     * Read the artist credit stored in the document field, in either store format
+     *
+     * @param doc
+     * @param artistCredit
+     * @return
+     */
+    public static ArtistCredit unserialize(MbDocument doc, IndexField artistCredit) {
+        return (ArtistCredit) MMDSerializer.unserialize(doc, artistCredit, ArtistCredit.class);
+    }
+
     /**
      * Complete Artist Credits for Database results
      *
@@ -237,7 +248,7 @@ public class ArtistCreditHelper {
                      artistName);
 
             //Display Field
-            doc.addField(artistCredit, MMDSerializer.serialize(ac));
+            MMDSerializer.serialize(doc, artistCredit, ac);
         }
     }
 
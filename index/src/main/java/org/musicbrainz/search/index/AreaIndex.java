@@ -297,10 +297,10 @@ public class AreaIndex extends DatabaseIndex {
         doc.addFieldOrUnknown(ArtistIndexField.ENDED, Boolean.toString(ended));
 
         String begin = Utils.formatDate(rs.getInt("begin_date_year"), rs.getInt("begin_date_month"), rs.getInt("begin_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.BEGIN, begin);
+        doc.addDateField(ArtistIndexField.BEGIN, begin);
 
         String end = Utils.formatDate(rs.getInt("end_date_year"), rs.getInt("end_date_month"), rs.getInt("end_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.END, end);
+        doc.addDateField(ArtistIndexField.END, end);
 
         LifeSpan lifespan = of.createLifeSpan();
         area.setLifeSpan(lifespan);
@@ -353,8 +353,7 @@ public class AreaIndex extends DatabaseIndex {
             area.setTagList(tagList);
         }
 
-        String store = MMDSerializer.serialize(areaList);
-        doc.addField(AreaIndexField.AREA_STORE, store);
+        MMDSerializer.serialize(doc, AreaIndexField.AREA_STORE, areaList);
 
         AreaBoostDoc.boost(area.getType(), doc.getLuceneDocument());
         return doc.getLuceneDocument();
@@ -261,10 +261,10 @@ public class ArtistIndex extends DatabaseIndex {
         doc.addFieldOrUnknown(ArtistIndexField.ENDED, Boolean.toString(ended));
 
         String begin = Utils.formatDate(rs.getInt("begin_date_year"), rs.getInt("begin_date_month"), rs.getInt("begin_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.BEGIN, begin);
+        doc.addDateField(ArtistIndexField.BEGIN, begin);
 
         String end = Utils.formatDate(rs.getInt("end_date_year"), rs.getInt("end_date_month"), rs.getInt("end_date_day"));
-                doc.addNonEmptyField(ArtistIndexField.END, end);
+                doc.addDateField(ArtistIndexField.END, end);
 
         LifeSpan lifespan = of.createLifeSpan();
         artist.setLifeSpan(lifespan);
@@ -383,8 +383,7 @@ public class ArtistIndex extends DatabaseIndex {
 
         ArtistBoostDoc.boost(artistGuid, doc);
 
-        String store = MMDSerializer.serialize(artist);
-        doc.addField(ArtistIndexField.ARTIST_STORE, store);
+        MMDSerializer.serialize(doc, ArtistIndexField.ARTIST_STORE, artist);
 
         return doc.getLuceneDocument();
     }
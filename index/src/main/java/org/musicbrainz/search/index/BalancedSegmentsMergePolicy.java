@@ -0,0 +1,144 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MergeTrigger;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merge policy that, when an index is force merged to more than one segment, merges it to segments holding about the
+ * same number of documents, so that a search can score the segments in parallel without one segment taking most of the
+ * time.
+ *
+ * Adjacent segments are grouped so documents keep their order. Other merges are left to the wrapped policy until a
+ * balanced forced merge is requested, after which no further natural merges are made.
+ */
+public class BalancedSegmentsMergePolicy extends MergePolicy
+{
+    private final MergePolicy base;
+
+    // Set once a forced merge to balanced segments is requested, natural merges would undo the balance
+    private volatile boolean isBalancing;
+
+    public BalancedSegmentsMergePolicy(MergePolicy base)
+    {
+        this.base = base;
+    }
+
+    @Override
+    public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, IndexWriter writer)
+            throws IOException
+    {
+        if (isBalancing)
+        {
+            return null;
+        }
+        return base.findMerges(mergeTrigger, segmentInfos, writer);
+    }
+
+    @Override
+    public MergeSpecification findForcedMerges(SegmentInfos segmentInfos, int maxSegmentCount,
+                                               Map<SegmentCommitInfo, Boolean> segmentsToMerge, IndexWriter writer)
+            throws IOException
+    {
+        if (maxSegmentCount <= 1)
+        {
+            return base.findForcedMerges(segmentInfos, maxSegmentCount, segmentsToMerge, writer);
+        }
+        isBalancing = true;
+
+        List<SegmentCommitInfo> segments = segmentInfos.asList();
+        if (segments.size() <= maxSegmentCount)
+        {
+            return null;
+        }
+
+        // Wait for merges already running, the forced merge is recalculated as each one finishes
+        Collection<SegmentCommitInfo> merging = writer.getMergingSegments();
+        for (SegmentCommitInfo segment : segments)
+        {
+            if (merging.contains(segment))
+            {
+                return null;
+            }
+        }
+
+        MergeSpecification spec = new MergeSpecification();
+        for (List<SegmentCommitInfo> group : group(segments, maxSegmentCount))
+        {
+            if (group.size() > 1)
+            {
+                spec.add(new OneMerge(group));
+            }
+        }
+        return spec.merges.isEmpty() ? null : spec;
+    }
+
+    /**
+     * Split the segments into at most groupCount groups of adjacent segments with about the same number of documents
+     *
+     * @param segments
+     * @param groupCount
+     * @return
+     */
+    static List<List<SegmentCommitInfo>> group(List<SegmentCommitInfo> segments, int groupCount)
+    {
+        long totalDocs = 0;
+        for (SegmentCommitInfo segment : segments)
+        {
+            totalDocs += segment.info.getDocCount() - segment.getDelCount();
+        }
+
+        List<List<SegmentCommitInfo>> groups = new ArrayList<List<SegmentCommitInfo>>();
+        List<SegmentCommitInfo> group = new ArrayList<SegmentCommitInfo>();
+        long docs = 0;
+        for (int i = 0; i < segments.size(); i++)
+        {
+            SegmentCommitInfo segment = segments.get(i);
+            group.add(segment);
+            docs += segment.info.getDocCount() - segment.getDelCount();
+
+            // Close the group once it reaches its share of the documents, as long as each remaining group can still
+            // have a segment
+            int remainingSegments = segments.size() - i - 1;
+            int remainingGroups = groupCount - groups.size() - 1;
+            if (remainingGroups > 0 && remainingSegments >= remainingGroups
+                    && (docs * groupCount >= totalDocs * (groups.size() + 1) || remainingSegments == remainingGroups))
+            {
+                groups.add(group);
+                group = new ArrayList<SegmentCommitInfo>();
+            }
+        }
+        if (!group.isEmpty())
+        {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    @Override
+    public MergeSpecification findForcedDeletesMerges(SegmentInfos segmentInfos, IndexWriter writer) throws IOException
+    {
+        return base.findForcedDeletesMerges(segmentInfos, writer);
+    }
+
+    @Override
+    public boolean useCompoundFile(SegmentInfos segments, SegmentCommitInfo newSegment, IndexWriter writer)
+            throws IOException
+    {
+        return base.useCompoundFile(segments, newSegment, writer);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + "->" + base + "]";
+    }
+}
@@ -29,6 +29,8 @@ import java.util.List;
 /**
  * Build temporary tables that are used by multiple indexes
  *
+ * The tables are created as LOCAL temporary tables so that they are only seen by the connection that created them
+ * in the embedded database used for mbdump builds, LOCAL makes no difference in PostgreSQL.
  */
 public class CommonTables  {
 
@@ -63,7 +65,7 @@ public class CommonTables  {
         StopWatch clock = new StopWatch();
         clock.start();
         getDbConnection().createStatement().execute(
-            "CREATE TEMPORARY TABLE tmp_artistcredit AS " +
+            "CREATE LOCAL TEMPORARY TABLE tmp_artistcredit AS " +
                 "SELECT acn.artist_credit as artist_credit, " +
                 "  acn.position as pos, " +
                 "  acn.join_phrase as joinphrase, " +
@@ -94,7 +96,7 @@ public class CommonTables  {
         clock.start();
 
         getDbConnection().createStatement().execute(
-            "CREATE TEMPORARY TABLE tmp_release AS " +
+            "CREATE LOCAL TEMPORARY TABLE tmp_release AS " +
                 "SELECT r.id, r.gid, r.name as name, " +
                 "  barcode, " +
                 "  rgt.name as type, rg.id as rg_id, rg.gid as rg_gid, rm.amazon_asin, " +
@@ -132,7 +134,7 @@ public class CommonTables  {
 
         //Note:assumes a release country always only maps to an area with a single 3166_1 code
         getDbConnection().createStatement().execute(
-                "CREATE TEMPORARY TABLE tmp_release_event AS " +
+                "CREATE LOCAL TEMPORARY TABLE tmp_release_event AS " +
                         " SELECT r1.release, r2.code as country, " +
                         "  r1.date_year, r1.date_month, r1.date_day," +
                         "  a1.gid as gid, a1.name as name" +
@@ -165,7 +167,7 @@ public class CommonTables  {
         clock.start();
 
         getDbConnection().createStatement().execute(
-            "CREATE TEMPORARY TABLE tmp_track AS " +
+            "CREATE LOCAL TEMPORARY TABLE tmp_track AS " +
                 "SELECT t.id, t.gid, t.recording, t.length, t.name as track_name, t.position as track_position, t.number as track_number, m.track_count, " +
                 "  m.release as release_id, m.position as medium_position, mf.name as format " +
                 " FROM track t " +
@@ -217,4 +219,37 @@ public class CommonTables  {
             }
         }
     }
+
+    /**
+     * Drop the temporary tables, so that a long running updater can create them again from the current data
+     *
+     * @throws SQLException
+     */
+    public void dropTemporaryTables() throws SQLException
+    {
+        List<String> tables = new ArrayList<String>();
+        if(
+            (indexesToBeBuilt.contains(ReleaseIndex.INDEX_NAME))||
+            (indexesToBeBuilt.contains(ReleaseGroupIndex.INDEX_NAME))||
+            (indexesToBeBuilt.contains(RecordingIndex.INDEX_NAME))
+          )
+        {
+            tables.add("tmp_artistcredit");
+        }
+
+        if(
+           (indexesToBeBuilt.contains(ReleaseIndex.INDEX_NAME))||
+           (indexesToBeBuilt.contains(RecordingIndex.INDEX_NAME))
+          )
+        {
+            tables.add("tmp_release");
+            tables.add("tmp_release_event");
+            tables.add("tmp_track");
+        }
+
+        for (String table : tables)
+        {
+            getDbConnection().createStatement().execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
 }
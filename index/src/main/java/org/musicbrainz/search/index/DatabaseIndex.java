@@ -37,7 +37,10 @@ import java.sql.*;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * An abstract Index specialized in indexing information from a Database
@@ -47,7 +50,15 @@ public abstract class DatabaseIndex implements Index {
     /* This is appended to the getName() method of each index to create the index folder  */
     private static final String INDEX_SUFFIX = "_index";
 
+    /* Most ids loaded together by a statement for a list of ids */
+    public static final int MAX_IDS_PER_BATCH = 500;
+
+    /* Condition on the ids of the rows loaded by a statement, replaced by an IN list when loading a list of ids */
+    private static final Pattern ID_RANGE_CONDITION = Pattern.compile("between\\s+\\?\\s+and\\s+\\?", Pattern.CASE_INSENSITIVE);
+    static final String ID_LIST_SUFFIX = "#IDS";
+
     protected HashMap<String, PreparedStatement> preparedStatements;
+    private final Map<String, String> preparedStatementsSql = new HashMap<String, String>();
     protected Connection dbConnection;
     
     public String getFilename() {
@@ -169,15 +180,76 @@ public abstract class DatabaseIndex implements Index {
 	}
     
     public PreparedStatement addPreparedStatement(String identifier, String SQL) throws SQLException {
-        PreparedStatement st = dbConnection.prepareStatement(SQL);
+        PreparedStatement st = prepareStatement(identifier, SQL);
         preparedStatements.put(identifier, st);
+        preparedStatementsSql.put(identifier, SQL);
         return st;
     }
 
+    /**
+     * Prepare a statement, a connection to a mbdump directory runs its own implementation of the statement with the
+     * given identifier instead of the SQL
+     *
+     * @param identifier
+     * @param SQL
+     * @return
+     * @throws SQLException
+     */
+    protected PreparedStatement prepareStatement(String identifier, String SQL) throws SQLException {
+        if (dbConnection instanceof MbDumpConnection.DumpConnection) {
+            return ((MbDumpConnection.DumpConnection) dbConnection).prepareDumpStatement(getName(), identifier);
+        }
+        return dbConnection.prepareStatement(SQL);
+    }
+
     public PreparedStatement getPreparedStatement(String identifier) {
         return preparedStatements.get(identifier);
     }
 
+    /**
+     * Get the statement loading the given rows, its parameters set
+     *
+     * For a list of ids the "BETWEEN ? AND ?" condition of the statement is replaced by an IN list of
+     * MAX_IDS_PER_BATCH parameters, prepared the first time it is needed. Shorter lists repeat their last id so that
+     * a single statement is prepared whatever the number of ids.
+     *
+     * @param identifier
+     * @param rowIds
+     * @return
+     * @throws SQLException
+     */
+    public PreparedStatement getPreparedStatement(String identifier, RowIds rowIds) throws SQLException {
+        List<Integer> ids = rowIds.getIds();
+        if (ids == null) {
+            PreparedStatement st = getPreparedStatement(identifier);
+            st.setInt(1, rowIds.getMin());
+            st.setInt(2, rowIds.getMax());
+            return st;
+        }
+
+        if (ids.size() > MAX_IDS_PER_BATCH) {
+            throw new IllegalArgumentException(ids.size() + " ids, at most " + MAX_IDS_PER_BATCH + " can be loaded together");
+        }
+        PreparedStatement st = preparedStatements.get(identifier + ID_LIST_SUFFIX);
+        if (st == null) {
+            String sql = preparedStatementsSql.get(identifier);
+            Matcher m = ID_RANGE_CONDITION.matcher(sql);
+            if (!m.find() || m.find(m.end())) {
+                throw new SQLException("Statement " + identifier + " does not have a single id range condition");
+            }
+            StringBuilder inClause = new StringBuilder("IN (");
+            for (int i = 0; i < MAX_IDS_PER_BATCH; i++) {
+                inClause.append(i == 0 ? "?" : ",?");
+            }
+            inClause.append(')');
+            st = addPreparedStatement(identifier + ID_LIST_SUFFIX, m.replaceFirst(inClause.toString()));
+        }
+        for (int i = 0; i < MAX_IDS_PER_BATCH; i++) {
+            st.setInt(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return st;
+    }
+
     public Connection getDbConnection() {
         return dbConnection;
     }
@@ -217,6 +289,43 @@ public abstract class DatabaseIndex implements Index {
      */
     public abstract void indexData(IndexWriter indexWriter, int min, int max) throws SQLException, IOException;
 
+    /**
+     * Index the rows with the given ids, at most MAX_IDS_PER_BATCH
+     *
+     * Indexes able to load a list of ids together override this, by default each row is indexed on its own.
+     *
+     * @param indexWriter
+     * @param ids
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void indexData(IndexWriter indexWriter, List<Integer> ids) throws SQLException, IOException {
+        for (Integer id : ids) {
+            indexData(indexWriter, id, id);
+        }
+    }
+
+    /**
+     * Replace the documents of the rows with the given ids, at most MAX_IDS_PER_BATCH, the documents of rows no longer
+     * in the database are deleted
+     *
+     * By default the documents are deleted and then indexed again, indexes able to build the documents of a list of
+     * ids override this to replace each document with a single update.
+     *
+     * @param indexWriter
+     * @param ids
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void updateData(IndexWriter indexWriter, List<Integer> ids) throws SQLException, IOException {
+        Term[] terms = new Term[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            terms[i] = new Term(getIdentifierField().getName(), ids.get(i).toString());
+        }
+        indexWriter.deleteDocuments(terms);
+        indexData(indexWriter, ids);
+    }
+
     public abstract IndexField getIdentifierField();
 
     public Similarity getSimilarity()
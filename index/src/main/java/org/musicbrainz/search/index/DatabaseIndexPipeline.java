@@ -0,0 +1,274 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Index a range of ids as a pipeline of three stages so that the database and the cpu are both kept busy
+ *
+ * <ul>
+ * <li>fetch: runs the queries for each chunk of ids</li>
+ * <li>build: builds the documents for a fetched chunk</li>
+ * <li>write: adds the built documents to the index writer</li>
+ * </ul>
+ *
+ * Stages are connected by bounded queues so that the fetch stage can only get a few chunks ahead of the build
+ * stage. Documents are written in the same order as when indexing serially. The first error in any stage stops the
+ * pipeline and is thrown from indexData.
+ */
+public class DatabaseIndexPipeline {
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final PipelinedIndex.Chunk END_OF_CHUNKS = new PipelinedIndex.Chunk() {
+        public List<Document> buildDocuments() {
+            return new ArrayList<Document>();
+        }
+    };
+    private static final List<Document> END_OF_DOCUMENTS = new ArrayList<Document>();
+
+    private final PipelinedIndex index;
+    private final int queueSize;
+
+    private final AtomicLong chunksFetched     = new AtomicLong();
+    private final AtomicLong chunksBuilt       = new AtomicLong();
+    private final AtomicLong documentsBuilt    = new AtomicLong();
+    private final AtomicLong documentsWritten  = new AtomicLong();
+    private final AtomicLong fetchTime         = new AtomicLong();
+    private final AtomicLong buildTime         = new AtomicLong();
+    private final AtomicLong writeTime         = new AtomicLong();
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    /**
+     *
+     * @param index the index, already initialized
+     * @param queueSize the number of chunks that can wait between two stages
+     */
+    public DatabaseIndexPipeline(PipelinedIndex index, int queueSize) {
+        this.index = index;
+        this.queueSize = Math.max(1, queueSize);
+    }
+
+    /**
+     * Index data on a range of ids defined by min and max
+     *
+     * @param indexWriter
+     * @param min
+     * @param max
+     * @param chunkSize the number of ids fetched by each set of queries
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void indexData(IndexWriter indexWriter, int min, int max, int chunkSize) throws SQLException, IOException {
+
+        BlockingQueue<PipelinedIndex.Chunk> fetched = new ArrayBlockingQueue<PipelinedIndex.Chunk>(queueSize);
+        BlockingQueue<List<Document>> built = new ArrayBlockingQueue<List<Document>>(queueSize);
+
+        Thread fetchThread = new Thread(new FetchStage(fetched, min, max, chunkSize), index.getName() + "-fetch");
+        Thread buildThread = new Thread(new BuildStage(fetched, built), index.getName() + "-build");
+        fetchThread.start();
+        buildThread.start();
+        try {
+            write(indexWriter, built);
+        }
+        catch (Throwable t) {
+            fail(t);
+        }
+        finally {
+            join(fetchThread);
+            join(buildThread);
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * The write stage runs in the calling thread
+     */
+    private void write(IndexWriter indexWriter, BlockingQueue<List<Document>> built) throws IOException, InterruptedException {
+        while (true) {
+            List<Document> docs = take(built);
+            if (docs == null || docs == END_OF_DOCUMENTS) {
+                return;
+            }
+            long start = System.nanoTime();
+            for (Document doc : docs) {
+                indexWriter.addDocument(doc);
+                documentsWritten.incrementAndGet();
+            }
+            writeTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private class FetchStage implements Runnable {
+        private final BlockingQueue<PipelinedIndex.Chunk> fetched;
+        private final int min;
+        private final int max;
+        private final int chunkSize;
+
+        FetchStage(BlockingQueue<PipelinedIndex.Chunk> fetched, int min, int max, int chunkSize) {
+            this.fetched = fetched;
+            this.min = min;
+            this.max = max;
+            this.chunkSize = chunkSize;
+        }
+
+        public void run() {
+            try {
+                long j = min;
+                while (j <= max && failure.get() == null) {
+                    int k = (int) Math.min(j + chunkSize - 1, max);
+                    System.out.print(index.getName() + ":Indexing " + j + "..." + k + " / " + max + " (" + (100L * k / Math.max(max, 1)) + "%)\r");
+                    long start = System.nanoTime();
+                    PipelinedIndex.Chunk chunk = index.fetchData((int) j, k);
+                    fetchTime.addAndGet(System.nanoTime() - start);
+                    chunksFetched.incrementAndGet();
+                    if (!put(fetched, chunk)) {
+                        return;
+                    }
+                    j += chunkSize;
+                }
+                put(fetched, END_OF_CHUNKS);
+            }
+            catch (Throwable t) {
+                fail(t);
+            }
+        }
+    }
+
+    private class BuildStage implements Runnable {
+        private final BlockingQueue<PipelinedIndex.Chunk> fetched;
+        private final BlockingQueue<List<Document>> built;
+
+        BuildStage(BlockingQueue<PipelinedIndex.Chunk> fetched, BlockingQueue<List<Document>> built) {
+            this.fetched = fetched;
+            this.built = built;
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    PipelinedIndex.Chunk chunk = take(fetched);
+                    if (chunk == null) {
+                        return;
+                    }
+                    if (chunk == END_OF_CHUNKS) {
+                        put(built, END_OF_DOCUMENTS);
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    List<Document> docs = chunk.buildDocuments();
+                    buildTime.addAndGet(System.nanoTime() - start);
+                    chunksBuilt.incrementAndGet();
+                    documentsBuilt.addAndGet(docs.size());
+                    if (!put(built, docs)) {
+                        return;
+                    }
+                }
+            }
+            catch (Throwable t) {
+                fail(t);
+            }
+        }
+    }
+
+    /**
+     * Wait for space in the queue, giving up if another stage has failed
+     *
+     * @return false if the pipeline has failed
+     */
+    private <T> boolean put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (failure.get() == null) {
+            if (queue.offer(item, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wait for the next item in the queue, giving up if another stage has failed
+     *
+     * @return the next item or null if the pipeline has failed
+     */
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        while (failure.get() == null) {
+            T item = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private void fail(Throwable t) {
+        failure.compareAndSet(null, t);
+    }
+
+    private void join(Thread thread) {
+        try {
+            thread.join();
+        }
+        catch (InterruptedException ie) {
+            fail(ie);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rethrowFailure() throws SQLException, IOException {
+        Throwable t = failure.get();
+        if (t == null) {
+            return;
+        }
+        if (t instanceof SQLException) {
+            throw (SQLException) t;
+        }
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new RuntimeException(t);
+    }
+
+    public long getChunksFetched() {
+        return chunksFetched.get();
+    }
+
+    public long getChunksBuilt() {
+        return chunksBuilt.get();
+    }
+
+    public long getDocumentsBuilt() {
+        return documentsBuilt.get();
+    }
+
+    public long getDocumentsWritten() {
+        return documentsWritten.get();
+    }
+
+    /**
+     * Throughput of each stage, the time is the time spent working in that stage, not waiting on the queues
+     *
+     * @return
+     */
+    public String getStatistics() {
+        return index.getName() + ":Pipeline Fetch " + chunksFetched.get() + " chunks in " + TimeUnit.NANOSECONDS.toMillis(fetchTime.get()) + "ms"
+                + ", Build " + documentsBuilt.get() + " docs in " + TimeUnit.NANOSECONDS.toMillis(buildTime.get()) + "ms"
+                + ", Write " + documentsWritten.get() + " docs in " + TimeUnit.NANOSECONDS.toMillis(writeTime.get()) + "ms";
+    }
+}
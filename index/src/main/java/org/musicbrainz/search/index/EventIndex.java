@@ -167,10 +167,10 @@ public class EventIndex extends DatabaseIndex {
         doc.addFieldOrUnknown(ArtistIndexField.ENDED, Boolean.toString(ended));
 
         String begin = Utils.formatDate(rs.getInt("begin_date_year"), rs.getInt("begin_date_month"), rs.getInt("begin_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.BEGIN, begin);
+        doc.addDateField(ArtistIndexField.BEGIN, begin);
 
         String end = Utils.formatDate(rs.getInt("end_date_year"), rs.getInt("end_date_month"), rs.getInt("end_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.END, end);
+        doc.addDateField(ArtistIndexField.END, end);
 
         org.musicbrainz.mmd2.Event.LifeSpan lifespan = of.createEventLifeSpan();
         event.setLifeSpan(lifespan);
@@ -204,8 +204,7 @@ public class EventIndex extends DatabaseIndex {
             event.setTagList(TagHelper.addTagsToDocAndConstructTagList(of, doc, tags, eventId, EventIndexField.TAG));
         }
 
-        String store = MMDSerializer.serialize(event);
-        doc.addField(EventIndexField.EVENT_STORE, store);
+        MMDSerializer.serialize(doc, EventIndexField.EVENT_STORE, event);
         return doc.getLuceneDocument();
     }
 
@@ -51,8 +51,6 @@ import java.util.concurrent.*;
 public class IndexBuilder
 {
 
-    private static final int MAX_THREADS_FOR_CONCURRENT_OPTIMIZATION = 1;
-
     public static void main(String[] args) throws SQLException, IOException, InterruptedException
     {
 
@@ -73,6 +71,12 @@ public class IndexBuilder
             OpenFileLimitCheck.checkOpenFileLimit();
             System.exit(0);
         }
+
+        if(options.isCompareStoreFormats())
+        {
+            StoreFormatComparison.compare(new File(options.getIndexesDir()), options.isTest() ? options.getTestIndexSize() : Integer.MAX_VALUE);
+            System.exit(0);
+        }
         // On request, print command line usage
         if (options.isHelp()) {
             parser.printUsage(System.out);
@@ -81,6 +85,14 @@ public class IndexBuilder
         
         if (options.isTest()) { System.out.println("Running in test mode."); }
 
+        try {
+            MMDSerializer.setStoreFormat(options.getStoreFormat());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown store format");
+            parser.printUsage(System.out);
+            System.exit(1);
+        }
+
         // At least one index should have been selected 
         ArrayList<String> selectedIndexes = options.selectedIndexes();
         if (selectedIndexes.size() == 0 
@@ -90,6 +102,7 @@ public class IndexBuilder
         }
 
         Connection mainDbConn = null;
+        MbDumpDatabase mbDumpDatabase = null;
 
         System.out.println("Index Builder Started:"+ Utils.formatCurrentTimeForOutput());
 
@@ -97,17 +110,28 @@ public class IndexBuilder
         // Check that FreeDB is not the only index requested for build
         if (options.selectedIndexes().size() > 1 || !options.buildIndex("freedb")) {
 
-            // Try loading PostgreSql driver
-            try {
-                Class.forName("org.postgresql.Driver");
-            }
-            catch (ClassNotFoundException e) {
-                System.err.println("Couldn't load org.postgresql.Driver");
-                System.exit(1);
+            if (options.isMbDump()) {
+
+                // Tables are read from the dump files, sorted and joined as the indexes need them
+                System.out.println("Reading mbdump from " + options.getMbDumpDir() + ":" + Utils.formatCurrentTimeForOutput());
+                mbDumpDatabase = options.getMbDumpDatabase();
+                mbDumpDatabase.open();
+                mainDbConn = options.getMainDatabaseConnection();
             }
+            else {
+
+                // Try loading PostgreSql driver
+                try {
+                    Class.forName("org.postgresql.Driver");
+                }
+                catch (ClassNotFoundException e) {
+                    System.err.println("Couldn't load org.postgresql.Driver");
+                    System.exit(1);
+                }
 
-            // Connect to main database
-            mainDbConn = options.getMainDatabaseConnection();
+                // Connect to main database
+                mainDbConn = options.getMainDatabaseConnection();
+            }
         }
     
 
@@ -146,23 +170,35 @@ public class IndexBuilder
         if(indexesToBeBuilt.size()>0) {
             initialReplicationInformation = indexes[0].readReplicationInformationFromDatabase();
         }
-        // Create temporary tables used by multiple indexes
-        CommonTables commonTables = new CommonTables(mainDbConn, indexesToBeBuilt);
-        commonTables.createTemporaryTables(false);
 
-        ExecutorService es = Executors.newFixedThreadPool(MAX_THREADS_FOR_CONCURRENT_OPTIMIZATION);
+        ExecutorService es = Executors.newFixedThreadPool(options.getMergeThreads());
         CompletionService<Boolean> cs = new ExecutorCompletionService<Boolean>(es);
-        for (DatabaseIndex index : indexes) {
-
-            // Check if this index should be built
-            if (!options.buildIndex(index.getName())) {
-                System.out.println("Skipping index: " + index.getName());
-                continue;
+        int noOfIndexesToOptimize = 0;
+        if (options.getIndexThreads() > 1) {
+            noOfIndexesToOptimize = buildDatabaseIndexesConcurrently(indexes, options, initialReplicationInformation, cs);
+        }
+        else {
+            // Create temporary tables used by multiple indexes, the recording index workers create their own
+            List<String> indexesUsingMainConnection = new ArrayList<String>(indexesToBeBuilt);
+            if (options.getDatabaseWorkers() > 1) {
+                indexesUsingMainConnection.remove(RecordingIndex.INDEX_NAME);
             }
+            CommonTables commonTables = new CommonTables(mainDbConn, indexesUsingMainConnection);
+            commonTables.createTemporaryTables(false);
+
+            for (DatabaseIndex index : indexes) {
+
+                // Check if this index should be built
+                if (!options.buildIndex(index.getName())) {
+                    System.out.println("Skipping index: " + index.getName());
+                    continue;
+                }
 
-            IndexWriter indexWriter = createIndexWriter(index,options);
-            int maxId = buildDatabaseIndex(indexWriter, index, options, initialReplicationInformation);
-            cs.submit(new IndexWriterOptimizerAndClose(maxId,indexWriter, index, options));
+                IndexWriter indexWriter = createIndexWriter(index,options);
+                int maxId = buildDatabaseIndex(indexWriter, index, options, initialReplicationInformation);
+                cs.submit(new IndexWriterOptimizerAndClose(maxId,indexWriter, index, options));
+                noOfIndexesToOptimize++;
+            }
         }
 
         // FreeDB data indexing
@@ -181,7 +217,7 @@ public class IndexBuilder
 
         //Wait for each index to be optimized and closed before exiting from Index Build
         System.out.println("Waiting for any indexes to finish optimizing:"+ Utils.formatCurrentTimeForOutput());
-        for (int i =0;i<indexesToBeBuilt.size();i++) {
+        for (int i =0;i<noOfIndexesToOptimize;i++) {
             Future<Boolean> result = cs.take();
             try
             {
@@ -200,6 +236,10 @@ public class IndexBuilder
         {
             mainDbConn.close();
         }
+        if(mbDumpDatabase!=null)
+        {
+            mbDumpDatabase.delete();
+        }
         System.out.println("Index Builder Finished:"+ Utils.formatCurrentTimeForOutput());
     }
 
@@ -229,15 +269,20 @@ public class IndexBuilder
         IndexWriterConfig config = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, index.getAnalyzer());
         config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
         config.setMaxBufferedDocs(options.getMaxBufferedDocs());
+        if(options.getSegments(index.getName())>1)
+        {
+            config.setMergePolicy(new BalancedSegmentsMergePolicy(config.getMergePolicy()));
+        }
 
         if(index.getSimilarity()!=null)
         {
             config.setSimilarity(index.getSimilarity());
         }
+        // When several indexes are built at the same time they share the available processors
         indexWriter = new ThreadedIndexWriter(
                                                 fsDir,
                                                 config,
-                                                Runtime.getRuntime().availableProcessors(),
+                                                Math.max(1, Runtime.getRuntime().availableProcessors() / options.getIndexThreads()),
                                                 options.getDatabaseChunkSize()
                                                 );
 
@@ -256,18 +301,27 @@ public class IndexBuilder
      */
     private static int buildDatabaseIndex(IndexWriter indexWriter, DatabaseIndex index, IndexOptions options, ReplicationInformation initialReplicationInformation) throws IOException, SQLException
     {
-        try
-        {
-            StopWatch clock = new StopWatch();
-            clock.start();
-            System.out.println(index.getName()+":Started at "+ Utils.formatCurrentTimeForOutput());
-            index.init(indexWriter, false);
+        StopWatch clock = new StopWatch();
+        clock.start();
+        System.out.println(index.getName()+":Started at "+ Utils.formatCurrentTimeForOutput());
+        int maxId;
+        if (getNoOfDatabaseWorkers(index, options) > 1) {
             index.addMetaInformation(indexWriter, initialReplicationInformation);
-            int maxId = index.getMaxId();
+            maxId = getMaxIdToIndex(index, options);
             if(maxId > 0) {
-
-                if (options.isTest() && options.getTestIndexSize() < maxId)
-                    maxId = options.getTestIndexSize();
+                buildDatabaseIndexWithWorkers(indexWriter, index, options, maxId);
+            }
+        }
+        else {
+            index.init(indexWriter, false);
+            index.addMetaInformation(indexWriter, initialReplicationInformation);
+            maxId = getMaxIdToIndex(index, options);
+            if(maxId > 0 && index instanceof PipelinedIndex && options.getPipelineQueueSize() > 0) {
+                DatabaseIndexPipeline pipeline = new DatabaseIndexPipeline((PipelinedIndex) index, options.getPipelineQueueSize());
+                pipeline.indexData(indexWriter, 0, maxId, options.getDatabaseChunkSize());
+                System.out.println("\n" + pipeline.getStatistics());
+            }
+            else if(maxId > 0) {
                 int j = 0;
                 while (j <= maxId) {
                     int k = Math.min(j + options.getDatabaseChunkSize() - 1, maxId);
@@ -277,15 +331,140 @@ public class IndexBuilder
                 }
             }
             index.destroy();
-            clock.stop();
-            System.out.println("\n"+index.getName()+":Finished:" + Utils.formatClock(clock));
+        }
+        clock.stop();
+        System.out.println("\n"+index.getName()+":Finished:" + Utils.formatClock(clock));
 
-            return maxId;
+        return maxId;
+    }
+
+    /**
+     * The max id that will be indexed, limited when running in test mode
+     *
+     * @param index
+     * @param options
+     * @return
+     * @throws SQLException
+     */
+    private static int getMaxIdToIndex(DatabaseIndex index, IndexOptions options) throws SQLException
+    {
+        int maxId = index.getMaxId();
+        if (options.isTest() && options.getTestIndexSize() < maxId)
+            maxId = options.getTestIndexSize();
+        return maxId;
+    }
+
+    /**
+     * Only the recording index is loaded by several database workers, it is much larger than the others and
+     * is limited by its database queries rather than by Lucene
+     *
+     * @param index
+     * @param options
+     * @return the number of database workers to use when building this index
+     */
+    private static int getNoOfDatabaseWorkers(DatabaseIndex index, IndexOptions options)
+    {
+        if (index.getName().equals(RecordingIndex.INDEX_NAME)) {
+            return options.getDatabaseWorkers();
+        }
+        return 1;
+    }
+
+    /**
+     * Build an index from database, splitting the ids between several database workers that all feed the same
+     * index writer
+     *
+     * Each worker is a new instance of the index on its own connection, so it has its own temporary tables and
+     * prepared statements. Workers use the same queries as the updater so that they do not each have to copy the
+     * whole track table into a temporary table.
+     *
+     * @param indexWriter
+     * @param index
+     * @param options
+     * @param maxId
+     * @throws IOException
+     * @throws SQLException
+     */
+    private static void buildDatabaseIndexWithWorkers(IndexWriter indexWriter, DatabaseIndex index, IndexOptions options, int maxId) throws IOException, SQLException
+    {
+        List<DatabaseIndex> workers = new ArrayList<DatabaseIndex>();
+        try
+        {
+            for (int i = 0; i < getNoOfDatabaseWorkers(index, options); i++) {
+                Connection workerConn = options.getMainDatabaseConnection();
+                if (workerConn == null) {
+                    throw new SQLException(index.getName() + ":Unable to connect to database for worker " + i);
+                }
+                DatabaseIndex worker;
+                try {
+                    worker = index.getClass().getConstructor(Connection.class).newInstance(workerConn);
+                }
+                catch (Exception e) {
+                    workerConn.close();
+                    throw new SQLException(index.getName() + ":Unable to create worker " + i, e);
+                }
+                workers.add(worker);
+                CommonTables commonTables = new CommonTables(workerConn, worker.getName());
+                commonTables.createTemporaryTables(true);
+                worker.init(indexWriter, true);
+            }
+            System.out.println(index.getName()+":Indexing with " + workers.size() + " database workers");
+            new ParallelDatabaseIndexer(workers, options.getDatabaseChunkSize()).indexData(indexWriter, 0, maxId);
         }
         finally
         {
+            for (DatabaseIndex worker : workers) {
+                worker.destroy();
+                worker.getDbConnection().close();
+            }
+        }
+    }
+
+    /**
+     * Build the selected database indexes at the same time, up to the number of index threads in options
+     *
+     * Temporary tables only exist for the connection that created them so each build opens its own connection
+     * and creates the temporary tables needed by that index. Once an index has been built it is handed to the
+     * completion service to be merged and closed, so small indexes can finish whilst larger ones are still loading.
+     *
+     * @param indexes
+     * @param options
+     * @param initialReplicationInformation
+     * @param cs
+     * @return the number of indexes submitted for optimization
+     * @throws InterruptedException
+     */
+    private static int buildDatabaseIndexesConcurrently(DatabaseIndex[] indexes, IndexOptions options, ReplicationInformation initialReplicationInformation, CompletionService<Boolean> cs) throws InterruptedException
+    {
+        ExecutorService buildEs = Executors.newFixedThreadPool(options.getIndexThreads());
+        List<Future<Boolean>> builds = new ArrayList<Future<Boolean>>();
+        for (DatabaseIndex index : indexes) {
+
+            // Check if this index should be built
+            if (!options.buildIndex(index.getName())) {
+                System.out.println("Skipping index: " + index.getName());
+                continue;
+            }
+            builds.add(buildEs.submit(new DatabaseIndexBuilder(index.getClass(), options, initialReplicationInformation, cs)));
+        }
 
+        int noOfIndexesToOptimize = 0;
+        for (Future<Boolean> build : builds) {
+            try
+            {
+                if(build.get())
+                {
+                    noOfIndexesToOptimize++;
+                }
+            }
+            catch(ExecutionException ee)
+            {
+                System.out.println("Build Failed with unexpected exception");
+                ee.getCause().printStackTrace();
+            }
         }
+        buildEs.shutdown();
+        return noOfIndexesToOptimize;
     }
 
     /**
@@ -321,11 +500,83 @@ public class IndexBuilder
 
     }
 
+    /*
+     * Build one database index on its own database connection
+     *
+     * On success the index writer is submitted for optimization, and the connection is closed by the optimizer
+     * once it has finished with it.
+     */
+    static class DatabaseIndexBuilder implements Callable<Boolean>
+    {
+        private Class<? extends DatabaseIndex> indexClass;
+        private IndexOptions                   options;
+        private ReplicationInformation         initialReplicationInformation;
+        private CompletionService<Boolean>     cs;
+
+        /**
+         *
+         * @param indexClass
+         * @param options
+         * @param initialReplicationInformation
+         * @param cs
+         */
+        public DatabaseIndexBuilder(Class<? extends DatabaseIndex> indexClass, IndexOptions options, ReplicationInformation initialReplicationInformation, CompletionService<Boolean> cs)
+        {
+            this.indexClass=indexClass;
+            this.options=options;
+            this.initialReplicationInformation=initialReplicationInformation;
+            this.cs=cs;
+        }
+
+        public Boolean call() throws Exception
+        {
+            Connection dbConn = options.getMainDatabaseConnection();
+            if(dbConn==null)
+            {
+                System.out.println(indexClass.getSimpleName()+":Unable to connect to database");
+                return false;
+            }
+
+            IndexWriter indexWriter = null;
+            try
+            {
+                DatabaseIndex index = indexClass.getConstructor(Connection.class).newInstance(dbConn);
+                indexWriter = createIndexWriter(index, options);
+                if (getNoOfDatabaseWorkers(index, options) == 1) {
+                    CommonTables commonTables = new CommonTables(dbConn, index.getName());
+                    commonTables.createTemporaryTables(false);
+                }
+
+                int maxId = buildDatabaseIndex(indexWriter, index, options, initialReplicationInformation);
+                cs.submit(new IndexWriterOptimizerAndClose(maxId, indexWriter, index, options, true));
+                return true;
+            }
+            catch(Exception e)
+            {
+                // Nothing of the failed build is committed, and the writer's threads are stopped
+                if(indexWriter!=null)
+                {
+                    try
+                    {
+                        indexWriter.rollback();
+                    }
+                    catch(Exception ex)
+                    {
+                        ex.printStackTrace();
+                    }
+                }
+                dbConn.close();
+                throw e;
+            }
+        }
+    }
+
     /*
      * Optimize the index in and close writer once index has been optimized
      *
      *
-     * We run this as a future task so we can be optimizing the last index whilst the next index is being built.
+     * We run this as a future task so we can be optimizing the last index whilst the next index is being built,
+     * the number of indexes optimized at the same time is set by the merge threads option.
      *
      */
    static class IndexWriterOptimizerAndClose implements Callable<Boolean>
@@ -334,6 +585,7 @@ public class IndexBuilder
         private IndexWriter     indexWriter;
         private DatabaseIndex   index;
         private IndexOptions    options;
+        private boolean         closeDbConnection;
 
         /**
          *
@@ -343,11 +595,26 @@ public class IndexBuilder
          * @param options
          */
         public IndexWriterOptimizerAndClose(int maxId, IndexWriter indexWriter, DatabaseIndex index, IndexOptions options)
+        {
+            this(maxId, indexWriter, index, options, false);
+        }
+
+        /**
+         *
+         * @param maxId
+         * @param indexWriter
+         * @param index
+         * @param options
+         * @param closeDbConnection close the database connection of the index once finished, used when the index
+         *                          was built on its own connection
+         */
+        public IndexWriterOptimizerAndClose(int maxId, IndexWriter indexWriter, DatabaseIndex index, IndexOptions options, boolean closeDbConnection)
         {
             this.maxId=maxId;
             this.indexWriter= indexWriter;
             this.index=index;
             this.options=options;
+            this.closeDbConnection=closeDbConnection;
         }
 
         public Boolean call()
@@ -358,8 +625,14 @@ public class IndexBuilder
                 StopWatch clock = new StopWatch();
                 clock.start();
                 String path = options.getIndexesDir() + index.getFilename();
-                System.out.println(index.getName()+":Started forceMerge at "+Utils.formatCurrentTimeForOutput());
-                indexWriter.forceMerge(1);
+                int segments = options.getSegments(index.getName());
+                System.out.println(index.getName()+":Started forceMerge to "+segments+" segments at "+Utils.formatCurrentTimeForOutput());
+                if(segments>1)
+                {
+                    // Balanced merges are only chosen once background merges have finished
+                    indexWriter.waitForMerges();
+                }
+                indexWriter.forceMerge(segments);
                 indexWriter.close();
                 clock.stop();
                 // For debugging to check sql is not creating too few/many rows
@@ -397,6 +670,20 @@ public class IndexBuilder
                 }
                 return false;
             }
+            finally
+            {
+                if(closeDbConnection)
+                {
+                    try
+                    {
+                        index.getDbConnection().close();
+                    }
+                    catch(SQLException sqle)
+                    {
+                        sqle.printStackTrace();
+                    }
+                }
+            }
         }
     }
 }
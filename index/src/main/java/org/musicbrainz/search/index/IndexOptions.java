@@ -2,6 +2,7 @@ package org.musicbrainz.search.index;
 
 import org.kohsuke.args4j.Option;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -17,6 +18,13 @@ public class IndexOptions {
     // Lucene parameters
     public static final int MAX_BUFFERED_DOCS = 10000;
 
+    // Concurrency of the index builder
+    public static final int INDEX_THREADS = 1;
+    public static final int MERGE_THREADS = 1;
+    public static final int DATABASE_WORKERS = 1;
+    public static final int PIPELINE_QUEUE_SIZE = 0;
+    public static final int SEGMENTS = 1;
+
     // PostgreSQL schema that holds MB data
 	public static final String DB_SCHEMA = "musicbrainz";
 	
@@ -43,6 +51,10 @@ public class IndexOptions {
     public String getMainDatabasePassword() { return mainDatabasePassword; }
 
     public Connection getMainDatabaseConnection() {
+        if (isMbDump()) {
+            return getMbDumpDatabase().getConnection();
+        }
+
         String url = "jdbc:postgresql://" + getMainDatabaseHost() + ":" + getMainDatabasePort() + "/" + getMainDatabaseName();
         Properties props = new Properties();
         props.setProperty("user", getMainDatabaseUser());
@@ -66,6 +78,21 @@ public class IndexOptions {
         else return indexesDir + System.getProperty("file.separator");
     }
 
+    // MusicBrainz dump directory, used instead of the database
+    @Option(name="--mbdump-dir", usage="Build the artist, label, releasegroup, release and recording indexes from the table files in this mbdump directory instead of from the database.")
+    private String mbDumpDir = "";
+    public String getMbDumpDir() { return mbDumpDir; }
+    public boolean isMbDump() { return mbDumpDir != null && mbDumpDir.length() > 0; }
+
+    // The dump tables are sorted and joined into a work directory in the indexes directory, deleted once the indexes are built
+    private MbDumpDatabase mbDumpDatabase;
+    public synchronized MbDumpDatabase getMbDumpDatabase() {
+        if (mbDumpDatabase == null) {
+            mbDumpDatabase = new MbDumpDatabase(new File(getMbDumpDir()), new File(getIndexesDir(), "mbdump_work"));
+        }
+        return mbDumpDatabase;
+    }
+
     // FreeDB dump file
     @Option(name="--freedb-dump", usage="The FreeDB dump file to index.")
     private String freeDBDump = "";
@@ -75,7 +102,12 @@ public class IndexOptions {
     @Option(name="--indexes", usage="A comma-separated list of indexes to build (annotation,area,artist,editor,instrument,label,place,event,releasegroup,release,recording,series,work,tag,url,cdstub,freedb)")
     private String indexes = "annotation,area,artist,editor,instrument,label,place,event,release,recording,releasegroup,series,work,tag,url,cdstub,freedb";
     public ArrayList<String> selectedIndexes() { return new ArrayList<String>(Arrays.asList(indexes.split(","))); }
-    public boolean buildIndex(String indexName) { return selectedIndexes().contains(indexName); }
+    public boolean buildIndex(String indexName) {
+        if (isMbDump() && !indexName.equals("freedb") && !MbDumpDatabase.isSupported(indexName)) {
+            return false;
+        }
+        return selectedIndexes().contains(indexName);
+    }
 
     // Test mode
     @Option(name="--test", aliases = { "-t" }, usage="Test the index builder by creating small test indexes.")
@@ -109,5 +141,45 @@ public class IndexOptions {
     private int maxBufferedDocs = MAX_BUFFERED_DOCS;
     public int getMaxBufferedDocs() { return maxBufferedDocs; }
 
+    // Concurrent index builds
+    @Option(name="--indexthreads", usage="The number of indexes to build at the same time, each build uses its own database connection and temporary tables. (default: "+INDEX_THREADS+")")
+    private int indexThreads = INDEX_THREADS;
+    public int getIndexThreads() { return Math.max(1, indexThreads); }
+
+    // Concurrent forceMerge of built indexes
+    @Option(name="--mergethreads", usage="The number of built indexes that can be merged and closed at the same time. (default: "+MERGE_THREADS+")")
+    private int mergeThreads = MERGE_THREADS;
+    public int getMergeThreads() { return Math.max(1, mergeThreads); }
+
+    // Segments left in the largest indexes
+    @Option(name="--segments", usage="The number of segments of about the same size to leave the recording, release and artist indexes in, so the search server can search their segments in parallel, the other indexes are always merged to one segment. (default: "+SEGMENTS+")")
+    private int segments = SEGMENTS;
+    public int getSegments(String indexName) {
+        if (indexName.equals(RecordingIndex.INDEX_NAME) || indexName.equals(ReleaseIndex.INDEX_NAME) || indexName.equals(ArtistIndex.INDEX_NAME)) {
+            return Math.max(1, segments);
+        }
+        return 1;
+    }
+
+    // Parallel loading of the recording index
+    @Option(name="--dbworkers", usage="The number of database workers used to load the recording index, each worker uses its own database connection and loads different chunks. (default: "+DATABASE_WORKERS+")")
+    private int databaseWorkers = DATABASE_WORKERS;
+    public int getDatabaseWorkers() { return Math.max(1, databaseWorkers); }
+
+    // Overlap of database queries and building documents
+    @Option(name="--pipelinequeuesize", usage="The number of chunks that can be fetched from the database ahead of building their documents, for indexes that support it, 0 builds them without the pipeline. (default: "+PIPELINE_QUEUE_SIZE+")")
+    private int pipelineQueueSize = PIPELINE_QUEUE_SIZE;
+    public int getPipelineQueueSize() { return Math.max(0, pipelineQueueSize); }
+
+    // Format of the store fields
+    @Option(name="--storeformat", usage="The format of the stored entities, xml or binary, the search server reads either. (default: xml)")
+    private String storeFormat = "xml";
+    public MMDSerializer.StoreFormat getStoreFormat() { return MMDSerializer.StoreFormat.valueOf(storeFormat.toUpperCase()); }
+
+    // Compare store formats
+    @Option(name="--comparestoreformats", usage="Compare the size, encode and decode time of the xml and binary store formats on the indexes already in the indexes directory, all other options are ignored and no indexes are built.")
+    private boolean compareStoreFormats = false;
+    public boolean isCompareStoreFormats() { return compareStoreFormats; }
+
 
 }
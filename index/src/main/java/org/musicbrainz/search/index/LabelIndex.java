@@ -218,10 +218,10 @@ public class LabelIndex extends DatabaseIndex {
         doc.addFieldOrUnknown(LabelIndexField.ENDED, Boolean.toString(ended));
 
         String begin = Utils.formatDate(rs.getInt("begin_date_year"), rs.getInt("begin_date_month"), rs.getInt("begin_date_day"));
-        doc.addNonEmptyField(LabelIndexField.BEGIN, begin);
+        doc.addDateField(LabelIndexField.BEGIN, begin);
 
         String end = Utils.formatDate(rs.getInt("end_date_year"), rs.getInt("end_date_month"), rs.getInt("end_date_day"));
-        doc.addNonEmptyField(LabelIndexField.END, end);
+        doc.addDateField(LabelIndexField.END, end);
 
         LifeSpan lifespan = of.createLifeSpan();
         label.setLifeSpan(lifespan);
@@ -264,8 +264,7 @@ public class LabelIndex extends DatabaseIndex {
 
         LabelBoostDoc.boost(labelGuid, doc);
 
-        String store = MMDSerializer.serialize(label);
-        doc.addField(LabelIndexField.LABEL_STORE, store);
+        MMDSerializer.serialize(doc, LabelIndexField.LABEL_STORE, label);
 
 
 
@@ -0,0 +1,380 @@
+/*
+ * MusicBrainz Search Server
+ * Copyright (C) 2010  Paul Taylor
+
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary encoding of the classes in the MMD, used as an alternative to the JAXB xml in the store fields
+ * so that search results can be rebuilt without parsing xml.
+ *
+ * The first byte is the format version, followed by a single value. Beans are written as their class followed by
+ * their non null fields as name/value pairs, lists as their size followed by their elements. Class names, field
+ * names and strings are written once per blob and then referred to by their position. The field values of the
+ * decoded object are the same as the encoded one, so both marshal to the same xml.
+ */
+public class MMDCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final String MMD_PACKAGE = "org.musicbrainz.mmd2.";
+
+    private static final byte TYPE_STRING       = 1;
+    private static final byte TYPE_INTEGER      = 2;
+    private static final byte TYPE_BIGINTEGER   = 3;
+    private static final byte TYPE_FLOAT        = 4;
+    private static final byte TYPE_TRUE         = 5;
+    private static final byte TYPE_FALSE        = 6;
+    private static final byte TYPE_ENUM         = 7;
+    private static final byte TYPE_CALENDAR     = 8;
+    private static final byte TYPE_LIST         = 9;
+    private static final byte TYPE_BEAN         = 10;
+    private static final byte TYPE_NULL         = 11;
+
+    private static final Map<Class, BeanFields> beanFields = new ConcurrentHashMap<Class, BeanFields>();
+
+    private static final ThreadLocal<DatatypeFactory> datatypeFactory = new ThreadLocal<DatatypeFactory>() {
+        @Override
+        protected DatatypeFactory initialValue() {
+            try {
+                return DatatypeFactory.newInstance();
+            }
+            catch (DatatypeConfigurationException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    };
+
+    /**
+     * Encode an object from the MMD
+     *
+     * @param o
+     * @return
+     * @throws IllegalArgumentException if the object contains values that cannot be encoded, such as extension
+     * elements or attributes
+     */
+    public static byte[] encode(Object o) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutput out = new OutputStreamDataOutput(bytes);
+            out.writeByte(VERSION);
+            new Encoder(out).writeValue(o);
+            return bytes.toByteArray();
+        }
+        catch (IOException ioe) {
+            //Writing to memory, should never happen
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    public static Object decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public static Object decode(byte[] bytes, int offset, int length) {
+        ByteArrayDataInput in = new ByteArrayDataInput(bytes, offset, length);
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported store format version " + version);
+        }
+        try {
+            return new Decoder(in).readValue();
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Invalid store value", ioe);
+        }
+    }
+
+    private static class Encoder {
+        private final DataOutput out;
+        private final Map<String, Integer> names = new HashMap<String, Integer>();
+
+        Encoder(DataOutput out) {
+            this.out = out;
+        }
+
+        /**
+         * A reference to a string already written, or 0 followed by the string
+         */
+        void writeName(String name) throws IOException {
+            Integer ref = names.get(name);
+            if (ref != null) {
+                out.writeVInt(ref);
+            }
+            else {
+                out.writeVInt(0);
+                out.writeString(name);
+                names.put(name, names.size() + 1);
+            }
+        }
+
+        void writeValue(Object o) throws IOException {
+            if (o == null) {
+                out.writeByte(TYPE_NULL);
+            }
+            else if (o instanceof String) {
+                out.writeByte(TYPE_STRING);
+                writeName((String) o);
+            }
+            else if (o instanceof Integer) {
+                int i = (Integer) o;
+                out.writeByte(TYPE_INTEGER);
+                out.writeVInt((i << 1) ^ (i >> 31));
+            }
+            else if (o instanceof BigInteger) {
+                byte[] b = ((BigInteger) o).toByteArray();
+                out.writeByte(TYPE_BIGINTEGER);
+                out.writeVInt(b.length);
+                out.writeBytes(b, b.length);
+            }
+            else if (o instanceof Float) {
+                out.writeByte(TYPE_FLOAT);
+                out.writeInt(Float.floatToIntBits((Float) o));
+            }
+            else if (o instanceof Boolean) {
+                out.writeByte((Boolean) o ? TYPE_TRUE : TYPE_FALSE);
+            }
+            else if (o instanceof Enum) {
+                out.writeByte(TYPE_ENUM);
+                writeName(getClassName(((Enum) o).getDeclaringClass()));
+                writeName(((Enum) o).name());
+            }
+            else if (o instanceof XMLGregorianCalendar) {
+                out.writeByte(TYPE_CALENDAR);
+                writeName(((XMLGregorianCalendar) o).toXMLFormat());
+            }
+            else if (o instanceof List) {
+                List list = (List) o;
+                out.writeByte(TYPE_LIST);
+                out.writeVInt(list.size());
+                for (Object next : list) {
+                    writeValue(next);
+                }
+            }
+            else {
+                writeBean(o);
+            }
+        }
+
+        void writeBean(Object o) throws IOException {
+            BeanFields fields = getBeanFields(o.getClass());
+            Object[] values = new Object[fields.fields.length];
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                Object value = fields.get(i, o);
+                if (value instanceof Map) {
+                    if (!((Map) value).isEmpty()) {
+                        throw new IllegalArgumentException("Cannot encode " + fields.fields[i]);
+                    }
+                    continue;
+                }
+                if (value != null) {
+                    values[i] = value;
+                    count++;
+                }
+            }
+
+            out.writeByte(TYPE_BEAN);
+            writeName(getClassName(o.getClass()));
+            out.writeVInt(count);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    writeName(fields.fields[i].getName());
+                    writeValue(values[i]);
+                }
+            }
+        }
+    }
+
+    private static class Decoder {
+        private final ByteArrayDataInput in;
+        private final List<String> names = new ArrayList<String>();
+
+        Decoder(ByteArrayDataInput in) {
+            this.in = in;
+        }
+
+        String readName() throws IOException {
+            int ref = in.readVInt();
+            if (ref == 0) {
+                String name = in.readString();
+                names.add(name);
+                return name;
+            }
+            return names.get(ref - 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        Object readValue() throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_NULL:
+                    return null;
+                case TYPE_STRING:
+                    return readName();
+                case TYPE_INTEGER: {
+                    int i = in.readVInt();
+                    return (i >>> 1) ^ -(i & 1);
+                }
+                case TYPE_BIGINTEGER: {
+                    byte[] b = new byte[in.readVInt()];
+                    in.readBytes(b, 0, b.length);
+                    return new BigInteger(b);
+                }
+                case TYPE_FLOAT:
+                    return Float.intBitsToFloat(in.readInt());
+                case TYPE_TRUE:
+                    return Boolean.TRUE;
+                case TYPE_FALSE:
+                    return Boolean.FALSE;
+                case TYPE_ENUM: {
+                    Class enumClass = getMMDClass(readName());
+                    return Enum.valueOf(enumClass, readName());
+                }
+                case TYPE_CALENDAR:
+                    return datatypeFactory.get().newXMLGregorianCalendar(readName());
+                case TYPE_LIST: {
+                    int size = in.readVInt();
+                    List list = new ArrayList(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case TYPE_BEAN:
+                    return readBean();
+                default:
+                    throw new IllegalArgumentException("Unknown value type " + type);
+            }
+        }
+
+        Object readBean() throws IOException {
+            BeanFields fields = getBeanFields(getMMDClass(readName()));
+            Object o = fields.newInstance();
+            int count = in.readVInt();
+            for (int i = 0; i < count; i++) {
+                String name = readName();
+                fields.set(name, o, readValue());
+            }
+            return o;
+        }
+    }
+
+    private static String getClassName(Class c) {
+        String name = c.getName();
+        if (!name.startsWith(MMD_PACKAGE)) {
+            throw new IllegalArgumentException("Cannot encode " + name);
+        }
+        return name.substring(MMD_PACKAGE.length());
+    }
+
+    /**
+     * Only classes from the MMD are ever instantiated
+     */
+    private static Class getMMDClass(String name) {
+        try {
+            return Class.forName(MMD_PACKAGE + name, true, MMDCodec.class.getClassLoader());
+        }
+        catch (ClassNotFoundException ex) {
+            throw new IllegalArgumentException("Unknown class " + name, ex);
+        }
+    }
+
+    private static BeanFields getBeanFields(Class c) {
+        BeanFields fields = beanFields.get(c);
+        if (fields == null) {
+            fields = new BeanFields(c);
+            beanFields.put(c, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * The instance fields of a class, which are read and written directly so that lists are not created
+     * by their getters
+     */
+    private static class BeanFields {
+        private final Class beanClass;
+        private final Field[] fields;
+        private final Map<String, Field> fieldsByName = new HashMap<String, Field>();
+
+        BeanFields(Class beanClass) {
+            this.beanClass = beanClass;
+            List<Field> instanceFields = new ArrayList<Field>();
+            for (Field field : beanClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                instanceFields.add(field);
+                fieldsByName.put(field.getName(), field);
+            }
+            this.fields = instanceFields.toArray(new Field[instanceFields.size()]);
+        }
+
+        Object newInstance() {
+            try {
+                return beanClass.newInstance();
+            }
+            catch (Exception ex) {
+                throw new IllegalArgumentException("Cannot create " + beanClass.getName(), ex);
+            }
+        }
+
+        Object get(int i, Object o) {
+            try {
+                return fields[i].get(o);
+            }
+            catch (IllegalAccessException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        void set(String name, Object o, Object value) {
+            Field field = fieldsByName.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field " + beanClass.getName() + "." + name);
+            }
+            try {
+                field.set(o, value);
+            }
+            catch (IllegalAccessException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+}
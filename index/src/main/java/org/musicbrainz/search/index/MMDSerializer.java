@@ -24,7 +24,9 @@ import com.sun.jersey.api.json.JSONJAXBContext;
 import com.sun.jersey.api.json.JSONMarshaller;
 import com.sun.jersey.api.json.JSONUnmarshaller;
 import com.sun.xml.bind.marshaller.NamespacePrefixMapper;
+import org.apache.lucene.util.BytesRef;
 import org.musicbrainz.mmd2.Metadata;
+import org.musicbrainz.search.MbDocument;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -35,6 +37,8 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 
 /**
@@ -47,6 +51,29 @@ public class MMDSerializer {
     static final JAXBContext            context                 = initContext();
     static final NamespacePrefixMapper prefixMapper            = new PreferredMapper();
 
+    // Not thread safe and too costly to create for every document, so they are pooled, a marshaller that failed is
+    // not put back
+    private static final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<Marshaller>();
+    private static final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<Unmarshaller>();
+
+    /**
+     * Format used when adding store fields to documents, either can be read back by unserialize
+     */
+    public enum StoreFormat {
+        XML,
+        BINARY
+    }
+
+    private static volatile StoreFormat storeFormat = StoreFormat.XML;
+
+    public static StoreFormat getStoreFormat() {
+        return storeFormat;
+    }
+
+    public static void setStoreFormat(StoreFormat format) {
+        storeFormat = format;
+    }
+
     private static JAXBContext initContext() {
         try {
             return JAXBContext.newInstance("org.musicbrainz.mmd2");
@@ -70,10 +97,14 @@ public class MMDSerializer {
 
     public static String serialize(Object o) {
         try {
+            Marshaller m = marshallers.poll();
+            if (m == null) {
+                m = context.createMarshaller();
+                m.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
+            }
             StringWriter sw = new StringWriter();
-            Marshaller m = context.createMarshaller();
-            m.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
             m.marshal(o, sw);
+            marshallers.offer(m);
             return sw.toString();
         }
         catch (JAXBException je) {
@@ -83,13 +114,65 @@ public class MMDSerializer {
 
     public static Object unserialize(String string, Class classType) {
         try {
-            Unmarshaller m = context.createUnmarshaller();
-            //m.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
-            return m.unmarshal(new StringReader(string));
-
+            Unmarshaller m = unmarshallers.poll();
+            if (m == null) {
+                m = context.createUnmarshaller();
+            }
+            Object o = m.unmarshal(new StringReader(string));
+            unmarshallers.offer(m);
+            return o;
         }
         catch (JAXBException ex) {
             throw new RuntimeException(ex);
         }
     }
+
+    /**
+     * Drop the pooled marshallers and unmarshallers, so a webapp being undeployed does not leave them behind
+     */
+    public static void clearMarshallers() {
+        marshallers.clear();
+        unmarshallers.clear();
+    }
+
+    /**
+     * Add the object to the document in the current store format, objects that cannot be binary encoded are
+     * always stored as xml
+     *
+     * @param doc
+     * @param field
+     * @param o
+     */
+    public static void serialize(MbDocument doc, IndexField field, Object o) {
+        if (storeFormat == StoreFormat.BINARY) {
+            try {
+                doc.addField(field, MMDCodec.encode(o));
+                return;
+            }
+            catch (IllegalArgumentException iae) {
+                //Fall through to xml
+            }
+        }
+        doc.addField(field, serialize(o));
+    }
+
+    /**
+     * Read back an object stored in either format
+     *
+     * @param doc
+     * @param field
+     * @param classType
+     * @return the object or null if the document does not have the field
+     */
+    public static Object unserialize(MbDocument doc, IndexField field, Class classType) {
+        BytesRef bytes = doc.getBinaryValue(field);
+        if (bytes != null) {
+            return MMDCodec.decode(bytes.bytes, bytes.offset, bytes.length);
+        }
+        String string = doc.get(field);
+        if (string == null) {
+            return null;
+        }
+        return unserialize(string, classType);
+    }
 }
@@ -0,0 +1,929 @@
+package org.musicbrainz.search.index;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A connection to a mbdump directory, answering the statements of the indexes built from a dump by joining the rows
+ * of the tables of a MbDumpDatabase.
+ *
+ * The statements prepared by an index are identified by the index name and the statement identifier (see
+ * DatabaseIndex.prepareStatement) and each is implemented here by the same joins as its SQL. Plain SQL is only
+ * understood for the few statements the indexes and CommonTables run directly: the max id and count of a table, the
+ * replication information, and the creation of the temporary tables which are joined once for all connections.
+ * Each connection reads the tables with its own file handles.
+ */
+class MbDumpConnection implements InvocationHandler {
+
+    /**
+     * Implemented by the connections of a MbDumpDatabase
+     */
+    interface DumpConnection {
+
+        /**
+         * @param indexName
+         * @param identifier identifier of the statement in the index, ending with DatabaseIndex.ID_LIST_SUFFIX for
+         *                   a statement loading the ids given as its parameters rather than a range of ids
+         * @return
+         * @throws SQLException
+         */
+        PreparedStatement prepareDumpStatement(String indexName, String identifier) throws SQLException;
+    }
+
+    private static final Pattern MAX_ID = Pattern.compile(
+            "\\s*SELECT\\s+MAX\\(id\\)\\s+FROM\\s+(\\w+)\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COUNT = Pattern.compile(
+            "\\s*SELECT\\s+count\\(\\*\\)\\s+FROM\\s+(\\w+)\\s+WHERE\\s+id\\s*<=\\s*(\\?|\\d+)" +
+            "(\\s+AND\\s+gid\\s*<>\\s*\\?(::uuid)?)?\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REPLICATION_CONTROL = Pattern.compile(
+            "\\s*SELECT\\s+current_schema_sequence\\s*,\\s*current_replication_sequence"
+                    + "\\s+FROM\\s+replication_control\\s*",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_TEMPORARY_TABLE = Pattern.compile(
+            "\\s*CREATE\\s+(LOCAL\\s+)?TEMPORARY\\s+TABLE\\s+(\\w+).*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern CREATE_OR_DROP = Pattern.compile(
+            "\\s*(CREATE|DROP)\\s.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final String[] ARTIST_CREDIT_COLUMNS = {"artist_credit", "pos", "joinphrase", "artistId",
+            "comment", "artistName", "artistCreditName", "artistSortName"};
+
+    private static final String[] ALIAS_DATE_COLUMNS = {"begin_date_year", "begin_date_month", "begin_date_day",
+            "end_date_year", "end_date_month", "end_date_day"};
+
+    private final MbDumpDatabase database;
+    private final Map<MbDumpTable, MbDumpTable.Reader> readers = new HashMap<MbDumpTable, MbDumpTable.Reader>();
+    private boolean closed;
+
+    MbDumpConnection(MbDumpDatabase database) {
+        this.database = database;
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("prepareDumpStatement")) {
+            checkOpen();
+            return newProxy(PreparedStatement.class, new DumpStatement((String) args[0], (String) args[1]));
+        }
+        else if (name.equals("prepareStatement") && args.length == 1) {
+            checkOpen();
+            return newProxy(PreparedStatement.class, new SqlStatement((String) args[0]));
+        }
+        else if (name.equals("createStatement") && (args == null || args.length == 0)) {
+            checkOpen();
+            return newProxy(Statement.class, new SqlStatement(null));
+        }
+        else if (name.equals("getMetaData")) {
+            return newProxy(DatabaseMetaData.class, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("getTables")) {
+                        return new MbDumpResultSet("TABLE_NAME").toResultSet();
+                    }
+                    throw new SQLFeatureNotSupportedException("DatabaseMetaData." + method.getName()
+                            + " not supported on an mbdump directory");
+                }
+            });
+        }
+        else if (name.equals("close")) {
+            close();
+            return null;
+        }
+        else if (name.equals("isClosed")) {
+            return closed;
+        }
+        else if (name.equals("getAutoCommit")) {
+            return true;
+        }
+        else if (name.equals("setAutoCommit") || name.equals("commit") || name.equals("rollback")
+                || name.equals("clearWarnings")) {
+            return null;
+        }
+        else if (name.equals("getWarnings")) {
+            return null;
+        }
+        else if (name.equals("toString")) {
+            return "MbDumpConnection";
+        }
+        else if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        }
+        else if (name.equals("equals")) {
+            return proxy == args[0];
+        }
+        throw new SQLFeatureNotSupportedException("Connection." + name + " not supported on an mbdump directory");
+    }
+
+    private synchronized void close() throws SQLException {
+        try {
+            for (MbDumpTable.Reader reader : readers.values()) {
+                reader.close();
+            }
+        }
+        catch (IOException ioe) {
+            throw toSQLException(ioe);
+        }
+        finally {
+            readers.clear();
+            closed = true;
+        }
+    }
+
+    private static SQLException toSQLException(IOException ioe) {
+        SQLException sqle = new SQLException("Unable to read mbdump:" + ioe.getMessage());
+        sqle.initCause(ioe);
+        return sqle;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+    }
+
+    private static Object newProxy(Class type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(MbDumpConnection.class.getClassLoader(), new Class[]{type}, handler);
+    }
+
+    /**
+     * Parameters and methods common to statements
+     */
+    private abstract class AbstractStatement implements InvocationHandler {
+        protected final Map<Integer, Object> parameters = new TreeMap<Integer, Object>();
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            try {
+                if (name.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer
+                        && !name.equals("setFetchSize") && !name.equals("setMaxRows")) {
+                    parameters.put((Integer) args[0], args[1]);
+                    return null;
+                }
+                else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                    return null;
+                }
+                else if (name.equals("close") || name.equals("setFetchSize") || name.equals("setMaxRows")
+                        || name.equals("setQueryTimeout") || name.equals("clearWarnings")) {
+                    return null;
+                }
+                else if (name.equals("getWarnings")) {
+                    return null;
+                }
+                else if (name.equals("toString")) {
+                    return getClass().getSimpleName();
+                }
+                else if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                else if (name.equals("equals")) {
+                    return proxy == args[0];
+                }
+                return invoke(name, args);
+            }
+            catch (IOException ioe) {
+                throw toSQLException(ioe);
+            }
+        }
+
+        abstract Object invoke(String name, Object[] args) throws SQLException, IOException;
+
+        protected int getIntParameter(int index) throws SQLException {
+            Object value = parameters.get(index);
+            if (!(value instanceof Number)) {
+                throw new SQLException("Parameter " + index + " not set");
+            }
+            return ((Number) value).intValue();
+        }
+    }
+
+    /**
+     * A statement given as SQL
+     */
+    private class SqlStatement extends AbstractStatement {
+        private final String sql;
+
+        SqlStatement(String sql) {
+            this.sql = sql;
+        }
+
+        Object invoke(String name, Object[] args) throws SQLException, IOException {
+            if (name.equals("executeQuery")) {
+                return executeQuery(args == null || args.length == 0 ? sql : (String) args[0]);
+            }
+            else if (name.equals("execute")) {
+                execute(args == null || args.length == 0 ? sql : (String) args[0]);
+                return false;
+            }
+            throw new SQLFeatureNotSupportedException("Statement." + name + " not supported on an mbdump directory");
+        }
+
+        private ResultSet executeQuery(String sql) throws SQLException, IOException {
+            Matcher m = MAX_ID.matcher(sql);
+            if (m.matches()) {
+                MbDumpResultSet result = new MbDumpResultSet("max");
+                result.add(String.valueOf(database.getTable(m.group(1).toLowerCase(Locale.ROOT), "id").getMaxKey()));
+                return result.toResultSet();
+            }
+
+            m = COUNT.matcher(sql);
+            if (m.matches()) {
+                int maxId = m.group(2).equals("?") ? getIntParameter(1) : Integer.parseInt(m.group(2));
+                String excludedGid = m.group(3) != null ? (String) parameters.get(2) : null;
+                MbDumpResultSet result = new MbDumpResultSet("count");
+                result.add(String.valueOf(count(m.group(1).toLowerCase(Locale.ROOT), maxId, excludedGid)));
+                return result.toResultSet();
+            }
+
+            if (REPLICATION_CONTROL.matcher(sql).matches()) {
+                MbDumpResultSet result = new MbDumpResultSet("current_schema_sequence", "current_replication_sequence");
+                for (List<List<String>> rows : database.getLookup("replication_control").values()) {
+                    for (List<String> row : rows) {
+                        result.add(MbDumpDatabase.get(row, "replication_control", "current_schema_sequence"),
+                                MbDumpDatabase.get(row, "replication_control", "current_replication_sequence"));
+                    }
+                }
+                return result.toResultSet();
+            }
+            throw new SQLFeatureNotSupportedException("Statement not supported on an mbdump directory:" + sql);
+        }
+
+        /**
+         * Creating a temporary table joins it, if not already done by another connection. Everything else created
+         * or dropped, such as the indexes of the temporary tables, is not needed.
+         */
+        private void execute(String sql) throws SQLException, IOException {
+            Matcher m = CREATE_TEMPORARY_TABLE.matcher(sql);
+            if (m.matches() && MbDumpDatabase.isTemporaryTable(m.group(2).toLowerCase(Locale.ROOT))) {
+                database.getTemporaryTable(m.group(2).toLowerCase(Locale.ROOT));
+            }
+            else if (!CREATE_OR_DROP.matcher(sql).matches()) {
+                throw new SQLFeatureNotSupportedException("Statement not supported on an mbdump directory:" + sql);
+            }
+        }
+
+        private int count(String table, int maxId, String excludedGid) throws IOException {
+            MbDumpTable.Scanner rows = database.getTable(table, "id").scan();
+            try {
+                int count = 0;
+                List<String> row;
+                while ((row = rows.next()) != null && Integer.parseInt(MbDumpDatabase.get(row, table, "id")) <= maxId) {
+                    if (excludedGid == null || !excludedGid.equals(MbDumpDatabase.get(row, table, "gid"))) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            finally {
+                rows.close();
+            }
+        }
+    }
+
+    /**
+     * A statement of an index, implemented by the method of this class named after the index and statement
+     * identifier, e.g. artistARTISTS, which is given the ids of the rows to load
+     */
+    private class DumpStatement extends AbstractStatement {
+        private final Method query;
+        private final boolean idList;
+
+        DumpStatement(String indexName, String identifier) throws SQLException {
+            idList = identifier.endsWith(DatabaseIndex.ID_LIST_SUFFIX);
+            String queryName = indexName + (idList
+                    ? identifier.substring(0, identifier.length() - DatabaseIndex.ID_LIST_SUFFIX.length())
+                    : identifier);
+            try {
+                query = MbDumpConnection.class.getDeclaredMethod(queryName, RowIds.class);
+            }
+            catch (NoSuchMethodException e) {
+                throw new SQLFeatureNotSupportedException("Statement " + identifier + " of the " + indexName
+                        + " index not supported on an mbdump directory");
+            }
+        }
+
+        Object invoke(String name, Object[] args) throws SQLException, IOException {
+            if (!name.equals("executeQuery") || (args != null && args.length > 0)) {
+                throw new SQLFeatureNotSupportedException("PreparedStatement." + name
+                        + " not supported on an mbdump directory");
+            }
+
+            RowIds ids;
+            if (idList) {
+                List<Integer> keys = new ArrayList<Integer>();
+                for (Integer index : parameters.keySet()) {
+                    keys.add(getIntParameter(index));
+                }
+                if (keys.isEmpty()) {
+                    return new MbDumpResultSet().toResultSet();
+                }
+                ids = RowIds.of(keys);
+            } else {
+                ids = RowIds.between(getIntParameter(1), getIntParameter(2));
+            }
+
+            try {
+                return ((MbDumpResultSet) query.invoke(MbDumpConnection.this, ids)).toResultSet();
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            catch (InvocationTargetException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                else if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private synchronized MbDumpTable.Reader getReader(MbDumpTable table) throws IOException {
+        MbDumpTable.Reader reader = readers.get(table);
+        if (reader == null) {
+            reader = table.openReader();
+            readers.put(table, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * @return the rows of the table with the given ids in the key column, in key order
+     */
+    private List<List<String>> rows(String table, String keyColumn, RowIds ids) throws IOException {
+        MbDumpTable sortedTable = MbDumpDatabase.isTemporaryTable(table)
+                ? database.getTemporaryTable(table)
+                : database.getTable(table, keyColumn);
+        return getReader(sortedTable).read(ids);
+    }
+
+    /**
+     * @return the rows of the table with the given keys in the key column, in key order
+     */
+    private List<List<String>> rows(String table, String keyColumn, Set<Integer> keys) throws IOException {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return rows(table, keyColumn, RowIds.of(new ArrayList<Integer>(keys)));
+    }
+
+    /**
+     * @return the rows grouped by the value of the key column
+     */
+    private static Map<Integer, List<List<String>>> groupBy(List<List<String>> rows, String table, String keyColumn) {
+        Map<Integer, List<List<String>>> groups = new HashMap<Integer, List<List<String>>>();
+        for (List<String> row : rows) {
+            String key = MbDumpDatabase.get(row, table, keyColumn);
+            if (key == null) {
+                continue;
+            }
+            List<List<String>> group = groups.get(Integer.valueOf(key));
+            if (group == null) {
+                group = new ArrayList<List<String>>();
+                groups.put(Integer.valueOf(key), group);
+            }
+            group.add(row);
+        }
+        return groups;
+    }
+
+    /**
+     * @return the non null values of a column
+     */
+    private static Set<Integer> keys(List<List<String>> rows, String table, String column) {
+        Set<Integer> keys = new LinkedHashSet<Integer>();
+        for (List<String> row : rows) {
+            String key = MbDumpDatabase.get(row, table, column);
+            if (key != null) {
+                keys.add(Integer.valueOf(key));
+            }
+        }
+        return keys;
+    }
+
+    private String getName(String table, String id) throws IOException {
+        return MbDumpDatabase.getValue(database.getLookup(table), id, table, "name");
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> result = new ArrayList<String>(first.size() + second.size());
+        result.addAll(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private static List<String> labels(String first, String[] others) {
+        List<String> labels = new ArrayList<String>();
+        labels.add(first);
+        Collections.addAll(labels, others);
+        return labels;
+    }
+
+    /**
+     * All the rows of a table, with its columns as labels
+     */
+    private MbDumpResultSet table(String table, String keyColumn, RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet(MbDumpDatabase.getColumns(table));
+        for (List<String> row : rows(table, keyColumn, ids)) {
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * TagHelper.constructTagQuery
+     */
+    private MbDumpResultSet tags(String tagTable, String entityColumn, RowIds ids) throws IOException {
+        Map<Integer, List<List<String>>> tags = database.getLookup("tag");
+        MbDumpResultSet result = new MbDumpResultSet(entityColumn, "tag", "count");
+        for (List<String> row : rows(tagTable, entityColumn, ids)) {
+            List<String> tag = MbDumpDatabase.getRow(tags, MbDumpDatabase.get(row, tagTable, "tag"));
+            if (tag != null) {
+                result.add(MbDumpDatabase.get(row, tagTable, entityColumn),
+                        MbDumpDatabase.get(tag, "tag", "name"),
+                        MbDumpDatabase.get(row, tagTable, "count"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * AliasHelper.constructAliasQuery
+     */
+    private MbDumpResultSet aliases(String entityTable, RowIds ids) throws IOException {
+        String aliasTable = entityTable + "_alias";
+        MbDumpResultSet result = new MbDumpResultSet(labels("entityId", new String[]{"alias", "alias_sortname",
+                "primary_for_locale", "locale", "type", "begin_date_year", "begin_date_month", "begin_date_day",
+                "end_date_year", "end_date_month", "end_date_day"}));
+        for (List<String> row : rows(aliasTable, entityTable, ids)) {
+            List<String> values = new ArrayList<String>();
+            values.add(MbDumpDatabase.get(row, aliasTable, entityTable));
+            values.add(MbDumpDatabase.get(row, aliasTable, "name"));
+            values.add(MbDumpDatabase.get(row, aliasTable, "sort_name"));
+            values.add(MbDumpDatabase.get(row, aliasTable, "primary_for_locale"));
+            values.add(MbDumpDatabase.get(row, aliasTable, "locale"));
+            values.add(getName(aliasTable + "_type", MbDumpDatabase.get(row, aliasTable, "type")));
+            for (String column : ALIAS_DATE_COLUMNS) {
+                values.add(MbDumpDatabase.get(row, aliasTable, column));
+            }
+            result.add(values);
+        }
+        result.orderBy("entityId", "alias", "alias_sortname");
+        return result;
+    }
+
+    /**
+     * @return the artist credits of the rows of a table, by artist credit
+     */
+    private Map<Integer, List<List<String>>> getArtistCredits(List<List<String>> rows, String table)
+            throws IOException {
+        return groupBy(rows(MbDumpDatabase.TMP_ARTISTCREDIT, "artist_credit", keys(rows, table, "artist_credit")),
+                MbDumpDatabase.TMP_ARTISTCREDIT, "artist_credit");
+    }
+
+    private static boolean isExcluded(List<String> credit, String... excludedArtistIds) {
+        String artistId = MbDumpDatabase.get(credit, MbDumpDatabase.TMP_ARTISTCREDIT, "artistId");
+        for (String excludedArtistId : excludedArtistIds) {
+            if (excludedArtistId.equals(artistId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The artist credits of the rows of a table, ordered by row then position
+     *
+     * @param label label of the id of the row
+     * @param rows
+     * @param table
+     * @param excludedArtistIds artists left out
+     */
+    private MbDumpResultSet artistCredits(String label, List<List<String>> rows, String table,
+                                          String... excludedArtistIds) throws IOException {
+        Map<Integer, List<List<String>>> credits = getArtistCredits(rows, table);
+        MbDumpResultSet result = new MbDumpResultSet(labels(label, ARTIST_CREDIT_COLUMNS));
+        for (List<String> row : rows) {
+            String artistCredit = MbDumpDatabase.get(row, table, "artist_credit");
+            for (List<String> credit : MbDumpDatabase.getRows(credits, artistCredit)) {
+                if (isExcluded(credit, excludedArtistIds)) {
+                    continue;
+                }
+                List<String> values = new ArrayList<String>();
+                values.add(MbDumpDatabase.get(row, table, "id"));
+                for (String column : ARTIST_CREDIT_COLUMNS) {
+                    values.add(MbDumpDatabase.get(credit, MbDumpDatabase.TMP_ARTISTCREDIT, column));
+                }
+                result.add(values);
+            }
+        }
+        result.orderBy(label, "pos");
+        return result;
+    }
+
+    /**
+     * The aliases of the artists credited on the rows of a table, except the various and unknown artists, ordered by
+     * row, position and alias
+     */
+    private MbDumpResultSet artistCreditAliases(String label, List<List<String>> rows, String table)
+            throws IOException {
+        Map<Integer, List<List<String>>> credits = getArtistCredits(rows, table);
+        Set<Integer> artists = new LinkedHashSet<Integer>();
+        for (List<List<String>> credit : credits.values()) {
+            artists.addAll(keys(credit, MbDumpDatabase.TMP_ARTISTCREDIT, "id"));
+        }
+        Map<Integer, List<List<String>>> aliases = groupBy(rows("artist_alias", "artist", artists),
+                "artist_alias", "artist");
+
+        MbDumpResultSet result = new MbDumpResultSet(labels(label, new String[]{"artist_credit", "pos", "name",
+                "sort_name", "primary_for_locale", "locale", "begin_date_year", "begin_date_month", "begin_date_day",
+                "end_date_year", "end_date_month", "end_date_day", "type"}));
+        for (List<String> row : rows) {
+            String artistCredit = MbDumpDatabase.get(row, table, "artist_credit");
+            for (List<String> credit : MbDumpDatabase.getRows(credits, artistCredit)) {
+                if (isExcluded(credit, ArtistIndex.VARIOUS_ARTIST_MBID, ArtistIndex.UNKNOWN_ARTIST_MBID)) {
+                    continue;
+                }
+                String artist = MbDumpDatabase.get(credit, MbDumpDatabase.TMP_ARTISTCREDIT, "id");
+                for (List<String> alias : MbDumpDatabase.getRows(aliases, artist)) {
+                    List<String> values = new ArrayList<String>();
+                    values.add(MbDumpDatabase.get(row, table, "id"));
+                    values.add(MbDumpDatabase.get(credit, MbDumpDatabase.TMP_ARTISTCREDIT, "artist_credit"));
+                    values.add(MbDumpDatabase.get(credit, MbDumpDatabase.TMP_ARTISTCREDIT, "pos"));
+                    values.add(MbDumpDatabase.get(alias, "artist_alias", "name"));
+                    values.add(MbDumpDatabase.get(alias, "artist_alias", "sort_name"));
+                    values.add(MbDumpDatabase.get(alias, "artist_alias", "primary_for_locale"));
+                    values.add(MbDumpDatabase.get(alias, "artist_alias", "locale"));
+                    for (String column : ALIAS_DATE_COLUMNS) {
+                        values.add(MbDumpDatabase.get(alias, "artist_alias", column));
+                    }
+                    values.add(getName("artist_alias_type", MbDumpDatabase.get(alias, "artist_alias", "type")));
+                    result.add(values);
+                }
+            }
+        }
+        result.orderBy(label, "pos", "name");
+        return result;
+    }
+
+    /**
+     * The secondary types of the release groups of the rows of a table
+     */
+    private MbDumpResultSet secondaryTypes(String label, List<List<String>> rows, String table,
+                                           String releaseGroupColumn) throws IOException {
+        Map<Integer, List<List<String>>> types = groupBy(rows("release_group_secondary_type_join", "release_group",
+                keys(rows, table, releaseGroupColumn)), "release_group_secondary_type_join", "release_group");
+        MbDumpResultSet result = new MbDumpResultSet("type", label);
+        for (List<String> row : rows) {
+            String releaseGroup = MbDumpDatabase.get(row, table, releaseGroupColumn);
+            for (List<String> type : MbDumpDatabase.getRows(types, releaseGroup)) {
+                String name = getName("release_group_secondary_type",
+                        MbDumpDatabase.get(type, "release_group_secondary_type_join", "secondary_type"));
+                if (name != null) {
+                    result.add(name, MbDumpDatabase.get(row, table, "id"));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Artist index
+
+    MbDumpResultSet artistTAGS(RowIds ids) throws IOException {
+        return tags("artist_tag", "artist", ids);
+    }
+
+    MbDumpResultSet artistALIASES(RowIds ids) throws IOException {
+        return aliases("artist", ids);
+    }
+
+    MbDumpResultSet artistARTISTCREDITS(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("artist", "artistcredit");
+        for (List<String> row : rows("artist_credit_name", "artist", ids)) {
+            result.add(MbDumpDatabase.get(row, "artist_credit_name", "artist"),
+                    MbDumpDatabase.get(row, "artist_credit_name", "name"));
+        }
+        return result;
+    }
+
+    MbDumpResultSet artistARTISTS(RowIds ids) throws IOException {
+        Map<Integer, List<List<String>>> areas = database.getLookup("area");
+        Map<Integer, List<List<String>>> codes = database.getLookup("iso_3166_1");
+        MbDumpResultSet result = new MbDumpResultSet("id", "gid", "name", "sort_name", "type",
+                "begin_date_year", "begin_date_month", "begin_date_day", "end_date_year", "end_date_month",
+                "end_date_day", "ended", "comment", "country", "gender", "area_gid", "area_name",
+                "beginarea_gid", "beginarea_name", "endarea_gid", "endarea_name");
+        for (List<String> a : rows("artist", "id", ids)) {
+            String area = MbDumpDatabase.get(a, "artist", "area");
+            List<String> area1 = MbDumpDatabase.getRow(areas, area);
+            List<String> area2 = MbDumpDatabase.getRow(areas, MbDumpDatabase.get(a, "artist", "begin_area"));
+            List<String> area3 = MbDumpDatabase.getRow(areas, MbDumpDatabase.get(a, "artist", "end_area"));
+            List<List<String>> areaCodes = MbDumpDatabase.getRows(codes, area);
+            for (List<String> code : areaCodes.isEmpty() ? Collections.<List<String>>singletonList(null) : areaCodes) {
+                result.add(MbDumpDatabase.get(a, "artist", "id"),
+                        MbDumpDatabase.get(a, "artist", "gid"),
+                        MbDumpDatabase.get(a, "artist", "name"),
+                        MbDumpDatabase.get(a, "artist", "sort_name"),
+                        getName("artist_type", MbDumpDatabase.get(a, "artist", "type")),
+                        MbDumpDatabase.get(a, "artist", "begin_date_year"),
+                        MbDumpDatabase.get(a, "artist", "begin_date_month"),
+                        MbDumpDatabase.get(a, "artist", "begin_date_day"),
+                        MbDumpDatabase.get(a, "artist", "end_date_year"),
+                        MbDumpDatabase.get(a, "artist", "end_date_month"),
+                        MbDumpDatabase.get(a, "artist", "end_date_day"),
+                        MbDumpDatabase.get(a, "artist", "ended"),
+                        MbDumpDatabase.get(a, "artist", "comment"),
+                        lower(MbDumpDatabase.get(code, "iso_3166_1", "code")),
+                        lower(getName("gender", MbDumpDatabase.get(a, "artist", "gender"))),
+                        MbDumpDatabase.get(area1, "area", "gid"),
+                        MbDumpDatabase.get(area1, "area", "name"),
+                        MbDumpDatabase.get(area2, "area", "gid"),
+                        MbDumpDatabase.get(area2, "area", "name"),
+                        MbDumpDatabase.get(area3, "area", "gid"),
+                        MbDumpDatabase.get(area3, "area", "name"));
+            }
+        }
+        return result;
+    }
+
+    MbDumpResultSet artistIPICODES(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("ipi", "artist");
+        for (List<String> row : rows("artist_ipi", "artist", ids)) {
+            result.add(MbDumpDatabase.get(row, "artist_ipi", "ipi"), MbDumpDatabase.get(row, "artist_ipi", "artist"));
+        }
+        return result;
+    }
+
+    MbDumpResultSet artistISNICODES(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("isni", "artist");
+        for (List<String> row : rows("artist_isni", "artist", ids)) {
+            result.add(MbDumpDatabase.get(row, "artist_isni", "isni"),
+                    MbDumpDatabase.get(row, "artist_isni", "artist"));
+        }
+        return result;
+    }
+
+    // Label index
+
+    MbDumpResultSet labelTAGS(RowIds ids) throws IOException {
+        return tags("label_tag", "label", ids);
+    }
+
+    MbDumpResultSet labelALIASES(RowIds ids) throws IOException {
+        return aliases("label", ids);
+    }
+
+    MbDumpResultSet labelLABELS(RowIds ids) throws IOException {
+        Map<Integer, List<List<String>>> areas = database.getLookup("area");
+        Map<Integer, List<List<String>>> codes = database.getLookup("iso_3166_1");
+        MbDumpResultSet result = new MbDumpResultSet("id", "gid", "name", "type",
+                "begin_date_year", "begin_date_month", "begin_date_day", "end_date_year", "end_date_month",
+                "end_date_day", "ended", "comment", "label_code", "country", "area_gid", "area_name");
+        for (List<String> l : rows("label", "id", ids)) {
+            String area = MbDumpDatabase.get(l, "label", "area");
+            List<String> area1 = MbDumpDatabase.getRow(areas, area);
+            List<List<String>> areaCodes = MbDumpDatabase.getRows(codes, area);
+            for (List<String> code : areaCodes.isEmpty() ? Collections.<List<String>>singletonList(null) : areaCodes) {
+                result.add(MbDumpDatabase.get(l, "label", "id"),
+                        MbDumpDatabase.get(l, "label", "gid"),
+                        MbDumpDatabase.get(l, "label", "name"),
+                        getName("label_type", MbDumpDatabase.get(l, "label", "type")),
+                        MbDumpDatabase.get(l, "label", "begin_date_year"),
+                        MbDumpDatabase.get(l, "label", "begin_date_month"),
+                        MbDumpDatabase.get(l, "label", "begin_date_day"),
+                        MbDumpDatabase.get(l, "label", "end_date_year"),
+                        MbDumpDatabase.get(l, "label", "end_date_month"),
+                        MbDumpDatabase.get(l, "label", "end_date_day"),
+                        MbDumpDatabase.get(l, "label", "ended"),
+                        MbDumpDatabase.get(l, "label", "comment"),
+                        MbDumpDatabase.get(l, "label", "label_code"),
+                        lower(MbDumpDatabase.get(code, "iso_3166_1", "code")),
+                        MbDumpDatabase.get(area1, "area", "gid"),
+                        MbDumpDatabase.get(area1, "area", "name"));
+            }
+        }
+        return result;
+    }
+
+    MbDumpResultSet labelIPICODES(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("ipi", "label");
+        for (List<String> row : rows("label_ipi", "label", ids)) {
+            result.add(MbDumpDatabase.get(row, "label_ipi", "ipi"), MbDumpDatabase.get(row, "label_ipi", "label"));
+        }
+        return result;
+    }
+
+    // Release group index
+
+    MbDumpResultSet releasegroupTAGS(RowIds ids) throws IOException {
+        return tags("release_group_tag", "release_group", ids);
+    }
+
+    MbDumpResultSet releasegroupRELEASES(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("release_group", "gid", "name", "status");
+        for (List<String> r : rows("release", "release_group", ids)) {
+            result.add(MbDumpDatabase.get(r, "release", "release_group"),
+                    MbDumpDatabase.get(r, "release", "gid"),
+                    MbDumpDatabase.get(r, "release", "name"),
+                    getName("release_status", MbDumpDatabase.get(r, "release", "status")));
+        }
+        return result;
+    }
+
+    MbDumpResultSet releasegroupARTISTCREDITS(RowIds ids) throws IOException {
+        return artistCredits("releaseGroupId", rows("release_group", "id", ids), "release_group");
+    }
+
+    MbDumpResultSet releasegroupARTISTCREDITALIASES(RowIds ids) throws IOException {
+        return artistCreditAliases("releaseGroupId", rows("release_group", "id", ids), "release_group");
+    }
+
+    MbDumpResultSet releasegroupSECONDARYTYPES(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("type", "release_group");
+        for (List<String> row : rows("release_group_secondary_type_join", "release_group", ids)) {
+            String name = getName("release_group_secondary_type",
+                    MbDumpDatabase.get(row, "release_group_secondary_type_join", "secondary_type"));
+            if (name != null) {
+                result.add(name, MbDumpDatabase.get(row, "release_group_secondary_type_join", "release_group"));
+            }
+        }
+        return result;
+    }
+
+    MbDumpResultSet releasegroupRELEASEGROUPS(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("id", "gid", "name", "type", "comment");
+        for (List<String> rg : rows("release_group", "id", ids)) {
+            result.add(MbDumpDatabase.get(rg, "release_group", "id"),
+                    MbDumpDatabase.get(rg, "release_group", "gid"),
+                    MbDumpDatabase.get(rg, "release_group", "name"),
+                    getName("release_group_primary_type", MbDumpDatabase.get(rg, "release_group", "type")),
+                    MbDumpDatabase.get(rg, "release_group", "comment"));
+        }
+        return result;
+    }
+
+    // Release index
+
+    MbDumpResultSet releaseLABELINFOS(RowIds ids) throws IOException {
+        List<List<String>> releaseLabels = rows("release_label", "release", ids);
+        Map<Integer, List<List<String>>> labels = groupBy(
+                rows("label", "id", keys(releaseLabels, "release_label", "label")), "label", "id");
+        MbDumpResultSet result = new MbDumpResultSet("releaseId", "labelId", "labelName", "catalog_number");
+        for (List<String> rl : releaseLabels) {
+            List<List<String>> label = MbDumpDatabase.getRows(labels, MbDumpDatabase.get(rl, "release_label", "label"));
+            result.add(MbDumpDatabase.get(rl, "release_label", "release"),
+                    label.isEmpty() ? null : MbDumpDatabase.get(label.get(0), "label", "gid"),
+                    label.isEmpty() ? null : MbDumpDatabase.get(label.get(0), "label", "name"),
+                    MbDumpDatabase.get(rl, "release_label", "catalog_number"));
+        }
+        result.orderBy("catalog_number", "labelName");
+        return result;
+    }
+
+    MbDumpResultSet releaseMEDIUMS(RowIds ids) throws IOException {
+        List<List<String>> mediums = rows("medium", "release", ids);
+        Map<Integer, List<List<String>>> discIds = groupBy(
+                rows("medium_cdtoc", "medium", keys(mediums, "medium", "id")), "medium_cdtoc", "medium");
+        MbDumpResultSet result = new MbDumpResultSet("releaseId", "format", "numTracksOnMedium", "discidsOnMedium",
+                "position", "id");
+        for (List<String> m : mediums) {
+            result.add(MbDumpDatabase.get(m, "medium", "release"),
+                    getName("medium_format", MbDumpDatabase.get(m, "medium", "format")),
+                    MbDumpDatabase.get(m, "medium", "track_count"),
+                    String.valueOf(MbDumpDatabase.getRows(discIds, MbDumpDatabase.get(m, "medium", "id")).size()),
+                    MbDumpDatabase.get(m, "medium", "position"),
+                    MbDumpDatabase.get(m, "medium", "id"));
+        }
+        result.orderBy("releaseId", "position", "id");
+        return result;
+    }
+
+    MbDumpResultSet releaseARTISTCREDITS(RowIds ids) throws IOException {
+        return artistCredits("releaseId", rows("release", "id", ids), "release");
+    }
+
+    MbDumpResultSet releaseARTISTCREDITALIASES(RowIds ids) throws IOException {
+        return artistCreditAliases("releaseId", rows("release", "id", ids), "release");
+    }
+
+    MbDumpResultSet releaseSECONDARYTYPES(RowIds ids) throws IOException {
+        return secondaryTypes("rid", rows(MbDumpDatabase.TMP_RELEASE, "id", ids), MbDumpDatabase.TMP_RELEASE, "rg_id");
+    }
+
+    MbDumpResultSet releaseRELEASES(RowIds ids) throws IOException {
+        return table(MbDumpDatabase.TMP_RELEASE, "id", ids);
+    }
+
+    MbDumpResultSet releaseRELEASE_EVENTS(RowIds ids) throws IOException {
+        return table(MbDumpDatabase.TMP_RELEASE_EVENT, "release", ids);
+    }
+
+    MbDumpResultSet releaseTAGS(RowIds ids) throws IOException {
+        return tags("release_tag", "release", ids);
+    }
+
+    // Recording index
+
+    MbDumpResultSet recordingTRACKS(RowIds ids) throws IOException {
+        return table(MbDumpDatabase.TMP_TRACK, "recording", ids);
+    }
+
+    MbDumpResultSet recordingTAGS(RowIds ids) throws IOException {
+        return tags("recording_tag", "recording", ids);
+    }
+
+    MbDumpResultSet recordingISRCS(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("recordingId", "isrc", "id");
+        for (List<String> row : rows("isrc", "recording", ids)) {
+            result.add(MbDumpDatabase.get(row, "isrc", "recording"),
+                    MbDumpDatabase.get(row, "isrc", "isrc"),
+                    MbDumpDatabase.get(row, "isrc", "id"));
+        }
+        result.orderBy("recordingId", "id");
+        return result;
+    }
+
+    MbDumpResultSet recordingARTISTCREDITS(RowIds ids) throws IOException {
+        return artistCredits("recordingId", rows("recording", "id", ids), "recording");
+    }
+
+    MbDumpResultSet recordingARTISTCREDITALIASES(RowIds ids) throws IOException {
+        return artistCreditAliases("recordingId", rows("recording", "id", ids), "recording");
+    }
+
+    MbDumpResultSet recordingTRACKARTISTCREDITS(RowIds ids) throws IOException {
+        return artistCredits("id", rows(MbDumpDatabase.TMP_TRACK, "recording", ids), MbDumpDatabase.TMP_TRACK);
+    }
+
+    MbDumpResultSet recordingTRACKARTISTCREDITALIASES(RowIds ids) throws IOException {
+        // As the SQL, the ids are those of the tracks
+        return artistCreditAliases("recordingId", rows(MbDumpDatabase.TMP_TRACK, "recording", ids),
+                MbDumpDatabase.TMP_TRACK);
+    }
+
+    MbDumpResultSet recordingRELEASES(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("releaseKey", "releaseid", "releasename", "type", "status",
+                "tracks", "artist_credit", "rg_gid");
+        for (List<String> r : rows(MbDumpDatabase.TMP_RELEASE, "id", ids)) {
+            List<String> values = new ArrayList<String>();
+            for (String column : new String[]{"id", "gid", "name", "type", "status", "tracks", "artist_credit",
+                    "rg_gid"}) {
+                values.add(MbDumpDatabase.get(r, MbDumpDatabase.TMP_RELEASE, column));
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    MbDumpResultSet recordingRELEASE_EVENTS(RowIds ids) throws IOException {
+        return table(MbDumpDatabase.TMP_RELEASE_EVENT, "release", ids);
+    }
+
+    MbDumpResultSet recordingRELEASE_SECONDARY_TYPES(RowIds ids) throws IOException {
+        return secondaryTypes("releaseKey", rows(MbDumpDatabase.TMP_RELEASE, "id", ids), MbDumpDatabase.TMP_RELEASE,
+                "rg_id");
+    }
+
+    MbDumpResultSet recordingRELEASE_ARTIST_CREDITS(RowIds ids) throws IOException {
+        return artistCredits("releaseKey", rows("release", "id", ids), "release", ArtistIndex.VARIOUS_ARTIST_MBID);
+    }
+
+    MbDumpResultSet recordingRECORDINGS(RowIds ids) throws IOException {
+        MbDumpResultSet result = new MbDumpResultSet("recordingId", "trackid", "duration", "trackname", "comment",
+                "video");
+        for (List<String> re : rows("recording", "id", ids)) {
+            result.add(MbDumpDatabase.get(re, "recording", "id"),
+                    MbDumpDatabase.get(re, "recording", "gid"),
+                    MbDumpDatabase.get(re, "recording", "length"),
+                    MbDumpDatabase.get(re, "recording", "name"),
+                    MbDumpDatabase.get(re, "recording", "comment"),
+                    MbDumpDatabase.get(re, "recording", "video"));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,633 @@
+package org.musicbrainz.search.index;
+
+import org.apache.commons.lang.time.StopWatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins the table files of a MusicBrainz mbdump directory to build the artist, label, releasegroup, release and
+ * recording indexes without a database.
+ *
+ * Each table file is read in the order of the column it is joined on, sorted into a copy in the work directory when
+ * it is not already in that order, and the rows of a range or a list of keys are then read through a sparse index
+ * (see MbDumpTable). The small tables such as area, tag or the type tables are kept in memory. The temporary tables
+ * that CommonTables creates in the database are joined once from the sorted files with merge joins and written to
+ * the work directory.
+ *
+ * The indexes are unchanged, they run their statements on a connection from getConnection() which answers each
+ * statement by joining the rows of the tables (see MbDumpConnection). Columns are listed in the order they appear in
+ * the dump files, any extra columns at the end of a row (added by later schema changes) are ignored.
+ */
+public class MbDumpDatabase {
+
+    private static final List<String> SUPPORTED_INDEXES = Arrays.asList(
+            ArtistIndex.INDEX_NAME,
+            LabelIndex.INDEX_NAME,
+            ReleaseGroupIndex.INDEX_NAME,
+            ReleaseIndex.INDEX_NAME,
+            RecordingIndex.INDEX_NAME);
+
+    private static final String[] ALIAS_COLUMNS = {"name", "locale", "edits_pending", "last_updated", "type",
+            "sort_name", "begin_date_year", "begin_date_month", "begin_date_day", "end_date_year", "end_date_month",
+            "end_date_day", "primary_for_locale", "ended"};
+
+    static final String TMP_ARTISTCREDIT = "tmp_artistcredit";
+    static final String TMP_RELEASE = "tmp_release";
+    static final String TMP_RELEASE_EVENT = "tmp_release_event";
+    static final String TMP_TRACK = "tmp_track";
+
+    private static final Map<String, List<String>> COLUMNS = new HashMap<String, List<String>>();
+    static {
+        columns("replication_control", "id", "current_schema_sequence", "current_replication_sequence");
+
+        columns("area", "id", "gid", "name", "type");
+        columns("iso_3166_1", "area", "code");
+        columns("language", "id", "iso_code_2t", "iso_code_2b", "iso_code_1", "name", "frequency", "iso_code_3");
+        columns("script", "id", "iso_code", "iso_number", "name");
+        columns("gender", "id", "name");
+        columns("tag", "id", "name", "ref_count");
+
+        columns("artist", "id", "gid", "name", "sort_name", "begin_date_year", "begin_date_month", "begin_date_day",
+                "end_date_year", "end_date_month", "end_date_day", "type", "area", "gender", "comment",
+                "edits_pending", "last_updated", "ended", "begin_area", "end_area");
+        columns("artist_type", "id", "name");
+        columns("artist_alias", concat(new String[]{"id", "artist"}, ALIAS_COLUMNS));
+        columns("artist_alias_type", "id", "name");
+        columns("artist_ipi", "artist", "ipi");
+        columns("artist_isni", "artist", "isni");
+        columns("artist_tag", "artist", "tag", "count");
+        columns("artist_credit_name", "artist_credit", "position", "artist", "name", "join_phrase");
+
+        columns("label", "id", "gid", "name", "begin_date_year", "begin_date_month", "begin_date_day",
+                "end_date_year", "end_date_month", "end_date_day", "label_code", "type", "area", "comment",
+                "edits_pending", "last_updated", "ended");
+        columns("label_type", "id", "name");
+        columns("label_alias", concat(new String[]{"id", "label"}, ALIAS_COLUMNS));
+        columns("label_alias_type", "id", "name");
+        columns("label_ipi", "label", "ipi");
+        columns("label_tag", "label", "tag", "count");
+
+        columns("release_group", "id", "gid", "name", "artist_credit", "type", "comment");
+        columns("release_group_primary_type", "id", "name");
+        columns("release_group_secondary_type", "id", "name");
+        columns("release_group_secondary_type_join", "release_group", "secondary_type");
+        columns("release_group_tag", "release_group", "tag", "count");
+
+        columns("release", "id", "gid", "name", "artist_credit", "release_group", "status", "packaging", "language",
+                "script", "barcode", "comment", "edits_pending", "quality");
+        columns("release_meta", "id", "date_added", "info_url", "amazon_asin");
+        columns("release_status", "id", "name");
+        columns("release_packaging", "id", "name");
+        columns("release_country", "release", "country", "date_year", "date_month", "date_day");
+        columns("release_unknown_country", "release", "date_year", "date_month", "date_day");
+        columns("release_label", "id", "release", "label", "catalog_number");
+        columns("release_tag", "release", "tag", "count");
+        columns("medium", "id", "release", "position", "format", "name", "edits_pending", "last_updated",
+                "track_count");
+        columns("medium_format", "id", "name");
+        columns("medium_cdtoc", "id", "medium", "cdtoc");
+
+        columns("recording", "id", "gid", "name", "artist_credit", "length", "comment", "edits_pending",
+                "last_updated", "video");
+        columns("recording_tag", "recording", "tag", "count");
+        columns("isrc", "id", "recording", "isrc");
+        columns("track", "id", "gid", "recording", "medium", "position", "number", "name", "artist_credit",
+                "length", "edits_pending", "last_updated", "is_data_track");
+
+        // Joined from the tables above, as the temporary tables of CommonTables
+        columns(TMP_ARTISTCREDIT, "artist_credit", "pos", "joinphrase", "id", "artistId", "comment", "artistName",
+                "artistCreditName", "artistSortName");
+        columns(TMP_RELEASE, "id", "gid", "name", "barcode", "type", "rg_id", "rg_gid", "amazon_asin", "language",
+                "language_2t", "script", "status", "tracks", "artist_credit", "quality", "packaging", "comment");
+        columns(TMP_RELEASE_EVENT, "release", "country", "date_year", "date_month", "date_day", "gid", "name");
+        columns(TMP_TRACK, "id", "gid", "track_name", "duration", "recording", "track_position", "track_number",
+                "track_count", "release_id", "medium_position", "format", "artist_credit");
+    }
+
+    /* The column each temporary table is read by */
+    private static final Map<String, String> TMP_TABLE_KEYS = new HashMap<String, String>();
+    static {
+        TMP_TABLE_KEYS.put(TMP_ARTISTCREDIT, "artist_credit");
+        TMP_TABLE_KEYS.put(TMP_RELEASE, "id");
+        TMP_TABLE_KEYS.put(TMP_RELEASE_EVENT, "release");
+        TMP_TABLE_KEYS.put(TMP_TRACK, "recording");
+    }
+
+    private final File dumpDir;
+    private final File workDir;
+    private final Map<String, MbDumpTable> tables = new HashMap<String, MbDumpTable>();
+    private final Map<String, Object> tableLocks = new HashMap<String, Object>();
+    private final Map<String, Map<Integer, List<List<String>>>> lookups
+            = new HashMap<String, Map<Integer, List<List<String>>>>();
+
+    /**
+     * @param dumpDir the mbdump directory
+     * @param workDir directory for the sorted and joined table files, deleted by delete()
+     */
+    public MbDumpDatabase(File dumpDir, File workDir) {
+        this.dumpDir = dumpDir;
+        this.workDir = workDir;
+    }
+
+    /**
+     * Only these indexes can be built from a dump
+     *
+     * @param indexName
+     * @return
+     */
+    public static boolean isSupported(String indexName) {
+        return SUPPORTED_INDEXES.contains(indexName);
+    }
+
+    /**
+     * Check the dump directory and create the work directory
+     *
+     * @throws IOException
+     */
+    public void open() throws IOException {
+        if (!dumpDir.isDirectory()) {
+            throw new IOException("mbdump directory not found:" + dumpDir.getPath());
+        }
+        if (!workDir.isDirectory() && !workDir.mkdirs()) {
+            throw new IOException("Unable to create " + workDir.getPath());
+        }
+    }
+
+    /**
+     * @return a new connection, each concurrent build or worker should use its own
+     */
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(MbDumpDatabase.class.getClassLoader(),
+                new Class[]{Connection.class, MbDumpConnection.DumpConnection.class}, new MbDumpConnection(this));
+    }
+
+    /**
+     * Delete the work directory with the sorted and joined table files
+     */
+    public void delete() {
+        File[] files = workDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        workDir.delete();
+        synchronized (tables) {
+            tables.clear();
+        }
+    }
+
+    /**
+     * @param table
+     * @return the names of the columns of the table
+     */
+    static List<String> getColumns(String table) {
+        List<String> columns = COLUMNS.get(table);
+        if (columns == null) {
+            throw new IllegalArgumentException("Unknown table " + table);
+        }
+        return columns;
+    }
+
+    static int getColumn(String table, String column) {
+        int index = getColumns(table).indexOf(column);
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown column " + table + "." + column);
+        }
+        return index;
+    }
+
+    static boolean isTemporaryTable(String table) {
+        return TMP_TABLE_KEYS.containsKey(table);
+    }
+
+    /**
+     * @param table a temporary table
+     * @return the table in the order of the column it is read by
+     * @throws IOException
+     */
+    MbDumpTable getTemporaryTable(String table) throws IOException {
+        return getTable(table, TMP_TABLE_KEYS.get(table));
+    }
+
+    /**
+     * Get a table in the order of the given column, the first call sorts the table file or joins the temporary table
+     *
+     * @param table
+     * @param keyColumn
+     * @return
+     * @throws IOException
+     */
+    MbDumpTable getTable(String table, String keyColumn) throws IOException {
+        String name = table + "." + keyColumn;
+        Object lock;
+        synchronized (tables) {
+            MbDumpTable sortedTable = tables.get(name);
+            if (sortedTable != null) {
+                return sortedTable;
+            }
+            lock = tableLocks.get(name);
+            if (lock == null) {
+                lock = new Object();
+                tableLocks.put(name, lock);
+            }
+        }
+
+        // Only one build sorts a table, other tables can be sorted by other builds meanwhile
+        synchronized (lock) {
+            synchronized (tables) {
+                MbDumpTable sortedTable = tables.get(name);
+                if (sortedTable != null) {
+                    return sortedTable;
+                }
+            }
+            StopWatch clock = new StopWatch();
+            clock.start();
+            File file;
+            if (table.equals(TMP_ARTISTCREDIT)) {
+                file = joinArtistCredits();
+            } else if (table.equals(TMP_RELEASE)) {
+                file = joinReleases();
+            } else if (table.equals(TMP_RELEASE_EVENT)) {
+                file = joinReleaseEvents();
+            } else if (table.equals(TMP_TRACK)) {
+                file = joinTracks();
+            } else {
+                file = getDumpFile(table);
+            }
+            MbDumpTable sortedTable = MbDumpTable.open(file, getColumn(table, keyColumn), new File(workDir, name));
+            clock.stop();
+            System.out.println(name + ":" + sortedTable.getNoOfRows() + " rows:" + Utils.formatClock(clock));
+            synchronized (tables) {
+                tables.put(name, sortedTable);
+            }
+            return sortedTable;
+        }
+    }
+
+    /**
+     * Get the rows of a small table kept in memory, by the value of its first column
+     *
+     * @param table
+     * @return
+     * @throws IOException
+     */
+    synchronized Map<Integer, List<List<String>>> getLookup(String table) throws IOException {
+        Map<Integer, List<List<String>>> lookup = lookups.get(table);
+        if (lookup == null) {
+            lookup = new HashMap<Integer, List<List<String>>>();
+            MbDumpReader reader = new MbDumpReader(getDumpFile(table));
+            try {
+                List<String> row;
+                while ((row = reader.readRow()) != null) {
+                    if (row.get(0) == null) {
+                        continue;
+                    }
+                    Integer key = Integer.valueOf(row.get(0));
+                    List<List<String>> rows = lookup.get(key);
+                    if (rows == null) {
+                        rows = new ArrayList<List<String>>(1);
+                        lookup.put(key, rows);
+                    }
+                    rows.add(row);
+                }
+            }
+            finally {
+                reader.close();
+            }
+            lookups.put(table, lookup);
+        }
+        return lookup;
+    }
+
+    /**
+     * @return the file of the table in the dump directory, or an empty file for tables not in the dump
+     */
+    private File getDumpFile(String table) throws IOException {
+        File file = new File(dumpDir, table);
+        if (file.isFile()) {
+            return file;
+        }
+        File emptyFile = new File(workDir, table + ".empty");
+        if (!emptyFile.isFile()) {
+            System.out.println(table + ":No dump file, table is empty");
+            new MbDumpWriter(emptyFile).close();
+        }
+        return emptyFile;
+    }
+
+    /**
+     * Artist credit names with the details of their artist
+     */
+    private File joinArtistCredits() throws IOException {
+        File file = new File(workDir, TMP_ARTISTCREDIT);
+        final MbDumpWriter writer = new MbDumpWriter(file);
+        try {
+            mergeJoin(getTable("artist_credit_name", "artist"), getTable("artist", "id"), new JoinHandler() {
+                public void join(List<String> acn, List<List<String>> artists) throws IOException {
+                    for (List<String> a : artists) {
+                        writer.writeRow(Arrays.asList(
+                                get(acn, "artist_credit_name", "artist_credit"),
+                                get(acn, "artist_credit_name", "position"),
+                                get(acn, "artist_credit_name", "join_phrase"),
+                                get(a, "artist", "id"),
+                                get(a, "artist", "gid"),
+                                get(a, "artist", "comment"),
+                                get(a, "artist", "name"),
+                                get(acn, "artist_credit_name", "name"),
+                                get(a, "artist", "sort_name")));
+                    }
+                }
+            });
+        }
+        finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * Releases with the details of their release group, meta, language, script, status, packaging and their number
+     * of tracks, joined in three passes: release group, then meta and then mediums
+     */
+    private File joinReleases() throws IOException {
+        final Map<Integer, List<List<String>>> primaryTypes = getLookup("release_group_primary_type");
+        final Map<Integer, List<List<String>>> statuses = getLookup("release_status");
+        final Map<Integer, List<List<String>>> languages = getLookup("language");
+        final Map<Integer, List<List<String>>> scripts = getLookup("script");
+        final Map<Integer, List<List<String>>> packagings = getLookup("release_packaging");
+
+        File releaseGroupsFile = new File(workDir, TMP_RELEASE + ".1");
+        final MbDumpWriter releaseGroupsWriter = new MbDumpWriter(releaseGroupsFile);
+        try {
+            mergeJoin(getTable("release", "release_group"), getTable("release_group", "id"), new JoinHandler() {
+                public void join(List<String> r, List<List<String>> releaseGroups) throws IOException {
+                    List<String> rg = releaseGroups.isEmpty() ? null : releaseGroups.get(0);
+                    List<String> language = getRow(languages, get(r, "release", "language"));
+                    releaseGroupsWriter.writeRow(Arrays.asList(
+                            get(r, "release", "id"),
+                            get(r, "release", "gid"),
+                            get(r, "release", "name"),
+                            get(r, "release", "barcode"),
+                            getValue(primaryTypes, get(rg, "release_group", "type"),
+                                    "release_group_primary_type", "name"),
+                            get(rg, "release_group", "id"),
+                            get(rg, "release_group", "gid"),
+                            null,
+                            get(language, "language", "iso_code_3"),
+                            get(language, "language", "iso_code_2t"),
+                            getValue(scripts, get(r, "release", "script"), "script", "iso_code"),
+                            getValue(statuses, get(r, "release", "status"), "release_status", "name"),
+                            null,
+                            get(r, "release", "artist_credit"),
+                            get(r, "release", "quality"),
+                            getValue(packagings, get(r, "release", "packaging"), "release_packaging", "name"),
+                            get(r, "release", "comment")));
+                }
+            });
+        }
+        finally {
+            releaseGroupsWriter.close();
+        }
+
+        File metaFile = new File(workDir, TMP_RELEASE + ".2");
+        final MbDumpWriter metaWriter = new MbDumpWriter(metaFile);
+        try {
+            mergeJoin(MbDumpTable.open(releaseGroupsFile, getColumn(TMP_RELEASE, "id"),
+                    new File(workDir, TMP_RELEASE + ".1.id")), getTable("release_meta", "id"), new JoinHandler() {
+                public void join(List<String> r, List<List<String>> metas) throws IOException {
+                    List<String> release = new ArrayList<String>(r);
+                    if (!metas.isEmpty()) {
+                        release.set(getColumn(TMP_RELEASE, "amazon_asin"),
+                                get(metas.get(0), "release_meta", "amazon_asin"));
+                    }
+                    metaWriter.writeRow(release);
+                }
+            });
+        }
+        finally {
+            metaWriter.close();
+        }
+
+        File file = new File(workDir, TMP_RELEASE);
+        final MbDumpWriter writer = new MbDumpWriter(file);
+        try {
+            MbDumpTable releases = MbDumpTable.open(metaFile, getColumn(TMP_RELEASE, "id"),
+                    new File(workDir, TMP_RELEASE + ".2.id"));
+            mergeJoin(releases,
+                    getTable("medium", "release"), new JoinHandler() {
+                public void join(List<String> r, List<List<String>> mediums) throws IOException {
+                    Integer tracks = null;
+                    for (List<String> m : mediums) {
+                        String trackCount = get(m, "medium", "track_count");
+                        if (trackCount != null) {
+                            tracks = (tracks != null ? tracks : 0) + Integer.parseInt(trackCount);
+                        }
+                    }
+                    List<String> release = new ArrayList<String>(r);
+                    release.set(getColumn(TMP_RELEASE, "tracks"), tracks != null ? tracks.toString() : null);
+                    writer.writeRow(release);
+                }
+            });
+        }
+        finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * Release countries with the code and details of their area, and releases with an unknown country
+     */
+    private File joinReleaseEvents() throws IOException {
+        Map<Integer, List<List<String>>> areas = getLookup("area");
+        Map<Integer, List<List<String>>> codes = getLookup("iso_3166_1");
+
+        File file = new File(workDir, TMP_RELEASE_EVENT);
+        MbDumpWriter writer = new MbDumpWriter(file);
+        try {
+            MbDumpReader reader = new MbDumpReader(getDumpFile("release_country"));
+            try {
+                List<String> rc;
+                while ((rc = reader.readRow()) != null) {
+                    String country = get(rc, "release_country", "country");
+                    List<String> area = getRow(areas, country);
+                    List<List<String>> areaCodes = getRows(codes, country);
+                    if (areaCodes.isEmpty()) {
+                        areaCodes = Collections.<List<String>>singletonList(null);
+                    }
+                    for (List<String> code : areaCodes) {
+                        writer.writeRow(Arrays.asList(
+                                get(rc, "release_country", "release"),
+                                get(code, "iso_3166_1", "code"),
+                                get(rc, "release_country", "date_year"),
+                                get(rc, "release_country", "date_month"),
+                                get(rc, "release_country", "date_day"),
+                                get(area, "area", "gid"),
+                                get(area, "area", "name")));
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+
+            reader = new MbDumpReader(getDumpFile("release_unknown_country"));
+            try {
+                List<String> ruc;
+                while ((ruc = reader.readRow()) != null) {
+                    writer.writeRow(Arrays.asList(
+                            get(ruc, "release_unknown_country", "release"),
+                            null,
+                            get(ruc, "release_unknown_country", "date_year"),
+                            get(ruc, "release_unknown_country", "date_month"),
+                            get(ruc, "release_unknown_country", "date_day"),
+                            null,
+                            null));
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * Tracks with the details of their medium
+     */
+    private File joinTracks() throws IOException {
+        final Map<Integer, List<List<String>>> formats = getLookup("medium_format");
+
+        File file = new File(workDir, TMP_TRACK);
+        final MbDumpWriter writer = new MbDumpWriter(file);
+        try {
+            mergeJoin(getTable("track", "medium"), getTable("medium", "id"), new JoinHandler() {
+                public void join(List<String> t, List<List<String>> mediums) throws IOException {
+                    for (List<String> m : mediums) {
+                        writer.writeRow(Arrays.asList(
+                                get(t, "track", "id"),
+                                get(t, "track", "gid"),
+                                get(t, "track", "name"),
+                                get(t, "track", "length"),
+                                get(t, "track", "recording"),
+                                get(t, "track", "position"),
+                                get(t, "track", "number"),
+                                get(m, "medium", "track_count"),
+                                get(m, "medium", "release"),
+                                get(m, "medium", "position"),
+                                getValue(formats, get(m, "medium", "format"), "medium_format", "name"),
+                                get(t, "track", "artist_credit")));
+                    }
+                }
+            });
+        }
+        finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * Called with each row of the left table and the rows of the right table with the same key
+     */
+    private interface JoinHandler {
+        void join(List<String> row, List<List<String>> matches) throws IOException;
+    }
+
+    /**
+     * Join two tables in the order of their key, reading each of them once
+     */
+    private static void mergeJoin(MbDumpTable left, MbDumpTable right, JoinHandler handler) throws IOException {
+        MbDumpTable.Scanner leftRows = left.scan();
+        MbDumpTable.Scanner rightRows = right.scan();
+        try {
+            List<String> rightRow = rightRows.next();
+            List<List<String>> matches = new ArrayList<List<String>>();
+            Integer matchesKey = null;
+            List<String> leftRow;
+            while ((leftRow = leftRows.next()) != null) {
+                int key = Integer.parseInt(leftRow.get(left.getKeyColumn()));
+                if (matchesKey == null || matchesKey != key) {
+                    matches = new ArrayList<List<String>>();
+                    matchesKey = key;
+                    while (rightRow != null && Integer.parseInt(rightRow.get(right.getKeyColumn())) <= key) {
+                        if (Integer.parseInt(rightRow.get(right.getKeyColumn())) == key) {
+                            matches.add(rightRow);
+                        }
+                        rightRow = rightRows.next();
+                    }
+                }
+                handler.join(leftRow, matches);
+            }
+        }
+        finally {
+            leftRows.close();
+            rightRows.close();
+        }
+    }
+
+    /**
+     * @param row a row of the table, or null for no row
+     * @param table
+     * @param column
+     * @return the value of the column, null if there is no row or the row does not have the column
+     */
+    static String get(List<String> row, String table, String column) {
+        if (row == null) {
+            return null;
+        }
+        int index = getColumn(table, column);
+        return index < row.size() ? row.get(index) : null;
+    }
+
+    /**
+     * @param lookup
+     * @param key
+     * @return the rows with the key, empty if none or the key is null
+     */
+    static List<List<String>> getRows(Map<Integer, List<List<String>>> lookup, String key) {
+        List<List<String>> rows = key != null ? lookup.get(Integer.valueOf(key)) : null;
+        return rows != null ? rows : Collections.<List<String>>emptyList();
+    }
+
+    /**
+     * @param lookup
+     * @param key
+     * @return the first row with the key, null if none
+     */
+    static List<String> getRow(Map<Integer, List<List<String>>> lookup, String key) {
+        List<List<String>> rows = getRows(lookup, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * @return the value of a column of the first row with the key, null if none
+     */
+    static String getValue(Map<Integer, List<List<String>>> lookup, String key, String table, String column) {
+        return get(getRow(lookup, key), table, column);
+    }
+
+    private static void columns(String table, String... columns) {
+        COLUMNS.put(table, Arrays.asList(columns));
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+        String[] result = new String[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
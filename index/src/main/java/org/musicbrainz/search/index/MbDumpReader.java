@@ -0,0 +1,149 @@
+package org.musicbrainz.search.index;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the rows of a table file from a MusicBrainz mbdump directory
+ *
+ * Each file is the output of PostgreSQL COPY in text format, one row per line with columns separated by tabs.
+ * Null is written as \N and backslash, tab, newline and carriage return within a value are escaped with a backslash.
+ */
+public class MbDumpReader implements Closeable {
+
+    public static final String NULL_VALUE = "\\N";
+
+    private final BufferedReader reader;
+    private int lineNumber;
+
+    public MbDumpReader(File file) throws IOException {
+        this(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+    }
+
+    public MbDumpReader(Reader reader) {
+        this.reader = new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * Read the next row
+     *
+     * @return the unescaped column values, null for a database null, or null at the end of the file
+     * @throws IOException
+     */
+    public List<String> readRow() throws IOException {
+        String line = reader.readLine();
+        if (line == null || line.equals("\\.")) {
+            return null;
+        }
+        lineNumber++;
+        return parseRow(line);
+    }
+
+    /**
+     * Split a line of a dump file into its unescaped column values
+     *
+     * @param line
+     * @return the column values, null for a database null
+     */
+    public static List<String> parseRow(String line) {
+        List<String> columns = new ArrayList<String>();
+        int start = 0;
+        while (true) {
+            int end = line.indexOf('\t', start);
+            if (end == -1) {
+                columns.add(unescape(line.substring(start)));
+                break;
+            }
+            columns.add(unescape(line.substring(start, end)));
+            start = end + 1;
+        }
+        return columns;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Unescape a single column value
+     *
+     * @param value
+     * @return
+     */
+    public static String unescape(String value) {
+        if (value.equals(NULL_VALUE)) {
+            return null;
+        }
+        int escape = value.indexOf('\\');
+        if (escape == -1) {
+            return value;
+        }
+
+        StringBuilder sb = new StringBuilder(value.length());
+        sb.append(value, 0, escape);
+        for (int i = escape; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i == value.length() - 1) {
+                sb.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'v':
+                    sb.append('\u000B');
+                    break;
+                case 'x': {
+                    int end = i + 1;
+                    while (end < value.length() && end < i + 3 && Character.digit(value.charAt(end), 16) != -1) {
+                        end++;
+                    }
+                    if (end == i + 1) {
+                        sb.append(next);
+                    } else {
+                        sb.append((char) Integer.parseInt(value.substring(i + 1, end), 16));
+                        i = end - 1;
+                    }
+                    break;
+                }
+                default:
+                    if (next >= '0' && next <= '7') {
+                        int end = i;
+                        while (end < value.length() && end < i + 3 && value.charAt(end) >= '0' && value.charAt(end) <= '7') {
+                            end++;
+                        }
+                        sb.append((char) Integer.parseInt(value.substring(i, end), 8));
+                        i = end - 1;
+                    } else {
+                        sb.append(next);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,187 @@
+package org.musicbrainz.search.index;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The rows answering a statement on a connection to a mbdump directory
+ *
+ * Only the ResultSet methods used by the indexes are supported: moving forward through the rows and getting a value
+ * as a string, int, long or boolean by column label or index. Each value is kept as the string written in the dump.
+ */
+class MbDumpResultSet implements InvocationHandler {
+
+    private final List<String> labels;
+    private final Map<String, Integer> columns = new HashMap<String, Integer>();
+    private final List<List<String>> rows = new ArrayList<List<String>>();
+    private int row = -1;
+    private boolean wasNull;
+
+    /**
+     * @param labels the column labels, matched ignoring case as by the database
+     */
+    MbDumpResultSet(String... labels) {
+        this(Arrays.asList(labels));
+    }
+
+    MbDumpResultSet(List<String> labels) {
+        this.labels = labels;
+        for (int i = 0; i < labels.size(); i++) {
+            columns.put(labels.get(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    void add(List<String> values) {
+        rows.add(values);
+    }
+
+    void add(String... values) {
+        add(Arrays.asList(values));
+    }
+
+    List<List<String>> getRows() {
+        return rows;
+    }
+
+    /**
+     * Sort the rows by the given columns, as ORDER BY does: columns only holding integers are compared as integers and
+     * nulls come last
+     *
+     * @param labels
+     */
+    void orderBy(String... labels) {
+        final int[] orderColumns = new int[labels.length];
+        final boolean[] numeric = new boolean[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            orderColumns[i] = getColumn(labels[i]);
+            numeric[i] = isNumeric(orderColumns[i]);
+        }
+        Collections.sort(rows, new Comparator<List<String>>() {
+            public int compare(List<String> row1, List<String> row2) {
+                for (int i = 0; i < orderColumns.length; i++) {
+                    String value1 = row1.get(orderColumns[i]);
+                    String value2 = row2.get(orderColumns[i]);
+                    int result;
+                    if (value1 == null || value2 == null) {
+                        result = value1 == null ? (value2 == null ? 0 : 1) : -1;
+                    } else if (numeric[i]) {
+                        long number1 = Long.parseLong(value1);
+                        long number2 = Long.parseLong(value2);
+                        result = number1 < number2 ? -1 : (number1 == number2 ? 0 : 1);
+                    } else {
+                        result = value1.compareTo(value2);
+                    }
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return 0;
+            }
+        });
+    }
+
+    private boolean isNumeric(int column) {
+        for (List<String> values : rows) {
+            String value = values.get(column);
+            if (value != null) {
+                try {
+                    Long.parseLong(value);
+                }
+                catch (NumberFormatException nfe) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int getColumn(String label) {
+        Integer column = columns.get(label.toLowerCase(Locale.ROOT));
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown column " + label);
+        }
+        return column;
+    }
+
+    ResultSet toResultSet() {
+        return (ResultSet) Proxy.newProxyInstance(MbDumpResultSet.class.getClassLoader(),
+                new Class[]{ResultSet.class}, this);
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("next")) {
+            if (row < rows.size()) {
+                row++;
+            }
+            return row < rows.size();
+        }
+        else if (name.equals("first")) {
+            row = 0;
+            return !rows.isEmpty();
+        }
+        else if (name.equals("wasNull")) {
+            return wasNull;
+        }
+        else if (name.equals("close")) {
+            return null;
+        }
+        else if (name.equals("isClosed")) {
+            return false;
+        }
+        else if (name.equals("findColumn")) {
+            return getColumn((String) args[0]) + 1;
+        }
+        else if (name.equals("getString")) {
+            return getValue(args[0]);
+        }
+        else if (name.equals("getInt")) {
+            String value = getValue(args[0]);
+            return value != null ? Integer.parseInt(value) : 0;
+        }
+        else if (name.equals("getLong")) {
+            String value = getValue(args[0]);
+            return value != null ? Long.parseLong(value) : 0L;
+        }
+        else if (name.equals("getBoolean")) {
+            String value = getValue(args[0]);
+            return value != null && (value.equals("t") || value.equals("true") || value.equals("1"));
+        }
+        else if (name.equals("getObject")) {
+            return getValue(args[0]);
+        }
+        else if (name.equals("toString")) {
+            return "MbDumpResultSet" + labels;
+        }
+        else if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        }
+        else if (name.equals("equals")) {
+            return proxy == args[0];
+        }
+        throw new SQLFeatureNotSupportedException("ResultSet." + name + " not supported on an mbdump directory");
+    }
+
+    private String getValue(Object column) throws SQLException {
+        if (row < 0 || row >= rows.size()) {
+            throw new SQLException("No current row");
+        }
+        int index = column instanceof Integer ? (Integer) column - 1 : getColumn((String) column);
+        List<String> values = rows.get(row);
+        String value = index < values.size() ? values.get(index) : null;
+        wasNull = value == null;
+        return value;
+    }
+}
@@ -0,0 +1,570 @@
+package org.musicbrainz.search.index;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * A table file of a MusicBrainz mbdump directory in the order of an integer key column, with a sparse index of the
+ * position of every BLOCK_SIZE-th row so that the rows of a key or of a range of keys are read without a scan.
+ *
+ * Files already in key order, usually the case when the key is the id, are used as they are. Others are sorted into
+ * a copy: runs of RUN_SIZE rows are sorted in memory and written to disk, then merged. Rows with the same key keep
+ * their order in the file, rows with a null key can't be joined on and are skipped.
+ */
+public class MbDumpTable {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* Rows between two entries of the sparse index, read together */
+    private static final int BLOCK_SIZE = 128;
+
+    /* Rows sorted in memory at a time when sorting a file */
+    private static final int RUN_SIZE = 200000;
+
+    /* Blocks kept in memory by each reader, the rows of consecutive keys are often in the same block */
+    private static final int CACHED_BLOCKS = 64;
+
+    private final File file;
+    private final int keyColumn;
+    private final int[] blockKeys;
+    private final long[] blockOffsets;
+    private final int noOfRows;
+    private final int maxKey;
+
+    private MbDumpTable(File file, int keyColumn, List<Integer> blockKeys, List<Long> blockOffsets,
+                        int noOfRows, int maxKey) {
+        this.file = file;
+        this.keyColumn = keyColumn;
+        this.blockKeys = new int[blockKeys.size()];
+        for (int i = 0; i < this.blockKeys.length; i++) {
+            this.blockKeys[i] = blockKeys.get(i);
+        }
+        this.blockOffsets = new long[blockOffsets.size()];
+        for (int i = 0; i < this.blockOffsets.length; i++) {
+            this.blockOffsets[i] = blockOffsets.get(i);
+        }
+        this.noOfRows = noOfRows;
+        this.maxKey = maxKey;
+    }
+
+    /**
+     * Open a table file in the order of the key column, sorting it into sortedFile if it is not already in that order
+     *
+     * @param file
+     * @param keyColumn
+     * @param sortedFile
+     * @return
+     * @throws IOException
+     */
+    public static MbDumpTable open(File file, int keyColumn, File sortedFile) throws IOException {
+        MbDumpTable table = index(file, keyColumn);
+        if (table == null) {
+            sort(file, keyColumn, sortedFile);
+            table = index(sortedFile, keyColumn);
+        }
+        return table;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getKeyColumn() {
+        return keyColumn;
+    }
+
+    /**
+     * @return number of rows with a key
+     */
+    public int getNoOfRows() {
+        return noOfRows;
+    }
+
+    /**
+     * @return the largest key, 0 if the table is empty
+     */
+    public int getMaxKey() {
+        return maxKey;
+    }
+
+    /**
+     * @return a new reader, a reader is not thread safe so each connection reads the table with its own
+     */
+    public Reader openReader() {
+        return new Reader();
+    }
+
+    /**
+     * @return a reader of all the rows with a key in key order
+     * @throws IOException
+     */
+    public Scanner scan() throws IOException {
+        return new Scanner();
+    }
+
+    /**
+     * Build the sparse index of a file
+     *
+     * @return the table, or null if the file is not in key order
+     */
+    private static MbDumpTable index(File file, int keyColumn) throws IOException {
+        List<Integer> blockKeys = new ArrayList<Integer>();
+        List<Long> blockOffsets = new ArrayList<Long>();
+        int noOfRows = 0;
+        int lastKey = Integer.MIN_VALUE;
+        LineInput in = new LineInput(new FileInputStream(file));
+        try {
+            long offset = in.getOffset();
+            String line;
+            while ((line = in.readLine()) != null) {
+                Integer key = getKey(line, keyColumn, file, in.getLineNumber());
+                if (key != null) {
+                    if (key < lastKey) {
+                        return null;
+                    }
+                    if (noOfRows % BLOCK_SIZE == 0) {
+                        blockKeys.add(key);
+                        blockOffsets.add(offset);
+                    }
+                    lastKey = key;
+                    noOfRows++;
+                }
+                offset = in.getOffset();
+            }
+            blockOffsets.add(offset);
+        }
+        finally {
+            in.close();
+        }
+        return new MbDumpTable(file, keyColumn, blockKeys, blockOffsets, noOfRows, noOfRows > 0 ? lastKey : 0);
+    }
+
+    /**
+     * Sort the rows of a file with a key into sortedFile
+     */
+    private static void sort(File file, int keyColumn, File sortedFile) throws IOException {
+        List<File> runs = new ArrayList<File>();
+        try {
+            List<KeyedLine> run = new ArrayList<KeyedLine>();
+            LineInput in = new LineInput(new FileInputStream(file));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Integer key = getKey(line, keyColumn, file, in.getLineNumber());
+                    if (key != null) {
+                        run.add(new KeyedLine(key, line));
+                        if (run.size() == RUN_SIZE) {
+                            runs.add(writeRun(run, sortedFile, runs.size()));
+                            run.clear();
+                        }
+                    }
+                }
+                if (!run.isEmpty() || runs.isEmpty()) {
+                    runs.add(writeRun(run, sortedFile, runs.size()));
+                }
+            }
+            finally {
+                in.close();
+            }
+            merge(runs, keyColumn, sortedFile);
+        }
+        finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    private static File writeRun(List<KeyedLine> run, File sortedFile, int runNo) throws IOException {
+        // Collections.sort is stable, so rows with the same key keep their order
+        Collections.sort(run, new Comparator<KeyedLine>() {
+            public int compare(KeyedLine line1, KeyedLine line2) {
+                return line1.key < line2.key ? -1 : (line1.key == line2.key ? 0 : 1);
+            }
+        });
+        File runFile = new File(sortedFile.getPath() + ".run" + runNo);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(runFile), UTF8), 1 << 16);
+        try {
+            for (KeyedLine line : run) {
+                writer.write(line.line);
+                writer.write('\n');
+            }
+        }
+        finally {
+            writer.close();
+        }
+        return runFile;
+    }
+
+    /**
+     * Merge the sorted runs, taking rows with the same key from the earlier run first
+     */
+    private static void merge(List<File> runFiles, int keyColumn, File sortedFile) throws IOException {
+        PriorityQueue<Run> queue = new PriorityQueue<Run>(Math.max(runFiles.size(), 1), new Comparator<Run>() {
+            public int compare(Run run1, Run run2) {
+                if (run1.key != run2.key) {
+                    return run1.key < run2.key ? -1 : 1;
+                }
+                return run1.runNo - run2.runNo;
+            }
+        });
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(sortedFile), UTF8), 1 << 16);
+        try {
+            for (int i = 0; i < runFiles.size(); i++) {
+                Run run = new Run(runFiles.get(i), i, keyColumn);
+                if (run.next()) {
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                writer.write(run.line);
+                writer.write('\n');
+                if (run.next()) {
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            }
+        }
+        finally {
+            for (Run run : queue) {
+                run.close();
+            }
+            writer.close();
+        }
+    }
+
+    /**
+     * @return the key of a line, null if the key is null
+     */
+    private static Integer getKey(String line, int keyColumn, File file, int lineNumber) throws IOException {
+        int start = 0;
+        for (int i = 0; i < keyColumn; i++) {
+            start = line.indexOf('\t', start) + 1;
+            if (start == 0) {
+                throw new IOException(file.getPath() + ":" + lineNumber + ":No column " + keyColumn);
+            }
+        }
+        int end = line.indexOf('\t', start);
+        String value = end == -1 ? line.substring(start) : line.substring(start, end);
+        if (value.equals(MbDumpReader.NULL_VALUE)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        }
+        catch (NumberFormatException nfe) {
+            throw new IOException(file.getPath() + ":" + lineNumber + ":Invalid key:" + value);
+        }
+    }
+
+    private static Integer getKey(List<String> row, int keyColumn) {
+        String value = keyColumn < row.size() ? row.get(keyColumn) : null;
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private static class KeyedLine {
+        private final int key;
+        private final String line;
+
+        KeyedLine(int key, String line) {
+            this.key = key;
+            this.line = line;
+        }
+    }
+
+    private static class Run implements Closeable {
+        private final BufferedReader reader;
+        private final File file;
+        private final int runNo;
+        private final int keyColumn;
+        private int lineNumber;
+        private String line;
+        private int key;
+
+        Run(File file, int runNo, int keyColumn) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8), 1 << 16);
+            this.file = file;
+            this.runNo = runNo;
+            this.keyColumn = keyColumn;
+        }
+
+        boolean next() throws IOException {
+            line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+            key = getKey(line, keyColumn, file, ++lineNumber);
+            return true;
+        }
+
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the lines of a dump file, keeping track of the position of each line in the file
+     */
+    private static class LineInput implements Closeable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+        private byte[] line = new byte[1024];
+        private int lineLength;
+        private long offset;
+        private int lineNumber;
+
+        LineInput(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the line, without its end of line, or null at the end of the file
+         * @throws IOException
+         */
+        String readLine() throws IOException {
+            lineLength = 0;
+            boolean endOfLine = false;
+            while (!endOfLine) {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        break;
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position - start);
+                if (position < limit) {
+                    position++;
+                    endOfLine = true;
+                }
+            }
+            if (!endOfLine && lineLength == 0) {
+                return null;
+            }
+            String result = new String(line, 0, lineLength, UTF8);
+            if (result.equals("\\.")) {
+                return null;
+            }
+            offset += lineLength + (endOfLine ? 1 : 0);
+            lineNumber++;
+            return result;
+        }
+
+        private void append(int start, int length) {
+            if (lineLength + length > line.length) {
+                byte[] newLine = new byte[Math.max(line.length * 2, lineLength + length)];
+                System.arraycopy(line, 0, newLine, 0, lineLength);
+                line = newLine;
+            }
+            System.arraycopy(buffer, start, line, lineLength, length);
+            lineLength += length;
+        }
+
+        /**
+         * @return the position in the file of the next line
+         */
+        long getOffset() {
+            return offset;
+        }
+
+        int getLineNumber() {
+            return lineNumber;
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads all the rows with a key in key order
+     */
+    public class Scanner implements Closeable {
+        private final MbDumpReader reader;
+
+        private Scanner() throws IOException {
+            reader = new MbDumpReader(file);
+        }
+
+        /**
+         * @return the next row, or null at the end of the table
+         * @throws IOException
+         */
+        public List<String> next() throws IOException {
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                if (getKey(row, keyColumn) != null) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the rows of given keys
+     */
+    public class Reader implements Closeable {
+        private RandomAccessFile input;
+        private final Map<Integer, Block> cache = new LinkedHashMap<Integer, Block>(CACHED_BLOCKS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+                return size() > CACHED_BLOCKS;
+            }
+        };
+
+        private Reader() {
+        }
+
+        /**
+         * @param ids
+         * @return the rows with the given keys, in key order
+         * @throws IOException
+         */
+        public List<List<String>> read(RowIds ids) throws IOException {
+            if (ids.getIds() == null) {
+                return read(ids.getMin(), ids.getMax());
+            }
+            return read(ids.getIds());
+        }
+
+        /**
+         * @param keys
+         * @return the rows with the given keys, in key order
+         * @throws IOException
+         */
+        public List<List<String>> read(Collection<Integer> keys) throws IOException {
+            List<List<String>> rows = new ArrayList<List<String>>();
+            for (Integer key : new TreeSet<Integer>(keys)) {
+                read(key, key, rows);
+            }
+            return rows;
+        }
+
+        /**
+         * @param min
+         * @param max
+         * @return the rows with a key between min and max, in key order
+         * @throws IOException
+         */
+        public List<List<String>> read(int min, int max) throws IOException {
+            List<List<String>> rows = new ArrayList<List<String>>();
+            read(min, max, rows);
+            return rows;
+        }
+
+        private void read(int min, int max, List<List<String>> rows) throws IOException {
+            // Rows with the min key may start in the block before the first block starting with it
+            int low = 0;
+            int high = blockKeys.length - 1;
+            int block = 0;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (blockKeys[middle] < min) {
+                    block = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            for (; block < blockKeys.length && blockKeys[block] <= max; block++) {
+                Block rowsOfBlock = getBlock(block);
+                for (int i = 0; i < rowsOfBlock.keys.length; i++) {
+                    int key = rowsOfBlock.keys[i];
+                    if (key > max) {
+                        return;
+                    }
+                    if (key >= min) {
+                        rows.add(rowsOfBlock.rows.get(i));
+                    }
+                }
+            }
+        }
+
+        private Block getBlock(int block) throws IOException {
+            Block rowsOfBlock = cache.get(block);
+            if (rowsOfBlock != null) {
+                return rowsOfBlock;
+            }
+
+            if (input == null) {
+                input = new RandomAccessFile(file, "r");
+            }
+            byte[] bytes = new byte[(int) (blockOffsets[block + 1] - blockOffsets[block])];
+            input.seek(blockOffsets[block]);
+            input.readFully(bytes);
+            String[] lines = new String(bytes, UTF8).split("\n");
+
+            List<List<String>> rows = new ArrayList<List<String>>(lines.length);
+            List<Integer> keys = new ArrayList<Integer>(lines.length);
+            for (String line : lines) {
+                List<String> row = MbDumpReader.parseRow(line);
+                Integer key = getKey(row, keyColumn);
+                if (key != null) {
+                    rows.add(row);
+                    keys.add(key);
+                }
+            }
+            rowsOfBlock = new Block(keys, rows);
+            cache.put(block, rowsOfBlock);
+            return rowsOfBlock;
+        }
+
+        public void close() throws IOException {
+            cache.clear();
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+
+    private static class Block {
+        private final int[] keys;
+        private final List<List<String>> rows;
+
+        Block(List<Integer> keys, List<List<String>> rows) {
+            this.keys = new int[keys.size()];
+            for (int i = 0; i < this.keys.length; i++) {
+                this.keys[i] = keys.get(i);
+            }
+            this.rows = rows;
+        }
+    }
+}
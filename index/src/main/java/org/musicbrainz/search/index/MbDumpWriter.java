@@ -0,0 +1,90 @@
+package org.musicbrainz.search.index;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes rows in the format of the table files of a MusicBrainz mbdump directory, so that the tables joined from
+ * the dump can be read back with MbDumpReader and MbDumpTable
+ */
+public class MbDumpWriter implements Closeable {
+
+    private final Writer writer;
+
+    public MbDumpWriter(File file) throws IOException {
+        this(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+
+    public MbDumpWriter(Writer writer) {
+        this.writer = new BufferedWriter(writer, 1 << 16);
+    }
+
+    /**
+     * Write a row
+     *
+     * @param columns the column values, null for a database null
+     * @throws IOException
+     */
+    public void writeRow(List<String> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write('\t');
+            }
+            writer.write(escape(columns.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Escape a single column value
+     *
+     * @param value
+     * @return
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return MbDumpReader.NULL_VALUE;
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped;
+            switch (c) {
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case '\t':
+                    escaped = "\\t";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    escaped = "\\r";
+                    break;
+                default:
+                    escaped = null;
+            }
+            if (escaped != null && sb == null) {
+                sb = new StringBuilder(value.length() + 8);
+                sb.append(value, 0, i);
+            }
+            if (escaped != null) {
+                sb.append(escaped);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : value;
+    }
+}
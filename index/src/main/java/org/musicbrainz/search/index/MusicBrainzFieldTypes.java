@@ -30,6 +30,8 @@
 package org.musicbrainz.search.index;
 
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.FloatField;
+import org.apache.lucene.document.IntField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 
@@ -44,6 +46,14 @@ public class MusicBrainzFieldTypes
     public static FieldType TEXT_NOT_STORED_ANALYZED_NO_NORMS   = new FieldType(TextField.TYPE_STORED);
     public static FieldType TEXT_NOT_STORED_NOT_ANALYZED_NO_NORMS = new FieldType(StringField.TYPE_NOT_STORED);
 
+    // Numeric fields are indexed at several precisions so that range searches only need a few terms
+    public static final int NUMERIC_PRECISION_STEP = 4;
+
+    public static FieldType INT_STORED                          = new FieldType(IntField.TYPE_STORED);
+    public static FieldType INT_NOT_STORED                      = new FieldType(IntField.TYPE_NOT_STORED);
+    public static FieldType FLOAT_STORED                        = new FieldType(FloatField.TYPE_STORED);
+    public static FieldType FLOAT_NOT_STORED                    = new FieldType(FloatField.TYPE_NOT_STORED);
+
     static
     {
 
@@ -68,5 +78,17 @@ public class MusicBrainzFieldTypes
         TEXT_NOT_STORED_ANALYZED_NO_NORMS.freeze();
 
         TEXT_NOT_STORED_NOT_ANALYZED_NO_NORMS.freeze();
+
+        INT_STORED.setNumericPrecisionStep(NUMERIC_PRECISION_STEP);
+        INT_STORED.freeze();
+
+        INT_NOT_STORED.setNumericPrecisionStep(NUMERIC_PRECISION_STEP);
+        INT_NOT_STORED.freeze();
+
+        FLOAT_STORED.setNumericPrecisionStep(NUMERIC_PRECISION_STEP);
+        FLOAT_STORED.freeze();
+
+        FLOAT_NOT_STORED.setNumericPrecisionStep(NUMERIC_PRECISION_STEP);
+        FLOAT_NOT_STORED.freeze();
     }
 }
@@ -0,0 +1,124 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.index.IndexWriter;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index a range of ids by splitting it into chunks that are loaded by several database workers at the same time.
+ *
+ * Each worker is a separate, already initialized, instance of the index with its own database connection and
+ * prepared statements. Workers take the next free chunk when they finish one, and all of them add their documents
+ * to the same IndexWriter, so the chunks indexed are exactly the same as when indexing serially.
+ */
+public class ParallelDatabaseIndexer {
+
+    private final List<? extends DatabaseIndex> workers;
+    private final int chunkSize;
+
+    /**
+     *
+     * @param workers initialized indexes, one per database connection
+     * @param chunkSize the number of ids in each chunk
+     */
+    public ParallelDatabaseIndexer(List<? extends DatabaseIndex> workers, int chunkSize) {
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Index data on a range of ids defined by min and max
+     *
+     * @param indexWriter
+     * @param min
+     * @param max
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void indexData(IndexWriter indexWriter, int min, int max) throws SQLException, IOException {
+
+        AtomicLong nextChunk = new AtomicLong(min);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        ExecutorService es = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (DatabaseIndex worker : workers) {
+                results.add(es.submit(new Worker(worker, indexWriter, nextChunk, max, failed)));
+            }
+
+            for (Future<Integer> result : results) {
+                try {
+                    result.get();
+                }
+                catch (ExecutionException ee) {
+                    Throwable cause = ee.getCause();
+                    if (cause instanceof SQLException) {
+                        throw (SQLException) cause;
+                    }
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ie);
+                }
+            }
+        }
+        finally {
+            failed.set(true);
+            es.shutdown();
+        }
+    }
+
+    /**
+     * Keeps indexing the next free chunk until the range is exhausted or another worker has failed
+     */
+    private class Worker implements Callable<Integer> {
+
+        private final DatabaseIndex index;
+        private final IndexWriter   indexWriter;
+        private final AtomicLong    nextChunk;
+        private final int           max;
+        private final AtomicBoolean failed;
+
+        Worker(DatabaseIndex index, IndexWriter indexWriter, AtomicLong nextChunk, int max, AtomicBoolean failed) {
+            this.index = index;
+            this.indexWriter = indexWriter;
+            this.nextChunk = nextChunk;
+            this.max = max;
+            this.failed = failed;
+        }
+
+        public Integer call() throws Exception {
+            int noOfChunks = 0;
+            try {
+                while (!failed.get()) {
+                    long j = nextChunk.getAndAdd(chunkSize);
+                    if (j > max) {
+                        break;
+                    }
+                    int k = (int) Math.min(j + chunkSize - 1, max);
+                    System.out.print(index.getName() + ":Indexing " + j + "..." + k + " / " + max + " (" + (100L * k / Math.max(max, 1)) + "%)\r");
+                    index.indexData(indexWriter, (int) j, k);
+                    noOfChunks++;
+                }
+            }
+            catch (Exception e) {
+                failed.set(true);
+                throw e;
+            }
+            return noOfChunks;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.document.Document;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A database index whose indexing is split into a fetch stage that runs all the SQL for a chunk of ids,
+ * and a build stage that creates the documents from the fetched data without using the database.
+ *
+ * This allows DatabaseIndexPipeline to run the queries for the next chunk whilst building the documents for the
+ * previous one.
+ */
+public interface PipelinedIndex extends Index {
+
+    /**
+     * Run all the queries needed to index the rows with ids between min and max
+     *
+     * @param min
+     * @param max
+     * @return the fetched data, must not keep any reference to the database
+     * @throws SQLException
+     * @throws IOException
+     */
+    public Chunk fetchData(int min, int max) throws SQLException, IOException;
+
+    /**
+     * The data fetched for one chunk of ids
+     */
+    public interface Chunk {
+
+        /**
+         * Build the documents for this chunk, in the same order as DatabaseIndex.indexData would add them
+         *
+         * @return
+         * @throws IOException
+         */
+        public List<Document> buildDocuments() throws IOException;
+    }
+}
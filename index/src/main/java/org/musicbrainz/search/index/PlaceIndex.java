@@ -212,10 +212,10 @@ public class PlaceIndex extends DatabaseIndex {
         doc.addFieldOrUnknown(ArtistIndexField.ENDED, Boolean.toString(ended));
 
         String begin = Utils.formatDate(rs.getInt("begin_date_year"), rs.getInt("begin_date_month"), rs.getInt("begin_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.BEGIN, begin);
+        doc.addDateField(ArtistIndexField.BEGIN, begin);
 
         String end = Utils.formatDate(rs.getInt("end_date_year"), rs.getInt("end_date_month"), rs.getInt("end_date_day"));
-        doc.addNonEmptyField(ArtistIndexField.END, end);
+        doc.addDateField(ArtistIndexField.END, end);
 
         LifeSpan lifespan = of.createLifeSpan();
         place.setLifeSpan(lifespan);
@@ -237,8 +237,7 @@ public class PlaceIndex extends DatabaseIndex {
             place.setTagList(TagHelper.addTagsToDocAndConstructTagList(of, doc, tags, placeId, PlaceIndexField.TAG ));
         }
 
-        String store = MMDSerializer.serialize(place);
-        doc.addField(PlaceIndexField.PLACE_STORE, store);
+        MMDSerializer.serialize(doc, PlaceIndexField.PLACE_STORE, place);
         return doc.getLuceneDocument();
     }
 
@@ -24,6 +24,7 @@ import org.apache.commons.lang.time.StopWatch;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.similarities.Similarity;
 import org.musicbrainz.mmd2.*;
 import org.musicbrainz.search.MbDocument;
@@ -35,7 +36,7 @@ import java.math.BigInteger;
 import java.sql.*;
 import java.util.*;
 
-public class RecordingIndex extends DatabaseIndex {
+public class RecordingIndex extends DatabaseIndex implements PipelinedIndex {
 
     private static final String VARIOUS_ARTISTS_GUID = "89ad4ac3-39f7-470e-963a-56509c546377";
     private static final String VARIOUS_ARTISTS_NAME = "Various Artists";
@@ -282,17 +283,14 @@ public class RecordingIndex extends DatabaseIndex {
     /**
      * Get tag information
      *
-     * @param min min recording id
-     * @param max max recording id
+     * @param ids recording ids
      * @return A map of matches
      * @throws SQLException
      * @throws IOException
      */
-    private Map<Integer, List<Tag>> loadTags(int min, int max) throws SQLException, IOException {
+    private Map<Integer, List<Tag>> loadTags(RowIds ids) throws SQLException, IOException {
 
-        PreparedStatement st = getPreparedStatement("TAGS");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("TAGS", ids);
         ResultSet rs = st.executeQuery();
         Map<Integer, List<Tag>> tags = TagHelper.completeTagsFromDbResults(rs, "recording");
         rs.close();
@@ -302,20 +300,17 @@ public class RecordingIndex extends DatabaseIndex {
     /**
      * Get ISRC Information for the recordings
      *
-     * @param min min recording id
-     * @param max max recording id
+     * @param ids recording ids
      * @return map of matches
      * @throws SQLException
      * @throws IOException
      */
-    private Map<Integer, List<String>> loadISRCs(int min, int max) throws SQLException, IOException {
+    private Map<Integer, List<String>> loadISRCs(RowIds ids) throws SQLException, IOException {
 
         //ISRC
         isrcClock.resume();
         Map<Integer, List<String>> isrcWrapper = new HashMap<Integer, List<String>>();
-        PreparedStatement st = getPreparedStatement("ISRCS");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("ISRCS", ids);
         ResultSet rs = st.executeQuery();
         while (rs.next()) {
             int recordingId = rs.getInt("recordingId");
@@ -337,19 +332,16 @@ public class RecordingIndex extends DatabaseIndex {
     /**
      * Get Recording Artist Credit
      *
-     * @param min min recording id
-     * @param max max recording id
+     * @param ids recording ids
      * @return A map of matches
      * @throws SQLException if sql problem
      * @throws IOException  if io exception
      */
-    private Map<Integer, ArtistCreditWrapper> loadArtists(int min, int max) throws SQLException, IOException {
+    private Map<Integer, ArtistCreditWrapper> loadArtists(RowIds ids) throws SQLException, IOException {
 
         //Artists
         artistClock.resume();
-        PreparedStatement st = getPreparedStatement("ARTISTCREDITS");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("ARTISTCREDITS", ids);
         ResultSet rs = st.executeQuery();
         Map<Integer, ArtistCreditWrapper> artistCredits
                 = ArtistCreditHelper.completeArtistCreditFromDbResults(rs, "recordingId", "artist_Credit", "artistId", "artistName", "artistSortName", "comment", "joinphrase", "artistCreditName");
@@ -360,28 +352,22 @@ public class RecordingIndex extends DatabaseIndex {
 
     private Map<Integer, ArtistCreditWrapper> updateArtistCreditWithAliases(
             Map<Integer, ArtistCreditWrapper> artistCredits,
-            int min,
-            int max)
+            RowIds ids)
             throws SQLException, IOException {
 
         //Artist Credit Aliases
-        PreparedStatement st = getPreparedStatement("ARTISTCREDITALIASES");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("ARTISTCREDITALIASES", ids);
         ResultSet rs = st.executeQuery();
         return ArtistCreditHelper.updateArtistCreditWithAliases(artistCredits,"recordingId", rs);
     }
 
     private Map<Integer, ArtistCreditWrapper> updateTrackArtistCreditWithAliases(
             Map<Integer, ArtistCreditWrapper> artistCredits,
-            int min,
-            int max)
+            RowIds ids)
             throws SQLException, IOException {
 
         //Artist Credit Aliases
-        PreparedStatement st = getPreparedStatement("TRACKARTISTCREDITALIASES");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("TRACKARTISTCREDITALIASES", ids);
         ResultSet rs = st.executeQuery();
         return ArtistCreditHelper.updateArtistCreditWithAliases(artistCredits,"recordingId", rs);
     }
@@ -389,19 +375,16 @@ public class RecordingIndex extends DatabaseIndex {
     /**
      * Get Track Artist Credit
      *
-     * @param min min recording id
-     * @param max max recording id
+     * @param ids recording ids
      * @return A map of matches
      * @throws SQLException if sql problem
      * @throws IOException  if io exception
      */
-    private Map<Integer, ArtistCreditWrapper> loadTrackArtists(int min, int max) throws SQLException, IOException {
+    private Map<Integer, ArtistCreditWrapper> loadTrackArtists(RowIds ids) throws SQLException, IOException {
 
         //Artists
         trackArtistClock.resume();
-        PreparedStatement st = getPreparedStatement("TRACKARTISTCREDITS");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("TRACKARTISTCREDITS", ids);
         ResultSet rs = st.executeQuery();
         Map<Integer, ArtistCreditWrapper> artistCredits
                 = ArtistCreditHelper.completeArtistCreditFromDbResults
@@ -423,13 +406,12 @@ public class RecordingIndex extends DatabaseIndex {
     /**
      * Get Release Artist Credit
      *
-     * @param min min recording id
-     * @param max max recording id
+     * @param releases releases of the recordings
      * @return A map of matches
      * @throws SQLException if sql problem
      * @throws IOException  if io exception
      */
-    private Map<Integer, ArtistCreditWrapper> loadReleaseArtists(Map<Integer, Release> releases,int min, int max) throws SQLException, IOException {
+    private Map<Integer, ArtistCreditWrapper> loadReleaseArtists(Map<Integer, Release> releases) throws SQLException, IOException {
 
         //Add release artists
         PreparedStatement stmt = createReleaseArtistCreditsStatement(releases.size());
@@ -461,20 +443,17 @@ public class RecordingIndex extends DatabaseIndex {
      * <p/>
      * One recording can be linked to by multiple tracks
      *
-     * @param min
-     * @param max
+     * @param ids recording ids
      * @return A map of matches
      * @throws SQLException
      * @throws IOException
      */
-    private Map<Integer, List<TrackWrapper>> loadTracks(int min, int max) throws SQLException, IOException {
+    private Map<Integer, List<TrackWrapper>> loadTracks(RowIds ids) throws SQLException, IOException {
 
         //Tracks and Release Info
         trackClock.resume();
         Map<Integer, List<TrackWrapper>> tracks = new HashMap<Integer, List<TrackWrapper>>();
-        PreparedStatement st = getPreparedStatement("TRACKS");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        PreparedStatement st = getPreparedStatement("TRACKS", ids);
         ResultSet rs = st.executeQuery();
         while (rs.next()) {
             int recordingId = rs.getInt("recording");
@@ -521,7 +500,7 @@ public class RecordingIndex extends DatabaseIndex {
             }
             inClause.append('?');
         }
-        PreparedStatement stmt = dbConnection.prepareStatement(
+        PreparedStatement stmt = prepareStatement("RELEASES" + ID_LIST_SUFFIX,
                 releases + "(" + inClause.toString() + ')');
         return stmt;
 
@@ -538,7 +517,7 @@ public class RecordingIndex extends DatabaseIndex {
             }
             inClause.append('?');
         }
-        PreparedStatement stmt = dbConnection.prepareStatement(
+        PreparedStatement stmt = prepareStatement("RELEASE_EVENTS" + ID_LIST_SUFFIX,
                 releaseEvents + "(" + inClause.toString() + ')');
         return stmt;
 
@@ -562,7 +541,7 @@ public class RecordingIndex extends DatabaseIndex {
             }
             inClause.append('?');
         }
-        PreparedStatement stmt = dbConnection.prepareStatement(
+        PreparedStatement stmt = prepareStatement("RELEASE_SECONDARY_TYPES" + ID_LIST_SUFFIX,
                 releaseSecondaryTypes + "(" + inClause.toString() + ')');
         return stmt;
 
@@ -586,7 +565,7 @@ public class RecordingIndex extends DatabaseIndex {
             }
             inClause.append('?');
         }
-        PreparedStatement stmt = dbConnection.prepareStatement(
+        PreparedStatement stmt = prepareStatement("RELEASE_ARTIST_CREDITS" + ID_LIST_SUFFIX,
                 releaseArtistCredits + "(" + inClause.toString() + ')');
         return stmt;
 
@@ -734,35 +713,116 @@ public class RecordingIndex extends DatabaseIndex {
 
     public void indexData(IndexWriter indexWriter, int min, int max) throws SQLException, IOException {
 
-        Map<Integer, List<Tag>>             tags                = loadTags(min, max);
-        Map<Integer, List<String>>          isrcs               = loadISRCs(min, max);
-        Map<Integer, ArtistCreditWrapper>   artistCredits       = updateArtistCreditWithAliases(loadArtists(min, max), min, max);
-        Map<Integer, ArtistCreditWrapper>   trackArtistCredits  = updateTrackArtistCreditWithAliases(loadTrackArtists(min, max), min, max);
-        Map<Integer, List<TrackWrapper>>    tracks              = loadTracks(min, max);
-        Map<Integer, Release>               releases            = loadReleases(tracks);
-        Map<Integer, ArtistCreditWrapper>   releaseArtists      = loadReleaseArtists(releases, min, max);
-
-        PreparedStatement st = getPreparedStatement("RECORDINGS");
-        st.setInt(1, min);
-        st.setInt(2, max);
+        for (Document doc : fetchData(min, max).buildDocuments()) {
+            indexWriter.addDocument(doc);
+        }
+    }
+
+    /**
+     * Load the recordings together, rather than running every query once per recording
+     */
+    @Override
+    public void indexData(IndexWriter indexWriter, List<Integer> ids) throws SQLException, IOException {
+
+        for (Document doc : fetchData(RowIds.of(ids)).buildDocuments()) {
+            indexWriter.addDocument(doc);
+        }
+    }
+
+    /**
+     * Replace each recording with a single update, recordings no longer in the database are deleted
+     */
+    @Override
+    public void updateData(IndexWriter indexWriter, List<Integer> ids) throws SQLException, IOException {
+
+        Set<Integer> deletedIds = new TreeSet<Integer>(ids);
+        for (Document doc : fetchData(RowIds.of(ids)).buildDocuments()) {
+            String id = doc.get(RecordingIndexField.ID.getName());
+            deletedIds.remove(Integer.valueOf(id));
+            indexWriter.updateDocument(new Term(RecordingIndexField.ID.getName(), id), doc);
+        }
+        for (Integer id : deletedIds) {
+            indexWriter.deleteDocuments(new Term(RecordingIndexField.ID.getName(), id.toString()));
+        }
+    }
+
+    public PipelinedIndex.Chunk fetchData(int min, int max) throws SQLException, IOException {
+        return fetchData(RowIds.between(min, max));
+    }
+
+    private PipelinedIndex.Chunk fetchData(RowIds ids) throws SQLException, IOException {
+
+        RecordingChunk chunk = new RecordingChunk();
+        chunk.tags                = loadTags(ids);
+        chunk.isrcs               = loadISRCs(ids);
+        chunk.artistCredits       = updateArtistCreditWithAliases(loadArtists(ids), ids);
+        chunk.trackArtistCredits  = updateTrackArtistCreditWithAliases(loadTrackArtists(ids), ids);
+        chunk.tracks              = loadTracks(ids);
+        chunk.releases            = loadReleases(chunk.tracks);
+        chunk.releaseArtists      = loadReleaseArtists(chunk.releases);
+
+        PreparedStatement st = getPreparedStatement("RECORDINGS", ids);
         recordingClock.resume();
         ResultSet rs = st.executeQuery();
         recordingClock.suspend();
         while (rs.next()) {
-            indexWriter.addDocument(documentFromResultSet(rs, tags, isrcs, artistCredits, trackArtistCredits, tracks, releases, releaseArtists));
+            chunk.recordings.add(new RecordingRow(rs));
         }
         rs.close();
+        return chunk;
+    }
+
+    /**
+     * The columns of the recording table used to build the document
+     */
+    private static class RecordingRow {
+        private final int     id;
+        private final String  guid;
+        private final String  name;
+        private final int     duration;
+        private final String  comment;
+        private final boolean video;
+
+        RecordingRow(ResultSet rs) throws SQLException {
+            id       = rs.getInt("recordingId");
+            guid     = rs.getString("trackid");
+            name     = rs.getString("trackname");
+            duration = rs.getInt("duration");
+            comment  = rs.getString("comment");
+            video    = rs.getBoolean("video");
+        }
+    }
 
+    /**
+     * All the data loaded for a chunk of recordings
+     */
+    private class RecordingChunk implements PipelinedIndex.Chunk {
+        private Map<Integer, List<Tag>>             tags;
+        private Map<Integer, List<String>>          isrcs;
+        private Map<Integer, ArtistCreditWrapper>   artistCredits;
+        private Map<Integer, ArtistCreditWrapper>   trackArtistCredits;
+        private Map<Integer, List<TrackWrapper>>    tracks;
+        private Map<Integer, Release>               releases;
+        private Map<Integer, ArtistCreditWrapper>   releaseArtists;
+        private List<RecordingRow>                  recordings = new ArrayList<RecordingRow>();
+
+        public List<Document> buildDocuments() {
+            List<Document> docs = new ArrayList<Document>(recordings.size());
+            for (RecordingRow row : recordings) {
+                docs.add(documentFromRow(row, tags, isrcs, artistCredits, trackArtistCredits, tracks, releases, releaseArtists));
+            }
+            return docs;
+        }
     }
 
-    public Document documentFromResultSet(ResultSet rs,
+    private Document documentFromRow(RecordingRow row,
                                           Map<Integer, List<Tag>> tags,
                                           Map<Integer, List<String>> isrcs,
                                           Map<Integer, ArtistCreditWrapper> artistCredits,
                                           Map<Integer, ArtistCreditWrapper> trackArtistCredits,
                                           Map<Integer, List<TrackWrapper>> tracks,
                                           Map<Integer, Release> releases,
-                                          Map<Integer, ArtistCreditWrapper>   releaseArtists) throws SQLException {
+                                          Map<Integer, ArtistCreditWrapper>   releaseArtists) {
 
         buildClock.resume();
         Set<Integer> durations = new HashSet<Integer>();
@@ -770,7 +830,7 @@ public class RecordingIndex extends DatabaseIndex {
 
         Set<String> trackNames = new HashSet<String>();
 
-        int id = rs.getInt("recordingId");
+        int id = row.id;
 
         MbDocument doc = new MbDocument();
         ObjectFactory of = new ObjectFactory();
@@ -778,29 +838,29 @@ public class RecordingIndex extends DatabaseIndex {
 
         doc.addField(RecordingIndexField.ID, id);
 
-        String guid = rs.getString("trackid");
+        String guid = row.guid;
         doc.addField(RecordingIndexField.RECORDING_ID, guid);
         recording.setId(guid);
 
-        String recordingName = rs.getString("trackname");
+        String recordingName = row.name;
         //Just add an accent version for recording name not track names
         doc.addField(RecordingIndexField.RECORDING_ACCENT, recordingName);
         recording.setTitle(recordingName);
 
         trackNames.add(recordingName.toLowerCase(Locale.UK));
-        int recordingDuration = rs.getInt("duration");
+        int recordingDuration = row.duration;
         if (recordingDuration > 0) {
             durations.add(recordingDuration);
             recording.setLength(BigInteger.valueOf(recordingDuration));
         }
 
-        String comment = rs.getString("comment");
+        String comment = row.comment;
         doc.addFieldOrNoValue(RecordingIndexField.COMMENT, comment);
         if (!Strings.isNullOrEmpty(comment)) {
             recording.setDisambiguation(comment);
         }
 
-        boolean video = rs.getBoolean("video");
+        boolean video = row.video;
         if(video) {
             doc.addField(RecordingIndexField.VIDEO, Boolean.toString(video));
             recording.setVideo("true");
@@ -831,7 +891,7 @@ public class RecordingIndex extends DatabaseIndex {
                             RecordingIndexField.ARTIST_NAME);
             recording.setArtistCredit(ac.getArtistCredit());
         } else {
-            System.out.println("\nNo artist credit found for recording:" + rs.getString("trackid"));
+            System.out.println("\nNo artist credit found for recording:" + row.guid);
         }
 
         if (tracks.containsKey(id)) {
@@ -965,7 +1025,7 @@ public class RecordingIndex extends DatabaseIndex {
                                     (release.getReleaseEventList().getReleaseEvent().size()>0)
                             ) {
                         for (ReleaseEvent re : release.getReleaseEventList().getReleaseEvent()) {
-                            doc.addNonEmptyField(RecordingIndexField.RELEASE_DATE, re.getDate());
+                            doc.addDateField(RecordingIndexField.RELEASE_DATE, re.getDate());
                             if(re.getArea()!=null) {
                                 if(re.getArea().getIso31661CodeList()!=null) {
                                     doc.addNonEmptyField(RecordingIndexField.COUNTRY, re.getArea().getIso31661CodeList().getIso31661Code().get(0));
@@ -1051,7 +1111,7 @@ public class RecordingIndex extends DatabaseIndex {
 
         buildClock.suspend();
         storeClock.resume();
-        doc.addField(RecordingIndexField.RECORDING_STORE, MMDSerializer.serialize(recording));
+        MMDSerializer.serialize(doc, RecordingIndexField.RECORDING_STORE, recording);
         storeClock.suspend();
         return doc.getLuceneDocument();
     }
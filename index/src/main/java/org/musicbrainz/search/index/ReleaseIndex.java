@@ -613,7 +613,7 @@ public class  ReleaseIndex extends DatabaseIndex {
                     doc.addNonEmptyField(ReleaseIndexField.COUNTRY,nextCountry);
                 }
                 String nextDate     = releaseEvent.getDate();
-                doc.addNonEmptyField(ReleaseIndexField.DATE, nextDate );
+                doc.addDateField(ReleaseIndexField.DATE, nextDate );
                 rel.getReleaseEvent().add(releaseEvent);
             }
             //Sorted so always listed in date order, and so earliest release is used for backwards compatabilty
@@ -637,8 +637,7 @@ public class  ReleaseIndex extends DatabaseIndex {
 
         buildClock.suspend();
         storeClock.resume();
-        String store = MMDSerializer.serialize(release);
-        doc.addField(ReleaseIndexField.RELEASE_STORE, store);
+        MMDSerializer.serialize(doc, ReleaseIndexField.RELEASE_STORE, release);
         storeClock.suspend();
         return doc.getLuceneDocument();
     }
@@ -0,0 +1,59 @@
+package org.musicbrainz.search.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ids of the rows to load, either all the ids between min and max as when building an index, or a list of ids as
+ * when the updater reindexes changed rows.
+ */
+public class RowIds {
+
+    private final int min;
+    private final int max;
+    private final List<Integer> ids;
+
+    private RowIds(int min, int max, List<Integer> ids) {
+        this.min = min;
+        this.max = max;
+        this.ids = ids;
+    }
+
+    public static RowIds between(int min, int max) {
+        return new RowIds(min, max, null);
+    }
+
+    /**
+     * @param ids
+     * @return the listed ids, in ascending order
+     */
+    public static RowIds of(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No ids");
+        }
+        List<Integer> sortedIds = new ArrayList<Integer>(ids);
+        Collections.sort(sortedIds);
+        return new RowIds(sortedIds.get(0), sortedIds.get(sortedIds.size() - 1), Collections.unmodifiableList(sortedIds));
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return the listed ids in ascending order, null if all ids between min and max
+     */
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return ids != null ? ids.toString() : min + "-" + max;
+    }
+}
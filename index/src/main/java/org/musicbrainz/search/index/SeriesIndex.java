@@ -161,8 +161,7 @@ public class SeriesIndex extends DatabaseIndex {
         }
 
 
-        String store = MMDSerializer.serialize(series);
-        doc.addField(SeriesIndexField.SERIES_STORE, store);
+        MMDSerializer.serialize(doc, SeriesIndexField.SERIES_STORE, series);
         return doc.getLuceneDocument();
     }
 
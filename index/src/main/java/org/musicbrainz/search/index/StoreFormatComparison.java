@@ -0,0 +1,140 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the xml and binary store formats on existing indexes
+ *
+ * Every stored entity is converted to the other format, and the size, encode and decode times of each format
+ * are reported per field. The sizes are before the compression of stored fields by lucene. An entity whose xml
+ * differs after a binary round trip is counted as a mismatch.
+ */
+public class StoreFormatComparison {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static class Statistics {
+        long count;
+        long unsupported;
+        long mismatches;
+        long xmlBytes;
+        long xmlEncodeTime;
+        long xmlDecodeTime;
+        long binaryBytes;
+        long binaryEncodeTime;
+        long binaryDecodeTime;
+
+        @Override
+        public String toString() {
+            return count + " docs"
+                    + ", xml " + xmlBytes + " bytes encode " + TimeUnit.NANOSECONDS.toMillis(xmlEncodeTime) + "ms decode " + TimeUnit.NANOSECONDS.toMillis(xmlDecodeTime) + "ms"
+                    + ", binary " + binaryBytes + " bytes encode " + TimeUnit.NANOSECONDS.toMillis(binaryEncodeTime) + "ms decode " + TimeUnit.NANOSECONDS.toMillis(binaryDecodeTime) + "ms"
+                    + ", " + unsupported + " unsupported, " + mismatches + " mismatches";
+        }
+    }
+
+    /**
+     * Compare the store formats of each index in the directory
+     *
+     * @param indexesDir
+     * @param maxDocs the maximum number of documents to read from each index
+     * @throws IOException
+     */
+    public static void compare(File indexesDir, int maxDocs) throws IOException {
+        File[] files = indexesDir.listFiles();
+        if (files == null) {
+            System.out.println("No indexes found in " + indexesDir);
+            return;
+        }
+        for (File file : files) {
+            if (!file.isDirectory()) {
+                continue;
+            }
+            Directory dir = FSDirectory.open(file);
+            if (DirectoryReader.indexExists(dir)) {
+                for (Map.Entry<String, Statistics> next : compare(dir, maxDocs).entrySet()) {
+                    System.out.println(file.getName() + ":" + next.getKey() + ": " + next.getValue());
+                }
+            }
+            dir.close();
+        }
+    }
+
+    private static Map<String, Statistics> compare(Directory dir, int maxDocs) throws IOException {
+        Map<String, Statistics> statistics = new TreeMap<String, Statistics>();
+        IndexReader reader = DirectoryReader.open(dir);
+        try {
+            for (int i = 0; i < reader.maxDoc() && i < maxDocs; i++) {
+                Document doc = reader.document(i);
+                for (IndexableField field : doc.getFields()) {
+                    BytesRef bytes = field.binaryValue();
+                    String xml = field.stringValue();
+                    if (bytes == null && (xml == null || !xml.startsWith("<?xml"))) {
+                        continue;
+                    }
+
+                    Statistics stats = statistics.get(field.name());
+                    if (stats == null) {
+                        stats = new Statistics();
+                        statistics.put(field.name(), stats);
+                    }
+                    if (bytes != null) {
+                        compare(stats, MMDCodec.decode(bytes.bytes, bytes.offset, bytes.length));
+                    } else {
+                        compare(stats, MMDSerializer.unserialize(xml, Object.class));
+                    }
+                }
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return statistics;
+    }
+
+    private static void compare(Statistics stats, Object o) {
+        stats.count++;
+
+        long start = System.nanoTime();
+        String xml = MMDSerializer.serialize(o);
+        stats.xmlEncodeTime += System.nanoTime() - start;
+        stats.xmlBytes += xml.getBytes(UTF8).length;
+
+        start = System.nanoTime();
+        MMDSerializer.unserialize(xml, Object.class);
+        stats.xmlDecodeTime += System.nanoTime() - start;
+
+        byte[] bytes;
+        try {
+            start = System.nanoTime();
+            bytes = MMDCodec.encode(o);
+            stats.binaryEncodeTime += System.nanoTime() - start;
+            stats.binaryBytes += bytes.length;
+        }
+        catch (IllegalArgumentException iae) {
+            stats.unsupported++;
+            return;
+        }
+
+        start = System.nanoTime();
+        Object decoded = MMDCodec.decode(bytes);
+        stats.binaryDecodeTime += System.nanoTime() - start;
+
+        if (!xml.equals(MMDSerializer.serialize(decoded))) {
+            stats.mismatches++;
+        }
+    }
+}
@@ -20,37 +20,144 @@
 package org.musicbrainz.search.index;
 
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Index writer that adds, updates and deletes documents on a pool of threads, the caller only waits when too many
+ * jobs are queued.
+ *
+ * Jobs on the same term run one after another in the order they were queued, so terms used to update or delete
+ * documents should identify a single document such as its id. Adds may run in any order, but an add never runs before
+ * an update or delete queued before it and the other way round. Deleting by query waits for all the queued jobs.
+ *
+ * The queued jobs are finished before a commit or close, if any of them failed the error is thrown from there (and
+ * from the next call to the writer) rather than committing an incomplete index.
+ */
 public class ThreadedIndexWriter extends IndexWriter {
     private ExecutorService threadPool;
     private Analyzer defaultAnalyzer;
 
-    private class Job implements Runnable {
-        Document doc;
+    //First error from a queued job, thrown by the next call to the writer so that errors are not lost
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    //Jobs on a term are queued on the stripe of the term, each stripe runs its jobs one at a time
+    private final Stripe[] stripes;
+
+    private final Object jobsLock = new Object();
+    private final int maxQueuedJobs;
+    private int queuedAdds = 0;
+    private int queuedTermJobs = 0;
+
+    private abstract class Job implements Runnable {
+        private final boolean isTermJob;
+
+        Job(boolean isTermJob) {
+            this.isTermJob = isTermJob;
+        }
+
+        public void run() {
+            try {
+                if (failure.get() == null) {
+                    execute();
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                jobDone(isTermJob);
+            }
+        }
+
+        abstract void execute() throws IOException;
+    }
+
+    private class AddJob extends Job {
+        Iterable<? extends IndexableField> doc;
         Analyzer analyzer;
 
-        public Job(Document doc, Analyzer analyzer) {
+        public AddJob(Iterable<? extends IndexableField> doc, Analyzer analyzer) {
+            super(false);
             this.doc = doc;
             this.analyzer = analyzer;
         }
 
-        public void run() {
-            try {
+        void execute() throws IOException {
+            ThreadedIndexWriter.super.updateDocument(null, doc, analyzer);
+        }
+    }
+
+    private class UpdateJob extends Job {
+        Term term;
+        Iterable<? extends IndexableField> doc;
+        Analyzer analyzer;
 
-                ThreadedIndexWriter.super.addDocument(doc, analyzer);
-            } catch (IOException ioe) {
-                ioe.printStackTrace(System.err);
+        public UpdateJob(Term term, Iterable<? extends IndexableField> doc, Analyzer analyzer) {
+            super(true);
+            this.term = term;
+            this.doc = doc;
+            this.analyzer = analyzer;
+        }
+
+        void execute() throws IOException {
+            ThreadedIndexWriter.super.updateDocument(term, doc, analyzer);
+        }
+    }
+
+    private class DeleteJob extends Job {
+        Term term;
+
+        public DeleteJob(Term term) {
+            super(true);
+            this.term = term;
+        }
+
+        void execute() throws IOException {
+            ThreadedIndexWriter.super.deleteDocuments(term);
+        }
+    }
+
+    /**
+     * Runs the jobs queued on it one at a time on the thread pool
+     */
+    private class Stripe implements Runnable {
+        private final Queue<Job> jobs = new ArrayDeque<Job>();
+        private boolean isRunning = false;
+
+        void execute(Job job) {
+            synchronized (this) {
+                jobs.add(job);
+                if (isRunning) {
+                    return;
+                }
+                isRunning = true;
+            }
+            threadPool.execute(this);
+        }
+
+        public void run() {
+            while (true) {
+                Job job;
+                synchronized (this) {
+                    job = jobs.poll();
+                    if (job == null) {
+                        isRunning = false;
+                        return;
+                    }
+                }
+                job.run();
             }
         }
     }
@@ -65,47 +172,158 @@ public class ThreadedIndexWriter extends IndexWriter {
     {
         super(dir, config);
         defaultAnalyzer = config.getAnalyzer();
+        // The number of queued jobs is limited by maxQueuedJobs rather than by the size of the queue
         threadPool = new ThreadPoolExecutor(
                 numThreads, numThreads, 0,
                 TimeUnit.SECONDS,
-                new ArrayBlockingQueue<Runnable>(maxQueueSize, false),
-                new ThreadPoolExecutor.CallerRunsPolicy());
+                new LinkedBlockingQueue<Runnable>());
+        maxQueuedJobs = numThreads + maxQueueSize;
+        stripes = new Stripe[numThreads * 4];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
     }
 
-    public void addDocument(Document doc) {
-        threadPool.execute(new Job(doc, defaultAnalyzer));
+    @Override
+    public void addDocument(Iterable<? extends IndexableField> doc) throws IOException {
+        addDocument(doc, defaultAnalyzer);
     }
 
-    public void addDocument(Document doc, Analyzer a) {
-        threadPool.execute(new Job(doc,  a));
+    @Override
+    public void addDocument(Iterable<? extends IndexableField> doc, Analyzer a) throws IOException {
+        checkFailure();
+        queue(false);
+        threadPool.execute(new AddJob(doc, a));
     }
 
-    public void updateDocument(Term term, Document doc) {
-        throw new UnsupportedOperationException();
+    @Override
+    public void updateDocument(Term term, Iterable<? extends IndexableField> doc) throws IOException {
+        updateDocument(term, doc, defaultAnalyzer);
+    }
+
+    /**
+     * Atomically replace the documents containing the term, after any job queued before on the same term
+     *
+     * @param term
+     * @param doc
+     * @param a
+     * @throws IOException
+     */
+    @Override
+    public void updateDocument(Term term, Iterable<? extends IndexableField> doc, Analyzer a) throws IOException {
+        if (term == null) {
+            addDocument(doc, a);
+            return;
+        }
+        checkFailure();
+        queue(true);
+        getStripe(term).execute(new UpdateJob(term, doc, a));
+    }
 
+    @Override
+    public void deleteDocuments(Term... terms) throws IOException {
+        checkFailure();
+        for (Term term : terms) {
+            queue(true);
+            getStripe(term).execute(new DeleteJob(term));
+        }
     }
 
-    public void updateDocument(Term term, Document doc, Analyzer a) {
+    @Override
+    public void deleteDocuments(Query... queries) throws IOException {
+        waitForQueuedJobs();
+        checkFailure();
+        super.deleteDocuments(queries);
+    }
 
-        throw new UnsupportedOperationException();
+    /**
+     * Finish the queued jobs before the documents are flushed for a commit or a reader, the first error of a job is
+     * thrown so an incomplete index is not committed
+     *
+     * @throws IOException
+     */
+    @Override
+    protected void doBeforeFlush() throws IOException {
+        waitForQueuedJobs();
+        checkFailure();
     }
 
+    /**
+     * If any document could not be added the changes are rolled back rather than committed, and the error is thrown
+     *
+     * @throws IOException
+     */
+    @Override
     public void close() throws  IOException {
         finish();
+        rollbackOnFailure();
         super.close();
     }
 
+    @Override
     public void close(boolean doWait) throws IOException {
         finish();
-
+        rollbackOnFailure();
         super.close(doWait);
     }
 
+    @Override
     public void rollback() throws IOException {
         finish();
         super.rollback();
     }
 
+    private Stripe getStripe(Term term) {
+        return stripes[(term.hashCode() & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    /**
+     * Wait for room to queue a job, and until the jobs of the other kind queued before it have run
+     *
+     * @param isTermJob
+     */
+    private void queue(boolean isTermJob) {
+        synchronized (jobsLock) {
+            try {
+                while (queuedAdds + queuedTermJobs >= maxQueuedJobs || (isTermJob ? queuedAdds : queuedTermJobs) > 0) {
+                    jobsLock.wait();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ie);
+            }
+            if (isTermJob) {
+                queuedTermJobs++;
+            } else {
+                queuedAdds++;
+            }
+        }
+    }
+
+    private void jobDone(boolean isTermJob) {
+        synchronized (jobsLock) {
+            if (isTermJob) {
+                queuedTermJobs--;
+            } else {
+                queuedAdds--;
+            }
+            jobsLock.notifyAll();
+        }
+    }
+
+    private void waitForQueuedJobs() {
+        synchronized (jobsLock) {
+            try {
+                while (queuedAdds + queuedTermJobs > 0) {
+                    jobsLock.wait();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ie);
+            }
+        }
+    }
+
     private void finish() {
         threadPool.shutdown();
         while (true) {
@@ -119,4 +337,33 @@ public class ThreadedIndexWriter extends IndexWriter {
             }
         }
     }
-}
\ No newline at end of file
+
+    private void rollbackOnFailure() throws IOException {
+        if (failure.get() != null) {
+            super.rollback();
+            checkFailure();
+        }
+    }
+
+    /**
+     * Throw the first error that occurred in a queued job
+     *
+     * @throws IOException
+     */
+    private void checkFailure() throws IOException {
+        Throwable t = failure.get();
+        if (t == null) {
+            return;
+        }
+        if (t instanceof IOException) {
+            throw new IOException("Unable to update index", t);
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new IOException("Unable to update index", t);
+    }
+}
@@ -5,6 +5,8 @@ import org.apache.commons.lang.time.StopWatch;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Formatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class Utils {
 
@@ -37,6 +39,34 @@ public class Utils {
 		return "";
 	}
 
+    private static final Pattern DATE = Pattern.compile("(\\d{4})(?:-(\\d{2})(?:-(\\d{2}))?)?");
+
+    /**
+     * Convert a date formatted by formatDate into an int that orders dates the same way as their strings,
+     * missing month and day are zero
+     *
+     * @param date
+     * @return the date as yyyymmdd or null if not a date
+     */
+    public static Integer dateToInt(String date)
+    {
+        if (date == null) {
+            return null;
+        }
+        Matcher m = DATE.matcher(date);
+        if (!m.matches()) {
+            return null;
+        }
+        int value = Integer.parseInt(m.group(1)) * 10000;
+        if (m.group(2) != null) {
+            value += Integer.parseInt(m.group(2)) * 100;
+        }
+        if (m.group(3) != null) {
+            value += Integer.parseInt(m.group(3));
+        }
+        return value;
+    }
+
     /**
      * Format clock for output
      *
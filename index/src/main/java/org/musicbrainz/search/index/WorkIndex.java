@@ -291,8 +291,7 @@ public class WorkIndex extends DatabaseIndex {
             work.setTagList(TagHelper.addTagsToDocAndConstructTagList(of, doc, tags, id, WorkIndexField.TAG));
         }
 
-        String store = MMDSerializer.serialize(work);
-        doc.addField(WorkIndexField.WORK_STORE, store);
+        MMDSerializer.serialize(doc, WorkIndexField.WORK_STORE, work);
 
         return doc.getLuceneDocument();
     }
@@ -0,0 +1,91 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BalancedSegmentsMergePolicyTest {
+
+    /**
+     * Build an index with one segment per commit of the given sizes and force merge it to the given number of segments
+     */
+    private DirectoryReader buildAndMerge(int[] commitSizes, int segments) throws Exception {
+        RAMDirectory ramDir = new RAMDirectory();
+        IndexWriterConfig config = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, new KeywordAnalyzer());
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        // No natural merges, so the segments before the forced merge are those committed
+        LogDocMergePolicy base = new LogDocMergePolicy();
+        base.setMergeFactor(1000);
+        config.setMergePolicy(new BalancedSegmentsMergePolicy(base));
+        IndexWriter writer = new IndexWriter(ramDir, config);
+        int id = 0;
+        for (int commitSize : commitSizes) {
+            for (int i = 0; i < commitSize; i++) {
+                Document doc = new Document();
+                doc.add(new StringField("id", String.valueOf(id++), Field.Store.YES));
+                writer.addDocument(doc);
+            }
+            writer.commit();
+        }
+        writer.waitForMerges();
+        writer.forceMerge(segments);
+        writer.close();
+        return DirectoryReader.open(ramDir);
+    }
+
+    @Test
+    public void testMergeToBalancedSegments() throws Exception {
+        int[] commitSizes = new int[40];
+        for (int i = 0; i < commitSizes.length; i++) {
+            commitSizes[i] = 50 + (i % 3) * 25;
+        }
+        DirectoryReader reader = buildAndMerge(commitSizes, 4);
+        try {
+            assertEquals(4, reader.leaves().size());
+            int expected = reader.maxDoc() / 4;
+            for (AtomicReaderContext leaf : reader.leaves()) {
+                assertTrue(leaf.reader().maxDoc() + " docs", Math.abs(leaf.reader().maxDoc() - expected) <= 100);
+            }
+
+            // Documents keep the order they were added in
+            for (int i = 0; i < reader.maxDoc(); i++) {
+                assertEquals(String.valueOf(i), reader.document(i).get("id"));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testMergeToOneSegment() throws Exception {
+        DirectoryReader reader = buildAndMerge(new int[]{10, 20, 30, 40}, 1);
+        try {
+            assertEquals(1, reader.leaves().size());
+            assertEquals(100, reader.maxDoc());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testFewerSegmentsThanRequested() throws Exception {
+        DirectoryReader reader = buildAndMerge(new int[]{10, 20}, 4);
+        try {
+            assertEquals(2, reader.leaves().size());
+        } finally {
+            reader.close();
+        }
+    }
+}
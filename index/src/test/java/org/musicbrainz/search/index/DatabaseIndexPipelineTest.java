@@ -0,0 +1,131 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseIndexPipelineTest {
+
+    /**
+     * Creates one document per id, failing on a given id in the fetch or build stage
+     */
+    private static class TestIndex implements PipelinedIndex {
+
+        private final int failFetchAt;
+        private final int failBuildAt;
+
+        TestIndex(int failFetchAt, int failBuildAt) {
+            this.failFetchAt = failFetchAt;
+            this.failBuildAt = failBuildAt;
+        }
+
+        public Chunk fetchData(final int min, final int max) throws SQLException {
+            if (min <= failFetchAt && failFetchAt <= max) {
+                throw new SQLException("fetch failed");
+            }
+            return new Chunk() {
+                public List<Document> buildDocuments() throws IOException {
+                    if (min <= failBuildAt && failBuildAt <= max) {
+                        throw new IOException("build failed");
+                    }
+                    List<Document> docs = new ArrayList<Document>();
+                    for (int i = min; i <= max; i++) {
+                        Document doc = new Document();
+                        doc.add(new StringField("id", String.valueOf(i), Field.Store.YES));
+                        docs.add(doc);
+                    }
+                    return docs;
+                }
+            };
+        }
+
+        public String getName() {
+            return "test";
+        }
+
+        public String getFilename() {
+            return "test_index";
+        }
+
+        public Analyzer getAnalyzer() {
+            return DatabaseIndex.getAnalyzer(TagIndexField.class);
+        }
+
+        public void addMetaInformation(IndexWriter indexWriter) {
+        }
+
+        public Similarity getSimilarity() {
+            return null;
+        }
+    }
+
+    private IndexWriter createIndexWriter(RAMDirectory ramDir) throws IOException {
+        return new IndexWriter(ramDir, new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, new TestIndex(-1, -1).getAnalyzer()));
+    }
+
+    @Test
+    public void testDocumentsWrittenInOrder() throws Exception {
+        RAMDirectory ramDir = new RAMDirectory();
+        IndexWriter writer = createIndexWriter(ramDir);
+        DatabaseIndexPipeline pipeline = new DatabaseIndexPipeline(new TestIndex(-1, -1), 2);
+        pipeline.indexData(writer, 0, 99, 7);
+        writer.close();
+
+        assertEquals(15, pipeline.getChunksFetched());
+        assertEquals(100, pipeline.getDocumentsWritten());
+        IndexReader ir = DirectoryReader.open(ramDir);
+        assertEquals(100, ir.numDocs());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), ir.document(i).get("id"));
+        }
+        ir.close();
+    }
+
+    @Test
+    public void testFetchErrorIsThrown() throws Exception {
+        IndexWriter writer = createIndexWriter(new RAMDirectory());
+        DatabaseIndexPipeline pipeline = new DatabaseIndexPipeline(new TestIndex(50, -1), 1);
+        try {
+            pipeline.indexData(writer, 0, 99, 5);
+            fail("Expected fetch error");
+        }
+        catch (SQLException e) {
+            assertEquals("fetch failed", e.getMessage());
+        }
+        writer.close();
+        assertTrue(pipeline.getDocumentsWritten() <= 50);
+    }
+
+    @Test
+    public void testBuildErrorIsThrown() throws Exception {
+        IndexWriter writer = createIndexWriter(new RAMDirectory());
+        DatabaseIndexPipeline pipeline = new DatabaseIndexPipeline(new TestIndex(-1, 50), 1);
+        try {
+            pipeline.indexData(writer, 0, 99, 5);
+            fail("Expected build error");
+        }
+        catch (IOException e) {
+            assertEquals("build failed", e.getMessage());
+        }
+        writer.close();
+        assertTrue(pipeline.getDocumentsWritten() <= 50);
+    }
+}
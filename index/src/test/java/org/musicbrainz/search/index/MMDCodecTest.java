@@ -0,0 +1,82 @@
+package org.musicbrainz.search.index;
+
+import org.junit.Test;
+import org.musicbrainz.mmd2.*;
+
+import javax.xml.namespace.QName;
+import java.math.BigInteger;
+
+import static org.junit.Assert.*;
+
+public class MMDCodecTest {
+
+    private Recording createRecording() {
+        ObjectFactory of = new ObjectFactory();
+        Recording recording = of.createRecording();
+        recording.setId("2f250ed2-6285-40f1-aa2a-14f1c05e9765");
+        recording.setTitle("Crocodiles & \u00e9\u00e8 <Live>");
+        recording.setLength(BigInteger.valueOf(33000));
+
+        ArtistCredit ac = of.createArtistCredit();
+        NameCredit nc = of.createNameCredit();
+        Artist artist = of.createArtist();
+        artist.setId("ccd4879c-5e88-4385-b131-bf65296bf245");
+        artist.setName("Echo & The Bunnymen");
+        nc.setArtist(artist);
+        nc.setJoinphrase(" & ");
+        ac.getNameCredit().add(nc);
+        recording.setArtistCredit(ac);
+
+        Rating rating = of.createRating();
+        rating.setValue(4.5f);
+        rating.setVotesCount(BigInteger.valueOf(3));
+        recording.setRating(rating);
+
+        RelationList relationList = of.createRelationList();
+        Relation relation = of.createRelation();
+        relation.setType("performer");
+        relation.setDirection(DefDirection.BACKWARD);
+        relation.setArtist(artist);
+        relationList.getRelation().add(relation);
+        recording.getRelationList().add(relationList);
+
+        //Empty list is kept distinct from a null list
+        recording.setTagList(of.createTagList());
+        recording.getTagList().getTag();
+        return recording;
+    }
+
+    @Test
+    public void testRoundTripGivesSameXml() throws Exception {
+        Recording recording = createRecording();
+        byte[] bytes = MMDCodec.encode(recording);
+        assertEquals(MMDCodec.VERSION, bytes[0]);
+        Recording decoded = (Recording) MMDCodec.decode(bytes);
+        assertEquals(MMDSerializer.serialize(recording), MMDSerializer.serialize(decoded));
+        assertEquals(4.5f, decoded.getRating().getValue(), 0);
+        assertEquals(DefDirection.BACKWARD, decoded.getRelationList().get(0).getRelation().get(0).getDirection());
+        assertNotNull(decoded.getTagList());
+        assertTrue(bytes.length < MMDSerializer.serialize(recording).length());
+    }
+
+    @Test
+    public void testRoundTripFromXml() throws Exception {
+        String xml = MMDSerializer.serialize(createRecording());
+        Object o = MMDSerializer.unserialize(xml, Recording.class);
+        assertEquals(xml, MMDSerializer.serialize(MMDCodec.decode(MMDCodec.encode(o))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOtherAttributesNotSupported() throws Exception {
+        Recording recording = createRecording();
+        recording.getOtherAttributes().put(new QName("http://example.org/", "extra"), "value");
+        MMDCodec.encode(recording);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVersion() throws Exception {
+        byte[] bytes = MMDCodec.encode(createRecording());
+        bytes[0] = MMDCodec.VERSION + 1;
+        MMDCodec.decode(bytes);
+    }
+}
@@ -0,0 +1,329 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Builds indexes from the small mbdump fixture in src/test/resources/mbdump, and checks they are the same as when
+ * built from a database holding the same rows
+ */
+public class MbDumpDatabaseTest extends AbstractIndexTest {
+
+    private File dumpDir;
+    private File workDir;
+    private MbDumpDatabase mbDumpDatabase;
+    private Connection dumpConn;
+
+    @Before
+    public void setupDump() throws Exception {
+        dumpDir = new File(MbDumpDatabaseTest.class.getResource("/mbdump/artist").toURI()).getParentFile();
+        workDir = File.createTempFile("mbdump_work", "");
+        workDir.delete();
+        mbDumpDatabase = new MbDumpDatabase(dumpDir, workDir);
+        mbDumpDatabase.open();
+        dumpConn = mbDumpDatabase.getConnection();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dumpConn.close();
+        mbDumpDatabase.delete();
+        conn.close();
+    }
+
+    /**
+     * Insert the rows of the dump files into the test database
+     */
+    private void loadDumpIntoDatabase() throws Exception {
+        for (File file : dumpDir.listFiles()) {
+            Set<String> databaseColumns = new HashSet<String>();
+            ResultSet rs = conn.getMetaData().getColumns(null, null, file.getName().toUpperCase(), null);
+            while (rs.next()) {
+                databaseColumns.add(rs.getString("COLUMN_NAME").toLowerCase());
+            }
+            rs.close();
+
+            List<String> columns;
+            try {
+                columns = MbDumpDatabase.getColumns(file.getName());
+            }
+            catch (IllegalArgumentException iae) {
+                // Not read by the indexes
+                continue;
+            }
+            List<Integer> loaded = new ArrayList<Integer>();
+            StringBuilder names = new StringBuilder();
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < columns.size(); i++) {
+                if (databaseColumns.contains(columns.get(i).toLowerCase())) {
+                    loaded.add(i);
+                    names.append(names.length() > 0 ? "," : "").append(columns.get(i));
+                    values.append(values.length() > 0 ? ",?" : "?");
+                }
+            }
+            conn.createStatement().execute("DELETE FROM " + file.getName());
+            PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO " + file.getName() + " (" + names + ") VALUES (" + values + ")");
+            MbDumpReader reader = new MbDumpReader(file);
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                for (int i = 0; i < loaded.size(); i++) {
+                    String value = row.get(loaded.get(i));
+                    insert.setString(i + 1, value != null && value.equals("t") ? "true"
+                            : value != null && value.equals("f") ? "false" : value);
+                }
+                insert.executeUpdate();
+            }
+            reader.close();
+            insert.close();
+        }
+    }
+
+    private RAMDirectory createIndex(DatabaseIndex index, Connection dbConnection, Class indexFieldClass) throws Exception {
+        RAMDirectory ramDir = new RAMDirectory();
+        IndexWriter writer = createIndexWriter(ramDir, indexFieldClass);
+        CommonTables ct = new CommonTables(dbConnection, index.getName());
+        ct.createTemporaryTables(false);
+        index.init(writer, false);
+        index.addMetaInformation(writer);
+        index.indexData(writer, 0, index.getMaxId());
+        index.destroy();
+        writer.close();
+        return ramDir;
+    }
+
+    private Set<String> getStoredValues(RAMDirectory ramDir, IndexField field) throws Exception {
+        Set<String> values = new HashSet<String>();
+        IndexReader ir = DirectoryReader.open(ramDir);
+        for (int i = 0; i < ir.maxDoc(); i++) {
+            String value = ir.document(i).get(field.getName());
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        ir.close();
+        return values;
+    }
+
+    /**
+     * @return the stored fields of each document except the meta document, which holds the time it was built
+     */
+    private List<String> getDocuments(RAMDirectory ramDir) throws Exception {
+        List<String> documents = new ArrayList<String>();
+        IndexReader ir = DirectoryReader.open(ramDir);
+        for (int i = 0; i < ir.maxDoc(); i++) {
+            Document doc = ir.document(i);
+            if (doc.get(MetaIndexField.META.getName()) == null) {
+                documents.add(doc.toString());
+            }
+        }
+        ir.close();
+        Collections.sort(documents);
+        return documents;
+    }
+
+    private void checkSameAsDatabase(DatabaseIndex dumpIndex, DatabaseIndex databaseIndex, Class indexFieldClass)
+            throws Exception {
+        loadDumpIntoDatabase();
+        List<String> dumpDocuments = getDocuments(createIndex(dumpIndex, dumpConn, indexFieldClass));
+        assertFalse(dumpDocuments.isEmpty());
+        assertEquals(getDocuments(createIndex(databaseIndex, conn, indexFieldClass)), dumpDocuments);
+    }
+
+    @Test
+    public void testReadRow() throws Exception {
+        MbDumpReader reader = new MbDumpReader(new StringReader("1\tLiverpool\\tband\t\\N\tline\\nbreak\\\\\t\n2\t\\101\\x42\t\t\t\n"));
+        assertEquals(Arrays.asList("1", "Liverpool\tband", null, "line\nbreak\\", ""), reader.readRow());
+        List<String> row = reader.readRow();
+        assertEquals("AB", row.get(1));
+        assertEquals(5, row.size());
+        assertNull(reader.readRow());
+        reader.close();
+    }
+
+    @Test
+    public void testWriteRow() throws Exception {
+        List<String> row = Arrays.asList("1", "Liverpool\tband", null, "line\nbreak\\\r", "");
+        StringWriter out = new StringWriter();
+        MbDumpWriter writer = new MbDumpWriter(out);
+        writer.writeRow(row);
+        writer.close();
+        assertEquals("1\tLiverpool\\tband\t\\N\tline\\nbreak\\\\\\r\t\n", out.toString());
+        assertEquals(row, new MbDumpReader(new StringReader(out.toString())).readRow());
+    }
+
+    /**
+     * A table larger than a sort run is sorted on its key, rows with the same key keeping their order, and its rows
+     * are read by range and by key
+     */
+    @Test
+    public void testSortedTable() throws Exception {
+        File file = new File(workDir, "unsorted");
+        MbDumpWriter writer = new MbDumpWriter(file);
+        Random random = new Random(1);
+        int[] counts = new int[100000];
+        for (int i = 0; i < 450000; i++) {
+            int key = random.nextInt(counts.length);
+            writer.writeRow(Arrays.asList(String.valueOf(i), String.valueOf(key), "row " + counts[key]++));
+        }
+        writer.writeRow(Arrays.asList("450000", null, "no key"));
+        writer.close();
+
+        MbDumpTable table = MbDumpTable.open(file, 1, new File(workDir, "sorted"));
+        assertEquals(new File(workDir, "sorted"), table.getFile());
+        assertEquals(450000, table.getNoOfRows());
+        assertEquals(counts.length - 1, table.getMaxKey());
+
+        MbDumpTable.Reader reader = table.openReader();
+        List<List<String>> rows = reader.read(RowIds.between(500, 600));
+        int expected = 0;
+        for (int key = 500; key <= 600; key++) {
+            expected += counts[key];
+        }
+        assertEquals(expected, rows.size());
+        int previousKey = 500;
+        int previousNo = -1;
+        for (List<String> row : rows) {
+            int key = Integer.parseInt(row.get(1));
+            int no = Integer.parseInt(row.get(2).substring(4));
+            assertTrue(key >= previousKey);
+            assertTrue(key > previousKey || no == previousNo + 1);
+            previousNo = key > previousKey ? no : previousNo + 1;
+            previousKey = key;
+        }
+
+        rows = reader.read(RowIds.of(Arrays.asList(99999, 7, 7, 12345)));
+        assertEquals(counts[7] + counts[12345] + counts[99999], rows.size());
+        assertEquals("7", rows.get(0).get(1));
+        assertEquals("99999", rows.get(rows.size() - 1).get(1));
+        assertTrue(reader.read(RowIds.between(100000, 200000)).isEmpty());
+        reader.close();
+
+        // Already sorted, so used as it is
+        assertEquals(table.getFile(), MbDumpTable.open(table.getFile(), 1, new File(workDir, "resorted")).getFile());
+    }
+
+    @Test
+    public void testReplicationInformation() throws Exception {
+        ReplicationInformation info = new ArtistIndex(dumpConn).readReplicationInformationFromDatabase();
+        assertEquals(21, info.schemaSequence.intValue());
+        assertEquals(87000, info.replicationSequence.intValue());
+    }
+
+    @Test
+    public void testMaxIdAndNoOfRows() throws Exception {
+        ArtistIndex artistIndex = new ArtistIndex(dumpConn);
+        assertEquals(16154, artistIndex.getMaxId());
+        assertEquals(2, artistIndex.getNoOfRows(16154));
+        assertEquals(1, artistIndex.getNoOfRows(16153));
+        assertEquals(2, new RecordingIndex(dumpConn).getNoOfRows(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Concurrent builds use their own connections, and the sorted and joined files are gone once the indexes are
+     * built
+     */
+    @Test
+    public void testConcurrentBuildsAndDelete() throws Exception {
+        Connection releaseConn = mbDumpDatabase.getConnection();
+        Connection recordingConn = mbDumpDatabase.getConnection();
+        RAMDirectory releaseDir = createIndex(new ReleaseIndex(releaseConn), releaseConn, ReleaseIndexField.class);
+        RAMDirectory recordingDir = createIndex(new RecordingIndex(recordingConn), recordingConn, RecordingIndexField.class);
+        releaseConn.close();
+        recordingConn.close();
+        assertEquals(1, getStoredValues(releaseDir, ReleaseIndexField.RELEASE_ID).size());
+        assertEquals(2, getStoredValues(recordingDir, RecordingIndexField.RECORDING_ID).size());
+        assertTrue(workDir.list().length > 0);
+
+        mbDumpDatabase.delete();
+        assertFalse(workDir.exists());
+    }
+
+    @Test
+    public void testBuildArtistIndex() throws Exception {
+        RAMDirectory ramDir = createIndex(new ArtistIndex(dumpConn), dumpConn, ArtistIndexField.class);
+        IndexReader ir = DirectoryReader.open(ramDir);
+        assertEquals(3, ir.numDocs());
+        ir.close();
+        assertEquals(new HashSet<String>(Arrays.asList("ccd4879c-5e88-4385-b131-bf65296bf245", "5a7b4a87-2d1c-4a8e-9c6f-1f3e9c7a2b11")),
+                getStoredValues(ramDir, ArtistIndexField.ARTIST_ID));
+        assertTrue(getStoredValues(ramDir, ArtistIndexField.ARTIST_STORE).iterator().next().length() > 0);
+    }
+
+    @Test
+    public void testBuildLabelIndex() throws Exception {
+        RAMDirectory ramDir = createIndex(new LabelIndex(dumpConn), dumpConn, LabelIndexField.class);
+        assertEquals(new HashSet<String>(Arrays.asList("a0759efa-f583-49ea-9a8d-d5bbce55541c")),
+                getStoredValues(ramDir, LabelIndexField.LABEL_ID));
+    }
+
+    @Test
+    public void testBuildReleaseGroupIndex() throws Exception {
+        RAMDirectory ramDir = createIndex(new ReleaseGroupIndex(dumpConn), dumpConn, ReleaseGroupIndexField.class);
+        assertEquals(new HashSet<String>(Arrays.asList("efd2ace2-b3b9-305f-8a53-9803595c0e37")),
+                getStoredValues(ramDir, ReleaseGroupIndexField.RELEASEGROUP_ID));
+    }
+
+    @Test
+    public void testBuildReleaseIndex() throws Exception {
+        RAMDirectory ramDir = createIndex(new ReleaseIndex(dumpConn), dumpConn, ReleaseIndexField.class);
+        assertEquals(new HashSet<String>(Arrays.asList("c3b8dbc9-c1ff-4743-9015-8d762819134e")),
+                getStoredValues(ramDir, ReleaseIndexField.RELEASE_ID));
+    }
+
+    @Test
+    public void testBuildRecordingIndex() throws Exception {
+        RAMDirectory ramDir = createIndex(new RecordingIndex(dumpConn), dumpConn, RecordingIndexField.class);
+        assertEquals(new HashSet<String>(Arrays.asList("2f250ed2-6285-40f1-aa2a-14f1c05e9765", "7a8b1c2d-3e4f-4a5b-8c6d-7e8f9a0b1c2d")),
+                getStoredValues(ramDir, RecordingIndexField.RECORDING_ID));
+        String store = getStoredValues(ramDir, RecordingIndexField.RECORDING_STORE).iterator().next();
+        assertTrue(store.contains("Crocodiles"));
+    }
+
+    @Test
+    public void testArtistIndexSameAsDatabase() throws Exception {
+        checkSameAsDatabase(new ArtistIndex(dumpConn), new ArtistIndex(conn), ArtistIndexField.class);
+    }
+
+    @Test
+    public void testLabelIndexSameAsDatabase() throws Exception {
+        checkSameAsDatabase(new LabelIndex(dumpConn), new LabelIndex(conn), LabelIndexField.class);
+    }
+
+    @Test
+    public void testReleaseGroupIndexSameAsDatabase() throws Exception {
+        checkSameAsDatabase(new ReleaseGroupIndex(dumpConn), new ReleaseGroupIndex(conn), ReleaseGroupIndexField.class);
+    }
+
+    @Test
+    public void testReleaseIndexSameAsDatabase() throws Exception {
+        checkSameAsDatabase(new ReleaseIndex(dumpConn), new ReleaseIndex(conn), ReleaseIndexField.class);
+    }
+
+    @Test
+    public void testRecordingIndexSameAsDatabase() throws Exception {
+        checkSameAsDatabase(new RecordingIndex(dumpConn), new RecordingIndex(conn), RecordingIndexField.class);
+    }
+}
@@ -4,19 +4,49 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.NumericUtils;
 import org.junit.Test;
 import org.musicbrainz.mmd2.*;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.MbDocument;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
 
 public class RecordingIndexTest extends AbstractIndexTest {
 
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private String databaseUrl;
+
+    /**
+     * Named, unlike the private database of the other tests, so that database workers can open their own connections
+     * to it, the name is unique to the test so tests can still run concurrently
+     */
+    @Override
+    protected void createConnection() throws Exception {
+        Class.forName("org.h2.Driver");
+        databaseUrl = "jdbc:h2:mem:recording" + databases.incrementAndGet() + ";MODE=PostgreSQL";
+        conn = DriverManager.getConnection(databaseUrl);
+    }
+
 	private void createIndex(RAMDirectory ramDir) throws Exception {
 		createIndex(ramDir, true);
 	}
@@ -33,6 +63,50 @@ public class RecordingIndexTest extends AbstractIndexTest {
         writer.close();
     }
 
+    /**
+     * Each worker has its own connection to the test database, on which it creates the temporary tables it needs as
+     * the index builder does
+     */
+    private void createIndexWithWorkers(RAMDirectory ramDir, int noOfWorkers) throws Exception {
+        IndexWriter writer = createIndexWriter(ramDir, RecordingIndexField.class);
+        RecordingIndex ri = new RecordingIndex(conn);
+        ri.addMetaInformation(writer);
+        List<RecordingIndex> workers = new ArrayList<RecordingIndex>();
+        try {
+            for (int i = 0; i < noOfWorkers; i++) {
+                Connection workerConn = DriverManager.getConnection(databaseUrl);
+                RecordingIndex worker = new RecordingIndex(workerConn);
+                workers.add(worker);
+                CommonTables ct = new CommonTables(workerConn, worker.getName());
+                ct.createTemporaryTables(true);
+                worker.init(writer, true);
+            }
+            new ParallelDatabaseIndexer(workers, 1).indexData(writer, 0, ri.getMaxId());
+        }
+        finally {
+            for (RecordingIndex worker : workers) {
+                worker.destroy();
+                worker.getDbConnection().close();
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * @return the stored fields of each recording, in order
+     */
+    private List<String> getRecordings(IndexReader ir) throws Exception {
+        List<String> recordings = new ArrayList<String>();
+        for (int i = 0; i < ir.maxDoc(); i++) {
+            Document doc = ir.document(i);
+            if (doc.get(RecordingIndexField.RECORDING_ID.getName()) != null) {
+                recordings.add(doc.toString());
+            }
+        }
+        Collections.sort(recordings);
+        return recordings;
+    }
+
 
     /**
      * All Basic Fields Plus Release Events
@@ -271,6 +345,235 @@ public class RecordingIndexTest extends AbstractIndexTest {
         ir.close();
     }
     
+    /**
+     * Loading the recordings with several database workers gives the same documents as loading them serially
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testIndexRecordingWithParallelWorkers() throws Exception {
+
+        addTrackOne();
+        addStandaloneRecordings();
+
+        RAMDirectory serialDir = new RAMDirectory();
+        createIndex(serialDir, true);
+        RAMDirectory parallelDir = new RAMDirectory();
+        createIndexWithWorkers(parallelDir, 3);
+
+        IndexReader serialReader = DirectoryReader.open(serialDir);
+        IndexReader parallelReader = DirectoryReader.open(parallelDir);
+        assertEquals(7, serialReader.numDocs());
+        assertEquals(serialReader.numDocs(), parallelReader.numDocs());
+        assertEquals(getRecordingIds(serialReader), getRecordingIds(parallelReader));
+        assertEquals(getRecordings(serialReader), getRecordings(parallelReader));
+        serialReader.close();
+        parallelReader.close();
+    }
+
+    /**
+     * Fetching and building documents in a pipeline gives the same documents as loading them serially
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testIndexRecordingWithPipeline() throws Exception {
+
+        addTrackOne();
+        addStandaloneRecordings();
+
+        RAMDirectory serialDir = new RAMDirectory();
+        createIndex(serialDir, true);
+
+        RAMDirectory pipelineDir = new RAMDirectory();
+        IndexWriter writer = createIndexWriter(pipelineDir, RecordingIndexField.class);
+        RecordingIndex ri = new RecordingIndex(conn);
+        ri.init(writer, false);
+        ri.addMetaInformation(writer);
+        DatabaseIndexPipeline pipeline = new DatabaseIndexPipeline(ri, 1);
+        pipeline.indexData(writer, 0, ri.getMaxId(), 2);
+        ri.destroy();
+        writer.close();
+
+        assertEquals(4, pipeline.getChunksFetched());
+        assertEquals(4, pipeline.getChunksBuilt());
+        assertEquals(6, pipeline.getDocumentsBuilt());
+        assertEquals(6, pipeline.getDocumentsWritten());
+
+        IndexReader serialReader = DirectoryReader.open(serialDir);
+        IndexReader pipelineReader = DirectoryReader.open(pipelineDir);
+        assertEquals(serialReader.numDocs(), pipelineReader.numDocs());
+        for (int i = 0; i < serialReader.maxDoc(); i++) {
+            assertEquals(serialReader.document(i).get(RecordingIndexField.RECORDING_STORE.getName()),
+                    pipelineReader.document(i).get(RecordingIndexField.RECORDING_STORE.getName()));
+        }
+        serialReader.close();
+        pipelineReader.close();
+    }
+
+    /**
+     * Recordings stored in the binary format give the same xml as when stored as xml
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testIndexRecordingWithBinaryStoreFormat() throws Exception {
+
+        addTrackOne();
+        addStandaloneRecordings();
+
+        RAMDirectory xmlDir = new RAMDirectory();
+        createIndex(xmlDir, true);
+
+        RAMDirectory binaryDir = new RAMDirectory();
+        MMDSerializer.setStoreFormat(MMDSerializer.StoreFormat.BINARY);
+        try {
+            IndexWriter writer = createIndexWriter(binaryDir, RecordingIndexField.class);
+            RecordingIndex ri = new RecordingIndex(conn);
+            ri.init(writer, false);
+            ri.addMetaInformation(writer);
+            ri.indexData(writer, 0, Integer.MAX_VALUE);
+            ri.destroy();
+            writer.close();
+        }
+        finally {
+            MMDSerializer.setStoreFormat(MMDSerializer.StoreFormat.XML);
+        }
+
+        IndexReader xmlReader = DirectoryReader.open(xmlDir);
+        IndexReader binaryReader = DirectoryReader.open(binaryDir);
+        assertEquals(xmlReader.numDocs(), binaryReader.numDocs());
+        for (int i = 0; i < xmlReader.maxDoc(); i++) {
+            String xml = xmlReader.document(i).get(RecordingIndexField.RECORDING_STORE.getName());
+            if (xml == null) {
+                continue;
+            }
+            MbDocument binaryDoc = new MbDocument(binaryReader.document(i));
+            assertNull(binaryDoc.get(RecordingIndexField.RECORDING_STORE));
+            assertNotNull(binaryDoc.getBinaryValue(RecordingIndexField.RECORDING_STORE));
+            Recording recording = (Recording) MMDSerializer.unserialize(binaryDoc, RecordingIndexField.RECORDING_STORE, Recording.class);
+            assertEquals(MMDSerializer.serialize(MMDSerializer.unserialize(xml, Recording.class)), MMDSerializer.serialize(recording));
+        }
+        xmlReader.close();
+        binaryReader.close();
+    }
+
+    /**
+     * Reindexing a batch of recordings as the updater does gives the same documents as reindexing them one at a time
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testIndexRecordingsInBatch() throws Exception {
+
+        addTrackOne();
+        addStandaloneRecordings();
+        new CommonTables(conn, RecordingIndex.INDEX_NAME).createTemporaryTables(true);
+        List<Integer> ids = new ArrayList<Integer>();
+        ids.add(6);
+        ids.add(1);
+        ids.add(3);
+        ids.add(9);
+        ids.add(4);
+
+        RAMDirectory singleDir = new RAMDirectory();
+        IndexWriter writer = createIndexWriter(singleDir, RecordingIndexField.class);
+        RecordingIndex ri = new RecordingIndex(conn);
+        ri.init(writer, true);
+        for (Integer id : ids) {
+            ri.indexData(writer, id, id);
+        }
+        ri.destroy();
+        writer.close();
+
+        RAMDirectory batchDir = new RAMDirectory();
+        writer = createIndexWriter(batchDir, RecordingIndexField.class);
+        ri = new RecordingIndex(conn);
+        ri.init(writer, true);
+        ri.indexData(writer, ids);
+        ri.destroy();
+        writer.close();
+
+        IndexReader singleReader = DirectoryReader.open(singleDir);
+        IndexReader batchReader = DirectoryReader.open(batchDir);
+        assertEquals(4, singleReader.numDocs());
+        assertEquals(getRecordingStores(singleReader), getRecordingStores(batchReader));
+        singleReader.close();
+        batchReader.close();
+    }
+
+    /**
+     * Updating recordings replaces their documents, and deletes those of recordings no longer in the database
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testUpdateRecordings() throws Exception {
+
+        addTrackOne();
+        addStandaloneRecordings();
+        RAMDirectory ramDir = new RAMDirectory();
+        createIndex(ramDir);
+
+        Statement stmt = conn.createStatement();
+        stmt.execute("UPDATE recording SET name='Recording 3 Renamed' WHERE id=3");
+        stmt.execute("DELETE FROM recording WHERE id=6");
+        stmt.close();
+
+        IndexWriterConfig config = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, DatabaseIndex.getAnalyzer(RecordingIndexField.class));
+        IndexWriter writer = new ThreadedIndexWriter(ramDir, config, 2, 10);
+        RecordingIndex ri = new RecordingIndex(conn);
+        ri.init(writer, true);
+        List<Integer> ids = new ArrayList<Integer>();
+        ids.add(6);
+        ids.add(3);
+        ri.updateData(writer, ids);
+        ri.destroy();
+        writer.close();
+
+        IndexReader ir = DirectoryReader.open(ramDir);
+        assertEquals(6, ir.numDocs());
+        Map<String, String> stores = getRecordingStores(ir);
+        assertTrue(stores.get("2f250ed2-6285-40f1-aa2a-14f1c05e9763").contains("Recording 3 Renamed"));
+        assertTrue(stores.containsKey("2f250ed2-6285-40f1-aa2a-14f1c05e9764"));
+        assertFalse(stores.containsKey("2f250ed2-6285-40f1-aa2a-14f1c05e9766"));
+        ir.close();
+    }
+
+    private Map<String, String> getRecordingStores(IndexReader ir) throws Exception {
+        Map<String, String> stores = new HashMap<String, String>();
+        Bits liveDocs = MultiFields.getLiveDocs(ir);
+        for (int i = 0; i < ir.maxDoc(); i++) {
+            if (liveDocs != null && !liveDocs.get(i)) {
+                continue;
+            }
+            Document doc = ir.document(i);
+            stores.put(doc.get(RecordingIndexField.RECORDING_ID.getName()), doc.get(RecordingIndexField.RECORDING_STORE.getName()));
+        }
+        return stores;
+    }
+
+    private void addStandaloneRecordings() throws Exception {
+        Statement stmt = conn.createStatement();
+        for (int i = 2; i <= 6; i++) {
+            stmt.addBatch("INSERT INTO recording (id, gid, name, artist_credit, length)"
+                    + " VALUES (" + i + ", '2f250ed2-6285-40f1-aa2a-14f1c05e976" + i + "', 'Recording " + i + "', 3, 33000)");
+        }
+        stmt.executeBatch();
+        stmt.close();
+    }
+
+    private Set<String> getRecordingIds(IndexReader ir) throws Exception {
+        Set<String> ids = new HashSet<String>();
+        for (int i = 0; i < ir.maxDoc(); i++) {
+            String id = ir.document(i).get(RecordingIndexField.RECORDING_ID.getName());
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
     /**
      * Basic test of all fields
      *
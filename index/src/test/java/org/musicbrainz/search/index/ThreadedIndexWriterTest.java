@@ -0,0 +1,187 @@
+package org.musicbrainz.search.index;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Jobs queued on the threaded writer are applied as if run one after another, and are all applied before a commit
+ */
+public class ThreadedIndexWriterTest {
+
+    private static final int IDS = 50;
+
+    private RAMDirectory dir;
+    private ThreadedIndexWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = new RAMDirectory();
+        writer = new ThreadedIndexWriter(dir, new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, new KeywordAnalyzer()), 4, 10);
+    }
+
+    private static Document createDoc(int id, int version) {
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(id), Field.Store.YES));
+        doc.add(new StringField("version", Integer.toString(version), Field.Store.YES));
+        return doc;
+    }
+
+    /**
+     * @return a document that fails to be added to the index when its text is read
+     */
+    private static Document createUnreadableDoc(int id) {
+        Document doc = createDoc(id, 0);
+        doc.add(new TextField("text", new Reader() {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("Unreadable");
+            }
+
+            @Override
+            public void close() {
+            }
+        }));
+        return doc;
+    }
+
+    private static Term idTerm(int id) {
+        return new Term("id", Integer.toString(id));
+    }
+
+    @Test
+    public void testQueuedJobsCommitted() throws Exception {
+        for (int id = 0; id < IDS; id++) {
+            writer.addDocument(createDoc(id, 0));
+        }
+        writer.commit();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        assertEquals(IDS, reader.numDocs());
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    public void testUpdatesOfTheSameTermAppliedInOrder() throws Exception {
+        for (int version = 0; version < 10; version++) {
+            for (int id = 0; id < IDS; id++) {
+                writer.updateDocument(idTerm(id), createDoc(id, version));
+            }
+        }
+        // Deleted before being updated again
+        writer.deleteDocuments(idTerm(3));
+        writer.updateDocument(idTerm(3), createDoc(3, 10));
+        // Deleted after being updated
+        writer.deleteDocuments(idTerm(4));
+        writer.commit();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        IndexSearcher searcher = new IndexSearcher(reader);
+        assertEquals(IDS - 1, reader.numDocs());
+        for (int id = 0; id < IDS; id++) {
+            TopDocs hits = searcher.search(new TermQuery(idTerm(id)), 10);
+            if (id == 4) {
+                assertEquals(0, hits.totalHits);
+                continue;
+            }
+            assertEquals(1, hits.totalHits);
+            assertEquals(id == 3 ? "10" : "9", searcher.doc(hits.scoreDocs[0].doc).get("version"));
+        }
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    public void testAddsAfterDeletesKept() throws Exception {
+        for (int id = 0; id < IDS; id++) {
+            writer.addDocument(createDoc(id, 0));
+        }
+        for (int id = 0; id < IDS; id++) {
+            writer.deleteDocuments(idTerm(id));
+            writer.addDocument(createDoc(id, 1));
+        }
+        writer.close();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        IndexSearcher searcher = new IndexSearcher(reader);
+        assertEquals(IDS, reader.numDocs());
+        assertEquals(IDS, searcher.search(new TermQuery(new Term("version", "1")), 1).totalHits);
+        reader.close();
+    }
+
+    @Test
+    public void testFailureThrownAtCommit() throws Exception {
+        writer.addDocument(createDoc(0, 0));
+        writer.commit();
+
+        // Queued before the update, which fails, so the failure is not thrown by the add
+        writer.addDocument(createDoc(2, 0));
+        writer.updateDocument(idTerm(1), createUnreadableDoc(1));
+        try {
+            writer.commit();
+            fail("Failure of queued job not thrown");
+        } catch (IOException e) {
+            assertTrue(e.getCause().getMessage().contains("Unreadable"));
+        }
+        try {
+            writer.close();
+            fail("Failure of queued job not thrown");
+        } catch (IOException e) {
+            // Rolled back
+        }
+
+        IndexReader reader = DirectoryReader.open(dir);
+        assertEquals(1, reader.numDocs());
+        reader.close();
+    }
+
+    /**
+     * A document that fails on a worker thread is thrown to the caller from a later add through the IndexWriter
+     * methods the indexes call, and nothing is committed when the writer is closed
+     */
+    @Test
+    public void testFailureOfWorkerThrownToCaller() throws Exception {
+        IndexWriter indexWriter = writer;
+        indexWriter.addDocument(createDoc(0, 0));
+        indexWriter.addDocument(createUnreadableDoc(1));
+        try {
+            for (int id = 2; id < IDS * 1000; id++) {
+                indexWriter.addDocument(createDoc(id, 0));
+            }
+            fail("Failure of worker not thrown");
+        } catch (IOException e) {
+            assertTrue(e.getCause().getMessage().contains("Unreadable"));
+        }
+        try {
+            indexWriter.close();
+            fail("Failure of worker not thrown");
+        } catch (IOException e) {
+            // Rolled back
+        }
+
+        assertFalse(DirectoryReader.indexExists(dir));
+    }
+}
@@ -4,6 +4,7 @@ package org.musicbrainz.search.index;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class UtilsTest {
 
@@ -24,4 +25,14 @@ public class UtilsTest {
 		   
 	    }
 	
+    @Test
+    public void testDateToInt() throws Exception {
+        assertEquals(Integer.valueOf(19900000), Utils.dateToInt("1990"));
+        assertEquals(Integer.valueOf(19900400), Utils.dateToInt("1990-04"));
+        assertEquals(Integer.valueOf(19900401), Utils.dateToInt("1990-04-01"));
+        assertNull(Utils.dateToInt(""));
+        assertNull(Utils.dateToInt("199"));
+        assertNull(Utils.dateToInt("1990-4"));
+    }
+
 }
@@ -0,0 +1,252 @@
+package org.musicbrainz.mmd2.json;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the json of the writers created by {@link JsonWriterGenerator}, laid out and escaped the way one of the json
+ * libraries they replace writes it, so their output is identical.
+ *
+ * Jersey natural notation writes an object that has no members as null, ignores pretty printing, and only escapes
+ * control characters below 0x20. MOXy writes empty objects, indents pretty printed output by three spaces, and also
+ * escapes the other control characters and surrogates.
+ */
+public class JsonOutput {
+
+    public enum Dialect {
+        JERSEY_NATURAL,
+        MOXY
+    }
+
+    private static final String HEX_DIGITS = "0123456789ABCDEF";
+    private static final int    INDENT     = 3;
+
+    private final Writer  out;
+    private final Dialect dialect;
+    private final boolean isPretty;
+
+    private final char[] buffer = new char[8192];
+    private int          length = 0;
+
+    // Whether each enclosing container is an array, and how many of them are objects
+    private boolean[] isArray     = new boolean[16];
+    private int       depth       = 0;
+    private int       objectDepth = 0;
+
+    // No member or item written yet in the innermost container
+    private boolean isFirst = true;
+
+    // Jersey natural notation only, the innermost object has been started but its brace not written yet
+    private boolean isObjectPending = false;
+
+    /**
+     * @param out
+     * @param dialect
+     * @param isPretty pretty print, ignored by Jersey natural notation
+     */
+    public JsonOutput(Writer out, Dialect dialect, boolean isPretty) {
+        this.out = out;
+        this.dialect = dialect;
+        this.isPretty = isPretty && dialect == Dialect.MOXY;
+    }
+
+    public void startObject() throws IOException {
+        beforeValue();
+        push(false);
+        objectDepth++;
+        if (dialect == Dialect.JERSEY_NATURAL) {
+            isObjectPending = true;
+        }
+        else {
+            write('{');
+        }
+    }
+
+    public void endObject() throws IOException {
+        pop();
+        objectDepth--;
+        if (isObjectPending) {
+            isObjectPending = false;
+            write("null");
+            return;
+        }
+        if (isPretty) {
+            newLine();
+        }
+        write('}');
+    }
+
+    public void startArray() throws IOException {
+        beforeValue();
+        push(true);
+        write('[');
+    }
+
+    public void endArray() throws IOException {
+        pop();
+        if (isPretty) {
+            write(' ');
+        }
+        write(']');
+    }
+
+    /**
+     * Start a member of the current object, followed by its value
+     *
+     * @param name
+     * @throws IOException
+     */
+    public void name(String name) throws IOException {
+        if (isObjectPending) {
+            isObjectPending = false;
+            write('{');
+        }
+        if (!isFirst) {
+            write(',');
+        }
+        isFirst = false;
+        if (isPretty) {
+            newLine();
+        }
+        writeString(name);
+        write(isPretty ? " : " : ":");
+    }
+
+    public void value(String value) throws IOException {
+        beforeValue();
+        writeString(value);
+    }
+
+    /**
+     * Write a dateTime, MOXy only writes the fractional seconds to the millisecond and drops their trailing zeros
+     *
+     * @param value
+     * @throws IOException
+     */
+    public void dateTimeValue(XMLGregorianCalendar value) throws IOException {
+        String text = value.toXMLFormat();
+        int dot = text.indexOf('.', text.indexOf('T'));
+        if (dialect == Dialect.MOXY && dot >= 0) {
+            int end = dot + 1;
+            while (end < text.length() && Character.isDigit(text.charAt(end))) {
+                end++;
+            }
+            int last = Math.min(end, dot + 4);
+            while (last > dot + 1 && text.charAt(last - 1) == '0') {
+                last--;
+            }
+            text = text.substring(0, last == dot + 1 ? dot : last) + text.substring(end);
+        }
+        value(text);
+    }
+
+    /**
+     * Write a number or boolean as it is
+     *
+     * @param value
+     * @throws IOException
+     */
+    public void rawValue(String value) throws IOException {
+        beforeValue();
+        write(value);
+    }
+
+    public void nullValue() throws IOException {
+        beforeValue();
+        write("null");
+    }
+
+    /**
+     * Write out anything still buffered, the underlying writer is not flushed
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+
+    private void beforeValue() throws IOException {
+        if (depth == 0 || !isArray[depth - 1]) {
+            return;
+        }
+        if (!isFirst) {
+            write(',');
+        }
+        isFirst = false;
+        if (isPretty) {
+            write(' ');
+        }
+    }
+
+    private void push(boolean isArrayContainer) {
+        if (depth == isArray.length) {
+            boolean[] larger = new boolean[depth * 2];
+            System.arraycopy(isArray, 0, larger, 0, depth);
+            isArray = larger;
+        }
+        isArray[depth++] = isArrayContainer;
+        isFirst = true;
+    }
+
+    private void pop() {
+        depth--;
+        isFirst = false;
+    }
+
+    private void newLine() throws IOException {
+        write('\n');
+        for (int i = objectDepth * INDENT; i > 0; i--) {
+            write(' ');
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        write('"');
+        int count = value.length();
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':  write("\\\""); break;
+                case '\\': write("\\\\"); break;
+                case '\b': write("\\b"); break;
+                case '\f': write("\\f"); break;
+                case '\n': write("\\n"); break;
+                case '\r': write("\\r"); break;
+                case '\t': write("\\t"); break;
+                default:
+                    if (c < 0x20 || dialect == Dialect.MOXY
+                            && (c >= 0x7F && c <= 0x9F || Character.isHighSurrogate(c) || Character.isLowSurrogate(c))) {
+                        writeUnicodeEscape(c);
+                    }
+                    else {
+                        write(c);
+                    }
+            }
+        }
+        write('"');
+    }
+
+    private void writeUnicodeEscape(char c) throws IOException {
+        write("\\u");
+        write(HEX_DIGITS.charAt((c >> 12) & 0xF));
+        write(HEX_DIGITS.charAt((c >> 8) & 0xF));
+        write(HEX_DIGITS.charAt((c >> 4) & 0xF));
+        write(HEX_DIGITS.charAt(c & 0xF));
+    }
+
+    private void write(char c) throws IOException {
+        if (length == buffer.length) {
+            flush();
+        }
+        buffer[length++] = c;
+    }
+
+    private void write(String s) throws IOException {
+        int count = s.length();
+        for (int i = 0; i < count; i++) {
+            write(s.charAt(i));
+        }
+    }
+}
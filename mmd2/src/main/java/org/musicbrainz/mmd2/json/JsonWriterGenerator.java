@@ -0,0 +1,979 @@
+package org.musicbrainz.mmd2.json;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyAttribute;
+import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElements;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.XmlValue;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a json writer for the JAXB classes of the MMD, giving the same output as marshalling them with Jersey
+ * natural notation, or with MOXy and a binding file, but writing each class with code of its own rather than walking
+ * the classes reflectively on every response.
+ *
+ * The generated writer reads the fields of the classes directly, because MOXy writes an empty list but not a missing
+ * one and the JAXB getters create missing lists, so it has to be in the package of the classes. Extension elements
+ * and attributes are not written, they are never set by the search server.
+ *
+ * Usage: JsonWriterGenerator jersey|moxy rootClass writerClass sourceDirectory [bindingFile]
+ *
+ * MOXy is taken to be configured as the search server configures it, without the root element and with values
+ * written as name.
+ */
+public class JsonWriterGenerator {
+
+    private static final String JERSEY_VALUE_NAME = "$";
+    private static final String MOXY_VALUE_NAME   = "name";
+
+    private static final String INDENT = "    ";
+
+    enum Kind {
+        ATTRIBUTE,
+        ELEMENT,
+        VALUE
+    }
+
+    /**
+     * A field of a class as written in json
+     */
+    static class Property {
+        Field    field;
+        Kind     kind;
+        String   name;
+        boolean  isList;
+        // Type of the field, or of its items for a list
+        Class<?> type;
+        Class<?> adapter;
+        // Type written, the adapter's value type when there is an adapter
+        Class<?> valueType;
+        boolean  isNillable;
+        // Written as part of the enclosing object (MOXy xml-path=".")
+        boolean  isSelf;
+        // Name of each type of an XmlElements list
+        Map<Class<?>, String> choices;
+    }
+
+    static class TypeInfo {
+        Class<?>       type;
+        List<Property> attributes = new ArrayList<Property>();
+        List<Property> elements   = new ArrayList<Property>();
+        Property       value;
+    }
+
+    /**
+     * Customisation of a field in the binding file
+     */
+    static class BoundField {
+        boolean isTransient;
+        boolean isElement;
+        String  name;
+        boolean isSelf;
+        boolean isNillable;
+        String  adapter;
+    }
+
+    private final JsonOutput.Dialect dialect;
+    private final Class<?>           rootClass;
+    private final String             writerPackage;
+    private final String             writerName;
+
+    // Binding file customisations by class name (without package, nested classes after $) and field
+    private final Map<String, Map<String, BoundField>> boundFields = new HashMap<String, Map<String, BoundField>>();
+    // Element order of classes given a prop-order in the binding file, empty for declaration order
+    private final Map<String, List<String>>            boundOrders = new HashMap<String, List<String>>();
+    private String                                     boundPackage;
+
+    private final Map<Class<?>, TypeInfo> typeInfos   = new HashMap<Class<?>, TypeInfo>();
+    private final Set<Class<?>>           selfTypes   = new LinkedHashSet<Class<?>>();
+    private final Set<Class<?>>           objectTypes = new LinkedHashSet<Class<?>>();
+    private final Set<Class<?>>           adapters    = new LinkedHashSet<Class<?>>();
+    private final Set<String>             imports     = new TreeSet<String>();
+
+    public JsonWriterGenerator(JsonOutput.Dialect dialect, Class<?> rootClass, String writerClassName) {
+        this.dialect = dialect;
+        this.rootClass = rootClass;
+        int lastDot = writerClassName.lastIndexOf('.');
+        this.writerPackage = writerClassName.substring(0, lastDot);
+        this.writerName = writerClassName.substring(lastDot + 1);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4 || args.length > 5) {
+            System.err.println("Usage: JsonWriterGenerator jersey|moxy rootClass writerClass sourceDirectory [bindingFile]");
+            System.exit(1);
+        }
+        JsonOutput.Dialect dialect = args[0].equals("moxy") ? JsonOutput.Dialect.MOXY : JsonOutput.Dialect.JERSEY_NATURAL;
+        JsonWriterGenerator generator = new JsonWriterGenerator(dialect, Class.forName(args[1]), args[2]);
+        if (args.length == 5) {
+            generator.readBindingFile(new File(args[4]));
+        }
+
+        File file = new File(args[3], args[2].replace('.', File.separatorChar) + ".java");
+        file.getParentFile().mkdirs();
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write(generator.generate());
+        }
+        finally {
+            out.close();
+        }
+        System.out.println("Generated " + file);
+    }
+
+    /**
+     * Read the MOXy binding file, only the customisations used by the search server are supported
+     *
+     * @param bindingFile
+     * @throws Exception
+     */
+    public void readBindingFile(File bindingFile) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(bindingFile);
+        boundPackage = document.getDocumentElement().getAttribute("package-name");
+        for (Element javaType : children(document.getDocumentElement(), "java-types")) {
+            for (Element type : children(javaType, "java-type")) {
+                String typeName = type.getAttribute("name");
+                for (Element child : children(type, null)) {
+                    if (child.getTagName().equals("xml-type")) {
+                        String propOrder = child.getAttribute("prop-order").trim();
+                        boundOrders.put(typeName, propOrder.length() == 0 ? new ArrayList<String>()
+                                : Arrays.asList(propOrder.split("\\s+")));
+                    }
+                    else if (child.getTagName().equals("java-attributes")) {
+                        for (Element attribute : children(child, null)) {
+                            readBoundField(typeName, attribute);
+                        }
+                    }
+                    else {
+                        throw new IllegalArgumentException("Unsupported binding " + child.getTagName() + " of " + typeName);
+                    }
+                }
+            }
+        }
+    }
+
+    private void readBoundField(String typeName, Element attribute) {
+        Map<String, BoundField> fields = boundFields.get(typeName);
+        if (fields == null) {
+            fields = new HashMap<String, BoundField>();
+            boundFields.put(typeName, fields);
+        }
+        String fieldName = attribute.getAttribute("java-attribute");
+        BoundField field = fields.get(fieldName);
+        if (field == null) {
+            field = new BoundField();
+            fields.put(fieldName, field);
+        }
+
+        if (attribute.getTagName().equals("xml-transient")) {
+            field.isTransient = true;
+        }
+        else if (attribute.getTagName().equals("xml-element")) {
+            field.isElement = true;
+            if (attribute.hasAttribute("name")) {
+                field.name = attribute.getAttribute("name");
+            }
+            if (attribute.hasAttribute("xml-path")) {
+                if (!attribute.getAttribute("xml-path").equals(".")) {
+                    throw new IllegalArgumentException("Unsupported xml-path of " + typeName + "." + fieldName);
+                }
+                field.isSelf = true;
+            }
+            field.isNillable = field.isNillable || Boolean.parseBoolean(attribute.getAttribute("nillable"));
+            for (Element adapter : children(attribute, "xml-java-type-adapter")) {
+                field.adapter = adapter.getAttribute("value");
+            }
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported binding " + attribute.getTagName() + " of " + typeName);
+        }
+    }
+
+    private static List<Element> children(Element parent, String tagName) {
+        List<Element> elements = new ArrayList<Element>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && (tagName == null || ((Element) node).getTagName().equals(tagName))) {
+                elements.add((Element) node);
+            }
+        }
+        return elements;
+    }
+
+    private BoundField getBoundField(Class<?> type, String fieldName) {
+        Map<String, BoundField> fields = boundFields.get(getBoundName(type));
+        return fields != null ? fields.get(fieldName) : null;
+    }
+
+    private String getBoundName(Class<?> type) {
+        if (boundPackage == null || !type.getName().startsWith(boundPackage + ".")) {
+            return null;
+        }
+        return type.getName().substring(boundPackage.length() + 1);
+    }
+
+    /**
+     * @param type
+     * @return how the class is written, worked out once for each class
+     */
+    TypeInfo getTypeInfo(Class<?> type) throws ClassNotFoundException {
+        TypeInfo info = typeInfos.get(type);
+        if (info != null) {
+            return info;
+        }
+        info = new TypeInfo();
+        info.type = type;
+        typeInfos.put(type, info);
+
+        XmlAccessorType accessorType = type.getAnnotation(XmlAccessorType.class);
+        if (accessorType == null || accessorType.value() != XmlAccessType.FIELD) {
+            throw new IllegalArgumentException(type + " does not use field access");
+        }
+
+        if (type.getSuperclass() != Object.class) {
+            TypeInfo superInfo = getTypeInfo(type.getSuperclass());
+            info.attributes.addAll(superInfo.attributes);
+            info.elements.addAll(superInfo.elements);
+            info.value = superInfo.value;
+        }
+
+        List<Property> elements = new ArrayList<Property>();
+        for (Field field : type.getDeclaredFields()) {
+            Property property = createProperty(type, field);
+            if (property == null) {
+                continue;
+            }
+            if (property.kind == Kind.ATTRIBUTE) {
+                info.attributes.add(property);
+            }
+            else if (property.kind == Kind.VALUE) {
+                info.value = property;
+            }
+            else {
+                elements.add(property);
+            }
+        }
+        info.elements.addAll(sortElements(type, elements));
+
+        if (info.value != null && !info.elements.isEmpty()) {
+            throw new IllegalArgumentException(type + " has both a value and elements");
+        }
+        return info;
+    }
+
+    private Property createProperty(Class<?> type, Field field) throws ClassNotFoundException {
+        if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                || field.isAnnotationPresent(XmlTransient.class) || field.isAnnotationPresent(XmlAnyElement.class)
+                || field.isAnnotationPresent(XmlAnyAttribute.class)) {
+            return null;
+        }
+        BoundField boundField = dialect == JsonOutput.Dialect.MOXY ? getBoundField(type, field.getName()) : null;
+        if (boundField != null && boundField.isTransient) {
+            return null;
+        }
+        if (Modifier.isPrivate(field.getModifiers())) {
+            throw new IllegalArgumentException(type + "." + field.getName() + " is private");
+        }
+
+        Property property = new Property();
+        property.field = field;
+        if (field.isAnnotationPresent(XmlAttribute.class)) {
+            property.kind = Kind.ATTRIBUTE;
+            property.name = getName(field.getAnnotation(XmlAttribute.class).name(), field);
+        }
+        else if (field.isAnnotationPresent(XmlValue.class)) {
+            property.kind = Kind.VALUE;
+        }
+        else if (field.isAnnotationPresent(XmlElements.class)) {
+            property.kind = Kind.ELEMENT;
+            property.choices = new LinkedHashMap<Class<?>, String>();
+            for (XmlElement choice : field.getAnnotation(XmlElements.class).value()) {
+                property.choices.put(choice.type(), getName(choice.name(), field));
+            }
+        }
+        else {
+            property.kind = Kind.ELEMENT;
+            XmlElement element = field.getAnnotation(XmlElement.class);
+            property.name = getName(element != null ? element.name() : null, field);
+        }
+
+        property.type = field.getType();
+        if (List.class.isAssignableFrom(field.getType())) {
+            property.isList = true;
+            Type itemType = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+            property.type = (Class<?>) itemType;
+        }
+        XmlJavaTypeAdapter adapter = field.getAnnotation(XmlJavaTypeAdapter.class);
+        if (adapter != null) {
+            property.adapter = adapter.value();
+        }
+
+        if (boundField != null && boundField.isElement) {
+            if (boundField.name != null) {
+                property.name = boundField.name;
+            }
+            else if (property.kind != Kind.ELEMENT) {
+                property.name = field.getName();
+            }
+            property.kind = Kind.ELEMENT;
+            property.isSelf = boundField.isSelf;
+            property.isNillable = boundField.isNillable;
+            if (boundField.adapter != null) {
+                property.adapter = Class.forName(boundField.adapter);
+            }
+        }
+
+        property.valueType = property.type;
+        if (property.adapter != null) {
+            adapters.add(property.adapter);
+            property.valueType = getAdaptedType(property.adapter);
+        }
+        if (property.isSelf && (property.isList || property.adapter != null || isScalar(property.valueType))) {
+            throw new IllegalArgumentException(type + "." + field.getName() + " is not a class written in place");
+        }
+        return property;
+    }
+
+    private static String getName(String name, Field field) {
+        return name == null || name.equals("##default") ? field.getName() : name;
+    }
+
+    private static Class<?> getAdaptedType(Class<?> adapter) {
+        for (Type type = adapter.getGenericSuperclass(); type != null; ) {
+            if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == XmlAdapter.class) {
+                return (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[0];
+            }
+            type = (type instanceof Class ? (Class<?>) type : (Class<?>) ((ParameterizedType) type).getRawType())
+                    .getGenericSuperclass();
+        }
+        throw new IllegalArgumentException(adapter + " is not an XmlAdapter");
+    }
+
+    /**
+     * Order elements by the prop order of the class, or by declaration if it has none
+     */
+    private List<Property> sortElements(Class<?> type, List<Property> elements) {
+        List<String> propOrder = null;
+        String boundName = dialect == JsonOutput.Dialect.MOXY ? getBoundName(type) : null;
+        if (boundName != null && boundOrders.containsKey(boundName)) {
+            propOrder = boundOrders.get(boundName);
+        }
+        else if (type.isAnnotationPresent(XmlType.class)) {
+            propOrder = new ArrayList<String>(Arrays.asList(type.getAnnotation(XmlType.class).propOrder()));
+            propOrder.remove("");
+        }
+        if (propOrder == null || propOrder.isEmpty()) {
+            return elements;
+        }
+
+        Property[] sorted = new Property[propOrder.size()];
+        for (Property property : elements) {
+            int index = propOrder.indexOf(property.field.getName());
+            if (index < 0) {
+                throw new IllegalArgumentException(type + "." + property.field.getName() + " is not in the prop order");
+            }
+            sorted[index] = property;
+        }
+        List<Property> result = new ArrayList<Property>();
+        for (Property property : sorted) {
+            if (property != null) {
+                result.add(property);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isScalar(Class<?> type) {
+        return type == String.class || type == BigInteger.class || type == Integer.class || type == float.class
+                || type == Boolean.class || type == XMLGregorianCalendar.class || type.isEnum();
+    }
+
+    /**
+     * @return the source of the writer
+     * @throws Exception
+     */
+    public String generate() throws Exception {
+        // Find every class written, and whether each is written as an object or in place of its enclosing object
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        types.add(rootClass);
+        objectTypes.add(rootClass);
+        for (int i = 0; i < types.size(); i++) {
+            TypeInfo info = getTypeInfo(types.get(i));
+            List<Property> properties = new ArrayList<Property>(info.attributes);
+            properties.addAll(info.elements);
+            if (info.value != null) {
+                properties.add(info.value);
+            }
+            for (Property property : properties) {
+                List<Class<?>> written = new ArrayList<Class<?>>();
+                if (property.choices != null) {
+                    written.addAll(property.choices.keySet());
+                }
+                else if (!isScalar(property.valueType)) {
+                    written.add(property.valueType);
+                }
+                else {
+                    checkScalar(property);
+                }
+                for (Class<?> type : written) {
+                    if (!types.contains(type)) {
+                        types.add(type);
+                    }
+                }
+                if (property.isSelf) {
+                    selfTypes.add(property.valueType);
+                }
+                else {
+                    objectTypes.addAll(written);
+                }
+            }
+        }
+
+        StringBuilder methods = new StringBuilder();
+        imports.add(IOException.class.getName());
+        imports.add(JsonOutput.class.getName());
+        for (Class<?> type : types) {
+            generateWriteMethods(methods, getTypeInfo(type));
+        }
+        for (Class<?> adapter : adapters) {
+            generateAdapterMethod(methods, adapter);
+        }
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(writerPackage).append(";\n\n");
+        for (String name : imports) {
+            source.append("import ").append(name).append(";\n");
+        }
+        source.append("\n/**\n");
+        source.append(" * Writes ").append(getTypeName(rootClass)).append(" as json, giving the same output as ");
+        source.append(dialect == JsonOutput.Dialect.MOXY ? "MOXy with the binding file" : "Jersey natural notation");
+        source.append(".\n *\n");
+        source.append(" * Generated by JsonWriterGenerator, do not edit.\n */\n");
+        source.append("public final class ").append(writerName).append(" {\n\n");
+        for (Class<?> adapter : adapters) {
+            source.append(INDENT).append("private static final ").append(getTypeName(adapter)).append(" ")
+                    .append(getAdapterConstant(adapter)).append(" = new ").append(getTypeName(adapter)).append("();\n");
+        }
+        if (!adapters.isEmpty()) {
+            source.append("\n");
+        }
+        source.append(INDENT).append("private ").append(writerName).append("() {\n");
+        source.append(INDENT).append("}\n\n");
+        source.append(INDENT).append("public static void write(JsonOutput out, ").append(getTypeName(rootClass))
+                .append(" o) throws IOException {\n");
+        source.append(INDENT).append(INDENT).append(getWriteMethod(rootClass)).append("(out, o);\n");
+        source.append(INDENT).append("}\n");
+        source.append(methods);
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void checkScalar(Property property) {
+        Class<?> type = property.valueType;
+        if (type.isEnum()) {
+            try {
+                type.getMethod("value");
+            }
+            catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type + " has no value method");
+            }
+        }
+        if (dialect == JsonOutput.Dialect.JERSEY_NATURAL && type == Boolean.class) {
+            throw new IllegalArgumentException("Unsupported type " + type + " of " + property.field);
+        }
+        if (property.isList && property.adapter != null) {
+            throw new IllegalArgumentException("Unsupported adapted list " + property.field);
+        }
+    }
+
+    private void generateWriteMethods(StringBuilder methods, TypeInfo info) {
+        String typeName = getTypeName(info.type);
+        String writeMethod = getWriteMethod(info.type);
+        boolean isSelf = selfTypes.contains(info.type);
+
+        if (objectTypes.contains(info.type)) {
+            generateObjectMethods(methods, info, isSelf);
+        }
+        if (isSelf) {
+            methods.append("\n");
+            methods.append(INDENT).append("private static void ").append(writeMethod).append("Attributes(JsonOutput out, ")
+                    .append(typeName).append(" o) throws IOException {\n");
+            generateAttributes(methods, info);
+            methods.append(INDENT).append("}\n\n");
+            methods.append(INDENT).append("private static void ").append(writeMethod).append("Elements(JsonOutput out, ")
+                    .append(typeName).append(" o) throws IOException {\n");
+            generateElements(methods, info);
+            methods.append(INDENT).append("}\n");
+        }
+
+        for (Property property : info.elements) {
+            if (property.choices != null && property.field.getDeclaringClass() == info.type) {
+                generateChoiceMethods(methods, info, property);
+            }
+        }
+    }
+
+    /**
+     * Write the class as an object, or as just its value
+     */
+    private void generateObjectMethods(StringBuilder methods, TypeInfo info, boolean isSelf) {
+        String typeName = getTypeName(info.type);
+        String writeMethod = getWriteMethod(info.type);
+
+        methods.append("\n");
+        methods.append(INDENT).append("private static void ").append(writeMethod).append("(JsonOutput out, ")
+                .append(typeName).append(isArrayItemWritten(info) ? " o, boolean isArrayItem" : " o")
+                .append(") throws IOException {\n");
+        if (info.value != null) {
+            generateValueShortcut(methods, info);
+        }
+        methods.append(INDENT).append(INDENT).append("out.startObject();\n");
+        if (isSelf) {
+            methods.append(INDENT).append(INDENT).append(writeMethod).append("Attributes(out, o);\n");
+            methods.append(INDENT).append(INDENT).append(writeMethod).append("Elements(out, o);\n");
+        }
+        else {
+            generateAttributes(methods, info);
+            generateElements(methods, info);
+        }
+        if (info.value != null) {
+            methods.append(INDENT).append(INDENT);
+            if (!info.value.type.isPrimitive()) {
+                methods.append("if (o.").append(info.value.field.getName()).append(" != null) {\n");
+                methods.append(INDENT).append(INDENT).append(INDENT);
+            }
+            methods.append("out.name(\"").append(dialect == JsonOutput.Dialect.MOXY ? MOXY_VALUE_NAME : JERSEY_VALUE_NAME)
+                    .append("\");\n");
+            methods.append(INDENT).append(INDENT);
+            if (!info.value.type.isPrimitive()) {
+                methods.append(INDENT);
+            }
+            methods.append(getValueWrite(info)).append(";\n");
+            if (!info.value.type.isPrimitive()) {
+                methods.append(INDENT).append(INDENT).append("}\n");
+            }
+        }
+        methods.append(INDENT).append(INDENT).append("out.endObject();\n");
+        methods.append(INDENT).append("}\n");
+
+        if (isArrayItemWritten(info)) {
+            String value = "o." + info.value.field.getName() + ".toString()";
+            methods.append("\n");
+            methods.append(INDENT).append("private static void ").append(writeMethod).append("Value(JsonOutput out, ")
+                    .append(typeName).append(" o, boolean isArrayItem) throws IOException {\n");
+            methods.append(INDENT).append(INDENT).append("if (isArrayItem) {\n");
+            methods.append(INDENT).append(INDENT).append(INDENT).append("out.value(").append(value).append(");\n");
+            methods.append(INDENT).append(INDENT).append("}\n");
+            methods.append(INDENT).append(INDENT).append("else {\n");
+            methods.append(INDENT).append(INDENT).append(INDENT).append("out.rawValue(").append(value).append(");\n");
+            methods.append(INDENT).append(INDENT).append("}\n");
+            methods.append(INDENT).append("}\n");
+        }
+    }
+
+    /**
+     * Jersey natural notation writes a number value of an array item as a string, so whether the object is an array
+     * item is passed to the method writing it
+     */
+    private boolean isArrayItemWritten(TypeInfo info) {
+        return dialect == JsonOutput.Dialect.JERSEY_NATURAL && info.value != null
+                && (info.value.valueType == BigInteger.class || info.value.valueType == Integer.class);
+    }
+
+    private String getValueWrite(TypeInfo info) {
+        if (isArrayItemWritten(info)) {
+            return getWriteMethod(info.type) + "Value(out, o, isArrayItem)";
+        }
+        return getScalarWrite(info.value.valueType, "o." + info.value.field.getName());
+    }
+
+    /**
+     * A class with a value and none of its attributes set is written as just the value
+     */
+    private void generateValueShortcut(StringBuilder methods, TypeInfo info) {
+        List<String> conditions = new ArrayList<String>();
+        for (Property attribute : info.attributes) {
+            conditions.add("o." + attribute.field.getName() + " == null");
+        }
+        if (!info.value.type.isPrimitive()) {
+            conditions.add("o." + info.value.field.getName() + " != null");
+        }
+        String indent = INDENT + INDENT;
+        if (!conditions.isEmpty()) {
+            methods.append(indent).append("if (");
+            for (int i = 0; i < conditions.size(); i++) {
+                if (i > 0) {
+                    methods.append(" && ");
+                }
+                methods.append(conditions.get(i));
+            }
+            methods.append(") {\n");
+            indent += INDENT;
+        }
+        methods.append(indent).append(getValueWrite(info)).append(";\n");
+        methods.append(indent).append("return;\n");
+        if (!conditions.isEmpty()) {
+            methods.append(INDENT).append(INDENT).append("}\n");
+        }
+    }
+
+    private void generateAttributes(StringBuilder methods, TypeInfo info) {
+        for (Property attribute : info.attributes) {
+            generateScalar(methods, attribute);
+        }
+        for (Property element : info.elements) {
+            if (element.isSelf) {
+                String value = "o." + element.field.getName();
+                methods.append(INDENT).append(INDENT).append("if (").append(value).append(" != null) {\n");
+                methods.append(INDENT).append(INDENT).append(INDENT).append(getWriteMethod(element.valueType))
+                        .append("Attributes(out, ").append(value).append(");\n");
+                methods.append(INDENT).append(INDENT).append("}\n");
+            }
+        }
+    }
+
+    private void generateElements(StringBuilder methods, TypeInfo info) {
+        for (Property element : info.elements) {
+            String value = "o." + element.field.getName();
+            String indent = INDENT + INDENT;
+            if (element.isSelf) {
+                methods.append(indent).append("if (").append(value).append(" != null) {\n");
+                methods.append(indent).append(INDENT).append(getWriteMethod(element.valueType)).append("Elements(out, ")
+                        .append(value).append(");\n");
+                methods.append(indent).append("}\n");
+            }
+            else if (element.choices != null) {
+                methods.append(indent).append("if (").append(getListCondition(value)).append(") {\n");
+                methods.append(indent).append(INDENT).append(getChoiceMethod(info.type, element)).append("(out, ")
+                        .append(value).append(");\n");
+                methods.append(indent).append("}\n");
+            }
+            else if (element.isList) {
+                methods.append(indent).append("if (").append(getListCondition(value)).append(") {\n");
+                Property attribute = getAttribute(info, element.name);
+                if (attribute != null) {
+                    // Jersey natural notation writes each item as a member once an attribute of the same name has
+                    // been written
+                    methods.append(indent).append(INDENT).append("if (o.").append(attribute.field.getName())
+                            .append(" != null) {\n");
+                    generateItems(methods, element, value, indent + INDENT + INDENT, true);
+                    methods.append(indent).append(INDENT).append("}\n");
+                    methods.append(indent).append(INDENT).append("else {\n");
+                    generateItems(methods, element, value, indent + INDENT + INDENT, false);
+                    methods.append(indent).append(INDENT).append("}\n");
+                }
+                else {
+                    generateItems(methods, element, value, indent + INDENT, false);
+                }
+                methods.append(indent).append("}\n");
+            }
+            else {
+                generateScalar(methods, element);
+            }
+        }
+    }
+
+    private void generateItems(StringBuilder methods, Property element, String value, String indent, boolean isMembers) {
+        if (!isMembers) {
+            methods.append(indent).append("out.name(\"").append(element.name).append("\");\n");
+            methods.append(indent).append("out.startArray();\n");
+        }
+        methods.append(indent).append("for (").append(getTypeName(element.type)).append(" item : ").append(value)
+                .append(") {\n");
+        if (isMembers) {
+            methods.append(indent).append(INDENT).append("out.name(\"").append(element.name).append("\");\n");
+        }
+        methods.append(indent).append(INDENT).append(getWrite(element, "item", !isMembers)).append(";\n");
+        methods.append(indent).append("}\n");
+        if (!isMembers) {
+            methods.append(indent).append("out.endArray();\n");
+        }
+    }
+
+    /**
+     * @return the attribute of the same name as a list, which only matters to Jersey natural notation
+     */
+    private Property getAttribute(TypeInfo info, String name) {
+        if (dialect == JsonOutput.Dialect.JERSEY_NATURAL) {
+            for (Property attribute : info.attributes) {
+                if (attribute.name.equals(name)) {
+                    return attribute;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write a single attribute or element, adapting it first if it has an adapter
+     */
+    private void generateScalar(StringBuilder methods, Property property) {
+        String indent = INDENT + INDENT;
+        String value = "o." + property.field.getName();
+        if (property.adapter != null) {
+            String adapted = property.field.getName() + "Value";
+            methods.append(indent).append(getTypeName(property.valueType)).append(" ").append(adapted).append(" = ")
+                    .append(value).append(" != null ? marshal(").append(getAdapterConstant(property.adapter))
+                    .append(", ").append(value).append(") : null;\n");
+            value = adapted;
+        }
+        if (property.type.isPrimitive() && property.adapter == null) {
+            methods.append(indent).append("out.name(\"").append(property.name).append("\");\n");
+            methods.append(indent).append(getWrite(property, value, false)).append(";\n");
+            return;
+        }
+        methods.append(indent).append("if (").append(value).append(" != null) {\n");
+        methods.append(indent).append(INDENT).append("out.name(\"").append(property.name).append("\");\n");
+        methods.append(indent).append(INDENT).append(getWrite(property, value, false)).append(";\n");
+        methods.append(indent).append("}\n");
+        if (property.isNillable) {
+            methods.append(indent).append("else {\n");
+            methods.append(indent).append(INDENT).append("out.name(\"").append(property.name).append("\");\n");
+            methods.append(indent).append(INDENT).append("out.nullValue();\n");
+            methods.append(indent).append("}\n");
+        }
+    }
+
+    /**
+     * Jersey writes nothing for an empty list, MOXy an empty array unless the list is missing
+     */
+    private String getListCondition(String value) {
+        if (dialect == JsonOutput.Dialect.MOXY) {
+            return value + " != null";
+        }
+        return value + " != null && !" + value + ".isEmpty()";
+    }
+
+    /**
+     * @param property
+     * @param value       expression of the value to write, already adapted for a single value
+     * @param isArrayItem
+     * @return statement writing the value
+     */
+    private String getWrite(Property property, String value, boolean isArrayItem) {
+        if (property.isList && property.adapter != null) {
+            value = "marshal(" + getAdapterConstant(property.adapter) + ", " + value + ")";
+        }
+        if (isScalar(property.valueType)) {
+            return getScalarWrite(property.valueType, value);
+        }
+        if (isArrayItemWritten(typeInfos.get(property.valueType))) {
+            return getWriteMethod(property.valueType) + "(out, " + value + ", " + isArrayItem + ")";
+        }
+        return getWriteMethod(property.valueType) + "(out, " + value + ")";
+    }
+
+    private String getScalarWrite(Class<?> type, String value) {
+        if (type == String.class) {
+            return "out.value(" + value + ")";
+        }
+        if (type == BigInteger.class || type == Integer.class || type == Boolean.class) {
+            return "out.rawValue(" + value + ".toString())";
+        }
+        if (type == float.class) {
+            // Jersey natural notation writes a float as a string, printed by JAXB
+            if (dialect == JsonOutput.Dialect.JERSEY_NATURAL) {
+                imports.add("javax.xml.bind.DatatypeConverter");
+                return "out.value(DatatypeConverter.printFloat(" + value + "))";
+            }
+            return "out.rawValue(String.valueOf(" + value + "))";
+        }
+        if (type == XMLGregorianCalendar.class) {
+            return "out.dateTimeValue(" + value + ")";
+        }
+        if (type.isEnum()) {
+            return "out.value(" + value + ".value())";
+        }
+        throw new IllegalArgumentException("Unsupported type " + type);
+    }
+
+    /**
+     * An XmlElements list is named by the type of each item. Jersey natural notation writes the items of the type of
+     * the first item up to an item of another type as an array, then each following item as an object. MOXy writes
+     * an array for each type in the order they first appear, and an empty list as an empty array of the first type.
+     */
+    private void generateChoiceMethods(StringBuilder methods, TypeInfo info, Property property) {
+        imports.add(List.class.getName());
+        String choiceMethod = getChoiceMethod(info.type, property);
+        String i2 = INDENT + INDENT;
+        String i3 = i2 + INDENT;
+        String i4 = i3 + INDENT;
+
+        methods.append("\n");
+        methods.append(INDENT).append("private static void ").append(choiceMethod)
+                .append("(JsonOutput out, List<Object> items) throws IOException {\n");
+        if (dialect == JsonOutput.Dialect.JERSEY_NATURAL) {
+            methods.append(i2).append("String name = ").append(choiceMethod).append("Name(items.get(0));\n");
+            methods.append(i2).append("int end = 1;\n");
+            methods.append(i2).append("while (end < items.size() && name.equals(").append(choiceMethod)
+                    .append("Name(items.get(end)))) {\n");
+            methods.append(i3).append("end++;\n");
+            methods.append(i2).append("}\n");
+            methods.append(i2).append("out.name(name);\n");
+            methods.append(i2).append("out.startArray();\n");
+            methods.append(i2).append("for (int i = 0; i < end; i++) {\n");
+            methods.append(i3).append(choiceMethod).append("Item(out, items.get(i));\n");
+            methods.append(i2).append("}\n");
+            methods.append(i2).append("out.endArray();\n");
+            methods.append(i2).append("for (int i = end; i < items.size(); i++) {\n");
+            methods.append(i3).append("out.name(").append(choiceMethod).append("Name(items.get(i)));\n");
+            methods.append(i3).append(choiceMethod).append("Item(out, items.get(i));\n");
+            methods.append(i2).append("}\n");
+        }
+        else {
+            imports.add(ArrayList.class.getName());
+            methods.append(i2).append("List<String> names = new ArrayList<String>();\n");
+            methods.append(i2).append("for (Object item : items) {\n");
+            methods.append(i3).append("String name = ").append(choiceMethod).append("Name(item);\n");
+            methods.append(i3).append("if (!names.contains(name)) {\n");
+            methods.append(i4).append("names.add(name);\n");
+            methods.append(i3).append("}\n");
+            methods.append(i2).append("}\n");
+            methods.append(i2).append("if (names.isEmpty()) {\n");
+            methods.append(i3).append("names.add(\"").append(property.choices.values().iterator().next())
+                    .append("\");\n");
+            methods.append(i2).append("}\n");
+            methods.append(i2).append("for (String name : names) {\n");
+            methods.append(i3).append("out.name(name);\n");
+            methods.append(i3).append("out.startArray();\n");
+            methods.append(i3).append("for (Object item : items) {\n");
+            methods.append(i4).append("if (name.equals(").append(choiceMethod).append("Name(item))) {\n");
+            methods.append(i4).append(INDENT).append(choiceMethod).append("Item(out, item);\n");
+            methods.append(i4).append("}\n");
+            methods.append(i3).append("}\n");
+            methods.append(i3).append("out.endArray();\n");
+            methods.append(i2).append("}\n");
+        }
+        methods.append(INDENT).append("}\n\n");
+
+        methods.append(INDENT).append("private static String ").append(choiceMethod).append("Name(Object item) {\n");
+        for (Map.Entry<Class<?>, String> choice : property.choices.entrySet()) {
+            methods.append(i2).append("if (item instanceof ").append(getTypeName(choice.getKey())).append(") {\n");
+            methods.append(i3).append("return \"").append(choice.getValue()).append("\";\n");
+            methods.append(i2).append("}\n");
+        }
+        methods.append(i2).append("throw new IllegalArgumentException(\"Unexpected \" + item.getClass());\n");
+        methods.append(INDENT).append("}\n\n");
+
+        methods.append(INDENT).append("private static void ").append(choiceMethod)
+                .append("Item(JsonOutput out, Object item) throws IOException {\n");
+        boolean isFirst = true;
+        for (Class<?> type : property.choices.keySet()) {
+            if (isArrayItemWritten(typeInfos.get(type))) {
+                throw new IllegalArgumentException("Unsupported value class " + type + " in " + property.field);
+            }
+            methods.append(i2).append(isFirst ? "if" : "else if").append(" (item instanceof ").append(getTypeName(type))
+                    .append(") {\n");
+            methods.append(i3).append(getWriteMethod(type)).append("(out, (").append(getTypeName(type))
+                    .append(") item);\n");
+            methods.append(i2).append("}\n");
+            isFirst = false;
+        }
+        methods.append(INDENT).append("}\n");
+    }
+
+    private void generateAdapterMethod(StringBuilder methods, Class<?> adapter) {
+        Class<?> boundType = getBoundType(adapter);
+        methods.append("\n");
+        methods.append(INDENT).append("private static ").append(getTypeName(getAdaptedType(adapter))).append(" marshal(")
+                .append(getTypeName(adapter)).append(" adapter, ").append(getTypeName(boundType))
+                .append(" value) throws IOException {\n");
+        methods.append(INDENT).append(INDENT).append("try {\n");
+        methods.append(INDENT).append(INDENT).append(INDENT).append("return adapter.marshal(value);\n");
+        methods.append(INDENT).append(INDENT).append("}\n");
+        methods.append(INDENT).append(INDENT).append("catch (Exception e) {\n");
+        methods.append(INDENT).append(INDENT).append(INDENT).append("throw new IOException(e);\n");
+        methods.append(INDENT).append(INDENT).append("}\n");
+        methods.append(INDENT).append("}\n");
+    }
+
+    private static Class<?> getBoundType(Class<?> adapter) {
+        for (Type type = adapter.getGenericSuperclass(); type != null; ) {
+            if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == XmlAdapter.class) {
+                return (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[1];
+            }
+            type = (type instanceof Class ? (Class<?>) type : (Class<?>) ((ParameterizedType) type).getRawType())
+                    .getGenericSuperclass();
+        }
+        throw new IllegalArgumentException(adapter + " is not an XmlAdapter");
+    }
+
+    private static String getAdapterConstant(Class<?> adapter) {
+        StringBuilder name = new StringBuilder();
+        String simpleName = adapter.getSimpleName();
+        for (int i = 0; i < simpleName.length(); i++) {
+            char c = simpleName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c)) {
+                name.append('_');
+            }
+            name.append(Character.toUpperCase(c));
+        }
+        return name.toString();
+    }
+
+    /**
+     * @param type
+     * @return name of the method writing the class, from its name within its package
+     */
+    private String getWriteMethod(Class<?> type) {
+        StringBuilder name = new StringBuilder("write");
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            name.insert(5, c.getSimpleName());
+        }
+        return name.toString();
+    }
+
+    private String getChoiceMethod(Class<?> type, Property property) {
+        String fieldName = property.field.getName();
+        return getWriteMethod(type) + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+
+    /**
+     * @param type
+     * @return name of the class in the writer's source, importing it if it is in another package
+     */
+    private String getTypeName(Class<?> type) {
+        if (type.isPrimitive()) {
+            return type.getName();
+        }
+        Class<?> topLevel = type;
+        while (topLevel.getEnclosingClass() != null) {
+            topLevel = topLevel.getEnclosingClass();
+        }
+        String packageName = topLevel.getPackage().getName();
+        if (!packageName.equals(writerPackage) && !packageName.equals("java.lang")) {
+            imports.add(topLevel.getName());
+        }
+        return type.getCanonicalName().substring(packageName.length() + 1);
+    }
+}
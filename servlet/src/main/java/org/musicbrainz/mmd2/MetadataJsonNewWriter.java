@@ -0,0 +1,3615 @@
+package org.musicbrainz.mmd2;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
+import org.musicbrainz.mmd2.json.JsonOutput;
+import org.musicbrainz.search.servlet.moxy.BooleanStringAdapter;
+import org.musicbrainz.search.servlet.moxy.EventAdapter;
+import org.musicbrainz.search.servlet.moxy.WorkAdapter;
+
+/**
+ * Writes Metadata as json, giving the same output as MOXy with the binding file.
+ *
+ * Generated by JsonWriterGenerator, do not edit.
+ */
+public final class MetadataJsonNewWriter {
+
+    private static final BooleanStringAdapter BOOLEAN_STRING_ADAPTER = new BooleanStringAdapter();
+    private static final CollapsedStringAdapter COLLAPSED_STRING_ADAPTER = new CollapsedStringAdapter();
+    private static final WorkAdapter WORK_ADAPTER = new WorkAdapter();
+    private static final EventAdapter EVENT_ADAPTER = new EventAdapter();
+
+    private MetadataJsonNewWriter() {
+    }
+
+    public static void write(JsonOutput out, Metadata o) throws IOException {
+        writeMetadata(out, o);
+    }
+
+    private static void writeMetadata(JsonOutput out, Metadata o) throws IOException {
+        out.startObject();
+        if (o.generator != null) {
+            out.name("generator");
+            out.value(o.generator);
+        }
+        if (o.created != null) {
+            out.name("created");
+            out.dateTimeValue(o.created);
+        }
+        if (o.artistList != null) {
+            writeArtistListAttributes(out, o.artistList);
+        }
+        if (o.releaseList != null) {
+            writeReleaseListAttributes(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            writeReleaseGroupListAttributes(out, o.releaseGroupList);
+        }
+        if (o.recordingList != null) {
+            writeRecordingListAttributes(out, o.recordingList);
+        }
+        if (o.labelList != null) {
+            writeLabelListAttributes(out, o.labelList);
+        }
+        if (o.workList != null) {
+            writeWorkListAttributes(out, o.workList);
+        }
+        if (o.areaList != null) {
+            writeAreaListAttributes(out, o.areaList);
+        }
+        if (o.placeList != null) {
+            writePlaceListAttributes(out, o.placeList);
+        }
+        if (o.instrumentList != null) {
+            writeInstrumentListAttributes(out, o.instrumentList);
+        }
+        if (o.seriesList != null) {
+            writeSeriesListAttributes(out, o.seriesList);
+        }
+        if (o.eventList != null) {
+            writeEventListAttributes(out, o.eventList);
+        }
+        if (o.urlList != null) {
+            writeUrlListAttributes(out, o.urlList);
+        }
+        if (o.annotationList != null) {
+            writeAnnotationListAttributes(out, o.annotationList);
+        }
+        if (o.cdstubList != null) {
+            writeCdstubListAttributes(out, o.cdstubList);
+        }
+        if (o.freedbDiscList != null) {
+            writeFreedbDiscListAttributes(out, o.freedbDiscList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.editorList != null) {
+            writeEditorListAttributes(out, o.editorList);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            writeArtist(out, o.artist);
+        }
+        if (o.release != null) {
+            out.name("release");
+            writeRelease(out, o.release);
+        }
+        if (o.releaseGroup != null) {
+            out.name("release-group");
+            writeReleaseGroup(out, o.releaseGroup);
+        }
+        if (o.recording != null) {
+            out.name("recording");
+            writeRecording(out, o.recording);
+        }
+        if (o.label != null) {
+            out.name("label");
+            writeLabel(out, o.label);
+        }
+        if (o.work != null) {
+            out.name("work");
+            writeWork(out, o.work);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.place != null) {
+            out.name("place");
+            writePlace(out, o.place);
+        }
+        if (o.instrument != null) {
+            out.name("instrument");
+            writeInstrument(out, o.instrument);
+        }
+        if (o.series != null) {
+            out.name("series");
+            writeSeries(out, o.series);
+        }
+        if (o.event != null) {
+            out.name("event");
+            writeEvent(out, o.event);
+        }
+        if (o.url != null) {
+            out.name("url");
+            writeUrl(out, o.url);
+        }
+        if (o.puid != null) {
+            out.name("puid");
+            writePuid(out, o.puid);
+        }
+        if (o.isrc != null) {
+            out.name("isrc");
+            writeIsrc(out, o.isrc);
+        }
+        if (o.disc != null) {
+            out.name("disc");
+            writeDisc(out, o.disc);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        if (o.collection != null) {
+            out.name("collection");
+            writeCollection(out, o.collection);
+        }
+        if (o.editor != null) {
+            out.name("editor");
+            writeEditor(out, o.editor);
+        }
+        if (o.artistList != null) {
+            writeArtistListElements(out, o.artistList);
+        }
+        if (o.releaseList != null) {
+            writeReleaseListElements(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            writeReleaseGroupListElements(out, o.releaseGroupList);
+        }
+        if (o.recordingList != null) {
+            writeRecordingListElements(out, o.recordingList);
+        }
+        if (o.labelList != null) {
+            writeLabelListElements(out, o.labelList);
+        }
+        if (o.workList != null) {
+            writeWorkListElements(out, o.workList);
+        }
+        if (o.areaList != null) {
+            writeAreaListElements(out, o.areaList);
+        }
+        if (o.placeList != null) {
+            writePlaceListElements(out, o.placeList);
+        }
+        if (o.instrumentList != null) {
+            writeInstrumentListElements(out, o.instrumentList);
+        }
+        if (o.seriesList != null) {
+            writeSeriesListElements(out, o.seriesList);
+        }
+        if (o.eventList != null) {
+            writeEventListElements(out, o.eventList);
+        }
+        if (o.urlList != null) {
+            writeUrlListElements(out, o.urlList);
+        }
+        if (o.isrcList != null) {
+            out.name("isrc-list");
+            writeIsrcList(out, o.isrcList);
+        }
+        if (o.annotationList != null) {
+            writeAnnotationListElements(out, o.annotationList);
+        }
+        if (o.cdstubList != null) {
+            writeCdstubListElements(out, o.cdstubList);
+        }
+        if (o.freedbDiscList != null) {
+            writeFreedbDiscListElements(out, o.freedbDiscList);
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.collectionList != null) {
+            out.name("collection-list");
+            writeCollectionList(out, o.collectionList);
+        }
+        if (o.editorList != null) {
+            writeEditorListElements(out, o.editorList);
+        }
+        if (o.entityList != null) {
+            out.name("entity-list");
+            writeEntityList(out, o.entityList);
+        }
+        out.endObject();
+    }
+
+    private static void writeArtist(JsonOutput out, Artist o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.ipiList != null) {
+            writeIpiListAttributes(out, o.ipiList);
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.gender != null) {
+            out.name("gender");
+            writeGender(out, o.gender);
+        }
+        if (o.country != null) {
+            out.name("country");
+            out.value(o.country);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.beginArea != null) {
+            out.name("begin-area");
+            writeDefAreaElementInner(out, o.beginArea);
+        }
+        if (o.endArea != null) {
+            out.name("end-area");
+            writeDefAreaElementInner(out, o.endArea);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.ipi != null) {
+            out.name("ipi");
+            out.value(o.ipi);
+        }
+        if (o.ipiList != null) {
+            writeIpiListElements(out, o.ipiList);
+        }
+        if (o.isniList != null) {
+            out.name("isni-list");
+            writeIsniList(out, o.isniList);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            out.name("release-group-list");
+            writeReleaseGroupList(out, o.releaseGroupList);
+        }
+        if (o.workList != null) {
+            out.name("work-list");
+            writeWorkList(out, o.workList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeRelease(JsonOutput out, Release o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditAttributes(out, o.artistCredit);
+        }
+        if (o.releaseEventList != null) {
+            writeReleaseEventListAttributes(out, o.releaseEventList);
+        }
+        if (o.labelInfoList != null) {
+            writeLabelInfoListAttributes(out, o.labelInfoList);
+        }
+        if (o.mediumList != null) {
+            writeMediumListAttributes(out, o.mediumList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.status != null) {
+            out.name("status");
+            writeStatus(out, o.status);
+        }
+        if (o.quality != null) {
+            out.name("quality");
+            out.value(o.quality.value());
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.packaging != null) {
+            out.name("packaging");
+            out.value(o.packaging);
+        }
+        if (o.textRepresentation != null) {
+            out.name("text-representation");
+            writeTextRepresentation(out, o.textRepresentation);
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditElements(out, o.artistCredit);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.releaseGroup != null) {
+            out.name("release-group");
+            writeReleaseGroup(out, o.releaseGroup);
+        }
+        if (o.date != null) {
+            out.name("date");
+            out.value(o.date);
+        }
+        if (o.country != null) {
+            out.name("country");
+            out.value(o.country);
+        }
+        if (o.releaseEventList != null) {
+            writeReleaseEventListElements(out, o.releaseEventList);
+        }
+        if (o.barcode != null) {
+            out.name("barcode");
+            out.value(o.barcode);
+        }
+        if (o.asin != null) {
+            out.name("asin");
+            out.value(o.asin);
+        }
+        if (o.coverArtArchive != null) {
+            out.name("cover-art-archive");
+            writeCoverArtArchive(out, o.coverArtArchive);
+        }
+        if (o.labelInfoList != null) {
+            writeLabelInfoListElements(out, o.labelInfoList);
+        }
+        if (o.mediumList != null) {
+            writeMediumListElements(out, o.mediumList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.collectionList != null) {
+            out.name("collection-list");
+            writeCollectionList(out, o.collectionList);
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseGroup(JsonOutput out, ReleaseGroup o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.secondaryTypeList != null) {
+            writeSecondaryTypeListAttributes(out, o.secondaryTypeList);
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditAttributes(out, o.artistCredit);
+        }
+        if (o.releaseList != null) {
+            writeReleaseListAttributes(out, o.releaseList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.firstReleaseDate != null) {
+            out.name("first-release-date");
+            out.value(o.firstReleaseDate);
+        }
+        if (o.primaryType != null) {
+            out.name("primary-type");
+            writePrimaryType(out, o.primaryType);
+        }
+        if (o.secondaryTypeList != null) {
+            writeSecondaryTypeListElements(out, o.secondaryTypeList);
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditElements(out, o.artistCredit);
+        }
+        if (o.releaseList != null) {
+            writeReleaseListElements(out, o.releaseList);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeRecording(JsonOutput out, Recording o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditAttributes(out, o.artistCredit);
+        }
+        if (o.releaseList != null) {
+            writeReleaseListAttributes(out, o.releaseList);
+        }
+        if (o.puidList != null) {
+            writePuidListAttributes(out, o.puidList);
+        }
+        if (o.isrcList != null) {
+            writeIsrcListAttributes(out, o.isrcList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.length != null) {
+            out.name("length");
+            out.rawValue(o.length.toString());
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        Boolean videoValue = o.video != null ? marshal(BOOLEAN_STRING_ADAPTER, o.video) : null;
+        if (videoValue != null) {
+            out.name("video");
+            out.rawValue(videoValue.toString());
+        }
+        else {
+            out.name("video");
+            out.nullValue();
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditElements(out, o.artistCredit);
+        }
+        if (o.releaseList != null) {
+            writeReleaseListElements(out, o.releaseList);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.puidList != null) {
+            writePuidListElements(out, o.puidList);
+        }
+        if (o.isrcList != null) {
+            writeIsrcListElements(out, o.isrcList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeLabel(JsonOutput out, Label o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.ipiList != null) {
+            writeIpiListAttributes(out, o.ipiList);
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.labelCode != null) {
+            out.name("label-code");
+            out.rawValue(o.labelCode.toString());
+        }
+        if (o.ipi != null) {
+            out.name("ipi");
+            out.value(o.ipi);
+        }
+        if (o.ipiList != null) {
+            writeIpiListElements(out, o.ipiList);
+        }
+        if (o.isniList != null) {
+            out.name("isni-list");
+            writeIsniList(out, o.isniList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.country != null) {
+            out.name("country");
+            out.value(o.country);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeWork(JsonOutput out, Work o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.languageList != null) {
+            writeLanguageListAttributes(out, o.languageList);
+        }
+        if (o.iswcList != null) {
+            writeIswcListAttributes(out, o.iswcList);
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.language != null) {
+            out.name("language");
+            out.value(o.language);
+        }
+        if (o.languageList != null) {
+            writeLanguageListElements(out, o.languageList);
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.iswc != null) {
+            out.name("iswc");
+            out.value(o.iswc);
+        }
+        if (o.iswcList != null) {
+            writeIswcListElements(out, o.iswcList);
+        }
+        if (o.attributeList != null) {
+            out.name("attribute-list");
+            writeWorkAttributeList(out, o.attributeList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeDefAreaElementInner(JsonOutput out, DefAreaElementInner o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.iso31661CodeList != null) {
+            writeIso31661CodeListAttributes(out, o.iso31661CodeList);
+        }
+        if (o.iso31662CodeList != null) {
+            writeIso31662CodeListAttributes(out, o.iso31662CodeList);
+        }
+        if (o.iso31663CodeList != null) {
+            writeIso31663CodeListAttributes(out, o.iso31663CodeList);
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.iso31661CodeList != null) {
+            writeIso31661CodeListElements(out, o.iso31661CodeList);
+        }
+        if (o.iso31662CodeList != null) {
+            writeIso31662CodeListElements(out, o.iso31662CodeList);
+        }
+        if (o.iso31663CodeList != null) {
+            writeIso31663CodeListElements(out, o.iso31663CodeList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writePlace(JsonOutput out, Place o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.address != null) {
+            out.name("address");
+            out.value(o.address);
+        }
+        if (o.coordinates != null) {
+            out.name("coordinates");
+            writeCoordinates(out, o.coordinates);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writeInstrument(JsonOutput out, Instrument o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.description != null) {
+            out.name("description");
+            out.value(o.description);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writeSeries(JsonOutput out, Series o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.orderingAttribute != null) {
+            out.name("ordering-attribute");
+            out.value(o.orderingAttribute);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writeEvent(JsonOutput out, Event o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        String cancelledValue = o.cancelled != null ? marshal(COLLAPSED_STRING_ADAPTER, o.cancelled) : null;
+        if (cancelledValue != null) {
+            out.name("cancelled");
+            out.value(cancelledValue);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeEventLifeSpan(out, o.lifeSpan);
+        }
+        if (o.time != null) {
+            out.name("time");
+            out.value(o.time);
+        }
+        if (o.setlist != null) {
+            out.name("setlist");
+            out.value(o.setlist);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeUrl(JsonOutput out, Url o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.resource != null) {
+            out.name("resource");
+            out.value(o.resource);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writePuid(JsonOutput out, Puid o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        out.endObject();
+    }
+
+    private static void writeIsrc(JsonOutput out, Isrc o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        out.endObject();
+    }
+
+    private static void writeDisc(JsonOutput out, Disc o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.sectors != null) {
+            out.name("sectors");
+            out.rawValue(o.sectors.toString());
+        }
+        if (o.offsetList != null) {
+            out.name("offset-list");
+            writeOffsetList(out, o.offsetList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        out.endObject();
+    }
+
+    private static void writeRating(JsonOutput out, Rating o) throws IOException {
+        if (o.votesCount == null) {
+            out.rawValue(String.valueOf(o.value));
+            return;
+        }
+        out.startObject();
+        if (o.votesCount != null) {
+            out.name("votes-count");
+            out.rawValue(o.votesCount.toString());
+        }
+        out.name("name");
+        out.rawValue(String.valueOf(o.value));
+        out.endObject();
+    }
+
+    private static void writeCollection(JsonOutput out, Collection o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.entityType != null) {
+            out.name("entity-type");
+            out.value(o.entityType);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.editor != null) {
+            out.name("editor");
+            out.value(o.editor);
+        }
+        if (o.areaList != null) {
+            out.name("area-list");
+            writeAreaList(out, o.areaList);
+        }
+        if (o.artistList != null) {
+            out.name("artist-list");
+            writeArtistList(out, o.artistList);
+        }
+        if (o.eventList != null) {
+            out.name("event-list");
+            writeEventList(out, o.eventList);
+        }
+        if (o.instrumentList != null) {
+            out.name("instrument-list");
+            writeInstrumentList(out, o.instrumentList);
+        }
+        if (o.labelList != null) {
+            out.name("label-list");
+            writeLabelList(out, o.labelList);
+        }
+        if (o.placeList != null) {
+            out.name("place-list");
+            writePlaceList(out, o.placeList);
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            out.name("release-group-list");
+            writeReleaseGroupList(out, o.releaseGroupList);
+        }
+        if (o.seriesList != null) {
+            out.name("series-list");
+            writeSeriesList(out, o.seriesList);
+        }
+        if (o.workList != null) {
+            out.name("work-list");
+            writeWorkList(out, o.workList);
+        }
+        out.endObject();
+    }
+
+    private static void writeEditor(JsonOutput out, Editor o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.rawValue(o.id.toString());
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.memberSince != null) {
+            out.name("member-since");
+            out.value(o.memberSince);
+        }
+        if (o.privs != null) {
+            out.name("privs");
+            out.rawValue(o.privs.toString());
+        }
+        if (o.gender != null) {
+            out.name("gender");
+            writeGender(out, o.gender);
+        }
+        if (o.age != null) {
+            out.name("age");
+            out.value(o.age);
+        }
+        if (o.homepage != null) {
+            out.name("homepage");
+            out.value(o.homepage);
+        }
+        if (o.bio != null) {
+            out.name("bio");
+            out.value(o.bio);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.languageList != null) {
+            out.name("language-list");
+            writeLanguageList(out, o.languageList);
+        }
+        if (o.editInformation != null) {
+            out.name("edit-information");
+            writeEditInformation(out, o.editInformation);
+        }
+        out.endObject();
+    }
+
+    private static void writeArtistList(JsonOutput out, ArtistList o) throws IOException {
+        out.startObject();
+        writeArtistListAttributes(out, o);
+        writeArtistListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeArtistListAttributes(JsonOutput out, ArtistList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeArtistListElements(JsonOutput out, ArtistList o) throws IOException {
+        if (o.artist != null) {
+            out.name("artists");
+            out.startArray();
+            for (Artist item : o.artist) {
+                writeArtist(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeReleaseList(JsonOutput out, ReleaseList o) throws IOException {
+        out.startObject();
+        writeReleaseListAttributes(out, o);
+        writeReleaseListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeReleaseListAttributes(JsonOutput out, ReleaseList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeReleaseListElements(JsonOutput out, ReleaseList o) throws IOException {
+        if (o.release != null) {
+            out.name("releases");
+            out.startArray();
+            for (Release item : o.release) {
+                writeRelease(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeReleaseGroupList(JsonOutput out, ReleaseGroupList o) throws IOException {
+        out.startObject();
+        writeReleaseGroupListAttributes(out, o);
+        writeReleaseGroupListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeReleaseGroupListAttributes(JsonOutput out, ReleaseGroupList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeReleaseGroupListElements(JsonOutput out, ReleaseGroupList o) throws IOException {
+        if (o.releaseGroup != null) {
+            out.name("release-groups");
+            out.startArray();
+            for (ReleaseGroup item : o.releaseGroup) {
+                writeReleaseGroup(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeRecordingList(JsonOutput out, RecordingList o) throws IOException {
+        out.startObject();
+        writeRecordingListAttributes(out, o);
+        writeRecordingListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeRecordingListAttributes(JsonOutput out, RecordingList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeRecordingListElements(JsonOutput out, RecordingList o) throws IOException {
+        if (o.recording != null) {
+            out.name("recordings");
+            out.startArray();
+            for (Recording item : o.recording) {
+                writeRecording(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeLabelList(JsonOutput out, LabelList o) throws IOException {
+        out.startObject();
+        writeLabelListAttributes(out, o);
+        writeLabelListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeLabelListAttributes(JsonOutput out, LabelList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeLabelListElements(JsonOutput out, LabelList o) throws IOException {
+        if (o.label != null) {
+            out.name("labels");
+            out.startArray();
+            for (Label item : o.label) {
+                writeLabel(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeWorkList(JsonOutput out, WorkList o) throws IOException {
+        out.startObject();
+        writeWorkListAttributes(out, o);
+        writeWorkListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeWorkListAttributes(JsonOutput out, WorkList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeWorkListElements(JsonOutput out, WorkList o) throws IOException {
+        if (o.work != null) {
+            out.name("works");
+            out.startArray();
+            for (Work item : o.work) {
+                writeWorkAdapterAdaptedWork(out, marshal(WORK_ADAPTER, item));
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeAreaList(JsonOutput out, AreaList o) throws IOException {
+        out.startObject();
+        writeAreaListAttributes(out, o);
+        writeAreaListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeAreaListAttributes(JsonOutput out, AreaList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeAreaListElements(JsonOutput out, AreaList o) throws IOException {
+        if (o.area != null) {
+            out.name("areas");
+            out.startArray();
+            for (DefAreaElementInner item : o.area) {
+                writeDefAreaElementInner(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writePlaceList(JsonOutput out, PlaceList o) throws IOException {
+        out.startObject();
+        writePlaceListAttributes(out, o);
+        writePlaceListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writePlaceListAttributes(JsonOutput out, PlaceList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writePlaceListElements(JsonOutput out, PlaceList o) throws IOException {
+        if (o.place != null) {
+            out.name("places");
+            out.startArray();
+            for (Place item : o.place) {
+                writePlace(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeInstrumentList(JsonOutput out, InstrumentList o) throws IOException {
+        out.startObject();
+        writeInstrumentListAttributes(out, o);
+        writeInstrumentListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeInstrumentListAttributes(JsonOutput out, InstrumentList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeInstrumentListElements(JsonOutput out, InstrumentList o) throws IOException {
+        if (o.instrument != null) {
+            out.name("instruments");
+            out.startArray();
+            for (Instrument item : o.instrument) {
+                writeInstrument(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeSeriesList(JsonOutput out, SeriesList o) throws IOException {
+        out.startObject();
+        writeSeriesListAttributes(out, o);
+        writeSeriesListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeSeriesListAttributes(JsonOutput out, SeriesList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeSeriesListElements(JsonOutput out, SeriesList o) throws IOException {
+        if (o.series != null) {
+            out.name("series");
+            out.startArray();
+            for (Series item : o.series) {
+                writeSeries(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeEventList(JsonOutput out, EventList o) throws IOException {
+        out.startObject();
+        writeEventListAttributes(out, o);
+        writeEventListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeEventListAttributes(JsonOutput out, EventList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeEventListElements(JsonOutput out, EventList o) throws IOException {
+        if (o.event != null) {
+            out.name("events");
+            out.startArray();
+            for (Event item : o.event) {
+                writeEventAdapterAdaptedEvent(out, marshal(EVENT_ADAPTER, item));
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeUrlListAttributes(JsonOutput out, UrlList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeUrlListElements(JsonOutput out, UrlList o) throws IOException {
+        if (o.url != null) {
+            out.name("urls");
+            out.startArray();
+            for (Url item : o.url) {
+                writeUrl(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeIsrcList(JsonOutput out, IsrcList o) throws IOException {
+        out.startObject();
+        writeIsrcListAttributes(out, o);
+        writeIsrcListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeIsrcListAttributes(JsonOutput out, IsrcList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeIsrcListElements(JsonOutput out, IsrcList o) throws IOException {
+        if (o.isrc != null) {
+            out.name("isrcs");
+            out.startArray();
+            for (Isrc item : o.isrc) {
+                writeIsrc(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeAnnotationListAttributes(JsonOutput out, AnnotationList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeAnnotationListElements(JsonOutput out, AnnotationList o) throws IOException {
+        if (o.annotation != null) {
+            out.name("annotations");
+            out.startArray();
+            for (Annotation item : o.annotation) {
+                writeAnnotation(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeCdstubListAttributes(JsonOutput out, CdstubList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeCdstubListElements(JsonOutput out, CdstubList o) throws IOException {
+        if (o.cdstub != null) {
+            out.name("cdstubs");
+            out.startArray();
+            for (Cdstub item : o.cdstub) {
+                writeCdstub(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeFreedbDiscListAttributes(JsonOutput out, FreedbDiscList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeFreedbDiscListElements(JsonOutput out, FreedbDiscList o) throws IOException {
+        if (o.freedbDisc != null) {
+            out.name("freedb-discs");
+            out.startArray();
+            for (FreedbDisc item : o.freedbDisc) {
+                writeFreedbDisc(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeTagListAttributes(JsonOutput out, TagList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeTagListElements(JsonOutput out, TagList o) throws IOException {
+        if (o.tag != null) {
+            out.name("tags");
+            out.startArray();
+            for (Tag item : o.tag) {
+                writeTag(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeUserTagList(JsonOutput out, UserTagList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.userTag != null) {
+            out.name("user-tag");
+            out.startArray();
+            for (UserTag item : o.userTag) {
+                writeUserTag(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeGenreList(JsonOutput out, GenreList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.genre != null) {
+            out.name("genre");
+            out.startArray();
+            for (Genre item : o.genre) {
+                writeGenre(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeUserGenreList(JsonOutput out, UserGenreList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.userGenre != null) {
+            out.name("user-genre");
+            out.startArray();
+            for (UserGenre item : o.userGenre) {
+                writeUserGenre(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCollectionList(JsonOutput out, CollectionList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.collection != null) {
+            out.name("collection");
+            out.startArray();
+            for (Collection item : o.collection) {
+                writeCollection(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeEditorListAttributes(JsonOutput out, EditorList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeEditorListElements(JsonOutput out, EditorList o) throws IOException {
+        if (o.editor != null) {
+            out.name("editors");
+            out.startArray();
+            for (Editor item : o.editor) {
+                writeEditor(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeEntityList(JsonOutput out, EntityList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.artistAndReleaseAndReleaseGroup != null) {
+            writeEntityListArtistAndReleaseAndReleaseGroup(out, o.artistAndReleaseAndReleaseGroup);
+        }
+        out.endObject();
+    }
+
+    private static void writeEntityListArtistAndReleaseAndReleaseGroup(JsonOutput out, List<Object> items) throws IOException {
+        List<String> names = new ArrayList<String>();
+        for (Object item : items) {
+            String name = writeEntityListArtistAndReleaseAndReleaseGroupName(item);
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            names.add("artist");
+        }
+        for (String name : names) {
+            out.name(name);
+            out.startArray();
+            for (Object item : items) {
+                if (name.equals(writeEntityListArtistAndReleaseAndReleaseGroupName(item))) {
+                    writeEntityListArtistAndReleaseAndReleaseGroupItem(out, item);
+                }
+            }
+            out.endArray();
+        }
+    }
+
+    private static String writeEntityListArtistAndReleaseAndReleaseGroupName(Object item) {
+        if (item instanceof Artist) {
+            return "artist";
+        }
+        if (item instanceof Release) {
+            return "release";
+        }
+        if (item instanceof ReleaseGroup) {
+            return "release-group";
+        }
+        if (item instanceof Recording) {
+            return "recording";
+        }
+        if (item instanceof Label) {
+            return "label";
+        }
+        if (item instanceof Work) {
+            return "work";
+        }
+        if (item instanceof DefAreaElementInner) {
+            return "area";
+        }
+        if (item instanceof Place) {
+            return "place";
+        }
+        if (item instanceof Instrument) {
+            return "instrument";
+        }
+        if (item instanceof Series) {
+            return "series";
+        }
+        if (item instanceof Event) {
+            return "event";
+        }
+        throw new IllegalArgumentException("Unexpected " + item.getClass());
+    }
+
+    private static void writeEntityListArtistAndReleaseAndReleaseGroupItem(JsonOutput out, Object item) throws IOException {
+        if (item instanceof Artist) {
+            writeArtist(out, (Artist) item);
+        }
+        else if (item instanceof Release) {
+            writeRelease(out, (Release) item);
+        }
+        else if (item instanceof ReleaseGroup) {
+            writeReleaseGroup(out, (ReleaseGroup) item);
+        }
+        else if (item instanceof Recording) {
+            writeRecording(out, (Recording) item);
+        }
+        else if (item instanceof Label) {
+            writeLabel(out, (Label) item);
+        }
+        else if (item instanceof Work) {
+            writeWork(out, (Work) item);
+        }
+        else if (item instanceof DefAreaElementInner) {
+            writeDefAreaElementInner(out, (DefAreaElementInner) item);
+        }
+        else if (item instanceof Place) {
+            writePlace(out, (Place) item);
+        }
+        else if (item instanceof Instrument) {
+            writeInstrument(out, (Instrument) item);
+        }
+        else if (item instanceof Series) {
+            writeSeries(out, (Series) item);
+        }
+        else if (item instanceof Event) {
+            writeEvent(out, (Event) item);
+        }
+    }
+
+    private static void writeGender(JsonOutput out, Gender o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeAnnotation(JsonOutput out, Annotation o) throws IOException {
+        out.startObject();
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.entity != null) {
+            out.name("entity");
+            out.value(o.entity);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.text != null) {
+            out.name("text");
+            out.value(o.text);
+        }
+        out.endObject();
+    }
+
+    private static void writeIpiListAttributes(JsonOutput out, IpiList o) throws IOException {
+    }
+
+    private static void writeIpiListElements(JsonOutput out, IpiList o) throws IOException {
+        if (o.ipi != null) {
+            out.name("ipis");
+            out.startArray();
+            for (String item : o.ipi) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeIsniList(JsonOutput out, IsniList o) throws IOException {
+        out.startObject();
+        if (o.isni != null) {
+            out.name("isni");
+            out.startArray();
+            for (String item : o.isni) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeLifeSpan(JsonOutput out, LifeSpan o) throws IOException {
+        out.startObject();
+        if (o.begin != null) {
+            out.name("begin");
+            out.value(o.begin);
+        }
+        if (o.end != null) {
+            out.name("end");
+            out.value(o.end);
+        }
+        Boolean endedValue = o.ended != null ? marshal(BOOLEAN_STRING_ADAPTER, o.ended) : null;
+        if (endedValue != null) {
+            out.name("ended");
+            out.rawValue(endedValue.toString());
+        }
+        else {
+            out.name("ended");
+            out.nullValue();
+        }
+        out.endObject();
+    }
+
+    private static void writeAliasList(JsonOutput out, AliasList o) throws IOException {
+        out.startObject();
+        writeAliasListAttributes(out, o);
+        writeAliasListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeAliasListAttributes(JsonOutput out, AliasList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeAliasListElements(JsonOutput out, AliasList o) throws IOException {
+        if (o.alias != null) {
+            out.name("aliases");
+            out.startArray();
+            for (Alias item : o.alias) {
+                writeAlias(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeRelationList(JsonOutput out, RelationList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.relation != null) {
+            out.name("relations");
+            out.startArray();
+            for (Relation item : o.relation) {
+                writeRelation(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeStatus(JsonOutput out, Status o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeTextRepresentation(JsonOutput out, TextRepresentation o) throws IOException {
+        out.startObject();
+        if (o.language != null) {
+            out.name("language");
+            out.value(o.language);
+        }
+        if (o.script != null) {
+            out.name("script");
+            out.value(o.script);
+        }
+        out.endObject();
+    }
+
+    private static void writeArtistCredit(JsonOutput out, ArtistCredit o) throws IOException {
+        out.startObject();
+        writeArtistCreditAttributes(out, o);
+        writeArtistCreditElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeArtistCreditAttributes(JsonOutput out, ArtistCredit o) throws IOException {
+    }
+
+    private static void writeArtistCreditElements(JsonOutput out, ArtistCredit o) throws IOException {
+        if (o.nameCredit != null) {
+            out.name("artist-credit");
+            out.startArray();
+            for (NameCredit item : o.nameCredit) {
+                writeNameCredit(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeReleaseEventListAttributes(JsonOutput out, ReleaseEventList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeReleaseEventListElements(JsonOutput out, ReleaseEventList o) throws IOException {
+        if (o.releaseEvent != null) {
+            out.name("release-events");
+            out.startArray();
+            for (ReleaseEvent item : o.releaseEvent) {
+                writeReleaseEvent(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeCoverArtArchive(JsonOutput out, CoverArtArchive o) throws IOException {
+        out.startObject();
+        String artworkValue = o.artwork != null ? marshal(COLLAPSED_STRING_ADAPTER, o.artwork) : null;
+        if (artworkValue != null) {
+            out.name("artwork");
+            out.value(artworkValue);
+        }
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        String frontValue = o.front != null ? marshal(COLLAPSED_STRING_ADAPTER, o.front) : null;
+        if (frontValue != null) {
+            out.name("front");
+            out.value(frontValue);
+        }
+        String backValue = o.back != null ? marshal(COLLAPSED_STRING_ADAPTER, o.back) : null;
+        if (backValue != null) {
+            out.name("back");
+            out.value(backValue);
+        }
+        String darkenedValue = o.darkened != null ? marshal(COLLAPSED_STRING_ADAPTER, o.darkened) : null;
+        if (darkenedValue != null) {
+            out.name("darkened");
+            out.value(darkenedValue);
+        }
+        out.endObject();
+    }
+
+    private static void writeLabelInfoListAttributes(JsonOutput out, LabelInfoList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeLabelInfoListElements(JsonOutput out, LabelInfoList o) throws IOException {
+        if (o.labelInfo != null) {
+            out.name("label-info");
+            out.startArray();
+            for (LabelInfo item : o.labelInfo) {
+                writeLabelInfo(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeMediumListAttributes(JsonOutput out, MediumList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeMediumListElements(JsonOutput out, MediumList o) throws IOException {
+        if (o.trackCount != null) {
+            out.name("track-count");
+            out.rawValue(o.trackCount.toString());
+        }
+        if (o.medium != null) {
+            out.name("media");
+            out.startArray();
+            for (Medium item : o.medium) {
+                writeMedium(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writePrimaryType(JsonOutput out, PrimaryType o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeSecondaryTypeListAttributes(JsonOutput out, SecondaryTypeList o) throws IOException {
+    }
+
+    private static void writeSecondaryTypeListElements(JsonOutput out, SecondaryTypeList o) throws IOException {
+        if (o.secondaryType != null) {
+            out.name("secondary-types");
+            out.startArray();
+            for (SecondaryType item : o.secondaryType) {
+                writeSecondaryType(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writePuidListAttributes(JsonOutput out, PuidList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writePuidListElements(JsonOutput out, PuidList o) throws IOException {
+        if (o.puid != null) {
+            out.name("puids");
+            out.startArray();
+            for (Puid item : o.puid) {
+                writePuid(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeLanguageList(JsonOutput out, LanguageList o) throws IOException {
+        out.startObject();
+        writeLanguageListAttributes(out, o);
+        writeLanguageListElements(out, o);
+        out.endObject();
+    }
+
+    private static void writeLanguageListAttributes(JsonOutput out, LanguageList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeLanguageListElements(JsonOutput out, LanguageList o) throws IOException {
+        if (o.language != null) {
+            out.name("languages");
+            out.startArray();
+            for (LanguageList.Language item : o.language) {
+                writeLanguageListLanguage(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeIswcListAttributes(JsonOutput out, IswcList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeIswcListElements(JsonOutput out, IswcList o) throws IOException {
+        if (o.iswc != null) {
+            out.name("iswcs");
+            out.startArray();
+            for (String item : o.iswc) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeWorkAttributeList(JsonOutput out, Work.AttributeList o) throws IOException {
+        out.startObject();
+        if (o.attribute != null) {
+            out.name("attribute");
+            out.startArray();
+            for (Work.AttributeList.Attribute item : o.attribute) {
+                writeWorkAttributeListAttribute(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIso31661CodeListAttributes(JsonOutput out, Iso31661CodeList o) throws IOException {
+    }
+
+    private static void writeIso31661CodeListElements(JsonOutput out, Iso31661CodeList o) throws IOException {
+        if (o.iso31661Code != null) {
+            out.name("iso-3166-1-codes");
+            out.startArray();
+            for (String item : o.iso31661Code) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeIso31662CodeListAttributes(JsonOutput out, Iso31662CodeList o) throws IOException {
+    }
+
+    private static void writeIso31662CodeListElements(JsonOutput out, Iso31662CodeList o) throws IOException {
+        if (o.iso31662Code != null) {
+            out.name("iso-3166-2-codes");
+            out.startArray();
+            for (String item : o.iso31662Code) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeIso31663CodeListAttributes(JsonOutput out, Iso31663CodeList o) throws IOException {
+    }
+
+    private static void writeIso31663CodeListElements(JsonOutput out, Iso31663CodeList o) throws IOException {
+        if (o.iso31663Code != null) {
+            out.name("iso-3166-3-codes");
+            out.startArray();
+            for (String item : o.iso31663Code) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeCoordinates(JsonOutput out, Coordinates o) throws IOException {
+        out.startObject();
+        if (o.latitude != null) {
+            out.name("latitude");
+            out.value(o.latitude);
+        }
+        if (o.longitude != null) {
+            out.name("longitude");
+            out.value(o.longitude);
+        }
+        out.endObject();
+    }
+
+    private static void writeEventLifeSpan(JsonOutput out, Event.LifeSpan o) throws IOException {
+        out.startObject();
+        if (o.begin != null) {
+            out.name("begin");
+            out.value(o.begin);
+        }
+        if (o.end != null) {
+            out.name("end");
+            out.value(o.end);
+        }
+        out.endObject();
+    }
+
+    private static void writeOffsetList(JsonOutput out, OffsetList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.offsetElement != null) {
+            out.name("offset");
+            out.startArray();
+            for (Offset item : o.offsetElement) {
+                writeOffset(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeEditInformation(JsonOutput out, EditInformation o) throws IOException {
+        out.startObject();
+        if (o.editsAccepted != null) {
+            out.name("edits-accepted");
+            out.rawValue(o.editsAccepted.toString());
+        }
+        if (o.editsRejected != null) {
+            out.name("edits-rejected");
+            out.rawValue(o.editsRejected.toString());
+        }
+        if (o.autoEditsAccepted != null) {
+            out.name("auto-edits-accepted");
+            out.rawValue(o.autoEditsAccepted.toString());
+        }
+        if (o.editsFailed != null) {
+            out.name("edits-failed");
+            out.rawValue(o.editsFailed.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeWorkAdapterAdaptedWork(JsonOutput out, WorkAdapter.AdaptedWork o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.languageList != null) {
+            writeLanguageListAttributes(out, o.languageList);
+        }
+        if (o.iswcList != null) {
+            writeIswcListAttributes(out, o.iswcList);
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.language != null) {
+            out.name("language");
+            out.value(o.language);
+        }
+        if (o.languageList != null) {
+            writeLanguageListElements(out, o.languageList);
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.iswc != null) {
+            out.name("iswc");
+            out.value(o.iswc);
+        }
+        if (o.iswcList != null) {
+            writeIswcListElements(out, o.iswcList);
+        }
+        if (o.attributeList != null) {
+            out.name("attribute-list");
+            writeWorkAttributeList(out, o.attributeList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        if (o.relations != null) {
+            out.name("relations");
+            out.startArray();
+            for (Relation item : o.relations) {
+                writeRelation(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeEventAdapterAdaptedEvent(JsonOutput out, EventAdapter.AdaptedEvent o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.aliasList != null) {
+            writeAliasListAttributes(out, o.aliasList);
+        }
+        if (o.tagList != null) {
+            writeTagListAttributes(out, o.tagList);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        String cancelledValue = o.cancelled != null ? marshal(COLLAPSED_STRING_ADAPTER, o.cancelled) : null;
+        if (cancelledValue != null) {
+            out.name("cancelled");
+            out.value(cancelledValue);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeEventLifeSpan(out, o.lifeSpan);
+        }
+        if (o.time != null) {
+            out.name("time");
+            out.value(o.time);
+        }
+        if (o.setlist != null) {
+            out.name("setlist");
+            out.value(o.setlist);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            writeAliasListElements(out, o.aliasList);
+        }
+        if (o.relationList != null) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            writeTagListElements(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        if (o.relations != null) {
+            out.name("relations");
+            out.startArray();
+            for (Relation item : o.relations) {
+                writeRelation(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCdstub(JsonOutput out, Cdstub o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.trackList != null) {
+            writeCdstubTrackListAttributes(out, o.trackList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            out.value(o.artist);
+        }
+        if (o.barcode != null) {
+            out.name("barcode");
+            out.value(o.barcode);
+        }
+        if (o.comment != null) {
+            out.name("comment");
+            out.value(o.comment);
+        }
+        if (o.trackList != null) {
+            writeCdstubTrackListElements(out, o.trackList);
+        }
+        out.endObject();
+    }
+
+    private static void writeFreedbDisc(JsonOutput out, FreedbDisc o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.trackList != null) {
+            writeCdstubTrackListAttributes(out, o.trackList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            out.value(o.artist);
+        }
+        if (o.category != null) {
+            out.name("category");
+            out.value(o.category);
+        }
+        if (o.year != null) {
+            out.name("year");
+            out.value(o.year);
+        }
+        if (o.trackList != null) {
+            writeCdstubTrackListElements(out, o.trackList);
+        }
+        out.endObject();
+    }
+
+    private static void writeTag(JsonOutput out, Tag o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeUserTag(JsonOutput out, UserTag o) throws IOException {
+        out.startObject();
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeGenre(JsonOutput out, Genre o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeUserGenre(JsonOutput out, UserGenre o) throws IOException {
+        out.startObject();
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeAlias(JsonOutput out, Alias o) throws IOException {
+        out.startObject();
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        if (o.locale != null) {
+            out.name("locale");
+            out.value(o.locale);
+        }
+        else {
+            out.name("locale");
+            out.nullValue();
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        else {
+            out.name("type");
+            out.nullValue();
+        }
+        Boolean primaryValue = o.primary != null ? marshal(BOOLEAN_STRING_ADAPTER, o.primary) : null;
+        if (primaryValue != null) {
+            out.name("primary");
+            out.rawValue(primaryValue.toString());
+        }
+        else {
+            out.name("primary");
+            out.nullValue();
+        }
+        if (o.beginDate != null) {
+            out.name("begin-date");
+            out.value(o.beginDate);
+        }
+        else {
+            out.name("begin-date");
+            out.nullValue();
+        }
+        if (o.endDate != null) {
+            out.name("end-date");
+            out.value(o.endDate);
+        }
+        else {
+            out.name("end-date");
+            out.nullValue();
+        }
+        out.endObject();
+    }
+
+    private static void writeRelation(JsonOutput out, Relation o) throws IOException {
+        out.startObject();
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.attributeList != null) {
+            writeRelationAttributeListAttributes(out, o.attributeList);
+        }
+        if (o.target != null) {
+            out.name("target");
+            writeTarget(out, o.target);
+        }
+        if (o.orderingKey != null) {
+            out.name("ordering-key");
+            out.rawValue(o.orderingKey.toString());
+        }
+        if (o.direction != null) {
+            out.name("direction");
+            out.value(o.direction.value());
+        }
+        if (o.attributeList != null) {
+            writeRelationAttributeListElements(out, o.attributeList);
+        }
+        if (o.begin != null) {
+            out.name("begin");
+            out.value(o.begin);
+        }
+        if (o.end != null) {
+            out.name("end");
+            out.value(o.end);
+        }
+        String endedValue = o.ended != null ? marshal(COLLAPSED_STRING_ADAPTER, o.ended) : null;
+        if (endedValue != null) {
+            out.name("ended");
+            out.value(endedValue);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            writeArtist(out, o.artist);
+        }
+        if (o.release != null) {
+            out.name("release");
+            writeRelease(out, o.release);
+        }
+        if (o.releaseGroup != null) {
+            out.name("release-group");
+            writeReleaseGroup(out, o.releaseGroup);
+        }
+        if (o.recording != null) {
+            out.name("recording");
+            writeRecording(out, o.recording);
+        }
+        if (o.label != null) {
+            out.name("label");
+            writeLabel(out, o.label);
+        }
+        if (o.work != null) {
+            out.name("work");
+            writeWork(out, o.work);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.place != null) {
+            out.name("place");
+            writePlace(out, o.place);
+        }
+        if (o.instrument != null) {
+            out.name("instrument");
+            writeInstrument(out, o.instrument);
+        }
+        if (o.series != null) {
+            out.name("series");
+            writeSeries(out, o.series);
+        }
+        if (o.event != null) {
+            out.name("event");
+            writeEvent(out, o.event);
+        }
+        if (o.sourceCredit != null) {
+            out.name("source-credit");
+            out.value(o.sourceCredit);
+        }
+        if (o.targetCredit != null) {
+            out.name("target-credit");
+            out.value(o.targetCredit);
+        }
+        out.endObject();
+    }
+
+    private static void writeNameCredit(JsonOutput out, NameCredit o) throws IOException {
+        out.startObject();
+        if (o.joinphrase != null) {
+            out.name("joinphrase");
+            out.value(o.joinphrase);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            writeArtist(out, o.artist);
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseEvent(JsonOutput out, ReleaseEvent o) throws IOException {
+        out.startObject();
+        if (o.date != null) {
+            out.name("date");
+            out.value(o.date);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        out.endObject();
+    }
+
+    private static void writeLabelInfo(JsonOutput out, LabelInfo o) throws IOException {
+        out.startObject();
+        if (o.catalogNumber != null) {
+            out.name("catalog-number");
+            out.value(o.catalogNumber);
+        }
+        if (o.label != null) {
+            out.name("label");
+            writeLabel(out, o.label);
+        }
+        out.endObject();
+    }
+
+    private static void writeMedium(JsonOutput out, Medium o) throws IOException {
+        out.startObject();
+        if (o.discList != null) {
+            writeDiscListAttributes(out, o.discList);
+        }
+        if (o.trackList != null) {
+            writeMediumTrackListAttributes(out, o.trackList);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.position != null) {
+            out.name("position");
+            out.rawValue(o.position.toString());
+        }
+        if (o.format != null) {
+            out.name("format");
+            writeFormat(out, o.format);
+        }
+        if (o.discList != null) {
+            writeDiscListElements(out, o.discList);
+        }
+        if (o.pregap != null) {
+            out.name("pregap");
+            writeDefTrackData(out, o.pregap);
+        }
+        if (o.trackList != null) {
+            writeMediumTrackListElements(out, o.trackList);
+        }
+        if (o.dataTrackList != null) {
+            out.name("data-track-list");
+            writeDataTrackList(out, o.dataTrackList);
+        }
+        out.endObject();
+    }
+
+    private static void writeSecondaryType(JsonOutput out, SecondaryType o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeLanguageListLanguage(JsonOutput out, LanguageList.Language o) throws IOException {
+        if (o.fluency == null && o.value != null) {
+            out.value(o.value);
+            return;
+        }
+        out.startObject();
+        String fluencyValue = o.fluency != null ? marshal(COLLAPSED_STRING_ADAPTER, o.fluency) : null;
+        if (fluencyValue != null) {
+            out.name("fluency");
+            out.value(fluencyValue);
+        }
+        if (o.value != null) {
+            out.name("name");
+            out.value(o.value);
+        }
+        out.endObject();
+    }
+
+    private static void writeWorkAttributeListAttribute(JsonOutput out, Work.AttributeList.Attribute o) throws IOException {
+        if (o.type == null && o.typeId == null && o.valueId == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.valueId != null) {
+            out.name("value-id");
+            out.value(o.valueId);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeOffset(JsonOutput out, Offset o) throws IOException {
+        if (o.position == null && o.value != null) {
+            out.rawValue(o.value.toString());
+            return;
+        }
+        out.startObject();
+        if (o.position != null) {
+            out.name("position");
+            out.rawValue(o.position.toString());
+        }
+        if (o.value != null) {
+            out.name("name");
+            out.rawValue(o.value.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeCdstubTrackListAttributes(JsonOutput out, Cdstub.TrackList o) throws IOException {
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeCdstubTrackListElements(JsonOutput out, Cdstub.TrackList o) throws IOException {
+        if (o.defNonmbTrack != null) {
+            out.name("track");
+            out.startArray();
+            for (Cdstub.TrackList.Track item : o.defNonmbTrack) {
+                writeCdstubTrackListTrack(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeTarget(JsonOutput out, Target o) throws IOException {
+        if (o.id == null && o.value != null) {
+            out.value(o.value);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.value != null) {
+            out.name("name");
+            out.value(o.value);
+        }
+        out.endObject();
+    }
+
+    private static void writeRelationAttributeListAttributes(JsonOutput out, Relation.AttributeList o) throws IOException {
+    }
+
+    private static void writeRelationAttributeListElements(JsonOutput out, Relation.AttributeList o) throws IOException {
+        if (o.attribute != null) {
+            out.name("attributes");
+            out.startArray();
+            for (Relation.AttributeList.Attribute item : o.attribute) {
+                writeRelationAttributeListAttribute(out, item);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeFormat(JsonOutput out, Format o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeDiscListAttributes(JsonOutput out, DiscList o) throws IOException {
+    }
+
+    private static void writeDiscListElements(JsonOutput out, DiscList o) throws IOException {
+        if (o.disc != null) {
+            out.name("disc");
+            out.startArray();
+            for (Disc item : o.disc) {
+                writeDisc(out, item);
+            }
+            out.endArray();
+        }
+        if (o.count != null) {
+            out.name("disc-count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("disc-offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeDefTrackData(JsonOutput out, DefTrackData o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditAttributes(out, o.artistCredit);
+        }
+        if (o.position != null) {
+            out.name("position");
+            out.rawValue(o.position.toString());
+        }
+        if (o.number != null) {
+            out.name("number");
+            out.value(o.number);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.length != null) {
+            out.name("length");
+            out.rawValue(o.length.toString());
+        }
+        if (o.artistCredit != null) {
+            writeArtistCreditElements(out, o.artistCredit);
+        }
+        if (o.recording != null) {
+            out.name("recording");
+            writeRecording(out, o.recording);
+        }
+        out.endObject();
+    }
+
+    private static void writeMediumTrackListAttributes(JsonOutput out, Medium.TrackList o) throws IOException {
+    }
+
+    private static void writeMediumTrackListElements(JsonOutput out, Medium.TrackList o) throws IOException {
+        if (o.defTrack != null) {
+            out.name("track");
+            out.startArray();
+            for (DefTrackData item : o.defTrack) {
+                writeDefTrackData(out, item);
+            }
+            out.endArray();
+        }
+        if (o.count != null) {
+            out.name("track-count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("track-offset");
+            out.rawValue(o.offset.toString());
+        }
+    }
+
+    private static void writeDataTrackList(JsonOutput out, DataTrackList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.defTrack != null) {
+            out.name("track");
+            out.startArray();
+            for (DefTrackData item : o.defTrack) {
+                writeDefTrackData(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCdstubTrackListTrack(JsonOutput out, Cdstub.TrackList.Track o) throws IOException {
+        out.startObject();
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            out.value(o.artist);
+        }
+        if (o.length != null) {
+            out.name("length");
+            out.rawValue(o.length.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeRelationAttributeListAttribute(JsonOutput out, Relation.AttributeList.Attribute o) throws IOException {
+        if (o.value == null && o.creditedAs == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.value != null) {
+            out.name("value");
+            out.value(o.value);
+        }
+        if (o.creditedAs != null) {
+            out.name("credited-as");
+            out.value(o.creditedAs);
+        }
+        if (o.content != null) {
+            out.name("name");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static Boolean marshal(BooleanStringAdapter adapter, String value) throws IOException {
+        try {
+            return adapter.marshal(value);
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static String marshal(CollapsedStringAdapter adapter, String value) throws IOException {
+        try {
+            return adapter.marshal(value);
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static WorkAdapter.AdaptedWork marshal(WorkAdapter adapter, Work value) throws IOException {
+        try {
+            return adapter.marshal(value);
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static EventAdapter.AdaptedEvent marshal(EventAdapter adapter, Event value) throws IOException {
+        try {
+            return adapter.marshal(value);
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
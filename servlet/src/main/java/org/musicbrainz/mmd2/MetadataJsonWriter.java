@@ -0,0 +1,3110 @@
+package org.musicbrainz.mmd2;
+
+import java.io.IOException;
+import java.util.List;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
+import org.musicbrainz.mmd2.json.JsonOutput;
+
+/**
+ * Writes Metadata as json, giving the same output as Jersey natural notation.
+ *
+ * Generated by JsonWriterGenerator, do not edit.
+ */
+public final class MetadataJsonWriter {
+
+    private static final CollapsedStringAdapter COLLAPSED_STRING_ADAPTER = new CollapsedStringAdapter();
+
+    private MetadataJsonWriter() {
+    }
+
+    public static void write(JsonOutput out, Metadata o) throws IOException {
+        writeMetadata(out, o);
+    }
+
+    private static void writeMetadata(JsonOutput out, Metadata o) throws IOException {
+        out.startObject();
+        if (o.generator != null) {
+            out.name("generator");
+            out.value(o.generator);
+        }
+        if (o.created != null) {
+            out.name("created");
+            out.dateTimeValue(o.created);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            writeArtist(out, o.artist);
+        }
+        if (o.release != null) {
+            out.name("release");
+            writeRelease(out, o.release);
+        }
+        if (o.releaseGroup != null) {
+            out.name("release-group");
+            writeReleaseGroup(out, o.releaseGroup);
+        }
+        if (o.recording != null) {
+            out.name("recording");
+            writeRecording(out, o.recording);
+        }
+        if (o.label != null) {
+            out.name("label");
+            writeLabel(out, o.label);
+        }
+        if (o.work != null) {
+            out.name("work");
+            writeWork(out, o.work);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.place != null) {
+            out.name("place");
+            writePlace(out, o.place);
+        }
+        if (o.instrument != null) {
+            out.name("instrument");
+            writeInstrument(out, o.instrument);
+        }
+        if (o.series != null) {
+            out.name("series");
+            writeSeries(out, o.series);
+        }
+        if (o.event != null) {
+            out.name("event");
+            writeEvent(out, o.event);
+        }
+        if (o.url != null) {
+            out.name("url");
+            writeUrl(out, o.url);
+        }
+        if (o.puid != null) {
+            out.name("puid");
+            writePuid(out, o.puid);
+        }
+        if (o.isrc != null) {
+            out.name("isrc");
+            writeIsrc(out, o.isrc);
+        }
+        if (o.disc != null) {
+            out.name("disc");
+            writeDisc(out, o.disc);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        if (o.collection != null) {
+            out.name("collection");
+            writeCollection(out, o.collection);
+        }
+        if (o.editor != null) {
+            out.name("editor");
+            writeEditor(out, o.editor);
+        }
+        if (o.artistList != null) {
+            out.name("artist-list");
+            writeArtistList(out, o.artistList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            out.name("release-group-list");
+            writeReleaseGroupList(out, o.releaseGroupList);
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        if (o.labelList != null) {
+            out.name("label-list");
+            writeLabelList(out, o.labelList);
+        }
+        if (o.workList != null) {
+            out.name("work-list");
+            writeWorkList(out, o.workList);
+        }
+        if (o.areaList != null) {
+            out.name("area-list");
+            writeAreaList(out, o.areaList);
+        }
+        if (o.placeList != null) {
+            out.name("place-list");
+            writePlaceList(out, o.placeList);
+        }
+        if (o.instrumentList != null) {
+            out.name("instrument-list");
+            writeInstrumentList(out, o.instrumentList);
+        }
+        if (o.seriesList != null) {
+            out.name("series-list");
+            writeSeriesList(out, o.seriesList);
+        }
+        if (o.eventList != null) {
+            out.name("event-list");
+            writeEventList(out, o.eventList);
+        }
+        if (o.urlList != null) {
+            out.name("url-list");
+            writeUrlList(out, o.urlList);
+        }
+        if (o.isrcList != null) {
+            out.name("isrc-list");
+            writeIsrcList(out, o.isrcList);
+        }
+        if (o.annotationList != null) {
+            out.name("annotation-list");
+            writeAnnotationList(out, o.annotationList);
+        }
+        if (o.cdstubList != null) {
+            out.name("cdstub-list");
+            writeCdstubList(out, o.cdstubList);
+        }
+        if (o.freedbDiscList != null) {
+            out.name("freedb-disc-list");
+            writeFreedbDiscList(out, o.freedbDiscList);
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.collectionList != null) {
+            out.name("collection-list");
+            writeCollectionList(out, o.collectionList);
+        }
+        if (o.editorList != null) {
+            out.name("editor-list");
+            writeEditorList(out, o.editorList);
+        }
+        if (o.entityList != null) {
+            out.name("entity-list");
+            writeEntityList(out, o.entityList);
+        }
+        out.endObject();
+    }
+
+    private static void writeArtist(JsonOutput out, Artist o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.gender != null) {
+            out.name("gender");
+            writeGender(out, o.gender);
+        }
+        if (o.country != null) {
+            out.name("country");
+            out.value(o.country);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.beginArea != null) {
+            out.name("begin-area");
+            writeDefAreaElementInner(out, o.beginArea);
+        }
+        if (o.endArea != null) {
+            out.name("end-area");
+            writeDefAreaElementInner(out, o.endArea);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.ipi != null) {
+            out.name("ipi");
+            out.value(o.ipi);
+        }
+        if (o.ipiList != null) {
+            out.name("ipi-list");
+            writeIpiList(out, o.ipiList);
+        }
+        if (o.isniList != null) {
+            out.name("isni-list");
+            writeIsniList(out, o.isniList);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            out.name("release-group-list");
+            writeReleaseGroupList(out, o.releaseGroupList);
+        }
+        if (o.workList != null) {
+            out.name("work-list");
+            writeWorkList(out, o.workList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeRelease(JsonOutput out, Release o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.status != null) {
+            out.name("status");
+            writeStatus(out, o.status);
+        }
+        if (o.quality != null) {
+            out.name("quality");
+            out.value(o.quality.value());
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.packaging != null) {
+            out.name("packaging");
+            out.value(o.packaging);
+        }
+        if (o.textRepresentation != null) {
+            out.name("text-representation");
+            writeTextRepresentation(out, o.textRepresentation);
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.releaseGroup != null) {
+            out.name("release-group");
+            writeReleaseGroup(out, o.releaseGroup);
+        }
+        if (o.date != null) {
+            out.name("date");
+            out.value(o.date);
+        }
+        if (o.country != null) {
+            out.name("country");
+            out.value(o.country);
+        }
+        if (o.releaseEventList != null) {
+            out.name("release-event-list");
+            writeReleaseEventList(out, o.releaseEventList);
+        }
+        if (o.barcode != null) {
+            out.name("barcode");
+            out.value(o.barcode);
+        }
+        if (o.asin != null) {
+            out.name("asin");
+            out.value(o.asin);
+        }
+        if (o.coverArtArchive != null) {
+            out.name("cover-art-archive");
+            writeCoverArtArchive(out, o.coverArtArchive);
+        }
+        if (o.labelInfoList != null) {
+            out.name("label-info-list");
+            writeLabelInfoList(out, o.labelInfoList);
+        }
+        if (o.mediumList != null) {
+            out.name("medium-list");
+            writeMediumList(out, o.mediumList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.collectionList != null) {
+            out.name("collection-list");
+            writeCollectionList(out, o.collectionList);
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseGroup(JsonOutput out, ReleaseGroup o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.firstReleaseDate != null) {
+            out.name("first-release-date");
+            out.value(o.firstReleaseDate);
+        }
+        if (o.primaryType != null) {
+            out.name("primary-type");
+            writePrimaryType(out, o.primaryType);
+        }
+        if (o.secondaryTypeList != null) {
+            out.name("secondary-type-list");
+            writeSecondaryTypeList(out, o.secondaryTypeList);
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeRecording(JsonOutput out, Recording o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.length != null) {
+            out.name("length");
+            out.rawValue(o.length.toString());
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        String videoValue = o.video != null ? marshal(COLLAPSED_STRING_ADAPTER, o.video) : null;
+        if (videoValue != null) {
+            out.name("video");
+            out.value(videoValue);
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.puidList != null) {
+            out.name("puid-list");
+            writePuidList(out, o.puidList);
+        }
+        if (o.isrcList != null) {
+            out.name("isrc-list");
+            writeIsrcList(out, o.isrcList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeLabel(JsonOutput out, Label o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.labelCode != null) {
+            out.name("label-code");
+            out.rawValue(o.labelCode.toString());
+        }
+        if (o.ipi != null) {
+            out.name("ipi");
+            out.value(o.ipi);
+        }
+        if (o.ipiList != null) {
+            out.name("ipi-list");
+            writeIpiList(out, o.ipiList);
+        }
+        if (o.isniList != null) {
+            out.name("isni-list");
+            writeIsniList(out, o.isniList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.country != null) {
+            out.name("country");
+            out.value(o.country);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeWork(JsonOutput out, Work o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.language != null) {
+            out.name("language");
+            out.value(o.language);
+        }
+        if (o.languageList != null) {
+            out.name("language-list");
+            writeLanguageList(out, o.languageList);
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.iswc != null) {
+            out.name("iswc");
+            out.value(o.iswc);
+        }
+        if (o.iswcList != null) {
+            out.name("iswc-list");
+            writeIswcList(out, o.iswcList);
+        }
+        if (o.attributeList != null) {
+            out.name("attribute-list");
+            writeWorkAttributeList(out, o.attributeList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeDefAreaElementInner(JsonOutput out, DefAreaElementInner o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.iso31661CodeList != null) {
+            out.name("iso-3166-1-code-list");
+            writeIso31661CodeList(out, o.iso31661CodeList);
+        }
+        if (o.iso31662CodeList != null) {
+            out.name("iso-3166-2-code-list");
+            writeIso31662CodeList(out, o.iso31662CodeList);
+        }
+        if (o.iso31663CodeList != null) {
+            out.name("iso-3166-3-code-list");
+            writeIso31663CodeList(out, o.iso31663CodeList);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writePlace(JsonOutput out, Place o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.address != null) {
+            out.name("address");
+            out.value(o.address);
+        }
+        if (o.coordinates != null) {
+            out.name("coordinates");
+            writeCoordinates(out, o.coordinates);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeLifeSpan(out, o.lifeSpan);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writeInstrument(JsonOutput out, Instrument o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.description != null) {
+            out.name("description");
+            out.value(o.description);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writeSeries(JsonOutput out, Series o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        if (o.orderingAttribute != null) {
+            out.name("ordering-attribute");
+            out.value(o.orderingAttribute);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        out.endObject();
+    }
+
+    private static void writeEvent(JsonOutput out, Event o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.disambiguation != null) {
+            out.name("disambiguation");
+            out.value(o.disambiguation);
+        }
+        String cancelledValue = o.cancelled != null ? marshal(COLLAPSED_STRING_ADAPTER, o.cancelled) : null;
+        if (cancelledValue != null) {
+            out.name("cancelled");
+            out.value(cancelledValue);
+        }
+        if (o.lifeSpan != null) {
+            out.name("life-span");
+            writeEventLifeSpan(out, o.lifeSpan);
+        }
+        if (o.time != null) {
+            out.name("time");
+            out.value(o.time);
+        }
+        if (o.setlist != null) {
+            out.name("setlist");
+            out.value(o.setlist);
+        }
+        if (o.annotation != null) {
+            out.name("annotation");
+            writeAnnotation(out, o.annotation);
+        }
+        if (o.aliasList != null) {
+            out.name("alias-list");
+            writeAliasList(out, o.aliasList);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        if (o.tagList != null) {
+            out.name("tag-list");
+            writeTagList(out, o.tagList);
+        }
+        if (o.userTagList != null) {
+            out.name("user-tag-list");
+            writeUserTagList(out, o.userTagList);
+        }
+        if (o.genreList != null) {
+            out.name("genre-list");
+            writeGenreList(out, o.genreList);
+        }
+        if (o.userGenreList != null) {
+            out.name("user-genre-list");
+            writeUserGenreList(out, o.userGenreList);
+        }
+        if (o.rating != null) {
+            out.name("rating");
+            writeRating(out, o.rating);
+        }
+        if (o.userRating != null) {
+            out.name("user-rating");
+            out.rawValue(o.userRating.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeUrl(JsonOutput out, Url o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.resource != null) {
+            out.name("resource");
+            out.value(o.resource);
+        }
+        if (o.relationList != null && !o.relationList.isEmpty()) {
+            out.name("relation-list");
+            out.startArray();
+            for (RelationList item : o.relationList) {
+                writeRelationList(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writePuid(JsonOutput out, Puid o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        out.endObject();
+    }
+
+    private static void writeIsrc(JsonOutput out, Isrc o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        out.endObject();
+    }
+
+    private static void writeDisc(JsonOutput out, Disc o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.sectors != null) {
+            out.name("sectors");
+            out.rawValue(o.sectors.toString());
+        }
+        if (o.offsetList != null) {
+            out.name("offset-list");
+            writeOffsetList(out, o.offsetList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        out.endObject();
+    }
+
+    private static void writeRating(JsonOutput out, Rating o) throws IOException {
+        if (o.votesCount == null) {
+            out.value(DatatypeConverter.printFloat(o.value));
+            return;
+        }
+        out.startObject();
+        if (o.votesCount != null) {
+            out.name("votes-count");
+            out.rawValue(o.votesCount.toString());
+        }
+        out.name("$");
+        out.value(DatatypeConverter.printFloat(o.value));
+        out.endObject();
+    }
+
+    private static void writeCollection(JsonOutput out, Collection o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.entityType != null) {
+            out.name("entity-type");
+            out.value(o.entityType);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.editor != null) {
+            out.name("editor");
+            out.value(o.editor);
+        }
+        if (o.areaList != null) {
+            out.name("area-list");
+            writeAreaList(out, o.areaList);
+        }
+        if (o.artistList != null) {
+            out.name("artist-list");
+            writeArtistList(out, o.artistList);
+        }
+        if (o.eventList != null) {
+            out.name("event-list");
+            writeEventList(out, o.eventList);
+        }
+        if (o.instrumentList != null) {
+            out.name("instrument-list");
+            writeInstrumentList(out, o.instrumentList);
+        }
+        if (o.labelList != null) {
+            out.name("label-list");
+            writeLabelList(out, o.labelList);
+        }
+        if (o.placeList != null) {
+            out.name("place-list");
+            writePlaceList(out, o.placeList);
+        }
+        if (o.recordingList != null) {
+            out.name("recording-list");
+            writeRecordingList(out, o.recordingList);
+        }
+        if (o.releaseList != null) {
+            out.name("release-list");
+            writeReleaseList(out, o.releaseList);
+        }
+        if (o.releaseGroupList != null) {
+            out.name("release-group-list");
+            writeReleaseGroupList(out, o.releaseGroupList);
+        }
+        if (o.seriesList != null) {
+            out.name("series-list");
+            writeSeriesList(out, o.seriesList);
+        }
+        if (o.workList != null) {
+            out.name("work-list");
+            writeWorkList(out, o.workList);
+        }
+        out.endObject();
+    }
+
+    private static void writeEditor(JsonOutput out, Editor o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.rawValue(o.id.toString());
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.memberSince != null) {
+            out.name("member-since");
+            out.value(o.memberSince);
+        }
+        if (o.privs != null) {
+            out.name("privs");
+            out.rawValue(o.privs.toString());
+        }
+        if (o.gender != null) {
+            out.name("gender");
+            writeGender(out, o.gender);
+        }
+        if (o.age != null) {
+            out.name("age");
+            out.value(o.age);
+        }
+        if (o.homepage != null) {
+            out.name("homepage");
+            out.value(o.homepage);
+        }
+        if (o.bio != null) {
+            out.name("bio");
+            out.value(o.bio);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.languageList != null) {
+            out.name("language-list");
+            writeLanguageList(out, o.languageList);
+        }
+        if (o.editInformation != null) {
+            out.name("edit-information");
+            writeEditInformation(out, o.editInformation);
+        }
+        out.endObject();
+    }
+
+    private static void writeArtistList(JsonOutput out, ArtistList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.artist != null && !o.artist.isEmpty()) {
+            out.name("artist");
+            out.startArray();
+            for (Artist item : o.artist) {
+                writeArtist(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseList(JsonOutput out, ReleaseList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.release != null && !o.release.isEmpty()) {
+            out.name("release");
+            out.startArray();
+            for (Release item : o.release) {
+                writeRelease(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseGroupList(JsonOutput out, ReleaseGroupList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.releaseGroup != null && !o.releaseGroup.isEmpty()) {
+            out.name("release-group");
+            out.startArray();
+            for (ReleaseGroup item : o.releaseGroup) {
+                writeReleaseGroup(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeRecordingList(JsonOutput out, RecordingList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.recording != null && !o.recording.isEmpty()) {
+            out.name("recording");
+            out.startArray();
+            for (Recording item : o.recording) {
+                writeRecording(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeLabelList(JsonOutput out, LabelList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.label != null && !o.label.isEmpty()) {
+            out.name("label");
+            out.startArray();
+            for (Label item : o.label) {
+                writeLabel(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeWorkList(JsonOutput out, WorkList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.work != null && !o.work.isEmpty()) {
+            out.name("work");
+            out.startArray();
+            for (Work item : o.work) {
+                writeWork(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeAreaList(JsonOutput out, AreaList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.area != null && !o.area.isEmpty()) {
+            out.name("area");
+            out.startArray();
+            for (DefAreaElementInner item : o.area) {
+                writeDefAreaElementInner(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writePlaceList(JsonOutput out, PlaceList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.place != null && !o.place.isEmpty()) {
+            out.name("place");
+            out.startArray();
+            for (Place item : o.place) {
+                writePlace(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeInstrumentList(JsonOutput out, InstrumentList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.instrument != null && !o.instrument.isEmpty()) {
+            out.name("instrument");
+            out.startArray();
+            for (Instrument item : o.instrument) {
+                writeInstrument(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeSeriesList(JsonOutput out, SeriesList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.series != null && !o.series.isEmpty()) {
+            out.name("series");
+            out.startArray();
+            for (Series item : o.series) {
+                writeSeries(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeEventList(JsonOutput out, EventList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.event != null && !o.event.isEmpty()) {
+            out.name("event");
+            out.startArray();
+            for (Event item : o.event) {
+                writeEvent(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeUrlList(JsonOutput out, UrlList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.url != null && !o.url.isEmpty()) {
+            out.name("url");
+            out.startArray();
+            for (Url item : o.url) {
+                writeUrl(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIsrcList(JsonOutput out, IsrcList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.isrc != null && !o.isrc.isEmpty()) {
+            out.name("isrc");
+            out.startArray();
+            for (Isrc item : o.isrc) {
+                writeIsrc(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeAnnotationList(JsonOutput out, AnnotationList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.annotation != null && !o.annotation.isEmpty()) {
+            out.name("annotation");
+            out.startArray();
+            for (Annotation item : o.annotation) {
+                writeAnnotation(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCdstubList(JsonOutput out, CdstubList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.cdstub != null && !o.cdstub.isEmpty()) {
+            out.name("cdstub");
+            out.startArray();
+            for (Cdstub item : o.cdstub) {
+                writeCdstub(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeFreedbDiscList(JsonOutput out, FreedbDiscList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.freedbDisc != null && !o.freedbDisc.isEmpty()) {
+            out.name("freedb-disc");
+            out.startArray();
+            for (FreedbDisc item : o.freedbDisc) {
+                writeFreedbDisc(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeTagList(JsonOutput out, TagList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.tag != null && !o.tag.isEmpty()) {
+            out.name("tag");
+            out.startArray();
+            for (Tag item : o.tag) {
+                writeTag(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeUserTagList(JsonOutput out, UserTagList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.userTag != null && !o.userTag.isEmpty()) {
+            out.name("user-tag");
+            out.startArray();
+            for (UserTag item : o.userTag) {
+                writeUserTag(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeGenreList(JsonOutput out, GenreList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.genre != null && !o.genre.isEmpty()) {
+            out.name("genre");
+            out.startArray();
+            for (Genre item : o.genre) {
+                writeGenre(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeUserGenreList(JsonOutput out, UserGenreList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.userGenre != null && !o.userGenre.isEmpty()) {
+            out.name("user-genre");
+            out.startArray();
+            for (UserGenre item : o.userGenre) {
+                writeUserGenre(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCollectionList(JsonOutput out, CollectionList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.collection != null && !o.collection.isEmpty()) {
+            out.name("collection");
+            out.startArray();
+            for (Collection item : o.collection) {
+                writeCollection(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeEditorList(JsonOutput out, EditorList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.editor != null && !o.editor.isEmpty()) {
+            out.name("editor");
+            out.startArray();
+            for (Editor item : o.editor) {
+                writeEditor(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeEntityList(JsonOutput out, EntityList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.artistAndReleaseAndReleaseGroup != null && !o.artistAndReleaseAndReleaseGroup.isEmpty()) {
+            writeEntityListArtistAndReleaseAndReleaseGroup(out, o.artistAndReleaseAndReleaseGroup);
+        }
+        out.endObject();
+    }
+
+    private static void writeEntityListArtistAndReleaseAndReleaseGroup(JsonOutput out, List<Object> items) throws IOException {
+        String name = writeEntityListArtistAndReleaseAndReleaseGroupName(items.get(0));
+        int end = 1;
+        while (end < items.size() && name.equals(writeEntityListArtistAndReleaseAndReleaseGroupName(items.get(end)))) {
+            end++;
+        }
+        out.name(name);
+        out.startArray();
+        for (int i = 0; i < end; i++) {
+            writeEntityListArtistAndReleaseAndReleaseGroupItem(out, items.get(i));
+        }
+        out.endArray();
+        for (int i = end; i < items.size(); i++) {
+            out.name(writeEntityListArtistAndReleaseAndReleaseGroupName(items.get(i)));
+            writeEntityListArtistAndReleaseAndReleaseGroupItem(out, items.get(i));
+        }
+    }
+
+    private static String writeEntityListArtistAndReleaseAndReleaseGroupName(Object item) {
+        if (item instanceof Artist) {
+            return "artist";
+        }
+        if (item instanceof Release) {
+            return "release";
+        }
+        if (item instanceof ReleaseGroup) {
+            return "release-group";
+        }
+        if (item instanceof Recording) {
+            return "recording";
+        }
+        if (item instanceof Label) {
+            return "label";
+        }
+        if (item instanceof Work) {
+            return "work";
+        }
+        if (item instanceof DefAreaElementInner) {
+            return "area";
+        }
+        if (item instanceof Place) {
+            return "place";
+        }
+        if (item instanceof Instrument) {
+            return "instrument";
+        }
+        if (item instanceof Series) {
+            return "series";
+        }
+        if (item instanceof Event) {
+            return "event";
+        }
+        throw new IllegalArgumentException("Unexpected " + item.getClass());
+    }
+
+    private static void writeEntityListArtistAndReleaseAndReleaseGroupItem(JsonOutput out, Object item) throws IOException {
+        if (item instanceof Artist) {
+            writeArtist(out, (Artist) item);
+        }
+        else if (item instanceof Release) {
+            writeRelease(out, (Release) item);
+        }
+        else if (item instanceof ReleaseGroup) {
+            writeReleaseGroup(out, (ReleaseGroup) item);
+        }
+        else if (item instanceof Recording) {
+            writeRecording(out, (Recording) item);
+        }
+        else if (item instanceof Label) {
+            writeLabel(out, (Label) item);
+        }
+        else if (item instanceof Work) {
+            writeWork(out, (Work) item);
+        }
+        else if (item instanceof DefAreaElementInner) {
+            writeDefAreaElementInner(out, (DefAreaElementInner) item);
+        }
+        else if (item instanceof Place) {
+            writePlace(out, (Place) item);
+        }
+        else if (item instanceof Instrument) {
+            writeInstrument(out, (Instrument) item);
+        }
+        else if (item instanceof Series) {
+            writeSeries(out, (Series) item);
+        }
+        else if (item instanceof Event) {
+            writeEvent(out, (Event) item);
+        }
+    }
+
+    private static void writeGender(JsonOutput out, Gender o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeAnnotation(JsonOutput out, Annotation o) throws IOException {
+        out.startObject();
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.entity != null) {
+            out.name("entity");
+            out.value(o.entity);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.text != null) {
+            out.name("text");
+            out.value(o.text);
+        }
+        out.endObject();
+    }
+
+    private static void writeIpiList(JsonOutput out, IpiList o) throws IOException {
+        out.startObject();
+        if (o.ipi != null && !o.ipi.isEmpty()) {
+            out.name("ipi");
+            out.startArray();
+            for (String item : o.ipi) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIsniList(JsonOutput out, IsniList o) throws IOException {
+        out.startObject();
+        if (o.isni != null && !o.isni.isEmpty()) {
+            out.name("isni");
+            out.startArray();
+            for (String item : o.isni) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeLifeSpan(JsonOutput out, LifeSpan o) throws IOException {
+        out.startObject();
+        if (o.begin != null) {
+            out.name("begin");
+            out.value(o.begin);
+        }
+        if (o.end != null) {
+            out.name("end");
+            out.value(o.end);
+        }
+        String endedValue = o.ended != null ? marshal(COLLAPSED_STRING_ADAPTER, o.ended) : null;
+        if (endedValue != null) {
+            out.name("ended");
+            out.value(endedValue);
+        }
+        out.endObject();
+    }
+
+    private static void writeAliasList(JsonOutput out, AliasList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.alias != null && !o.alias.isEmpty()) {
+            out.name("alias");
+            out.startArray();
+            for (Alias item : o.alias) {
+                writeAlias(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeRelationList(JsonOutput out, RelationList o) throws IOException {
+        out.startObject();
+        if (o.targetType != null) {
+            out.name("target-type");
+            out.value(o.targetType);
+        }
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.relation != null && !o.relation.isEmpty()) {
+            out.name("relation");
+            out.startArray();
+            for (Relation item : o.relation) {
+                writeRelation(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeStatus(JsonOutput out, Status o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeTextRepresentation(JsonOutput out, TextRepresentation o) throws IOException {
+        out.startObject();
+        if (o.language != null) {
+            out.name("language");
+            out.value(o.language);
+        }
+        if (o.script != null) {
+            out.name("script");
+            out.value(o.script);
+        }
+        out.endObject();
+    }
+
+    private static void writeArtistCredit(JsonOutput out, ArtistCredit o) throws IOException {
+        out.startObject();
+        if (o.nameCredit != null && !o.nameCredit.isEmpty()) {
+            out.name("name-credit");
+            out.startArray();
+            for (NameCredit item : o.nameCredit) {
+                writeNameCredit(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseEventList(JsonOutput out, ReleaseEventList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.releaseEvent != null && !o.releaseEvent.isEmpty()) {
+            out.name("release-event");
+            out.startArray();
+            for (ReleaseEvent item : o.releaseEvent) {
+                writeReleaseEvent(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCoverArtArchive(JsonOutput out, CoverArtArchive o) throws IOException {
+        out.startObject();
+        String artworkValue = o.artwork != null ? marshal(COLLAPSED_STRING_ADAPTER, o.artwork) : null;
+        if (artworkValue != null) {
+            out.name("artwork");
+            out.value(artworkValue);
+        }
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        String frontValue = o.front != null ? marshal(COLLAPSED_STRING_ADAPTER, o.front) : null;
+        if (frontValue != null) {
+            out.name("front");
+            out.value(frontValue);
+        }
+        String backValue = o.back != null ? marshal(COLLAPSED_STRING_ADAPTER, o.back) : null;
+        if (backValue != null) {
+            out.name("back");
+            out.value(backValue);
+        }
+        String darkenedValue = o.darkened != null ? marshal(COLLAPSED_STRING_ADAPTER, o.darkened) : null;
+        if (darkenedValue != null) {
+            out.name("darkened");
+            out.value(darkenedValue);
+        }
+        out.endObject();
+    }
+
+    private static void writeLabelInfoList(JsonOutput out, LabelInfoList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.labelInfo != null && !o.labelInfo.isEmpty()) {
+            out.name("label-info");
+            out.startArray();
+            for (LabelInfo item : o.labelInfo) {
+                writeLabelInfo(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeMediumList(JsonOutput out, MediumList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.trackCount != null) {
+            out.name("track-count");
+            out.rawValue(o.trackCount.toString());
+        }
+        if (o.medium != null && !o.medium.isEmpty()) {
+            out.name("medium");
+            out.startArray();
+            for (Medium item : o.medium) {
+                writeMedium(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writePrimaryType(JsonOutput out, PrimaryType o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeSecondaryTypeList(JsonOutput out, SecondaryTypeList o) throws IOException {
+        out.startObject();
+        if (o.secondaryType != null && !o.secondaryType.isEmpty()) {
+            out.name("secondary-type");
+            out.startArray();
+            for (SecondaryType item : o.secondaryType) {
+                writeSecondaryType(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writePuidList(JsonOutput out, PuidList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.puid != null && !o.puid.isEmpty()) {
+            out.name("puid");
+            out.startArray();
+            for (Puid item : o.puid) {
+                writePuid(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeLanguageList(JsonOutput out, LanguageList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.language != null && !o.language.isEmpty()) {
+            out.name("language");
+            out.startArray();
+            for (LanguageList.Language item : o.language) {
+                writeLanguageListLanguage(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIswcList(JsonOutput out, IswcList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.iswc != null && !o.iswc.isEmpty()) {
+            out.name("iswc");
+            out.startArray();
+            for (String item : o.iswc) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeWorkAttributeList(JsonOutput out, Work.AttributeList o) throws IOException {
+        out.startObject();
+        if (o.attribute != null && !o.attribute.isEmpty()) {
+            out.name("attribute");
+            out.startArray();
+            for (Work.AttributeList.Attribute item : o.attribute) {
+                writeWorkAttributeListAttribute(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIso31661CodeList(JsonOutput out, Iso31661CodeList o) throws IOException {
+        out.startObject();
+        if (o.iso31661Code != null && !o.iso31661Code.isEmpty()) {
+            out.name("iso-3166-1-code");
+            out.startArray();
+            for (String item : o.iso31661Code) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIso31662CodeList(JsonOutput out, Iso31662CodeList o) throws IOException {
+        out.startObject();
+        if (o.iso31662Code != null && !o.iso31662Code.isEmpty()) {
+            out.name("iso-3166-2-code");
+            out.startArray();
+            for (String item : o.iso31662Code) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeIso31663CodeList(JsonOutput out, Iso31663CodeList o) throws IOException {
+        out.startObject();
+        if (o.iso31663Code != null && !o.iso31663Code.isEmpty()) {
+            out.name("iso-3166-3-code");
+            out.startArray();
+            for (String item : o.iso31663Code) {
+                out.value(item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCoordinates(JsonOutput out, Coordinates o) throws IOException {
+        out.startObject();
+        if (o.latitude != null) {
+            out.name("latitude");
+            out.value(o.latitude);
+        }
+        if (o.longitude != null) {
+            out.name("longitude");
+            out.value(o.longitude);
+        }
+        out.endObject();
+    }
+
+    private static void writeEventLifeSpan(JsonOutput out, Event.LifeSpan o) throws IOException {
+        out.startObject();
+        if (o.begin != null) {
+            out.name("begin");
+            out.value(o.begin);
+        }
+        if (o.end != null) {
+            out.name("end");
+            out.value(o.end);
+        }
+        out.endObject();
+    }
+
+    private static void writeOffsetList(JsonOutput out, OffsetList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.offsetElement != null && !o.offsetElement.isEmpty()) {
+            if (o.offset != null) {
+                for (Offset item : o.offsetElement) {
+                    out.name("offset");
+                    writeOffset(out, item, false);
+                }
+            }
+            else {
+                out.name("offset");
+                out.startArray();
+                for (Offset item : o.offsetElement) {
+                    writeOffset(out, item, true);
+                }
+                out.endArray();
+            }
+        }
+        out.endObject();
+    }
+
+    private static void writeEditInformation(JsonOutput out, EditInformation o) throws IOException {
+        out.startObject();
+        if (o.editsAccepted != null) {
+            out.name("edits-accepted");
+            out.rawValue(o.editsAccepted.toString());
+        }
+        if (o.editsRejected != null) {
+            out.name("edits-rejected");
+            out.rawValue(o.editsRejected.toString());
+        }
+        if (o.autoEditsAccepted != null) {
+            out.name("auto-edits-accepted");
+            out.rawValue(o.autoEditsAccepted.toString());
+        }
+        if (o.editsFailed != null) {
+            out.name("edits-failed");
+            out.rawValue(o.editsFailed.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeCdstub(JsonOutput out, Cdstub o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            out.value(o.artist);
+        }
+        if (o.barcode != null) {
+            out.name("barcode");
+            out.value(o.barcode);
+        }
+        if (o.comment != null) {
+            out.name("comment");
+            out.value(o.comment);
+        }
+        if (o.trackList != null) {
+            out.name("track-list");
+            writeCdstubTrackList(out, o.trackList);
+        }
+        out.endObject();
+    }
+
+    private static void writeFreedbDisc(JsonOutput out, FreedbDisc o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            out.value(o.artist);
+        }
+        if (o.category != null) {
+            out.name("category");
+            out.value(o.category);
+        }
+        if (o.year != null) {
+            out.name("year");
+            out.value(o.year);
+        }
+        if (o.trackList != null) {
+            out.name("track-list");
+            writeCdstubTrackList(out, o.trackList);
+        }
+        out.endObject();
+    }
+
+    private static void writeTag(JsonOutput out, Tag o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeUserTag(JsonOutput out, UserTag o) throws IOException {
+        out.startObject();
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeGenre(JsonOutput out, Genre o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeUserGenre(JsonOutput out, UserGenre o) throws IOException {
+        out.startObject();
+        if (o.score != null) {
+            out.name("score");
+            out.rawValue(o.score.toString());
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        out.endObject();
+    }
+
+    private static void writeAlias(JsonOutput out, Alias o) throws IOException {
+        if (o.locale == null && o.sortName == null && o.type == null && o.typeId == null && o.primary == null && o.beginDate == null && o.endDate == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.locale != null) {
+            out.name("locale");
+            out.value(o.locale);
+        }
+        if (o.sortName != null) {
+            out.name("sort-name");
+            out.value(o.sortName);
+        }
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.primary != null) {
+            out.name("primary");
+            out.value(o.primary);
+        }
+        if (o.beginDate != null) {
+            out.name("begin-date");
+            out.value(o.beginDate);
+        }
+        if (o.endDate != null) {
+            out.name("end-date");
+            out.value(o.endDate);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeRelation(JsonOutput out, Relation o) throws IOException {
+        out.startObject();
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.target != null) {
+            out.name("target");
+            writeTarget(out, o.target);
+        }
+        if (o.orderingKey != null) {
+            out.name("ordering-key");
+            out.rawValue(o.orderingKey.toString());
+        }
+        if (o.direction != null) {
+            out.name("direction");
+            out.value(o.direction.value());
+        }
+        if (o.attributeList != null) {
+            out.name("attribute-list");
+            writeRelationAttributeList(out, o.attributeList);
+        }
+        if (o.begin != null) {
+            out.name("begin");
+            out.value(o.begin);
+        }
+        if (o.end != null) {
+            out.name("end");
+            out.value(o.end);
+        }
+        String endedValue = o.ended != null ? marshal(COLLAPSED_STRING_ADAPTER, o.ended) : null;
+        if (endedValue != null) {
+            out.name("ended");
+            out.value(endedValue);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            writeArtist(out, o.artist);
+        }
+        if (o.release != null) {
+            out.name("release");
+            writeRelease(out, o.release);
+        }
+        if (o.releaseGroup != null) {
+            out.name("release-group");
+            writeReleaseGroup(out, o.releaseGroup);
+        }
+        if (o.recording != null) {
+            out.name("recording");
+            writeRecording(out, o.recording);
+        }
+        if (o.label != null) {
+            out.name("label");
+            writeLabel(out, o.label);
+        }
+        if (o.work != null) {
+            out.name("work");
+            writeWork(out, o.work);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        if (o.place != null) {
+            out.name("place");
+            writePlace(out, o.place);
+        }
+        if (o.instrument != null) {
+            out.name("instrument");
+            writeInstrument(out, o.instrument);
+        }
+        if (o.series != null) {
+            out.name("series");
+            writeSeries(out, o.series);
+        }
+        if (o.event != null) {
+            out.name("event");
+            writeEvent(out, o.event);
+        }
+        if (o.sourceCredit != null) {
+            out.name("source-credit");
+            out.value(o.sourceCredit);
+        }
+        if (o.targetCredit != null) {
+            out.name("target-credit");
+            out.value(o.targetCredit);
+        }
+        out.endObject();
+    }
+
+    private static void writeNameCredit(JsonOutput out, NameCredit o) throws IOException {
+        out.startObject();
+        if (o.joinphrase != null) {
+            out.name("joinphrase");
+            out.value(o.joinphrase);
+        }
+        if (o.name != null) {
+            out.name("name");
+            out.value(o.name);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            writeArtist(out, o.artist);
+        }
+        out.endObject();
+    }
+
+    private static void writeReleaseEvent(JsonOutput out, ReleaseEvent o) throws IOException {
+        out.startObject();
+        if (o.date != null) {
+            out.name("date");
+            out.value(o.date);
+        }
+        if (o.area != null) {
+            out.name("area");
+            writeDefAreaElementInner(out, o.area);
+        }
+        out.endObject();
+    }
+
+    private static void writeLabelInfo(JsonOutput out, LabelInfo o) throws IOException {
+        out.startObject();
+        if (o.catalogNumber != null) {
+            out.name("catalog-number");
+            out.value(o.catalogNumber);
+        }
+        if (o.label != null) {
+            out.name("label");
+            writeLabel(out, o.label);
+        }
+        out.endObject();
+    }
+
+    private static void writeMedium(JsonOutput out, Medium o) throws IOException {
+        out.startObject();
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.position != null) {
+            out.name("position");
+            out.rawValue(o.position.toString());
+        }
+        if (o.format != null) {
+            out.name("format");
+            writeFormat(out, o.format);
+        }
+        if (o.discList != null) {
+            out.name("disc-list");
+            writeDiscList(out, o.discList);
+        }
+        if (o.pregap != null) {
+            out.name("pregap");
+            writeDefTrackData(out, o.pregap);
+        }
+        if (o.trackList != null) {
+            out.name("track-list");
+            writeMediumTrackList(out, o.trackList);
+        }
+        if (o.dataTrackList != null) {
+            out.name("data-track-list");
+            writeDataTrackList(out, o.dataTrackList);
+        }
+        out.endObject();
+    }
+
+    private static void writeSecondaryType(JsonOutput out, SecondaryType o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeLanguageListLanguage(JsonOutput out, LanguageList.Language o) throws IOException {
+        if (o.fluency == null && o.value != null) {
+            out.value(o.value);
+            return;
+        }
+        out.startObject();
+        String fluencyValue = o.fluency != null ? marshal(COLLAPSED_STRING_ADAPTER, o.fluency) : null;
+        if (fluencyValue != null) {
+            out.name("fluency");
+            out.value(fluencyValue);
+        }
+        if (o.value != null) {
+            out.name("$");
+            out.value(o.value);
+        }
+        out.endObject();
+    }
+
+    private static void writeWorkAttributeListAttribute(JsonOutput out, Work.AttributeList.Attribute o) throws IOException {
+        if (o.type == null && o.typeId == null && o.valueId == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.type != null) {
+            out.name("type");
+            out.value(o.type);
+        }
+        if (o.typeId != null) {
+            out.name("type-id");
+            out.value(o.typeId);
+        }
+        if (o.valueId != null) {
+            out.name("value-id");
+            out.value(o.valueId);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeOffset(JsonOutput out, Offset o, boolean isArrayItem) throws IOException {
+        if (o.position == null && o.value != null) {
+            writeOffsetValue(out, o, isArrayItem);
+            return;
+        }
+        out.startObject();
+        if (o.position != null) {
+            out.name("position");
+            out.rawValue(o.position.toString());
+        }
+        if (o.value != null) {
+            out.name("$");
+            writeOffsetValue(out, o, isArrayItem);
+        }
+        out.endObject();
+    }
+
+    private static void writeOffsetValue(JsonOutput out, Offset o, boolean isArrayItem) throws IOException {
+        if (isArrayItem) {
+            out.value(o.value.toString());
+        }
+        else {
+            out.rawValue(o.value.toString());
+        }
+    }
+
+    private static void writeCdstubTrackList(JsonOutput out, Cdstub.TrackList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.defNonmbTrack != null && !o.defNonmbTrack.isEmpty()) {
+            out.name("track");
+            out.startArray();
+            for (Cdstub.TrackList.Track item : o.defNonmbTrack) {
+                writeCdstubTrackListTrack(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeTarget(JsonOutput out, Target o) throws IOException {
+        if (o.id == null && o.value != null) {
+            out.value(o.value);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.value != null) {
+            out.name("$");
+            out.value(o.value);
+        }
+        out.endObject();
+    }
+
+    private static void writeRelationAttributeList(JsonOutput out, Relation.AttributeList o) throws IOException {
+        out.startObject();
+        if (o.attribute != null && !o.attribute.isEmpty()) {
+            out.name("attribute");
+            out.startArray();
+            for (Relation.AttributeList.Attribute item : o.attribute) {
+                writeRelationAttributeListAttribute(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeFormat(JsonOutput out, Format o) throws IOException {
+        if (o.id == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static void writeDiscList(JsonOutput out, DiscList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.disc != null && !o.disc.isEmpty()) {
+            out.name("disc");
+            out.startArray();
+            for (Disc item : o.disc) {
+                writeDisc(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeDefTrackData(JsonOutput out, DefTrackData o) throws IOException {
+        out.startObject();
+        if (o.id != null) {
+            out.name("id");
+            out.value(o.id);
+        }
+        if (o.position != null) {
+            out.name("position");
+            out.rawValue(o.position.toString());
+        }
+        if (o.number != null) {
+            out.name("number");
+            out.value(o.number);
+        }
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.length != null) {
+            out.name("length");
+            out.rawValue(o.length.toString());
+        }
+        if (o.artistCredit != null) {
+            out.name("artist-credit");
+            writeArtistCredit(out, o.artistCredit);
+        }
+        if (o.recording != null) {
+            out.name("recording");
+            writeRecording(out, o.recording);
+        }
+        out.endObject();
+    }
+
+    private static void writeMediumTrackList(JsonOutput out, Medium.TrackList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.defTrack != null && !o.defTrack.isEmpty()) {
+            out.name("track");
+            out.startArray();
+            for (DefTrackData item : o.defTrack) {
+                writeDefTrackData(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeDataTrackList(JsonOutput out, DataTrackList o) throws IOException {
+        out.startObject();
+        if (o.count != null) {
+            out.name("count");
+            out.rawValue(o.count.toString());
+        }
+        if (o.offset != null) {
+            out.name("offset");
+            out.rawValue(o.offset.toString());
+        }
+        if (o.defTrack != null && !o.defTrack.isEmpty()) {
+            out.name("track");
+            out.startArray();
+            for (DefTrackData item : o.defTrack) {
+                writeDefTrackData(out, item);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeCdstubTrackListTrack(JsonOutput out, Cdstub.TrackList.Track o) throws IOException {
+        out.startObject();
+        if (o.title != null) {
+            out.name("title");
+            out.value(o.title);
+        }
+        if (o.artist != null) {
+            out.name("artist");
+            out.value(o.artist);
+        }
+        if (o.length != null) {
+            out.name("length");
+            out.rawValue(o.length.toString());
+        }
+        out.endObject();
+    }
+
+    private static void writeRelationAttributeListAttribute(JsonOutput out, Relation.AttributeList.Attribute o) throws IOException {
+        if (o.value == null && o.creditedAs == null && o.content != null) {
+            out.value(o.content);
+            return;
+        }
+        out.startObject();
+        if (o.value != null) {
+            out.name("value");
+            out.value(o.value);
+        }
+        if (o.creditedAs != null) {
+            out.name("credited-as");
+            out.value(o.creditedAs);
+        }
+        if (o.content != null) {
+            out.name("$");
+            out.value(o.content);
+        }
+        out.endObject();
+    }
+
+    private static String marshal(CollapsedStringAdapter adapter, String value) throws IOException {
+        try {
+            return adapter.marshal(value);
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
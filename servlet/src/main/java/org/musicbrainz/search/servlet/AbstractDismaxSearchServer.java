@@ -1,6 +1,7 @@
 package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.CorruptIndexException;
@@ -28,9 +29,21 @@ public abstract class AbstractDismaxSearchServer implements SearchServer {
 
   @Override
   public Results search(String userQuery, int offset, int limit) throws IOException, ParseException {
-    // Parse query with the dismaxSearcher, then delegate the search to the backend search server
-    Query query = parseQuery(userQuery);
-    return realSearchServer.search(query, offset, limit);
+    return search(userQuery, offset, limit, null);
+  }
+
+  @Override
+  public Results search(String userQuery, int offset, int limit, Set<String> fieldsToLoad) throws IOException, ParseException {
+    // Results are cached by the backend search server so they are invalidated when its searcher is refreshed
+    ResultsCache.Key key = realSearchServer.getResultsCacheKey(userQuery, true, offset, limit, fieldsToLoad);
+    Results results = realSearchServer.getCachedResults(key);
+    if (results == null) {
+      // Parse query with the dismaxSearcher, then delegate the search to the backend search server
+      Query query = parseQuery(userQuery);
+      results = realSearchServer.search(query, offset, limit, fieldsToLoad);
+      realSearchServer.cacheResults(key, results);
+    }
+    return results;
   }
 
   @Override
@@ -38,6 +51,22 @@ public abstract class AbstractDismaxSearchServer implements SearchServer {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Results searchAfter(String userQuery, SearchCursor cursor, int limit) throws IOException, ParseException {
+    return searchAfter(userQuery, cursor, limit, null);
+  }
+
+  @Override
+  public Results searchAfter(String userQuery, SearchCursor cursor, int limit, Set<String> fieldsToLoad) throws IOException, ParseException {
+    Query query = parseQuery(userQuery);
+    return realSearchServer.searchAfter(query, cursor, limit, fieldsToLoad);
+  }
+
+  @Override
+  public Results searchAfter(Query query, SearchCursor cursor, int limit) throws IOException, ParseException {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public String explain(String userQuery, int offset, int limit) throws IOException, ParseException {
       Query query = parseQuery(userQuery);
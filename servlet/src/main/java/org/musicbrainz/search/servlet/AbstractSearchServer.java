@@ -30,37 +30,45 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.TopDocsCollector;
-import org.apache.lucene.search.TopScoreDocCollector;
-import org.apache.lucene.search.TimeLimitingCollector;
 import org.apache.lucene.search.TimeLimitingCollector.TimeExceededException;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.NumericUtils;
 import org.musicbrainz.search.MbDocument;
 import org.musicbrainz.search.index.MetaIndexField;
+import org.musicbrainz.search.servlet.MusicBrainzIndexSearcher.LimitedTopDocs;
 import org.musicbrainz.search.servlet.mmd1.Mmd1XmlWriter;
 import org.musicbrainz.search.servlet.mmd2.ResultsWriter;
 
 public abstract class AbstractSearchServer implements SearchServer {
 
+  // Time allowed for collecting the hits of a search if not set
+  public static final long DEFAULT_MAX_SEARCH_TIME_MS = 1000;
+
   protected String query;
   protected int offset;
   protected int limit;
@@ -73,6 +81,15 @@ public abstract class AbstractSearchServer implements SearchServer {
   protected Date serverLastUpdatedDate;
   protected SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm zz", Locale.US);
   protected AtomicInteger searchCount = new AtomicInteger();
+  protected ResultsCache resultsCache;
+  protected FilterCache filterCache;
+  protected String filterCacheIndexName;
+  protected SearcherWarmer searcherWarmer;
+  protected long maxSearchTimeMs = DEFAULT_MAX_SEARCH_TIME_MS;
+  // 0 counts all hits
+  protected int maxCountedHits;
+  // Incremented each time the searcher manager swaps in a new searcher
+  protected final AtomicLong searcherGeneration = new AtomicLong();
 
   protected AbstractSearchServer() {
   }
@@ -143,6 +160,178 @@ public abstract class AbstractSearchServer implements SearchServer {
     searcherManager.close();
   }
 
+  /**
+   * Cache the results of searches in the given cache, the results of this server are removed from the cache whenever
+   * its searcher is refreshed
+   *
+   * @param resultsCache
+   */
+  public void setResultsCache(ResultsCache resultsCache) {
+    if (this.resultsCache == null && resultsCache != null && searcherManager != null) {
+      searcherManager.addListener(new ReferenceManager.RefreshListener() {
+        @Override
+        public void beforeRefresh() {
+        }
+
+        @Override
+        public void afterRefresh(boolean didRefresh) {
+          if (didRefresh) {
+            searcherGeneration.incrementAndGet();
+            ResultsCache cache = AbstractSearchServer.this.resultsCache;
+            if (cache != null) {
+              cache.invalidate(AbstractSearchServer.this);
+            }
+          }
+        }
+      });
+    }
+    this.resultsCache = resultsCache;
+  }
+
+  public ResultsCache getResultsCache() {
+    return resultsCache;
+  }
+
+  /**
+   * Search required clauses on the filter fields of this server as filters cached in the given cache
+   *
+   * @param filterCache
+   * @param indexName name the filters of this server are cached and reported under
+   */
+  public void setFilterCache(FilterCache filterCache, String indexName) {
+    this.filterCache = filterCache;
+    this.filterCacheIndexName = indexName;
+  }
+
+  public FilterCache getFilterCache() {
+    return filterCache;
+  }
+
+  /**
+   * Fields only used to restrict a search to matching documents, such as status or type, which have few values each
+   * matching many documents
+   *
+   * @return
+   */
+  protected Set<String> getFilterFields() {
+    return Collections.emptySet();
+  }
+
+  /**
+   * @param query
+   * @return query to search with, with required clauses on the filter fields replaced by cached filters
+   */
+  protected Query filterClauses(Query query) {
+    if (filterCache == null) {
+      return query;
+    }
+    return filterCache.filterClauses(filterCacheIndexName, query, getFilterFields());
+  }
+
+  /**
+   * Fields holding identifiers, a query for a single identifier on one of these fields is resolved by looking the
+   * identifier up rather than by scoring
+   *
+   * @return
+   */
+  protected Set<String> getIdentifierFields() {
+    return Collections.emptySet();
+  }
+
+  /**
+   * Only a single identifier is looked up, the hits of a query for several identifiers are ranked by how many of them
+   * they match and how rare each one is so they have to be scored.
+   *
+   * @param query
+   * @return the identifier the query is for, or null if it is not a query for a single identifier
+   */
+  protected Term getIdentifierTerm(Query query) {
+    if (query instanceof BooleanQuery) {
+      List<BooleanClause> clauses = ((BooleanQuery) query).clauses();
+      if (clauses.size() != 1 || clauses.get(0).getOccur() == BooleanClause.Occur.MUST_NOT) {
+        return null;
+      }
+      query = clauses.get(0).getQuery();
+    }
+    if (!(query instanceof TermQuery)) {
+      return null;
+    }
+    Term term = ((TermQuery) query).getTerm();
+    return getIdentifierFields().contains(term.field()) ? term : null;
+  }
+
+  /**
+   * @param maxSearchTimeMs time allowed for collecting the hits of a search, results found when it runs out are
+   *                        returned marked as partial, 0 for no limit
+   */
+  public void setMaxSearchTimeMs(long maxSearchTimeMs) {
+    this.maxSearchTimeMs = maxSearchTimeMs;
+  }
+
+  public long getMaxSearchTimeMs() {
+    return maxSearchTimeMs;
+  }
+
+  /**
+   * @param maxCountedHits number of hits counted before a search stops, the results of a search that stops are
+   *                       returned marked as partial with the total hits marked as a lower bound, 0 to count all hits
+   */
+  public void setMaxCountedHits(int maxCountedHits) {
+    this.maxCountedHits = maxCountedHits;
+  }
+
+  public int getMaxCountedHits() {
+    return maxCountedHits;
+  }
+
+  /**
+   * Record the queries searched so they can be used to warm new searchers
+   *
+   * @param searcherWarmer
+   */
+  public void setSearcherWarmer(SearcherWarmer searcherWarmer) {
+    this.searcherWarmer = searcherWarmer;
+  }
+
+  /**
+   * @param query
+   * @param isDismax
+   * @param offset
+   * @param limit
+   * @param fieldsToLoad
+   * @return key for the results of the query with the current searcher, or null if results are not cached
+   */
+  protected ResultsCache.Key getResultsCacheKey(String query, boolean isDismax, int offset, int limit, Set<String> fieldsToLoad) {
+    if (resultsCache == null) {
+      return null;
+    }
+    return new ResultsCache.Key(this, searcherGeneration.get(), query, isDismax, offset, limit, fieldsToLoad);
+  }
+
+  protected Results getCachedResults(ResultsCache.Key key) {
+    if (key == null) {
+      return null;
+    }
+    Results results = resultsCache.get(key);
+    if (results != null) {
+      searchCount.incrementAndGet();
+    }
+    return results;
+  }
+
+  /**
+   * Cache results unless the searcher has been refreshed since the key was created, in which case they may be out of date,
+   * or the search stopped early
+   *
+   * @param key
+   * @param results
+   */
+  protected void cacheResults(ResultsCache.Key key, Results results) {
+    if (key != null && key.getGeneration() == searcherGeneration.get() && !results.isPartial()) {
+      resultsCache.put(key, results);
+    }
+  }
+
   public org.musicbrainz.search.servlet.mmd2.ResultsWriter getMmd2Writer() {
     return resultsWriter;
   }
@@ -179,7 +368,30 @@ public abstract class AbstractSearchServer implements SearchServer {
    */
   @Override
   public Results search(String query, int offset, int limit) throws IOException, ParseException {
-    return this.search(parseQuery(query), offset, limit);
+    return search(query, offset, limit, null);
+  }
+
+  /**
+   * Parse and search lucene query, returning between results from offset up to limit with only the given stored
+   * fields loaded
+   *
+   * @param query
+   * @param offset
+   * @param limit
+   * @param fieldsToLoad stored fields to load, null for all fields
+   * @return
+   * @throws IOException
+   * @throws ParseException if the query was invalid
+   */
+  @Override
+  public Results search(String query, int offset, int limit, Set<String> fieldsToLoad) throws IOException, ParseException {
+    ResultsCache.Key key = getResultsCacheKey(query, false, offset, limit, fieldsToLoad);
+    Results results = getCachedResults(key);
+    if (results == null) {
+      results = this.search(parseQuery(query), offset, limit, fieldsToLoad);
+      cacheResults(key, results);
+    }
+    return results;
   }
 
   /**
@@ -194,24 +406,167 @@ public abstract class AbstractSearchServer implements SearchServer {
    */
   @Override
   public Results search(Query query, int offset, int limit) throws IOException, ParseException, TimeExceededException {
+    return search(query, offset, limit, null);
+  }
+
+  /**
+   * Search lucene query, returning between results from offset up to limit with only the given stored fields loaded
+   *
+   * @param query
+   * @param offset
+   * @param limit
+   * @param fieldsToLoad stored fields to load, null for all fields
+   * @return
+   * @throws IOException
+   * @throws ParseException
+   */
+  public Results search(Query query, int offset, int limit, Set<String> fieldsToLoad) throws IOException, ParseException, TimeExceededException {
+
+    IndexSearcher searcher = searcherManager.acquire();
+    try {
+      LimitedTopDocs topDocs = searchTopDocs(searcher, query, null, offset + limit);
+      searchCount.incrementAndGet();
+      if (searcherWarmer != null) {
+        searcherWarmer.recordQuery(query);
+      }
+      if (topDocs == null)
+      {
+          return new Results();
+      }
+      Results results = processResults(searcher, topDocs, offset, fieldsToLoad);
+      setLimits(results, topDocs);
+      results.setCursor(createCursor(searcher, query, topDocs, 0));
+      return results;
+    } finally {
+      searcherManager.release(searcher);
+    }
+  }
+
+  /**
+   * Parse and search lucene query, returning up to limit results after the cursor
+   *
+   * @param query
+   * @param cursor
+   * @param limit
+   * @return
+   * @throws IOException
+   * @throws ParseException if the query was invalid
+   */
+  @Override
+  public Results searchAfter(String query, SearchCursor cursor, int limit) throws IOException, ParseException {
+    return searchAfter(query, cursor, limit, null);
+  }
+
+  @Override
+  public Results searchAfter(String query, SearchCursor cursor, int limit, Set<String> fieldsToLoad) throws IOException, ParseException {
+    return this.searchAfter(parseQuery(query), cursor, limit, fieldsToLoad);
+  }
+
+  /**
+   * Search lucene query, returning up to limit results after the cursor, only the results of this page are collected
+   *
+   * @param query
+   * @param cursor
+   * @param limit
+   * @return
+   * @throws IOException
+   * @throws ParseException
+   * @throws SearchCursor.InvalidCursorException if the cursor was created for another query or version of the index
+   */
+  @Override
+  public Results searchAfter(Query query, SearchCursor cursor, int limit) throws IOException, ParseException, TimeExceededException {
+    return searchAfter(query, cursor, limit, null);
+  }
+
+  /**
+   * As searchAfter(Query, SearchCursor, int) with only the given stored fields loaded
+   *
+   * @param query
+   * @param cursor
+   * @param limit
+   * @param fieldsToLoad stored fields to load, null for all fields
+   * @return
+   * @throws IOException
+   * @throws ParseException
+   */
+  public Results searchAfter(Query query, SearchCursor cursor, int limit, Set<String> fieldsToLoad) throws IOException, ParseException, TimeExceededException {
 
     IndexSearcher searcher = searcherManager.acquire();
     try {
-      TopDocsCollector<?> collector = TopScoreDocCollector.create(offset + limit, true);
-      TimeLimitingCollector tCollector = new TimeLimitingCollector(collector, TimeLimitingCollector.getGlobalCounter(), 1000);
-      searcher.search(query, tCollector);
+      if (cursor.getIndexVersion() != getIndexVersion(searcher) || cursor.getQueryHash() != query.hashCode()
+          || cursor.getAfter().doc >= searcher.getIndexReader().maxDoc()) {
+        throw new SearchCursor.InvalidCursorException(cursor.toString());
+      }
+      LimitedTopDocs topDocs = searchTopDocs(searcher, query, cursor.getAfter(), limit);
       searchCount.incrementAndGet();
-      TopDocs topDocs = collector.topDocs();
       if (topDocs == null)
       {
           return new Results();
       }
-      return processResults(searcher, topDocs, offset);
+      Results results = processResults(searcher, topDocs, 0, fieldsToLoad);
+      setLimits(results, topDocs);
+      results.setOffset(cursor.getOffset());
+      results.setCursor(createCursor(searcher, query, topDocs, cursor.getOffset()));
+      return results;
     } finally {
       searcherManager.release(searcher);
     }
   }
 
+  /**
+   * Collect the top hits within the time allowed and counting at most the hits allowed, a query for a single
+   * identifier is resolved by looking up the identifier when its hits would all have the same score
+   *
+   * @param searcher
+   * @param query
+   * @param after only collect hits after this one, null for the first page
+   * @param numHits
+   * @return
+   * @throws IOException
+   */
+  private LimitedTopDocs searchTopDocs(IndexSearcher searcher, Query query, ScoreDoc after, int numHits) throws IOException {
+    Term identifierTerm = getIdentifierTerm(query);
+    if (identifierTerm != null) {
+      LimitedTopDocs topDocs = ((MusicBrainzIndexSearcher) searcher).lookupTopDocs(identifierTerm, after, numHits);
+      if (topDocs != null) {
+        return topDocs;
+      }
+    }
+    return ((MusicBrainzIndexSearcher) searcher).searchTopDocs(filterClauses(query), after, numHits, maxSearchTimeMs, maxCountedHits);
+  }
+
+  private static void setLimits(Results results, LimitedTopDocs topDocs) {
+    results.setPartial(topDocs.isPartial());
+    results.setTotalHitsLowerBound(topDocs.isTotalHitsLowerBound());
+  }
+
+  private static long getIndexVersion(IndexSearcher searcher) {
+    if (searcher.getIndexReader() instanceof DirectoryReader) {
+      return ((DirectoryReader) searcher.getIndexReader()).getVersion();
+    }
+    return 0;
+  }
+
+  /**
+   * @param searcher
+   * @param query
+   * @param topDocs
+   * @param offset offset of the first of the top docs
+   * @return cursor after the last of the top docs, or null if there are no more results
+   */
+  private SearchCursor createCursor(IndexSearcher searcher, Query query, TopDocs topDocs, int offset) {
+    ScoreDoc docs[] = topDocs.scoreDocs;
+    int nextOffset = offset + docs.length;
+    if (docs.length == 0 || nextOffset >= topDocs.totalHits) {
+      return null;
+    }
+    // Hits after the last of partial results may not have been searched yet
+    if (topDocs instanceof LimitedTopDocs && ((LimitedTopDocs) topDocs).isPartial()) {
+      return null;
+    }
+    return new SearchCursor(getIndexVersion(searcher), query.hashCode(), nextOffset, docs[docs.length - 1]);
+  }
+
   /**
    * Parse the query
    *
@@ -247,10 +602,11 @@ public abstract class AbstractSearchServer implements SearchServer {
    * @param searcher
    * @param topDocs
    * @param offset
+   * @param fieldsToLoad stored fields to load for each result, null to load all fields
    * @return
    * @throws IOException
    */
-  protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException {
+  protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException {
     Results results = new Results();
     results.setOffset(offset);
     results.setTotalHits(topDocs.totalHits);
@@ -259,7 +615,11 @@ public abstract class AbstractSearchServer implements SearchServer {
     for (int i = offset; i < docs.length; i++) {
       Result result     = new Result();
       result.setScore(docs[i].score);
-      result.setDoc(new MbDocument(searcher.doc(docs[i].doc)));
+      if (fieldsToLoad == null) {
+        result.setDoc(new MbDocument(searcher.doc(docs[i].doc)));
+      } else {
+        result.setDoc(new MbDocument(searcher.doc(docs[i].doc, fieldsToLoad)));
+      }
       results.results.add(result);
     }
     return results;
@@ -281,12 +641,13 @@ public abstract class AbstractSearchServer implements SearchServer {
     sb.append("</head>\n<body>");
     IndexSearcher searcher = searcherManager.acquire();
     try {
-      TopDocs topdocs = searcher.search(query, offset + limit);
+      Query searchQuery = filterClauses(query);
+      TopDocs topdocs = searcher.search(searchQuery, offset + limit);
       ScoreDoc docs[] = topdocs.scoreDocs;
       float maxScore = topdocs.getMaxScore();
-      sb.append("<p>Query:" + query.toString() + "</p>\n");
+      sb.append("<p>Query:" + searchQuery.toString() + "</p>\n");
       for (int i = 0; i < docs.length; i++) {
-        explainAndDisplayResult(i, sb, searcher, query, docs[i], maxScore);
+        explainAndDisplayResult(i, sb, searcher, searchQuery, docs[i], maxScore);
       }
       searchCount.incrementAndGet();
     } finally {
@@ -2,6 +2,7 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -44,9 +45,9 @@ public class AnnotationSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.ANNOTATION);
         return results;
     }
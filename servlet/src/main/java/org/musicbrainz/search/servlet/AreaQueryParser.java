@@ -3,7 +3,9 @@ package org.musicbrainz.search.servlet;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.Query;
 import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.index.AreaIndexField;
 
 /**
  * Subclasses QueryParser to handle numeric fields that we might want wish to do range queries for and handle type
@@ -16,4 +18,22 @@ public class AreaQueryParser extends MultiFieldQueryParser
     {
         super(LuceneVersion.LUCENE_VERSION, strings, analyzer);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Query newRangeQuery(String field,
+                               String part1,
+                               String part2,
+                               boolean startInclusive,
+                               boolean endInclusive)
+    {
+        if (field.equals(AreaIndexField.BEGIN.getName()) || field.equals(AreaIndexField.END.getName()))
+        {
+            Query query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+            if (query != null)
+            {
+                return query;
+            }
+        }
+        return super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
+    }
+}
@@ -38,4 +38,15 @@ public class ArtistQueryParser extends MultiFieldQueryParser {
             return super.newTermQuery(term);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public Query newRangeQuery(String field, String part1, String part2, boolean startInclusive, boolean endInclusive) {
+        if (field.equals(ArtistIndexField.BEGIN.getName()) || field.equals(ArtistIndexField.END.getName())) {
+            Query query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+            if (query != null) {
+                return query;
+            }
+        }
+        return super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
+    }
+}
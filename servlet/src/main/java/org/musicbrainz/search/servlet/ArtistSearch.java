@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -18,6 +22,16 @@ import org.musicbrainz.search.servlet.mmd2.ArtistWriter;
 public class ArtistSearch extends AbstractSearchServer
 {
 
+    private static final Set<String> FILTER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            ArtistIndexField.TYPE.getName(),
+            ArtistIndexField.GENDER.getName(),
+            ArtistIndexField.COUNTRY.getName(),
+            ArtistIndexField.ENDED.getName())));
+
+    private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            ArtistIndexField.ARTIST_ID.getName(),
+            ArtistIndexField.IPI.getName())));
+
     protected void setupDefaultFields()
     {
         defaultFields = new ArrayList<String>();
@@ -58,9 +72,9 @@ public class ArtistSearch extends AbstractSearchServer
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.ARTIST);
         return results;
     }
@@ -71,6 +85,18 @@ public class ArtistSearch extends AbstractSearchServer
         return new ArtistQueryParser(defaultFields.toArray(new String[0]), analyzer);
     }
 
+    @Override
+    protected Set<String> getFilterFields()
+    {
+        return FILTER_FIELDS;
+    }
+
+    @Override
+    protected Set<String> getIdentifierFields()
+    {
+        return IDENTIFIER_FIELDS;
+    }
+
     @Override
     protected String printExplainHeader(Document doc)
             throws IOException, ParseException
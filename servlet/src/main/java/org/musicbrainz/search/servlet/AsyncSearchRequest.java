@@ -0,0 +1,201 @@
+package org.musicbrainz.search.servlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A search request processed on the search executor rather than on the container thread that received it, so
+ * container threads are not held while searching.
+ *
+ * Whichever of the search and the request timeout starts writing the response first owns it. If the timeout is first
+ * an error is sent and the search is abandoned when it next tries to write, if the search has already started writing
+ * the timeout waits for it to finish.
+ */
+class AsyncSearchRequest implements Runnable, AsyncListener {
+
+    private static final Logger log = Logger.getLogger(AsyncSearchRequest.class.getName());
+
+    // Time the timeout waits for a search that has started writing its response
+    private static final long MAX_WRITE_WAIT_MS = 5000;
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int WRITING = 2;
+    private static final int TIMED_OUT = 3;
+    private static final int DONE = 4;
+
+    private final SearchServerServlet servlet;
+    private final AsyncContext asyncContext;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private AsyncSearchRequest(SearchServerServlet servlet, AsyncContext asyncContext) {
+        this.servlet = servlet;
+        this.asyncContext = asyncContext;
+    }
+
+    /**
+     * Start async processing of the request and submit it to the executor
+     *
+     * @param servlet
+     * @param request
+     * @param response
+     * @param executor
+     * @param timeoutMillis time allowed from now until the response is complete
+     * @throws IOException
+     */
+    static void start(SearchServerServlet servlet, HttpServletRequest request, HttpServletResponse response,
+                      Executor executor, long timeoutMillis) throws IOException {
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeoutMillis);
+
+        AsyncSearchRequest searchRequest = new AsyncSearchRequest(servlet, asyncContext);
+        asyncContext.addListener(searchRequest);
+        try {
+            executor.execute(searchRequest);
+        }
+        catch (RejectedExecutionException ree) {
+            if (searchRequest.state.compareAndSet(QUEUED, DONE)) {
+                response.setHeader("Retry-After", SearchServerServlet.RETRY_AFTER_SECONDS);
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorMessage.SERVER_BUSY.getMsg());
+                asyncContext.complete();
+            }
+        }
+    }
+
+    public void run() {
+        if (!state.compareAndSet(QUEUED, RUNNING)) {
+            return;
+        }
+        try {
+            servlet.processRequest((HttpServletRequest) asyncContext.getRequest(),
+                    new OwnedResponse((HttpServletResponse) asyncContext.getResponse()));
+        }
+        catch (Exception e) {
+            if (state.get() != TIMED_OUT) {
+                log.log(Level.SEVERE, "Async search failed", e);
+            }
+        }
+        finally {
+            if (state.compareAndSet(RUNNING, DONE) || state.compareAndSet(WRITING, DONE)) {
+                asyncContext.complete();
+            }
+            finished.countDown();
+        }
+    }
+
+    /**
+     * @return true if the search owns the response, false if the request has timed out
+     */
+    private boolean claim() {
+        return state.get() == WRITING || state.compareAndSet(RUNNING, WRITING);
+    }
+
+    public void onTimeout(AsyncEvent event) throws IOException {
+        while (true) {
+            int current = state.get();
+            if (current == QUEUED || current == RUNNING) {
+                if (state.compareAndSet(current, TIMED_OUT)) {
+                    HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+                    response.sendError(HttpServletResponse.SC_REQUEST_TIMEOUT, ErrorMessage.REQUEST_TIMEOUT_EXCEEDED.getMsg());
+                    asyncContext.complete();
+                    return;
+                }
+            }
+            else {
+                if (current == WRITING) {
+                    try {
+                        finished.await(MAX_WRITE_WAIT_MS, TimeUnit.MILLISECONDS);
+                    }
+                    catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    public void onComplete(AsyncEvent event) {
+    }
+
+    public void onError(AsyncEvent event) {
+    }
+
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /**
+     * Response used by the search, which must own the response before it writes to it
+     */
+    private class OwnedResponse extends HttpServletResponseWrapper {
+
+        OwnedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void checkOwned() throws IOException {
+            if (!claim()) {
+                throw new IOException(ErrorMessage.REQUEST_TIMEOUT_EXCEEDED.getMsg());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            checkOwned();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            checkOwned();
+            return super.getWriter();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            checkOwned();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            checkOwned();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            checkOwned();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (state.get() != TIMED_OUT) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setContentType(String type) {
+            if (state.get() != TIMED_OUT) {
+                super.setContentType(type);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.musicbrainz.search.servlet;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of searches running against one index at the same time, so that slow searches on one index
+ * cannot use up every request thread and hold up searches on the other indexes.
+ *
+ * A search waits a short time for a permit and is refused if none becomes available.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Thrown when a search is refused because too many searches are already running
+     */
+    public static class BulkheadFullException extends RuntimeException {
+        public BulkheadFullException() {
+            super("Too many concurrent searches");
+        }
+    }
+
+    /**
+     * @param maxConcurrent searches allowed at the same time
+     * @param maxWaitMillis time to wait for a permit
+     */
+    public Bulkhead(int maxConcurrent, long maxWaitMillis) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Wait for a permit, if true is returned release() must be called when the search is done
+     *
+     * @return false if no permit became available in time
+     */
+    public boolean tryAcquire() {
+        try {
+            if (permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                inFlight.incrementAndGet();
+                return true;
+            }
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    public String toString() {
+        return "inflight:" + getInFlight() + ",max:" + maxConcurrent + ",rejected:" + getRejected();
+    }
+}
@@ -1,5 +1,6 @@
 package org.musicbrainz.search.servlet;
 
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 // Used by doAllSearch()
@@ -7,22 +8,68 @@ class CallableSearch implements Callable<Results>
 {
 
     private final SearchServer searchServer;
+    private final Bulkhead bulkhead;
     private final String query;
     private final Integer offset;
     private final Integer limit;
+    private final Set<String> fieldsToLoad;
 
     public CallableSearch(SearchServer searchServer, String query, Integer offset, Integer limit)
+    {
+        this(searchServer, null, query, offset, limit);
+    }
+
+    /**
+     * @param searchServer
+     * @param bulkhead if not null the search is only done if a permit can be acquired
+     * @param query
+     * @param offset
+     * @param limit
+     */
+    public CallableSearch(SearchServer searchServer, Bulkhead bulkhead, String query, Integer offset, Integer limit)
+    {
+        this(searchServer, bulkhead, query, offset, limit, null);
+    }
+
+    /**
+     * @param searchServer
+     * @param bulkhead if not null the search is only done if a permit can be acquired
+     * @param query
+     * @param offset
+     * @param limit
+     * @param fieldsToLoad stored fields to load for each result, null for all fields
+     */
+    public CallableSearch(SearchServer searchServer, Bulkhead bulkhead, String query, Integer offset, Integer limit,
+                          Set<String> fieldsToLoad)
     {
         this.searchServer = searchServer;
+        this.bulkhead = bulkhead;
         this.query = query;
         this.offset = offset;
         this.limit = limit;
+        this.fieldsToLoad = fieldsToLoad;
     }
 
     @Override
     public Results call() throws Exception
     {
-        return searchServer.search(query, offset, limit);
+        if (bulkhead == null)
+        {
+            return searchServer.search(query, offset, limit, fieldsToLoad);
+        }
+
+        if (!bulkhead.tryAcquire())
+        {
+            throw new Bulkhead.BulkheadFullException();
+        }
+        try
+        {
+            return searchServer.search(query, offset, limit, fieldsToLoad);
+        }
+        finally
+        {
+            bulkhead.release();
+        }
     }
 
 }
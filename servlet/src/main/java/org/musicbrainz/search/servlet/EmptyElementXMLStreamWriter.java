@@ -0,0 +1,267 @@
+package org.musicbrainz.search.servlet;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes elements that have no content as empty elements (<a/> rather than <a></a>), as JAXB does when marshalling to
+ * a Writer, so that Xml streamed through an XMLStreamWriter is the same as Xml marshalled by JAXB.
+ *
+ * A start element is held back with its attributes and namespaces until the next call shows whether it has content.
+ */
+public class EmptyElementXMLStreamWriter implements XMLStreamWriter
+{
+    private static final int ATTRIBUTE = 0;
+    private static final int NAMESPACE = 1;
+    private static final int DEFAULT_NAMESPACE = 2;
+
+    private final XMLStreamWriter writer;
+
+    // Start element not yet written, null if none
+    private String[] pendingElement;
+    private final List<Attribute> pendingAttributes = new ArrayList<Attribute>();
+
+    private static class Attribute {
+        private final int kind;
+        private final String prefix;
+        private final String namespaceUri;
+        private final String localName;
+        private final String value;
+
+        private Attribute(int kind, String prefix, String namespaceUri, String localName, String value) {
+            this.kind = kind;
+            this.prefix = prefix;
+            this.namespaceUri = namespaceUri;
+            this.localName = localName;
+            this.value = value;
+        }
+    }
+
+    public EmptyElementXMLStreamWriter(XMLStreamWriter writer) {
+
+        if (null == writer) {
+            throw new IllegalArgumentException("null");
+        } else {
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * Write the pending start element and its attributes
+     *
+     * @param isEmpty write as an empty element
+     * @throws XMLStreamException
+     */
+    private void writePending(boolean isEmpty) throws XMLStreamException {
+        if (pendingElement == null) {
+            return;
+        }
+        String prefix = pendingElement[0];
+        String localName = pendingElement[1];
+        String namespaceUri = pendingElement[2];
+        pendingElement = null;
+
+        if (isEmpty) {
+            if (namespaceUri == null) {
+                writer.writeEmptyElement(localName);
+            } else if (prefix == null) {
+                writer.writeEmptyElement(namespaceUri, localName);
+            } else {
+                writer.writeEmptyElement(prefix, localName, namespaceUri);
+            }
+        } else {
+            if (namespaceUri == null) {
+                writer.writeStartElement(localName);
+            } else if (prefix == null) {
+                writer.writeStartElement(namespaceUri, localName);
+            } else {
+                writer.writeStartElement(prefix, localName, namespaceUri);
+            }
+        }
+
+        for (Attribute attribute : pendingAttributes) {
+            if (attribute.kind == NAMESPACE) {
+                writer.writeNamespace(attribute.prefix, attribute.namespaceUri);
+            } else if (attribute.kind == DEFAULT_NAMESPACE) {
+                writer.writeDefaultNamespace(attribute.namespaceUri);
+            } else if (attribute.namespaceUri == null) {
+                writer.writeAttribute(attribute.localName, attribute.value);
+            } else if (attribute.prefix == null) {
+                writer.writeAttribute(attribute.namespaceUri, attribute.localName, attribute.value);
+            } else {
+                writer.writeAttribute(attribute.prefix, attribute.namespaceUri, attribute.localName, attribute.value);
+            }
+        }
+        pendingAttributes.clear();
+    }
+
+    private void startElement(String prefix, String localName, String namespaceUri) throws XMLStreamException {
+        writePending(false);
+        pendingElement = new String[] { prefix, localName, namespaceUri };
+    }
+
+    private void addAttribute(int kind, String prefix, String namespaceUri, String localName, String value)
+            throws XMLStreamException {
+        if (pendingElement == null) {
+            throw new XMLStreamException("Attribute written outside of a start element:" + localName);
+        }
+        pendingAttributes.add(new Attribute(kind, prefix, namespaceUri, localName, value));
+    }
+
+    public void writeStartElement(String s) throws XMLStreamException {
+        startElement(null, s, null);
+    }
+
+    public void writeStartElement(String s, String s1) throws XMLStreamException {
+        startElement(null, s1, s);
+    }
+
+    public void writeStartElement(String s, String s1, String s2)
+            throws XMLStreamException {
+        startElement(s, s1, s2);
+    }
+
+    public void writeEmptyElement(String s, String s1) throws XMLStreamException {
+        writePending(false);
+        writer.writeEmptyElement(s, s1);
+    }
+
+    public void writeEmptyElement(String s, String s1, String s2)
+            throws XMLStreamException {
+        writePending(false);
+        writer.writeEmptyElement(s, s1, s2);
+    }
+
+    public void writeEmptyElement(String s) throws XMLStreamException {
+        writePending(false);
+        writer.writeEmptyElement(s);
+    }
+
+    public void writeEndElement() throws XMLStreamException {
+        if (pendingElement != null) {
+            writePending(true);
+        } else {
+            writer.writeEndElement();
+        }
+    }
+
+    public void writeEndDocument() throws XMLStreamException {
+        writePending(false);
+        writer.writeEndDocument();
+    }
+
+    public void close() throws XMLStreamException {
+        writePending(false);
+        writer.close();
+    }
+
+    public void flush() throws XMLStreamException {
+        writePending(false);
+        writer.flush();
+    }
+
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        addAttribute(ATTRIBUTE, null, null, localName, value);
+    }
+
+    public void writeAttribute(String prefix, String namespaceUri, String localName, String value)
+            throws XMLStreamException {
+        addAttribute(ATTRIBUTE, prefix, namespaceUri, localName, value);
+    }
+
+    public void writeAttribute(String namespaceUri, String localName, String value)
+            throws XMLStreamException {
+        addAttribute(ATTRIBUTE, null, namespaceUri, localName, value);
+    }
+
+    public void writeNamespace(String s, String s1) throws XMLStreamException {
+        addAttribute(NAMESPACE, s, s1, null, null);
+    }
+
+    public void writeDefaultNamespace(String s) throws XMLStreamException {
+        addAttribute(DEFAULT_NAMESPACE, null, s, null, null);
+    }
+
+    public void writeComment(String s) throws XMLStreamException {
+        writePending(false);
+        writer.writeComment(s);
+    }
+
+    public void writeProcessingInstruction(String s) throws XMLStreamException {
+        writePending(false);
+        writer.writeProcessingInstruction(s);
+    }
+
+    public void writeProcessingInstruction(String s, String s1)
+            throws XMLStreamException {
+        writePending(false);
+        writer.writeProcessingInstruction(s, s1);
+    }
+
+    public void writeCData(String s) throws XMLStreamException {
+        writePending(false);
+        writer.writeCData(s);
+    }
+
+    public void writeDTD(String s) throws XMLStreamException {
+        writer.writeDTD(s);
+    }
+
+    public void writeEntityRef(String s) throws XMLStreamException {
+        writePending(false);
+        writer.writeEntityRef(s);
+    }
+
+    public void writeStartDocument() throws XMLStreamException {
+        writer.writeStartDocument();
+    }
+
+    public void writeStartDocument(String s) throws XMLStreamException {
+        writer.writeStartDocument(s);
+    }
+
+    public void writeStartDocument(String s, String s1)
+            throws XMLStreamException {
+        writer.writeStartDocument(s, s1);
+    }
+
+    public void writeCharacters(String s) throws XMLStreamException {
+        writePending(false);
+        writer.writeCharacters(s);
+    }
+
+    public void writeCharacters(char[] chars, int start, int len)
+            throws XMLStreamException
+    {
+        writePending(false);
+        writer.writeCharacters(chars, start, len);
+    }
+
+    public String getPrefix(String s) throws XMLStreamException {
+        return writer.getPrefix(s);
+    }
+
+    public void setPrefix(String s, String s1) throws XMLStreamException {
+        writer.setPrefix(s, s1);
+    }
+
+    public void setDefaultNamespace(String s) throws XMLStreamException {
+        writer.setDefaultNamespace(s);
+    }
+
+    public void setNamespaceContext(NamespaceContext namespaceContext)
+            throws XMLStreamException {
+        writer.setNamespaceContext(namespaceContext);
+    }
+
+    public NamespaceContext getNamespaceContext() {
+        return writer.getNamespaceContext();
+    }
+
+    public Object getProperty(String s) throws IllegalArgumentException {
+        return writer.getProperty(s);
+    }
+}
@@ -34,7 +34,11 @@ public enum ErrorMessage {
     NO_MATCHES ("zero search hits"),    //Formatting as is because depended on by mb_server
     UNKNOWN_COUNT_TYPE ("Count parameter {0} not valid, should be a type "),
     UNABLE_TO_PARSE_SEARCH_SLASHES_ARE_REGEXP ("Unable to parse search, forward slash is used for regex unless escaped:{0}"),
-    REQUEST_TIMEOUT_EXCEEDED ("Search request timed out -- please wait a moment and try again")
+    REQUEST_TIMEOUT_EXCEEDED ("Search request timed out -- please wait a moment and try again"),
+    INVALID_CURSOR ("Cursor {0} is not valid for this search, the index may have been updated"),
+    CURSOR_NOT_SUPPORTED_FOR_TYPE ("Cursor is not supported for resource type {0}"),
+    INDEX_BUSY_FOR_TYPE ("Too many searches for resource type {0} -- please wait a moment and try again"),
+    SERVER_BUSY ("Too many searches -- please wait a moment and try again")
     ;
 
     String msg;
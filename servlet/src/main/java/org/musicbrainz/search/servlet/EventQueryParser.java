@@ -0,0 +1,37 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.Query;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.index.EventIndexField;
+
+/**
+ * Subclasses QueryParser to handle date fields that we might want to do range queries for
+ */
+public class EventQueryParser extends QueryParser
+{
+
+    public EventQueryParser(String defaultField, Analyzer analyzer)
+    {
+        super(LuceneVersion.LUCENE_VERSION, defaultField, analyzer);
+    }
+
+    @Override
+    public Query newRangeQuery(String field,
+                               String part1,
+                               String part2,
+                               boolean startInclusive,
+                               boolean endInclusive)
+    {
+        if (field.equals(EventIndexField.BEGIN.getName()) || field.equals(EventIndexField.END.getName()))
+        {
+            Query query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+            if (query != null)
+            {
+                return query;
+            }
+        }
+        return super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
+    }
+}
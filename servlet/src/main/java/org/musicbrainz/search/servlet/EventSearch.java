@@ -13,6 +13,7 @@ import org.musicbrainz.search.servlet.mmd2.EventWriter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Set;
 
 public class EventSearch extends AbstractSearchServer {
 
@@ -39,7 +40,7 @@ public class EventSearch extends AbstractSearchServer {
 
     @Override
     public QueryParser getParser() {
-        return new QueryParser(LuceneVersion.LUCENE_VERSION, defaultFields.get(0), analyzer);
+        return new EventQueryParser(defaultFields.get(0), analyzer);
     }
 
 
@@ -56,9 +57,9 @@ public class EventSearch extends AbstractSearchServer {
      * @return
      * @throws java.io.IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.EVENT);
         return results;
     }
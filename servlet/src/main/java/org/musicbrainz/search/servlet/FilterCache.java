@@ -0,0 +1,241 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CachingWrapperFilter;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.FilteredQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of the documents matching terms of fields only used to restrict a search such as status
+ * or type, bounded by the memory used by the cached document sets.
+ *
+ * Required clauses on these fields are searched as cached filters rather than as scored term queries, so they no
+ * longer add to the score. The documents are cached for each segment, so when a searcher is refreshed only the
+ * documents of new segments have to be found.
+ */
+public class FilterCache {
+
+    private static class Key {
+        private final String indexName;
+        private final Term term;
+
+        private Key(String indexName, Term term) {
+            this.indexName = indexName;
+            this.term = term;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return indexName.equals(key.indexName) && term.equals(key.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * indexName.hashCode() + term.hashCode();
+        }
+    }
+
+    /**
+     * Lookups of the cached documents of a segment for one field of an index
+     */
+    private static class FieldStats {
+        private final AtomicLong lookups = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        @Override
+        public String toString() {
+            long lookupCount = lookups.get();
+            long hitCount = lookupCount - misses.get();
+            return "hits:" + hitCount + ",misses:" + misses.get()
+                    + ",hitrate:" + (lookupCount == 0 ? 0 : hitCount * 100 / lookupCount) + "%";
+        }
+    }
+
+    /**
+     * Caches the documents of each segment and counts lookups of the cache
+     */
+    private static class CountingCachingWrapperFilter extends CachingWrapperFilter {
+        private final FieldStats stats;
+
+        private CountingCachingWrapperFilter(Filter filter, FieldStats stats) {
+            super(filter);
+            this.stats = stats;
+        }
+
+        @Override
+        public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+            stats.lookups.incrementAndGet();
+            return super.getDocIdSet(context, acceptDocs);
+        }
+
+        @Override
+        protected DocIdSet docIdSetToCache(DocIdSet docIdSet, AtomicReader reader) throws IOException {
+            stats.misses.incrementAndGet();
+            return super.docIdSetToCache(docIdSet, reader);
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, CachingWrapperFilter> filters = new LinkedHashMap<Key, CachingWrapperFilter>(16, 0.75f, true);
+    private final Map<String, FieldStats> fieldStats = new TreeMap<String, FieldStats>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxBytes the memory the cached documents may use
+     */
+    public FilterCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Search required term clauses on the filter fields as cached filters, clauses are only replaced when the query
+     * has another clause to score the documents with. If no required clause is left the optional clauses would become
+     * required, so a clause matching all documents is required instead.
+     *
+     * @param indexName
+     * @param query
+     * @param filterFields
+     * @return
+     */
+    public Query filterClauses(String indexName, Query query, Set<String> filterFields) {
+        if (!(query instanceof BooleanQuery) || filterFields.isEmpty()) {
+            return query;
+        }
+
+        BooleanQuery booleanQuery = (BooleanQuery) query;
+        BooleanQuery scoredQuery = new BooleanQuery(booleanQuery.isCoordDisabled());
+        scoredQuery.setMinimumNumberShouldMatch(booleanQuery.getMinimumNumberShouldMatch());
+        scoredQuery.setBoost(booleanQuery.getBoost());
+        List<Term> filterTerms = new ArrayList<Term>();
+        boolean isScored = false;
+        boolean isRequired = false;
+        boolean isChanged = false;
+        for (BooleanClause clause : booleanQuery.clauses()) {
+            Query clauseQuery = clause.getQuery();
+            if (clause.getOccur() == BooleanClause.Occur.MUST && clauseQuery instanceof TermQuery
+                    && filterFields.contains(((TermQuery) clauseQuery).getTerm().field())) {
+                filterTerms.add(((TermQuery) clauseQuery).getTerm());
+                continue;
+            }
+
+            Query filteredClauseQuery = filterClauses(indexName, clauseQuery, filterFields);
+            isChanged |= filteredClauseQuery != clauseQuery;
+            scoredQuery.add(filteredClauseQuery, clause.getOccur());
+            isScored |= clause.getOccur() != BooleanClause.Occur.MUST_NOT;
+            isRequired |= clause.getOccur() == BooleanClause.Occur.MUST;
+        }
+
+        if (!isScored) {
+            return query;
+        }
+        if (filterTerms.isEmpty()) {
+            return isChanged ? scoredQuery : query;
+        }
+        if (!isRequired) {
+            scoredQuery.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        Query filteredQuery = scoredQuery;
+        for (Term term : filterTerms) {
+            filteredQuery = new FilteredQuery(filteredQuery, getFilter(indexName, term));
+        }
+        return filteredQuery;
+    }
+
+    /**
+     * @param indexName
+     * @param term
+     * @return filter matching the documents containing the term, the documents it finds are cached
+     */
+    public Filter getFilter(String indexName, Term term) {
+        Key key = new Key(indexName, term);
+        synchronized (this) {
+            CachingWrapperFilter filter = filters.get(key);
+            if (filter != null) {
+                return filter;
+            }
+
+            String statsName = indexName + ':' + term.field();
+            FieldStats stats = fieldStats.get(statsName);
+            if (stats == null) {
+                stats = new FieldStats();
+                fieldStats.put(statsName, stats);
+            }
+            filter = new CountingCachingWrapperFilter(new QueryWrapperFilter(new TermQuery(term)), stats);
+            filters.put(key, filter);
+
+            // Documents are only cached once filters are used, so evict based on the size of the filters already used
+            long usedBytes = 0;
+            for (CachingWrapperFilter next : filters.values()) {
+                usedBytes += next.ramBytesUsed();
+            }
+            Iterator<CachingWrapperFilter> i = filters.values().iterator();
+            while (usedBytes > maxBytes && i.hasNext()) {
+                CachingWrapperFilter eldest = i.next();
+                if (eldest == filter) {
+                    break;
+                }
+                i.remove();
+                usedBytes -= eldest.ramBytesUsed();
+                evictions.incrementAndGet();
+            }
+            return filter;
+        }
+    }
+
+    public synchronized void clear() {
+        filters.clear();
+    }
+
+    public synchronized int size() {
+        return filters.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        long usedBytes = 0;
+        for (CachingWrapperFilter next : filters.values()) {
+            usedBytes += next.ramBytesUsed();
+        }
+        return usedBytes;
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("entries:" + size() + ",bytes:" + getUsedBytes() + ",maxbytes:" + maxBytes
+                + ",evictions:" + getEvictions());
+        for (Map.Entry<String, FieldStats> next : fieldStats.entrySet()) {
+            sb.append('\n').append(next.getKey()).append(':').append(next.getValue());
+        }
+        return sb.toString();
+    }
+}
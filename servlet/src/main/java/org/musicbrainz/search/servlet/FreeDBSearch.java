@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
@@ -18,6 +22,9 @@ import org.musicbrainz.search.servlet.mmd2.FreeDBWriter;
 
 public class FreeDBSearch extends AbstractSearchServer {
 
+  private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      FreeDBIndexField.DISCID.getName())));
+
   protected void setupDefaultFields() {
     defaultFields = new ArrayList<String>();
     defaultFields.add(FreeDBIndexField.ARTIST.getName());
@@ -42,6 +49,11 @@ public class FreeDBSearch extends AbstractSearchServer {
     return new MultiFieldQueryParser(LuceneVersion.LUCENE_VERSION, defaultFields.toArray(new String[0]), analyzer);
   }
 
+  @Override
+  protected Set<String> getIdentifierFields() {
+    return IDENTIFIER_FIELDS;
+  }
+
   @Override
   protected  String printExplainHeader(Document doc)
       throws IOException, ParseException {
@@ -58,9 +70,9 @@ public class FreeDBSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.FREEDB);
         return results;
     }
@@ -12,6 +12,7 @@ import org.musicbrainz.search.servlet.mmd2.InstrumentWriter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Set;
 
 public class InstrumentSearch extends AbstractSearchServer {
 
@@ -52,9 +53,9 @@ public class InstrumentSearch extends AbstractSearchServer {
      * @return
      * @throws java.io.IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.INSTRUMENT);
         return results;
     }
@@ -49,4 +49,22 @@ public class LabelQueryParser extends MultiFieldQueryParser
 
         }
     }
+
+    @Override
+    public Query newRangeQuery(String field,
+                               String part1,
+                               String part2,
+                               boolean startInclusive,
+                               boolean endInclusive)
+    {
+        if (field.equals(LabelIndexField.BEGIN.getName()) || field.equals(LabelIndexField.END.getName()))
+        {
+            Query query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+            if (query != null)
+            {
+                return query;
+            }
+        }
+        return super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
+    }
 }
@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -16,6 +20,14 @@ import org.musicbrainz.search.servlet.mmd2.LabelWriter;
 
 public class LabelSearch extends AbstractSearchServer {
 
+  private static final Set<String> FILTER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      LabelIndexField.TYPE.getName(),
+      LabelIndexField.ENDED.getName())));
+
+  private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      LabelIndexField.LABEL_ID.getName(),
+      LabelIndexField.IPI.getName())));
+
   protected void setupDefaultFields() {
     defaultFields = new ArrayList<String>();
     defaultFields.add(LabelIndexField.LABEL.getName());
@@ -42,6 +54,16 @@ public class LabelSearch extends AbstractSearchServer {
     return new LabelQueryParser(defaultFields.toArray(new String[0]), analyzer);
   }
 
+  @Override
+  protected Set<String> getFilterFields() {
+    return FILTER_FIELDS;
+  }
+
+  @Override
+  protected Set<String> getIdentifierFields() {
+    return IDENTIFIER_FIELDS;
+  }
+
   @Override
   protected String printExplainHeader(Document doc) throws IOException, ParseException {
     return doc.get(LabelIndexField.LABEL_ID.getName()) + ':' + doc.get(LabelIndexField.LABEL.getName()) + '\n';
@@ -55,9 +77,9 @@ public class LabelSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.LABEL);
         return results;
     }
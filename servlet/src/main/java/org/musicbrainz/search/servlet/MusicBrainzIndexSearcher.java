@@ -0,0 +1,339 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TimeLimitingCollector;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Counter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searcher that scores each segment of the index on the executor when the index has more than one segment, so a
+ * single query can use more than one processor.
+ *
+ * Hits are merged in segment order so the results are the same as searching the segments one after another. A search
+ * can be limited by time and by the number of hits counted, a search stopped early returns the hits collected so far.
+ */
+public class MusicBrainzIndexSearcher extends IndexSearcher {
+
+  // Score of every hit found by looking up terms
+  public static final float LOOKUP_SCORE = 1.0f;
+
+  private final ExecutorService executor;
+  private Counter clock = TimeLimitingCollector.getGlobalCounter();
+
+  /**
+   * @param reader
+   * @param executor executor used to search segments in parallel, if null segments are searched on the calling thread
+   */
+  public MusicBrainzIndexSearcher(IndexReader reader, ExecutorService executor) {
+    super(reader, executor);
+    this.executor = executor;
+  }
+
+  /**
+   * @param clock clock used to time searches, in milliseconds
+   */
+  void setClock(Counter clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * @return true if segments are searched in parallel
+   */
+  public boolean isParallel() {
+    return executor != null && leafContexts.size() > 1;
+  }
+
+  /**
+   * Top hits of a search that may have been stopped early
+   */
+  public static class LimitedTopDocs extends TopDocs {
+    private final boolean isPartial;
+    private final boolean isTotalHitsLowerBound;
+
+    LimitedTopDocs(TopDocs topDocs, boolean isPartial, boolean isTotalHitsLowerBound) {
+      super(topDocs.totalHits, topDocs.scoreDocs, topDocs.getMaxScore());
+      this.isPartial = isPartial;
+      this.isTotalHitsLowerBound = isTotalHitsLowerBound;
+    }
+
+    /**
+     * @return true if the time allowed ran out or the hit limit was reached, so the hits are the best of the documents
+     * searched before then rather than of all documents
+     */
+    public boolean isPartial() {
+      return isPartial;
+    }
+
+    /**
+     * @return true if counting stopped at the hit limit, so there may be more hits than totalHits
+     */
+    public boolean isTotalHitsLowerBound() {
+      return isTotalHitsLowerBound;
+    }
+  }
+
+  /**
+   * Thrown to stop a search once it has counted the hits allowed
+   */
+  private static class HitLimitExceededException extends RuntimeException {
+    HitLimitExceededException() {
+      super("Hit limit exceeded");
+    }
+  }
+
+  /**
+   * Stops collecting once the hits collected by all the collectors sharing the count reach the limit
+   */
+  private static class HitLimitingCollector extends Collector {
+    private final Collector collector;
+    private final AtomicInteger hitCount;
+    private final int maxHits;
+
+    HitLimitingCollector(Collector collector, AtomicInteger hitCount, int maxHits) {
+      this.collector = collector;
+      this.hitCount = hitCount;
+      this.maxHits = maxHits;
+    }
+
+    @Override
+    public void setScorer(Scorer scorer) throws IOException {
+      collector.setScorer(scorer);
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+      if (hitCount.get() >= maxHits) {
+        throw new HitLimitExceededException();
+      }
+      collector.collect(doc);
+      hitCount.incrementAndGet();
+    }
+
+    @Override
+    public void setNextReader(AtomicReaderContext context) throws IOException {
+      collector.setNextReader(context);
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+      return collector.acceptsDocsOutOfOrder();
+    }
+  }
+
+  /**
+   * Find the top hits for the query, searching all segments
+   *
+   * If the time allowed runs out the hits collected so far are returned marked as partial, if maxCountedHits is
+   * reached the hits collected so far are returned marked as partial with totalHits marked as a lower bound. Which
+   * documents a partial search collected depends on the order segments are searched in.
+   *
+   * @param query
+   * @param after only return hits after this one, null for the first page
+   * @param numHits
+   * @param timeAllowedMillis time allowed for the search, 0 for no limit
+   * @param maxCountedHits number of hits to count before stopping, 0 to count all hits
+   * @return
+   * @throws IOException
+   */
+  public LimitedTopDocs searchTopDocs(Query query, ScoreDoc after, int numHits, long timeAllowedMillis, int maxCountedHits)
+      throws IOException {
+    final Weight weight = createNormalizedWeight(query);
+    SearchLimits limits = new SearchLimits(clock, timeAllowedMillis, maxCountedHits);
+
+    if (!isParallel()) {
+      return searchLeaves(leafContexts, weight, after, numHits, limits);
+    }
+
+    List<Future<LimitedTopDocs>> futures = new ArrayList<Future<LimitedTopDocs>>(leafContexts.size());
+    for (AtomicReaderContext leaf : leafContexts) {
+      futures.add(executor.submit(new SegmentSearch(leaf, weight, after, numHits, limits)));
+    }
+
+    LimitedTopDocs[] shardHits = new LimitedTopDocs[futures.size()];
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        shardHits[i] = futures.get(i).get();
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException(ie);
+    } catch (ExecutionException ee) {
+      if (ee.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ee.getCause();
+      }
+      if (ee.getCause() instanceof IOException) {
+        throw (IOException) ee.getCause();
+      }
+      throw new IOException(ee.getCause());
+    } finally {
+      for (Future<LimitedTopDocs> future : futures) {
+        future.cancel(true);
+      }
+    }
+
+    boolean isPartial = false;
+    boolean isTotalHitsLowerBound = false;
+    for (LimitedTopDocs topDocs : shardHits) {
+      isPartial |= topDocs.isPartial();
+      isTotalHitsLowerBound |= topDocs.isTotalHitsLowerBound();
+    }
+    TopDocs topDocs = TopDocs.merge(null, numHits, shardHits);
+    // Merging numbers the hits by segment, reset so they are the same as a serial search
+    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+      scoreDoc.shardIndex = -1;
+    }
+    return new LimitedTopDocs(topDocs, isPartial, isTotalHitsLowerBound);
+  }
+
+  /**
+   * Find the documents containing the term by reading its postings directly, without scoring
+   *
+   * This is only done when every hit would get the same score, so hits are in index order as when scored: the field
+   * has no norms and the term occurs the same number of times in each document. Otherwise null is returned and the
+   * term has to be searched as usual.
+   *
+   * @param term
+   * @param after only return hits after this one, null for the first page
+   * @param numHits
+   * @return the hits, or null if they would not all have the same score
+   * @throws IOException
+   */
+  public LimitedTopDocs lookupTopDocs(Term term, ScoreDoc after, int numHits) throws IOException {
+    int afterDoc = after == null ? -1 : after.doc;
+
+    List<ScoreDoc> hits = new ArrayList<ScoreDoc>(Math.min(numHits, 100));
+    int totalHits = 0;
+    int termFreq = 0;
+    TermsEnum termsEnum = null;
+    DocsEnum docsEnum = null;
+    for (AtomicReaderContext leaf : leafContexts) {
+      AtomicReader reader = leaf.reader();
+      FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(term.field());
+      Terms fieldTerms = reader.terms(term.field());
+      if (fieldInfo == null || fieldTerms == null) {
+        continue;
+      }
+      if (fieldInfo.hasNorms()) {
+        return null;
+      }
+      termsEnum = fieldTerms.iterator(termsEnum);
+      if (!termsEnum.seekExact(term.bytes())) {
+        continue;
+      }
+
+      boolean hasFreqs = fieldInfo.getIndexOptions() != FieldInfo.IndexOptions.DOCS_ONLY;
+      docsEnum = termsEnum.docs(reader.getLiveDocs(), docsEnum, hasFreqs ? DocsEnum.FLAG_FREQS : DocsEnum.FLAG_NONE);
+      boolean isAfterLeaf = leaf.docBase + reader.maxDoc() > afterDoc + 1;
+      for (int doc = docsEnum.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docsEnum.nextDoc()) {
+        int freq = hasFreqs ? docsEnum.freq() : 1;
+        if (termFreq == 0) {
+          termFreq = freq;
+        }
+        else if (freq != termFreq) {
+          return null;
+        }
+        totalHits++;
+        if (isAfterLeaf && hits.size() < numHits && leaf.docBase + doc > afterDoc) {
+          hits.add(new ScoreDoc(leaf.docBase + doc, LOOKUP_SCORE));
+        }
+      }
+    }
+    // As when scored there is no max score for pages after the first
+    return new LimitedTopDocs(new TopDocs(totalHits, hits.toArray(new ScoreDoc[hits.size()]),
+        hits.isEmpty() || after != null ? Float.NaN : LOOKUP_SCORE), false, false);
+  }
+
+  private LimitedTopDocs searchLeaves(List<AtomicReaderContext> leaves, Weight weight, ScoreDoc after, int numHits,
+      SearchLimits limits) throws IOException {
+    TopDocsCollector<?> collector = TopScoreDocCollector.create(numHits, after, true);
+    Collector limitedCollector = collector;
+    if (limits.timeAllowedMillis > 0) {
+      TimeLimitingCollector tCollector = new TimeLimitingCollector(collector, limits.clock, limits.timeAllowedMillis);
+      tCollector.setBaseline(limits.baseline);
+      limitedCollector = tCollector;
+    }
+    if (limits.maxCountedHits > 0) {
+      limitedCollector = new HitLimitingCollector(limitedCollector, limits.hitCount, limits.maxCountedHits);
+    }
+
+    boolean isPartial = false;
+    boolean isTotalHitsLowerBound = false;
+    try {
+      search(leaves, weight, limitedCollector);
+    } catch (TimeLimitingCollector.TimeExceededException tee) {
+      isPartial = true;
+    } catch (HitLimitExceededException hlee) {
+      // Only the documents before the limit have been scored, so better hits may follow
+      isPartial = true;
+      isTotalHitsLowerBound = true;
+    }
+    return new LimitedTopDocs(collector.topDocs(), isPartial, isTotalHitsLowerBound);
+  }
+
+  /**
+   * Limits shared by the searches of each segment of one query
+   */
+  private static class SearchLimits {
+    private final Counter clock;
+    private final long baseline;
+    private final long timeAllowedMillis;
+    private final int maxCountedHits;
+    private final AtomicInteger hitCount = new AtomicInteger();
+
+    SearchLimits(Counter clock, long timeAllowedMillis, int maxCountedHits) {
+      this.clock = clock;
+      this.baseline = clock.get();
+      this.timeAllowedMillis = timeAllowedMillis;
+      this.maxCountedHits = maxCountedHits;
+    }
+  }
+
+  /**
+   * Search of one segment
+   */
+  private class SegmentSearch implements Callable<LimitedTopDocs> {
+    private final AtomicReaderContext leaf;
+    private final Weight weight;
+    private final ScoreDoc after;
+    private final int numHits;
+    private final SearchLimits limits;
+
+    SegmentSearch(AtomicReaderContext leaf, Weight weight, ScoreDoc after, int numHits, SearchLimits limits) {
+      this.leaf = leaf;
+      this.weight = weight;
+      this.after = after;
+      this.numHits = numHits;
+      this.limits = limits;
+    }
+
+    public LimitedTopDocs call() throws IOException {
+      return searchLeaves(Collections.singletonList(leaf), weight, after, numHits, limits);
+    }
+  }
+}
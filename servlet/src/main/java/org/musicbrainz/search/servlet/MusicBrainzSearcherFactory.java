@@ -1,6 +1,7 @@
 package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
@@ -10,15 +11,36 @@ import org.apache.lucene.search.similarities.Similarity;
 public class MusicBrainzSearcherFactory extends SearcherFactory {
 
   private final ResourceType resourceType;
+  private final SearcherWarmer searcherWarmer;
+  private final ExecutorService executor;
 
   public MusicBrainzSearcherFactory(ResourceType resourceType) {
+    this(resourceType, null);
+  }
+
+  /**
+   * @param resourceType
+   * @param searcherWarmer if not null warms each new searcher before the SearcherManager makes it available
+   */
+  public MusicBrainzSearcherFactory(ResourceType resourceType, SearcherWarmer searcherWarmer) {
+    this(resourceType, searcherWarmer, null);
+  }
+
+  /**
+   * @param resourceType
+   * @param searcherWarmer if not null warms each new searcher before the SearcherManager makes it available
+   * @param executor if not null searches the segments of each query in parallel, shared by all searchers
+   */
+  public MusicBrainzSearcherFactory(ResourceType resourceType, SearcherWarmer searcherWarmer, ExecutorService executor) {
     this.resourceType = resourceType;
+    this.searcherWarmer = searcherWarmer;
+    this.executor = executor;
   }
 
   @Override
   public IndexSearcher newSearcher(IndexReader reader) throws IOException {
 
-    IndexSearcher searcher = super.newSearcher(reader);
+    IndexSearcher searcher = new MusicBrainzIndexSearcher(reader, executor);
 
     // Try to set the similarity if it's defined by the ResourceType
     if (this.resourceType.getSimilarityClass() != null) {
@@ -32,6 +54,9 @@ public class MusicBrainzSearcherFactory extends SearcherFactory {
       }
     }
 
+    if (searcherWarmer != null) {
+      searcherWarmer.warm(searcher);
+    }
     return searcher;
   }
 
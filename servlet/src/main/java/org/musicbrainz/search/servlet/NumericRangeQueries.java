@@ -0,0 +1,57 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.Query;
+import org.musicbrainz.search.index.MusicBrainzFieldTypes;
+import org.musicbrainz.search.index.Utils;
+
+/**
+ * Range queries on the fields added by MbDocument.addNumericField() and MbDocument.addDateField()
+ *
+ * Each method returns null if a bound cannot be parsed, so the caller can fall back to a text range query.
+ * A null or * bound is open.
+ */
+public class NumericRangeQueries {
+
+    private static boolean isOpen(String part) {
+        return part == null || part.equals("*");
+    }
+
+    public static Query newIntRangeQuery(String field, String part1, String part2, boolean startInclusive, boolean endInclusive) {
+        try {
+            return NumericRangeQuery.newIntRange(field, MusicBrainzFieldTypes.NUMERIC_PRECISION_STEP,
+                    isOpen(part1) ? null : Integer.valueOf(part1),
+                    isOpen(part2) ? null : Integer.valueOf(part2),
+                    startInclusive, endInclusive);
+        }
+        catch (NumberFormatException nfe) {
+            return null;
+        }
+    }
+
+    public static Query newFloatRangeQuery(String field, String part1, String part2, boolean startInclusive, boolean endInclusive) {
+        try {
+            return NumericRangeQuery.newFloatRange(field, MusicBrainzFieldTypes.NUMERIC_PRECISION_STEP,
+                    isOpen(part1) ? null : Float.valueOf(part1),
+                    isOpen(part2) ? null : Float.valueOf(part2),
+                    startInclusive, endInclusive);
+        }
+        catch (NumberFormatException nfe) {
+            return null;
+        }
+    }
+
+    /**
+     * Dates are compared as yyyymmdd with missing month and day as zero, which matches the order of the date
+     * strings so date:[1990 TO 2000] finds the same releases as before
+     */
+    public static Query newDateRangeQuery(String field, String part1, String part2, boolean startInclusive, boolean endInclusive) {
+        Integer min = isOpen(part1) ? null : Utils.dateToInt(part1);
+        Integer max = isOpen(part2) ? null : Utils.dateToInt(part2);
+        if ((min == null && !isOpen(part1)) || (max == null && !isOpen(part2))) {
+            return null;
+        }
+        return NumericRangeQuery.newIntRange(field, MusicBrainzFieldTypes.NUMERIC_PRECISION_STEP,
+                min, max, startInclusive, endInclusive);
+    }
+}
@@ -5,7 +5,6 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.NumericUtils;
 import org.musicbrainz.search.LuceneVersion;
@@ -58,20 +57,21 @@ public class PlaceQueryParser extends MultiFieldQueryParser
                                boolean startInclusive,
                                boolean endInclusive)
     {
+        Query query = null;
         if (
                 (field.equals(PlaceIndexField.LONG.getName())) ||
                 (field.equals(PlaceIndexField.LAT.getName()))
                 )
         {
-            BytesRefBuilder bytes1 = new BytesRefBuilder();
-            BytesRefBuilder bytes2 = new BytesRefBuilder();
-            NumericUtils.intToPrefixCoded(NumericUtils.floatToSortableInt(Float.parseFloat(part1)), 0, bytes1);
-            NumericUtils.intToPrefixCoded(NumericUtils.floatToSortableInt(Float.parseFloat(part2)), 0, bytes2);
-            part1 = bytes1.toBytesRef().utf8ToString();
-            part2 = bytes2.toBytesRef().utf8ToString();
+            query = NumericRangeQueries.newFloatRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        else if (field.equals(PlaceIndexField.BEGIN.getName()) || field.equals(PlaceIndexField.END.getName()))
+        {
+            query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        if (query == null) {
+            query = super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         }
-        TermRangeQuery query = (TermRangeQuery)
-                super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         return query;
 
     }
@@ -7,12 +7,27 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.rmi.UnknownHostException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+/**
+ * Checks searches against the rate limits
+ *
+ * Requests are checked against the in process TokenBucketRateLimiter. If a remote rate limiter is also configured
+ * it is asked about the client in the background, a client it refuses is refused locally until its period has passed,
+ * so requests never wait for the remote reply.
+ */
 public class RateLimiterChecker {
 
     private static final Logger log = Logger.getLogger(RateLimiterChecker.class.getName());
@@ -34,15 +49,48 @@ public class RateLimiterChecker {
     private static InetAddress  rateLimiterHost;
     private static Integer      rateLimiterPort;
     private static boolean      rateLimiterConfigured =false;
+    private static volatile boolean remoteRateLimiterConfigured =false;
+    private static volatile TokenBucketRateLimiter localRateLimiter;
     private static final String OVER_LIMIT_SEARCH_IP = " over_limit search ip=";
     private static AtomicInteger count = new AtomicInteger(0);
 
+    // Clients refused by the remote rate limiter, with the time until which they are refused
+    private static final Map<String, RemoteDenial> remoteDenials = new ConcurrentHashMap<String, RemoteDenial>();
 
+    // Remote checks that cannot be queued are dropped, the local limiter still applies
+    private static final ExecutorService remoteExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(1000), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "RemoteRateLimiter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }, new ThreadPoolExecutor.DiscardPolicy());
 
-    private static final RateLimiterResponse ALWAYS_TRUE = new RateLimiterResponse();
+    static final RateLimiterResponse ALWAYS_TRUE = new RateLimiterResponse();
+    static final RateLimiterResponse SERVER_BUSY = new RateLimiterResponse(false);
     private static final int MAX_SIZE_OFRESPONSE_PACKET = 100;
+    private static final int REMOTE_TIMEOUT_MS = 1000;
+    private static final int DEFAULT_DENIAL_SECONDS = 10;
+
+    private static class RemoteDenial {
+        private final RateLimiterResponse response;
+        private final long until;
 
-    public static void init(String host, String port)
+        private RemoteDenial(RateLimiterResponse response, long until) {
+            this.response = response;
+            this.until = until;
+        }
+    }
+
+    /**
+     * Init the rate limiter
+     *
+     * @param rateLimiter in process rate limiter
+     * @param host remote rate limiter host, may be empty if there is no remote rate limiter
+     * @param port remote rate limiter port
+     */
+    public static void init(TokenBucketRateLimiter rateLimiter, String host, String port)
     {
         try {
             pe = Pattern.compile("^(?:[0-9]{1,3}\\.){3}[0-9]{1,3}$");
@@ -52,6 +100,15 @@ public class RateLimiterChecker {
             return;
         }
 
+        localRateLimiter = rateLimiter;
+        remoteDenials.clear();
+        remoteRateLimiterConfigured = false;
+        rateLimiterConfigured =true;
+
+        if (host == null || host.length() == 0) {
+            return;
+        }
+
         try {
             rateLimiterHost=InetAddress.getByName(host);
         }
@@ -68,7 +125,7 @@ public class RateLimiterChecker {
             return;
         }
 
-        rateLimiterConfigured =true;
+        remoteRateLimiterConfigured =true;
     }
 
     /**
@@ -110,6 +167,7 @@ public class RateLimiterChecker {
             String rateLimiter=requestId+OVER_LIMIT_SEARCH_IP+remoteIpAddress;
             byte[] msg = rateLimiter.getBytes();
             ds = new DatagramSocket();
+            ds.setSoTimeout(REMOTE_TIMEOUT_MS);
             DatagramPacket dp = new DatagramPacket(msg,msg.length,rateLimiterHost,rateLimiterPort.intValue());
             ds.send(dp);
 
@@ -173,7 +231,62 @@ public class RateLimiterChecker {
         {
             return ALWAYS_TRUE;
         }
-        return validateAgainstRateLimiter(remoteIpAddress);
+        return checkRateLimiter(remoteIpAddress);
+    }
+
+    /**
+     * Check the client against the local rate limiter and any earlier refusal by the remote rate limiter, then
+     * ask the remote rate limiter about the client in the background
+     *
+     * @param remoteIpAddress
+     * @return
+     */
+    static RateLimiterResponse checkRateLimiter(final String remoteIpAddress)
+    {
+        TokenBucketRateLimiter rateLimiter = localRateLimiter;
+        RateLimiterResponse response = rateLimiter.check(remoteIpAddress);
+        if (!response.isValid() || !remoteRateLimiterConfigured)
+        {
+            return response;
+        }
+
+        final TokenBucketRateLimiter.Clock clock = rateLimiter.getClock();
+        RemoteDenial denial = remoteDenials.get(remoteIpAddress);
+        if (denial != null)
+        {
+            if (clock.nanoTime() - denial.until < 0)
+            {
+                return denial.response;
+            }
+            remoteDenials.remove(remoteIpAddress);
+        }
+
+        remoteExecutor.execute(new Runnable()
+        {
+            public void run()
+            {
+                RateLimiterResponse remoteResponse = validateAgainstRateLimiter(remoteIpAddress);
+                if (!remoteResponse.isValid())
+                {
+                    remoteDenials.put(remoteIpAddress, new RemoteDenial(remoteResponse,
+                            clock.nanoTime() + TimeUnit.SECONDS.toNanos(remoteResponse.getPeriodSeconds())));
+                    removeExpiredDenials(clock.nanoTime());
+                }
+            }
+        });
+        return response;
+    }
+
+    private static void removeExpiredDenials(long now)
+    {
+        Iterator<RemoteDenial> i = remoteDenials.values().iterator();
+        while (i.hasNext())
+        {
+            if (now - i.next().until >= 0)
+            {
+                i.remove();
+            }
+        }
     }
 
     /**
@@ -195,6 +308,31 @@ public class RateLimiterChecker {
             valid = true;
         }
 
+        RateLimiterResponse(boolean valid)
+        {
+            this.valid = valid;
+            if (!valid)
+            {
+                msg = MSG_SERVER_BUSY_SIMPLE;
+            }
+        }
+
+        /**
+         * Client has exceeded its limit
+         *
+         * @param rate requests made in the period
+         * @param limit requests allowed in the period
+         * @param period in seconds
+         */
+        RateLimiterResponse(int rate, int limit, long period)
+        {
+            this.rate   = String.valueOf(rate);
+            this.limit  = String.valueOf(limit);
+            this.period = String.valueOf(period);
+            msg=String.format(MSG_SERVER_BUSY, this.limit, this.period, this.rate);
+            headerMsg=String.format(MSG_HEADER, this.rate, this.limit, this.period);
+        }
+
         RateLimiterResponse(String  response)
         {
             //log.log(Level.SEVERE, "Response Was:"+response);
@@ -258,5 +396,17 @@ public class RateLimiterChecker {
         public String getPeriod() {
             return period;
         }
+
+        /**
+         * @return period in seconds, or a default if the period is not known
+         */
+        long getPeriodSeconds() {
+            try {
+                return Math.max(1, (long) Float.parseFloat(period));
+            }
+            catch(NumberFormatException nfe) {
+                return DEFAULT_DENIAL_SECONDS;
+            }
+        }
     }
 }
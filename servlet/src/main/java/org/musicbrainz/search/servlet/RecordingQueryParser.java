@@ -6,7 +6,6 @@ import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.NumericUtils;
 import org.musicbrainz.search.LuceneVersion;
@@ -103,6 +102,7 @@ public class RecordingQueryParser extends MultiFieldQueryParser {
                                boolean startInclusive,
                                boolean endInclusive)
     {
+        Query query = null;
         if (
                 (field.equals(RecordingIndexField.DURATION.getName())) ||
                 (field.equals(RecordingIndexField.QUANTIZED_DURATION.getName())) ||
@@ -111,15 +111,15 @@ public class RecordingQueryParser extends MultiFieldQueryParser {
                 (field.equals(RecordingIndexField.NUM_TRACKS_RELEASE.getName()))
                 )
         {
-            BytesRefBuilder bytes1 = new BytesRefBuilder();
-            BytesRefBuilder bytes2 = new BytesRefBuilder();
-            NumericUtils.intToPrefixCoded(Integer.parseInt(part1), 0, bytes1);
-            NumericUtils.intToPrefixCoded(Integer.parseInt(part2), 0, bytes2);
-            part1 = bytes1.toBytesRef().utf8ToString();
-            part2 = bytes2.toBytesRef().utf8ToString();
+            query = NumericRangeQueries.newIntRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        else if (field.equals(RecordingIndexField.RELEASE_DATE.getName()))
+        {
+            query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        if (query == null) {
+            query = super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         }
-        TermRangeQuery query = (TermRangeQuery)
-                super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         return query;
 
     }
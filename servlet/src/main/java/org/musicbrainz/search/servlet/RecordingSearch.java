@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -17,6 +21,21 @@ import org.musicbrainz.search.servlet.mmd2.RecordingWriter;
 
 public class RecordingSearch extends AbstractSearchServer {
 
+  private static final Set<String> FILTER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      RecordingIndexField.VIDEO.getName(),
+      RecordingIndexField.FORMAT.getName(),
+      RecordingIndexField.COUNTRY.getName(),
+      RecordingIndexField.RELEASE_STATUS.getName(),
+      RecordingIndexField.RELEASE_TYPE.getName(),
+      RecordingIndexField.RELEASE_PRIMARY_TYPE.getName(),
+      RecordingIndexField.RELEASE_SECONDARY_TYPE.getName())));
+
+  private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      RecordingIndexField.RECORDING_ID.getName(),
+      RecordingIndexField.ARTIST_ID.getName(),
+      RecordingIndexField.RELEASE_ID.getName(),
+      RecordingIndexField.ISRC.getName())));
+
   protected void setupDefaultFields() {
     defaultFields = new ArrayList<String>();
     defaultFields.add(RecordingIndexField.RECORDING.getName());
@@ -42,6 +61,16 @@ public class RecordingSearch extends AbstractSearchServer {
     return new RecordingQueryParser(defaultFields.toArray(new String[0]), analyzer);
   }
 
+  @Override
+  protected Set<String> getFilterFields() {
+    return FILTER_FIELDS;
+  }
+
+  @Override
+  protected Set<String> getIdentifierFields() {
+    return IDENTIFIER_FIELDS;
+  }
+
   @Override
   protected String printExplainHeader(Document doc) throws IOException, ParseException {
     return doc.get(RecordingIndexField.RECORDING_ID.getName()) + ':'
@@ -56,9 +85,9 @@ public class RecordingSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.RECORDING);
         return results;
     }
@@ -34,7 +34,6 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.NumericUtils;
 import org.musicbrainz.search.LuceneVersion;
@@ -91,17 +90,14 @@ public class ReleaseGroupQueryParser extends MultiFieldQueryParser {
                                boolean startInclusive,
                                boolean endInclusive)
     {
+        Query query = null;
         if (field.equals(ReleaseGroupIndexField.NUM_RELEASES.getName()))
         {
-            BytesRefBuilder bytes1 = new BytesRefBuilder();
-            BytesRefBuilder bytes2 = new BytesRefBuilder();
-            NumericUtils.intToPrefixCoded(Integer.parseInt(part1), 0, bytes1);
-            NumericUtils.intToPrefixCoded(Integer.parseInt(part2), 0, bytes2);
-            part1 = bytes1.toBytesRef().utf8ToString();
-            part2 = bytes2.toBytesRef().utf8ToString();
+            query = NumericRangeQueries.newIntRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        if (query == null) {
+            query = super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         }
-        TermRangeQuery query = (TermRangeQuery)
-                super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         return query;
 
     }
@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -16,6 +20,17 @@ import org.musicbrainz.search.servlet.mmd2.ReleaseGroupWriter;
 
 public class ReleaseGroupSearch extends AbstractSearchServer {
 
+  private static final Set<String> FILTER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      ReleaseGroupIndexField.RELEASESTATUS.getName(),
+      ReleaseGroupIndexField.TYPE.getName(),
+      ReleaseGroupIndexField.PRIMARY_TYPE.getName(),
+      ReleaseGroupIndexField.SECONDARY_TYPE.getName())));
+
+  private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      ReleaseGroupIndexField.RELEASEGROUP_ID.getName(),
+      ReleaseGroupIndexField.RELEASE_ID.getName(),
+      ReleaseGroupIndexField.ARTIST_ID.getName())));
+
   protected void setupDefaultFields() {
     defaultFields = new ArrayList<String>();
     defaultFields.add(ReleaseGroupIndexField.RELEASEGROUP.getName());
@@ -41,6 +56,16 @@ public class ReleaseGroupSearch extends AbstractSearchServer {
     return new ReleaseGroupQueryParser(defaultFields.toArray(new String[0]), analyzer);
   }
 
+  @Override
+  protected Set<String> getFilterFields() {
+    return FILTER_FIELDS;
+  }
+
+  @Override
+  protected Set<String> getIdentifierFields() {
+    return IDENTIFIER_FIELDS;
+  }
+
   @Override
   protected String printExplainHeader(Document doc) throws IOException, ParseException {
     return doc.get(ReleaseGroupIndexField.RELEASEGROUP_ID.getName()) + ':'
@@ -55,9 +80,9 @@ public class ReleaseGroupSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.RELEASE_GROUP);
         return results;
     }
@@ -5,7 +5,6 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.NumericUtils;
 import org.musicbrainz.search.LuceneVersion;
@@ -86,23 +85,24 @@ return tq;
                                boolean startInclusive,
                                boolean endInclusive)
     {
+        Query query = null;
         if (
                 (field.equals(ReleaseIndexField.NUM_TRACKS.getName())) ||
                 (field.equals(ReleaseIndexField.NUM_TRACKS_MEDIUM.getName())) ||
                 (field.equals(ReleaseIndexField.NUM_MEDIUMS.getName())) ||
                 (field.equals(ReleaseIndexField.NUM_DISCIDS.getName())) ||
                 (field.equals(ReleaseIndexField.NUM_DISCIDS_MEDIUM.getName()))
-            )
+                )
         {
-            BytesRefBuilder bytes1 = new BytesRefBuilder();
-            BytesRefBuilder bytes2 = new BytesRefBuilder();
-            NumericUtils.intToPrefixCoded(Integer.parseInt(part1), 0, bytes1);
-            NumericUtils.intToPrefixCoded(Integer.parseInt(part2), 0, bytes2);
-            part1 = bytes1.toBytesRef().utf8ToString();
-            part2 = bytes2.toBytesRef().utf8ToString();
+            query = NumericRangeQueries.newIntRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        else if (field.equals(ReleaseIndexField.DATE.getName()))
+        {
+            query = NumericRangeQueries.newDateRangeQuery(field, part1, part2, startInclusive, endInclusive);
+        }
+        if (query == null) {
+            query = super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         }
-        TermRangeQuery query = (TermRangeQuery)
-                super.newRangeQuery(field, part1, part2, startInclusive, endInclusive);
         return query;
 
     }
@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -16,6 +20,24 @@ import org.musicbrainz.search.servlet.mmd2.ReleaseWriter;
 
 public class ReleaseSearch extends AbstractSearchServer {
 
+  private static final Set<String> FILTER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      ReleaseIndexField.STATUS.getName(),
+      ReleaseIndexField.TYPE.getName(),
+      ReleaseIndexField.PRIMARY_TYPE.getName(),
+      ReleaseIndexField.SECONDARY_TYPE.getName(),
+      ReleaseIndexField.FORMAT.getName(),
+      ReleaseIndexField.COUNTRY.getName(),
+      ReleaseIndexField.LANGUAGE.getName(),
+      ReleaseIndexField.SCRIPT.getName(),
+      ReleaseIndexField.QUALITY.getName(),
+      ReleaseIndexField.PACKAGING.getName())));
+
+  private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      ReleaseIndexField.RELEASE_ID.getName(),
+      ReleaseIndexField.ARTIST_ID.getName(),
+      ReleaseIndexField.BARCODE.getName(),
+      ReleaseIndexField.CATALOG_NO.getName())));
+
   protected void setupDefaultFields() {
     defaultFields = new ArrayList<String>();
     defaultFields.add(ReleaseIndexField.RELEASE.getName());
@@ -41,6 +63,16 @@ public class ReleaseSearch extends AbstractSearchServer {
     return new ReleaseQueryParser(defaultFields.toArray(new String[0]), analyzer);
   }
 
+  @Override
+  protected Set<String> getFilterFields() {
+    return FILTER_FIELDS;
+  }
+
+  @Override
+  protected Set<String> getIdentifierFields() {
+    return IDENTIFIER_FIELDS;
+  }
+
   @Override
   protected String printExplainHeader(Document doc) throws IOException, ParseException {
     return doc.get(ReleaseIndexField.RELEASE_ID.getName()) + ':' + doc.get(ReleaseIndexField.RELEASE.getName()) + '\n';
@@ -54,9 +86,9 @@ public class ReleaseSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.RELEASE);
         return results;
     }
@@ -41,11 +41,15 @@ public enum RequestParameter {
     DISMAX("dismax"),
     EXPLAIN("explain"),
     PRETTY("pretty"),
+    CURSOR("cursor"),
     // For admin only
     INIT ("init"),
     RELOAD_INDEXES ("reload"),
     RATE("rate"),
     GC("gc"),
+    CACHE_STATS("cachestats"),
+    FILTER_CACHE_STATS("filtercachestats"),
+    BULKHEAD_STATS("bulkheadstats"),
     ;
     
     private String name;
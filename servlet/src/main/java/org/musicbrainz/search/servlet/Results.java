@@ -40,6 +40,9 @@ public class Results implements Comparable<Results>{
     private int offset;
     private int totalHits;
     private ResourceType resourceType;
+    private SearchCursor cursor;
+    private boolean isPartial;
+    private boolean isTotalHitsLowerBound;
 
     public List<Result> results;
 
@@ -110,4 +113,43 @@ public class Results implements Comparable<Results>{
     {
         this.resourceType = resourceType;
     }
+
+    /**
+     * @return cursor after the last result, or null if there are no more results
+     */
+    public SearchCursor getCursor()
+    {
+        return cursor;
+    }
+
+    public void setCursor(SearchCursor cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return true if the search ran out of time, so the results are the best found in the time allowed
+     */
+    public boolean isPartial()
+    {
+        return isPartial;
+    }
+
+    public void setPartial(boolean isPartial)
+    {
+        this.isPartial = isPartial;
+    }
+
+    /**
+     * @return true if the search stopped counting hits, so there may be more than totalHits
+     */
+    public boolean isTotalHitsLowerBound()
+    {
+        return isTotalHitsLowerBound;
+    }
+
+    public void setTotalHitsLowerBound(boolean isTotalHitsLowerBound)
+    {
+        this.isTotalHitsLowerBound = isTotalHitsLowerBound;
+    }
 }
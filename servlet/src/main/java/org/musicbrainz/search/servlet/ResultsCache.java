@@ -0,0 +1,254 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of search results, bounded by an estimate of the memory used by the cached documents.
+ *
+ * Entries are keyed on the search server and the generation of its searcher, so once a searcher has been refreshed
+ * the results found with the old searcher are never returned, and they are removed by invalidate(). Results are
+ * copied in and out of the cache because writers such as AllWriter modify the results they are given.
+ */
+public class ResultsCache {
+
+    private static final int RESULT_OVERHEAD = 64;
+    private static final int FIELD_OVERHEAD = 48;
+
+    public static class Key {
+        private final SearchServer searchServer;
+        private final long generation;
+        private final String query;
+        private final boolean isDismax;
+        private final int offset;
+        private final int limit;
+        private final Set<String> fieldsToLoad;
+
+        public Key(SearchServer searchServer, long generation, String query, boolean isDismax, int offset, int limit) {
+            this(searchServer, generation, query, isDismax, offset, limit, null);
+        }
+
+        /**
+         * @param fieldsToLoad stored fields loaded for the results, null for all fields
+         */
+        public Key(SearchServer searchServer, long generation, String query, boolean isDismax, int offset, int limit,
+                   Set<String> fieldsToLoad) {
+            this.searchServer = searchServer;
+            this.generation = generation;
+            this.query = normalizeQuery(query);
+            this.isDismax = isDismax;
+            this.offset = offset;
+            this.limit = limit;
+            this.fieldsToLoad = fieldsToLoad;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return searchServer == key.searchServer
+                    && generation == key.generation
+                    && isDismax == key.isDismax
+                    && offset == key.offset
+                    && limit == key.limit
+                    && query.equals(key.query)
+                    && (fieldsToLoad == null ? key.fieldsToLoad == null : fieldsToLoad.equals(key.fieldsToLoad));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(searchServer);
+            result = 31 * result + (int) (generation ^ (generation >>> 32));
+            result = 31 * result + query.hashCode();
+            result = 31 * result + (isDismax ? 1 : 0);
+            result = 31 * result + offset;
+            result = 31 * result + limit;
+            result = 31 * result + (fieldsToLoad != null ? fieldsToLoad.hashCode() : 0);
+            return result;
+        }
+    }
+
+    private static class Entry {
+        private final Results results;
+        private final long size;
+
+        private Entry(Results results, long size) {
+            this.results = results;
+            this.size = size;
+        }
+    }
+
+    private final long maxBytes;
+    private long usedBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxBytes the estimated memory the cached results may use
+     */
+    public ResultsCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Whitespace that is not escaped does not change the meaning of a query
+     *
+     * @param query
+     * @return
+     */
+    static String normalizeQuery(String query) {
+        return query.trim().replaceAll("(?<!\\\\)\\s+", " ");
+    }
+
+    /**
+     * @param key
+     * @return a copy of the cached results, or null if not cached
+     */
+    public Results get(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(entry.results);
+    }
+
+    public void put(Key key, Results results) {
+        long size = estimateSize(results);
+        if (size > maxBytes) {
+            return;
+        }
+
+        Entry entry = new Entry(copy(results), size);
+        synchronized (this) {
+            Entry old = entries.put(key, entry);
+            if (old != null) {
+                usedBytes -= old.size;
+            }
+            usedBytes += size;
+
+            Iterator<Entry> i = entries.values().iterator();
+            while (usedBytes > maxBytes && i.hasNext()) {
+                Entry eldest = i.next();
+                i.remove();
+                usedBytes -= eldest.size;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Remove all results of a search server, called when its searcher has been refreshed
+     *
+     * @param searchServer
+     */
+    public synchronized void invalidate(SearchServer searchServer) {
+        Iterator<Map.Entry<Key, Entry>> i = entries.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<Key, Entry> next = i.next();
+            if (next.getKey().searchServer == searchServer) {
+                i.remove();
+                usedBytes -= next.getValue().size;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "entries:" + size() + ",bytes:" + getUsedBytes() + ",maxbytes:" + maxBytes
+                + ",hits:" + getHits() + ",misses:" + getMisses() + ",evictions:" + getEvictions();
+    }
+
+    private static Results copy(Results results) {
+        Results copy = new Results();
+        copy.setMaxScore(results.getMaxScore());
+        copy.setOffset(results.getOffset());
+        copy.setTotalHits(results.getTotalHits());
+        copy.setResourceType(results.getResourceType());
+        copy.setCursor(results.getCursor());
+        copy.setPartial(results.isPartial());
+        copy.setTotalHitsLowerBound(results.isTotalHitsLowerBound());
+        for (Result result : results.results) {
+            Result resultCopy = new Result();
+            resultCopy.setScore(result.getScore());
+            resultCopy.setDoc(result.getDoc());
+            resultCopy.setResourceType(result.getResourceType());
+            copy.results.add(resultCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Estimate the memory used by the stored fields of the documents in the results
+     *
+     * @param results
+     * @return
+     */
+    static long estimateSize(Results results) {
+        long size = RESULT_OVERHEAD;
+        for (Result result : results.results) {
+            size += RESULT_OVERHEAD;
+            if (result.getDoc() == null) {
+                continue;
+            }
+            for (IndexableField field : result.getDoc().getLuceneDocument().getFields()) {
+                size += FIELD_OVERHEAD;
+                BytesRef bytes = field.binaryValue();
+                if (bytes != null) {
+                    size += bytes.length;
+                }
+                else if (field.stringValue() != null) {
+                    size += 2 * field.stringValue().length();
+                }
+            }
+        }
+        return size;
+    }
+}
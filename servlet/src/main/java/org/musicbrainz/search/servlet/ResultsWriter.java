@@ -29,10 +29,14 @@
 package org.musicbrainz.search.servlet;
 
 import org.musicbrainz.search.index.Index;
+import org.musicbrainz.search.index.IndexField;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 public abstract class ResultsWriter {
 
@@ -50,6 +54,23 @@ public abstract class ResultsWriter {
 
     public abstract void write(PrintWriter out, Results results, String outputFormat, boolean isPretty) throws IOException ;
 
+    /**
+     * The stored fields read by this writer, so only these need to be loaded for each result
+     *
+     * @return the field names, or null if all fields are needed
+     */
+    public Set<String> getStoredFields() {
+        return null;
+    }
+
+    protected static Set<String> storedFields(IndexField... fields) {
+        Set<String> names = new HashSet<String>();
+        for (IndexField field : fields) {
+            names.add(field.getName());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
     /**
      *
      * @param value
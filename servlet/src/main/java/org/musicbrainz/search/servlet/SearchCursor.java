@@ -0,0 +1,92 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.search.ScoreDoc;
+
+/**
+ * Position after the last result of a page, given to the client so the next page can be found with
+ * IndexSearcher.searchAfter() rather than by collecting every result before it.
+ *
+ * A cursor is only valid for the query and the version of the index it was created with, the doc ids it refers to
+ * change when the index is updated.
+ */
+public class SearchCursor {
+
+    private static final char SEPARATOR = '.';
+
+    private final long indexVersion;
+    private final int queryHash;
+    private final int offset;
+    private final ScoreDoc after;
+
+    public SearchCursor(long indexVersion, int queryHash, int offset, ScoreDoc after) {
+        this.indexVersion = indexVersion;
+        this.queryHash = queryHash;
+        this.offset = offset;
+        this.after = after;
+    }
+
+    public long getIndexVersion() {
+        return indexVersion;
+    }
+
+    public int getQueryHash() {
+        return queryHash;
+    }
+
+    /**
+     * @return offset of the first result after the cursor
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public ScoreDoc getAfter() {
+        return after;
+    }
+
+    /**
+     * Parse a cursor previously created by toString()
+     *
+     * @param cursor
+     * @return
+     * @throws InvalidCursorException if not a valid cursor
+     */
+    public static SearchCursor valueOf(String cursor) {
+        String[] parts = cursor.split("\\" + SEPARATOR);
+        if (parts.length != 5) {
+            throw new InvalidCursorException(cursor);
+        }
+        try {
+            int offset = Integer.parseInt(parts[2], Character.MAX_RADIX);
+            int doc = Integer.parseInt(parts[3], Character.MAX_RADIX);
+            if (offset < 0 || doc < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new SearchCursor(Long.parseLong(parts[0], Character.MAX_RADIX),
+                    Integer.parseInt(parts[1], Character.MAX_RADIX),
+                    offset,
+                    new ScoreDoc(doc, Float.intBitsToFloat(Integer.parseInt(parts[4], Character.MAX_RADIX))));
+        }
+        catch (NumberFormatException nfe) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(indexVersion, Character.MAX_RADIX) + SEPARATOR
+                + Integer.toString(queryHash, Character.MAX_RADIX) + SEPARATOR
+                + Integer.toString(offset, Character.MAX_RADIX) + SEPARATOR
+                + Integer.toString(after.doc, Character.MAX_RADIX) + SEPARATOR
+                + Integer.toString(Float.floatToIntBits(after.score), Character.MAX_RADIX);
+    }
+
+    /**
+     * The cursor could not be parsed, or was created for another query or version of the index
+     */
+    public static class InvalidCursorException extends IllegalArgumentException {
+        public InvalidCursorException(String cursor) {
+            super(ErrorMessage.INVALID_CURSOR.getMsg(cursor));
+        }
+    }
+}
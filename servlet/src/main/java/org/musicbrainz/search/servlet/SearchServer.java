@@ -1,6 +1,7 @@
 package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.CorruptIndexException;
@@ -24,6 +25,20 @@ public interface SearchServer {
    */
   public abstract Results search(String query, int offset, int limit) throws IOException, ParseException;
 
+  /**
+   * Process query from Mbserver before sending to lucene searcher, returning between results from offset upto limit
+   * with only the given stored fields of each result loaded
+   *
+   * @param query
+   * @param offset
+   * @param limit
+   * @param fieldsToLoad stored fields to load, null for all fields
+   * @return
+   * @throws IOException
+   * @throws ParseException
+   */
+  public abstract Results search(String query, int offset, int limit, Set<String> fieldsToLoad) throws IOException, ParseException;
+
   /**
    * Process query from Mbserver before sending to lucene searcher, returning between results from offset upto limit
    * 
@@ -36,6 +51,23 @@ public interface SearchServer {
    */
   public abstract Results search(Query query, int offset, int limit) throws IOException, ParseException;
 
+  /**
+   * Process query from Mbserver before sending to lucene searcher, returning up to limit results after the cursor
+   * returned with the previous page
+   *
+   * @param query
+   * @param cursor
+   * @param limit
+   * @return
+   * @throws IOException
+   * @throws ParseException
+   */
+  public abstract Results searchAfter(String query, SearchCursor cursor, int limit) throws IOException, ParseException;
+
+  public abstract Results searchAfter(String query, SearchCursor cursor, int limit, Set<String> fieldsToLoad) throws IOException, ParseException;
+
+  public abstract Results searchAfter(Query query, SearchCursor cursor, int limit) throws IOException, ParseException;
+
   /**
    * Explain the results This method is for debugging and to allow end users to understand why their query is not
    * returning the results they expected so they can refine their query
@@ -31,11 +31,13 @@ package org.musicbrainz.search.servlet;
 import com.google.common.base.Strings;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TimeLimitingCollector.TimeExceededException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.NIOFSDirectory;
+import org.musicbrainz.search.index.MMDSerializer;
 import org.musicbrainz.search.servlet.mmd2.AllWriter;
 import org.musicbrainz.search.servlet.mmd2.ResultsWriter;
 
@@ -47,10 +49,15 @@ import java.lang.*;
 import java.io.*;
 import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -67,11 +74,54 @@ public class SearchServerServlet extends HttpServlet
     public final static String RESPONSE_JSON = "json";
     public final static String RESPONSE_JSON_NEW = "jsonnew";
 
+    // Returned when there are more results, pass as the cursor parameter to get the next page
+    public final static String HEADER_CURSOR = "X-Search-Cursor";
+    // Returned as true when the search ran out of time, the results are the best found in the time allowed
+    public final static String HEADER_PARTIAL = "X-Search-Partial";
+    // Returned as true when the search stopped counting hits, the count is then a lower bound
+    public final static String HEADER_COUNT_LOWER_BOUND = "X-Search-Count-Lower-Bound";
+
     final static String WS_VERSION_1 = "1";
     final static String WS_VERSION_2 = "2";
 
     final static String CHARSET = "UTF-8";
 
+    // Estimated memory used by the results cache shared by all search servers if not configured
+    final static long DEFAULT_RESULTS_CACHE_MB = 64;
+
+    // Estimated memory used by the filter cache shared by all search servers if not configured
+    final static long DEFAULT_FILTER_CACHE_MB = 32;
+
+    // Rate limits if not configured, requests per client and for all clients in each period of seconds
+    final static int DEFAULT_RATE_LIMIT_CLIENT = 22;
+    final static int DEFAULT_RATE_LIMIT_GLOBAL = 0;
+    final static int DEFAULT_RATE_LIMIT_PERIOD = 20;
+
+    // Time allowed for warming each new searcher and number of recent queries kept to warm with if not configured
+    final static int DEFAULT_WARM_TIME_MS = 5000;
+    final static int DEFAULT_WARM_RECENT_QUERIES = 100;
+
+    // Threads used to search the indexes for type all, and time allowed for all the searches if not configured
+    final static int DEFAULT_SEARCH_ALL_THREADS = 16;
+    final static int DEFAULT_SEARCH_ALL_TIMEOUT_MS = 5000;
+
+    // Threads shared by all indexes to search the segments of an index in parallel if not configured, 0 disables
+    final static int DEFAULT_SEGMENT_SEARCH_THREADS = 8;
+
+    // Hits counted by a search before it stops if not configured, 0 counts all hits
+    final static int DEFAULT_MAX_COUNTED_HITS = 0;
+
+    // Concurrent searches allowed on each index and time to wait for one to finish if not configured
+    final static int DEFAULT_BULKHEAD_PERMITS = 32;
+    final static int DEFAULT_BULKHEAD_WAIT_MS = 200;
+    // Threads and queued requests for async searches, and time allowed for each request if not configured
+    final static int DEFAULT_ASYNC_THREADS = 64;
+    final static int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
+    final static int DEFAULT_ASYNC_TIMEOUT_MS = 10000;
+
+    // Seconds a client should wait before retrying a search refused because the index is busy
+    final static String RETRY_AFTER_SECONDS = "1";
+
     final static String TYPE_ALL = "all";
     final static String TYPE_TRACK = "track";
 
@@ -80,12 +130,33 @@ public class SearchServerServlet extends HttpServlet
     // Enabled as long indexes for all resources are available
     private boolean isSearchAllEnabled = true;
 
-    // When doing search over multiple indexes use this executorservice to run in parallel
-    private final ExecutorService es = Executors.newCachedThreadPool();
+    // When doing search over multiple indexes use this executorservice to run in parallel, created by init
+    private ExecutorService searchAllExecutor;
+    private long searchAllTimeoutMs = DEFAULT_SEARCH_ALL_TIMEOUT_MS;
+
+    // Segments of an index with more than one segment are searched in parallel on this executor, null if disabled
+    private ExecutorService segmentSearchExecutor;
+
+    // Searches are run on this executor instead of the container thread when async is enabled, created by init
+    private ExecutorService asyncExecutor;
+    private boolean isAsyncEnabled = false;
+    private long asyncTimeoutMs = DEFAULT_ASYNC_TIMEOUT_MS;
 
     private final EnumMap<ResourceType, SearchServer> searchers = new EnumMap<ResourceType, SearchServer>(ResourceType.class);
     private final EnumMap<ResourceType, SearchServer> dismaxSearchers = new EnumMap<ResourceType, SearchServer>(ResourceType.class);
 
+    // Null if caching of results is disabled
+    private ResultsCache resultsCache;
+
+    // Null if caching of filters is disabled
+    private FilterCache filterCache;
+
+    // Limits the concurrent searches on each index, created by init
+    private final EnumMap<ResourceType, Bulkhead> bulkheads = new EnumMap<ResourceType, Bulkhead>(ResourceType.class);
+
+    // Kept across init so the recent queries of the old indexes warm the new indexes
+    private final EnumMap<ResourceType, SearcherWarmer> searcherWarmers = new EnumMap<ResourceType, SearcherWarmer>(ResourceType.class);
+
     private final String initMessage = null;
     private static String searchWebPage = "";
     private static boolean isRateLimiterEnabled = false;
@@ -121,6 +192,25 @@ public class SearchServerServlet extends HttpServlet
         String rateLimiterEnabled = getServletConfig().getInitParameter("ratelimitserver_enabled");
         initRateLimiter(rateLimiterEnabled);
 
+        initResultsCache(getServletConfig().getInitParameter("resultscache_maxmb"));
+        initFilterCache(getServletConfig().getInitParameter("filtercache_maxmb"));
+
+        if (searchAllExecutor == null)
+        {
+            searchAllExecutor = Executors.newFixedThreadPool(getIntInitParameter("searchall_threads", DEFAULT_SEARCH_ALL_THREADS));
+        }
+        searchAllTimeoutMs = getIntInitParameter("searchall_timeout_ms", DEFAULT_SEARCH_ALL_TIMEOUT_MS);
+
+        int segmentSearchThreads = getIntInitParameter("segment_search_threads", DEFAULT_SEGMENT_SEARCH_THREADS);
+        if (segmentSearchExecutor == null && segmentSearchThreads > 0)
+        {
+            segmentSearchExecutor = Executors.newFixedThreadPool(segmentSearchThreads);
+        }
+
+        initAsync(getServletConfig().getInitParameter("async_enabled"));
+
+        initBulkheads();
+
         String indexDir = getServletConfig().getInitParameter("index_dir");
 
         if (useMMapDirectory)
@@ -141,11 +231,30 @@ public class SearchServerServlet extends HttpServlet
             AbstractSearchServer searchServer = null;
             AbstractDismaxSearchServer dismaxSearchServer = null;
 
+            SearcherWarmer searcherWarmer = searcherWarmers.get(resourceType);
+            boolean isNewSearcherWarmer = searcherWarmer == null;
+            if (isNewSearcherWarmer)
+            {
+                searcherWarmer = new SearcherWarmer(resourceType,
+                        getIntInitParameter("warm_time_ms", DEFAULT_WARM_TIME_MS),
+                        getIntInitParameter("warm_recent_queries", DEFAULT_WARM_RECENT_QUERIES));
+                searcherWarmers.put(resourceType, searcherWarmer);
+            }
+
             try
             {
                 Directory directory = useMMapDirectory ? new MMapDirectory(indexFileDir) : new NIOFSDirectory(indexFileDir);
-                SearcherManager searcherManager = new SearcherManager(directory, new MusicBrainzSearcherFactory(resourceType));
+                SearcherManager searcherManager = new SearcherManager(directory, new MusicBrainzSearcherFactory(resourceType, searcherWarmer, segmentSearchExecutor));
                 searchServer = resourceType.getSearchServerClass().getConstructor(SearcherManager.class).newInstance(searcherManager);
+                searchServer.setResultsCache(resultsCache);
+                searchServer.setFilterCache(filterCache, resourceType.getIndexName());
+                searchServer.setSearcherWarmer(searcherWarmer);
+                initSearchLimits(resourceType, searchServer);
+                if (isNewSearcherWarmer)
+                {
+                    // Queries can only be parsed once there is a search server, so warm its first searcher now
+                    loadWarmingQueries(resourceType, searcherWarmer, searchServer);
+                }
                 dismaxSearchServer = resourceType.getDismaxSearchServerClass().getConstructor(AbstractSearchServer.class).newInstance(searchServer);
 
             }
@@ -198,6 +307,18 @@ public class SearchServerServlet extends HttpServlet
     @Override
     public void destroy()
     {
+        if (searchAllExecutor != null)
+        {
+            searchAllExecutor.shutdownNow();
+        }
+        if (asyncExecutor != null)
+        {
+            asyncExecutor.shutdownNow();
+        }
+        if (segmentSearchExecutor != null)
+        {
+            segmentSearchExecutor.shutdownNow();
+        }
 
         // Close all search servers
         for (SearchServer searchServer : searchers.values())
@@ -233,6 +354,9 @@ public class SearchServerServlet extends HttpServlet
             }
         }
         dismaxSearchers.clear();
+
+        ResultsWriter.clearMarshallers();
+        MMDSerializer.clearMarshallers();
     }
 
     /**
@@ -245,8 +369,163 @@ public class SearchServerServlet extends HttpServlet
         isRateLimiterEnabled = Boolean.parseBoolean(rateLimiterEnabled);
         if (isRateLimiterEnabled)
         {
-            RateLimiterChecker.init(rateLimiterHost, rateLimiterPort);
+            TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(
+                    getIntInitParameter("ratelimiter_client_limit", DEFAULT_RATE_LIMIT_CLIENT),
+                    getIntInitParameter("ratelimiter_global_limit", DEFAULT_RATE_LIMIT_GLOBAL),
+                    getIntInitParameter("ratelimiter_period", DEFAULT_RATE_LIMIT_PERIOD), TimeUnit.SECONDS);
+            RateLimiterChecker.init(rateLimiter, rateLimiterHost, rateLimiterPort);
+        }
+    }
+
+    /**
+     * Load the warming queries for the search server's resource type from the warm_queries_dir if there are any, and
+     * warm its current searcher with them
+     *
+     * @param resourceType
+     * @param searcherWarmer
+     * @param searchServer
+     */
+    private void loadWarmingQueries(ResourceType resourceType, SearcherWarmer searcherWarmer, AbstractSearchServer searchServer)
+    {
+        String warmQueriesDir = getServletConfig().getInitParameter("warm_queries_dir");
+        if (Strings.isNullOrEmpty(warmQueriesDir))
+        {
+            return;
+        }
+
+        File warmQueriesFile = new File(warmQueriesDir, resourceType.getIndexName() + ".txt");
+        if (!warmQueriesFile.exists())
+        {
+            return;
+        }
+
+        try
+        {
+            searcherWarmer.loadQueries(warmQueriesFile, searchServer);
+            IndexSearcher searcher = searchServer.getSearcherManager().acquire();
+            try
+            {
+                searcherWarmer.warm(searcher);
+            }
+            finally
+            {
+                searchServer.getSearcherManager().release(searcher);
+            }
+        }
+        catch (IOException e)
+        {
+            log.log(Level.WARNING, "Could not load warming queries " + warmQueriesFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Init the bulkhead for each index, the number of permits can be set for all indexes with bulkhead_permits or for
+     * a single index with bulkhead_permits_ followed by the index name. Searches in progress release the permits of
+     * the bulkheads they acquired them from.
+     */
+    private void initBulkheads()
+    {
+        int defaultPermits = getIntInitParameter("bulkhead_permits", DEFAULT_BULKHEAD_PERMITS);
+        int waitMs = getIntInitParameter("bulkhead_wait_ms", DEFAULT_BULKHEAD_WAIT_MS);
+        for (ResourceType resourceType : ResourceType.values())
+        {
+            int permits = getIntInitParameter("bulkhead_permits_" + resourceType.getIndexName(), defaultPermits);
+            bulkheads.put(resourceType, new Bulkhead(permits, waitMs));
+        }
+    }
+
+    /**
+     * Init the time allowed for each search and the hits counted before it stops, these can be set for all indexes with
+     * search_time_ms and max_counted_hits or for a single index by following them with _ and the index name.
+     *
+     * @param resourceType
+     * @param searchServer
+     */
+    private void initSearchLimits(ResourceType resourceType, AbstractSearchServer searchServer)
+    {
+        int searchTimeMs = getIntInitParameter("search_time_ms", (int) AbstractSearchServer.DEFAULT_MAX_SEARCH_TIME_MS);
+        int maxCountedHits = getIntInitParameter("max_counted_hits", DEFAULT_MAX_COUNTED_HITS);
+        searchServer.setMaxSearchTimeMs(getIntInitParameter("search_time_ms_" + resourceType.getIndexName(), searchTimeMs));
+        searchServer.setMaxCountedHits(getIntInitParameter("max_counted_hits_" + resourceType.getIndexName(), maxCountedHits));
+    }
+
+    /**
+     * Refuse the search because the index is too busy
+     *
+     * @param response
+     * @param type
+     * @throws IOException
+     */
+    private void sendBusy(HttpServletResponse response, String type) throws IOException
+    {
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorMessage.INDEX_BUSY_FOR_TYPE.getMsg(type));
+    }
+
+    /**
+     * Init async searching, the executor is only created once so requests being searched are not lost by a reinit
+     *
+     * @param asyncEnabled
+     */
+    private void initAsync(String asyncEnabled)
+    {
+        isAsyncEnabled = Boolean.parseBoolean(asyncEnabled);
+        asyncTimeoutMs = getIntInitParameter("async_timeout_ms", DEFAULT_ASYNC_TIMEOUT_MS);
+        if (isAsyncEnabled && asyncExecutor == null)
+        {
+            int threads = getIntInitParameter("async_threads", DEFAULT_ASYNC_THREADS);
+            asyncExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(getIntInitParameter("async_queue_size", DEFAULT_ASYNC_QUEUE_SIZE)));
+        }
+        log.info("Async:" + isAsyncEnabled + ",Timeout:" + asyncTimeoutMs + "ms");
+    }
+
+    private int getIntInitParameter(String name, int defaultValue)
+    {
+        String value = getServletConfig().getInitParameter(name);
+        if (Strings.isNullOrEmpty(value))
+        {
+            return defaultValue;
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * Init the results cache, the indexes are being replaced so any existing cache is discarded
+     *
+     * @param maxMb estimated memory to use for cached results in megabytes, 0 to disable caching
+     */
+    private void initResultsCache(String maxMb)
+    {
+        long maxBytes = DEFAULT_RESULTS_CACHE_MB * 1024 * 1024;
+        if (!Strings.isNullOrEmpty(maxMb))
+        {
+            maxBytes = Long.parseLong(maxMb) * 1024 * 1024;
+        }
+        if (resultsCache != null)
+        {
+            resultsCache.clear();
+        }
+        resultsCache = maxBytes > 0 ? new ResultsCache(maxBytes) : null;
+    }
+
+    /**
+     * Init the filter cache, the indexes are being replaced so any existing cache is discarded
+     *
+     * @param maxMb estimated memory to use for cached filters in megabytes, 0 to disable caching
+     */
+    private void initFilterCache(String maxMb)
+    {
+        long maxBytes = DEFAULT_FILTER_CACHE_MB * 1024 * 1024;
+        if (!Strings.isNullOrEmpty(maxMb))
+        {
+            maxBytes = Long.parseLong(maxMb) * 1024 * 1024;
+        }
+        if (filterCache != null)
+        {
+            filterCache.clear();
         }
+        filterCache = maxBytes > 0 ? new FilterCache(maxBytes) : null;
     }
 
     /**
@@ -368,6 +647,59 @@ public class SearchServerServlet extends HttpServlet
             }
         }
 
+        // Show results cache statistics
+        String cacheStats = request.getParameter(RequestParameter.CACHE_STATS.getName());
+        if (cacheStats != null)
+        {
+            if (isRequestFromLocalHost(request))
+            {
+                outputConfirmation( response, "Results Cache:" + (resultsCache != null ? resultsCache.toString() : "disabled"));
+                return true ;
+            }
+            else
+            {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return true ;
+            }
+        }
+
+        // Show filter cache statistics
+        String filterCacheStats = request.getParameter(RequestParameter.FILTER_CACHE_STATS.getName());
+        if (filterCacheStats != null)
+        {
+            if (isRequestFromLocalHost(request))
+            {
+                outputConfirmation( response, "Filter Cache:" + (filterCache != null ? filterCache.toString() : "disabled"));
+                return true ;
+            }
+            else
+            {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return true ;
+            }
+        }
+
+        // Show searches in progress and refused on each index
+        String bulkheadStats = request.getParameter(RequestParameter.BULKHEAD_STATS.getName());
+        if (bulkheadStats != null)
+        {
+            if (isRequestFromLocalHost(request))
+            {
+                StringBuilder sb = new StringBuilder("Bulkheads:");
+                for (Map.Entry<ResourceType, Bulkhead> next : bulkheads.entrySet())
+                {
+                    sb.append('\n').append(next.getKey().getName()).append(':').append(next.getValue());
+                }
+                outputConfirmation( response, sb.toString());
+                return true ;
+            }
+            else
+            {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return true ;
+            }
+        }
+
         // Force GC
         String gc = request.getParameter(RequestParameter.GC.getName());
         if (gc != null)
@@ -389,6 +721,25 @@ public class SearchServerServlet extends HttpServlet
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException
+    {
+        // Only searches are run async, admin commands such as init may take longer than the timeout
+        if (isAsyncEnabled && request.isAsyncSupported() && request.getParameter(RequestParameter.QUERY.getName()) != null)
+        {
+            AsyncSearchRequest.start(this, request, response, asyncExecutor, asyncTimeoutMs);
+            return;
+        }
+        processRequest(request, response);
+    }
+
+    /**
+     * Process the request and write the response, on the container thread or on the async executor
+     *
+     * @param request
+     * @param response
+     * @throws ServletException
+     * @throws IOException
+     */
+    void processRequest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException
     {
         String query = "";
         try
@@ -541,6 +892,19 @@ public class SearchServerServlet extends HttpServlet
                 }
             }
 
+            // Cursor returned with the previous page, takes the place of offset
+            SearchCursor cursor = null;
+            String strCursor = request.getParameter(RequestParameter.CURSOR.getName());
+            if (!Strings.isNullOrEmpty(strCursor))
+            {
+                if (resourceType == null)
+                {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, ErrorMessage.CURSOR_NOT_SUPPORTED_FOR_TYPE.getMsg(TYPE_ALL));
+                    return;
+                }
+                cursor = SearchCursor.valueOf(strCursor);
+            }
+
             boolean isExplain = false;
             String strIsExplain = request.getParameter(RequestParameter.EXPLAIN.getName());
             if (strIsExplain != null && strIsExplain.equals("true"))
@@ -566,7 +930,7 @@ public class SearchServerServlet extends HttpServlet
             {
                 if (resourceType != null)
                 {
-                    doSearch(response, resourceType, query, isDismax, isExplain, isPretty, offset, limit, responseFormat, responseVersion);
+                    doSearch(response, resourceType, query, isDismax, isExplain, isPretty, offset, cursor, limit, responseFormat, responseVersion);
                 }
                 else
                 {
@@ -580,6 +944,11 @@ public class SearchServerServlet extends HttpServlet
                 return;
             }
         }
+        catch (SearchCursor.InvalidCursorException ice)
+        {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ice.getMessage());
+            return;
+        }
         catch (ParseException pe)
         {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST, ErrorMessage.UNABLE_TO_PARSE_SEARCH.getMsg(query));
@@ -641,12 +1010,13 @@ public class SearchServerServlet extends HttpServlet
      * @param isDismax
      * @param isPretty
      * @param offset
+     * @param cursor if not null return the results after the cursor rather than from offset
      * @param limit
      * @param responseFormat
      * @param responseVersion @throws ParseException
      * @throws IOException
      */
-    public void doSearch(HttpServletResponse response, ResourceType resourceType, String query, boolean isDismax, boolean isExplain, boolean isPretty, Integer offset, Integer limit, String responseFormat, String responseVersion) throws ParseException, IOException
+    public void doSearch(HttpServletResponse response, ResourceType resourceType, String query, boolean isDismax, boolean isExplain, boolean isPretty, Integer offset, SearchCursor cursor, Integer limit, String responseFormat, String responseVersion) throws ParseException, IOException
     {
 
         SearchServer searchServer;
@@ -685,9 +1055,6 @@ public class SearchServerServlet extends HttpServlet
             */
         }
 
-        long startLucene = System.currentTimeMillis();
-        Results results = searchServer.search(query, offset, limit);
-
         org.musicbrainz.search.servlet.ResultsWriter writer = searchServer.getWriter(responseVersion);
 
         if (writer == null)
@@ -695,6 +1062,32 @@ public class SearchServerServlet extends HttpServlet
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ErrorMessage.NO_HANDLER_FOR_TYPE_AND_FORMAT.getMsg(resourceType, responseFormat));
             return;
         }
+
+        Bulkhead bulkhead = bulkheads.get(resourceType);
+        if (!bulkhead.tryAcquire())
+        {
+            sendBusy(response, resourceType.getName());
+            return;
+        }
+
+        long startLucene = System.currentTimeMillis();
+        Results results;
+        try
+        {
+            // Only load the stored fields the writer reads
+            if (cursor != null)
+            {
+                results = searchServer.searchAfter(query, cursor, limit, writer.getStoredFields());
+            }
+            else
+            {
+                results = searchServer.search(query, offset, limit, writer.getStoredFields());
+            }
+        }
+        finally
+        {
+            bulkhead.release();
+        }
         response.setCharacterEncoding(CHARSET);
         if (responseFormat.equals(RESPONSE_XML))
         {
@@ -710,6 +1103,12 @@ public class SearchServerServlet extends HttpServlet
             response.setDateHeader("Last-Modified", writer.getLastUpdateDate().getTime());
         }
 
+        if (results.getCursor() != null)
+        {
+            response.setHeader(HEADER_CURSOR, results.getCursor().toString());
+        }
+        setLimitHeaders(response, results.isPartial(), results.isTotalHitsLowerBound());
+
         PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), CHARSET)));
         try
         {
@@ -726,6 +1125,34 @@ public class SearchServerServlet extends HttpServlet
         }
     }
 
+    /**
+     * Mark the response if the search was stopped early
+     *
+     * @param response
+     * @param isPartial
+     * @param isTotalHitsLowerBound
+     */
+    private void setLimitHeaders(HttpServletResponse response, boolean isPartial, boolean isTotalHitsLowerBound)
+    {
+        if (isPartial)
+        {
+            response.setHeader(HEADER_PARTIAL, "true");
+        }
+        if (isTotalHitsLowerBound)
+        {
+            response.setHeader(HEADER_COUNT_LOWER_BOUND, "true");
+        }
+    }
+
+    /**
+     * @param searchServer
+     * @return stored fields needed to write the results of the search server within the results of type all
+     */
+    private Set<String> getStoredFields(SearchServer searchServer)
+    {
+        return searchServer.getWriter(WS_VERSION_2).getStoredFields();
+    }
+
     /**
      * Search over multiple different indexes and return merged result
      *
@@ -747,24 +1174,62 @@ public class SearchServerServlet extends HttpServlet
         SearchServer recordingSearch = isDismax ? dismaxSearchers.get(ResourceType.RECORDING) : searchers.get(ResourceType.RECORDING);
         SearchServer workSearch = isDismax ? dismaxSearchers.get(ResourceType.WORK) : searchers.get(ResourceType.WORK);
 
+        // Each search finds the top offset + limit results, which are merged and the first offset discarded
+        int topN = offset + limit;
         Collection<Callable<Results>> searches = new ArrayList<Callable<Results>>();
-        searches.add(new CallableSearch(artistSearch, query, offset, limit));
-        searches.add(new CallableSearch(releaseSearch, query, offset, limit));
-        searches.add(new CallableSearch(releaseGroupSearch, query, offset, limit));
-        searches.add(new CallableSearch(labelSearch, query, offset, limit));
-        searches.add(new CallableSearch(recordingSearch, query, offset, limit));
-        searches.add(new CallableSearch(workSearch, query, offset, limit));
-
-        // Run each search in parallel then merge results
-        List<Future<Results>> results = es.invokeAll(searches);
+        searches.add(new CallableSearch(artistSearch, bulkheads.get(ResourceType.ARTIST), query, 0, topN, getStoredFields(artistSearch)));
+        searches.add(new CallableSearch(releaseSearch, bulkheads.get(ResourceType.RELEASE), query, 0, topN, getStoredFields(releaseSearch)));
+        searches.add(new CallableSearch(releaseGroupSearch, bulkheads.get(ResourceType.RELEASE_GROUP), query, 0, topN, getStoredFields(releaseGroupSearch)));
+        searches.add(new CallableSearch(labelSearch, bulkheads.get(ResourceType.LABEL), query, 0, topN, getStoredFields(labelSearch)));
+        searches.add(new CallableSearch(recordingSearch, bulkheads.get(ResourceType.RECORDING), query, 0, topN, getStoredFields(recordingSearch)));
+        searches.add(new CallableSearch(workSearch, bulkheads.get(ResourceType.WORK), query, 0, topN, getStoredFields(workSearch)));
+
+        // Run each search in parallel then merge results, searches not finished by the deadline are cancelled
+        List<Future<Results>> results = searchAllExecutor.invokeAll(searches, searchAllTimeoutMs, TimeUnit.MILLISECONDS);
         Results allResults = new Results();
+        List<Results> resultsList = new ArrayList<Results>();
+        for (Future<Results> next : results)
+        {
+            try
+            {
+                resultsList.add(next.get());
+            }
+            catch (CancellationException ce)
+            {
+                log.info("Query timeout: " + query);
+                response.sendError(HttpServletResponse.SC_REQUEST_TIMEOUT, ErrorMessage.REQUEST_TIMEOUT_EXCEEDED.getMsg());
+                return;
+            }
+            catch (ExecutionException ee)
+            {
+                if (ee.getCause() instanceof TimeExceededException)
+                {
+                    throw (TimeExceededException) ee.getCause();
+                }
+                if (ee.getCause() instanceof Bulkhead.BulkheadFullException)
+                {
+                    sendBusy(response, TYPE_ALL);
+                    return;
+                }
+                throw ee;
+            }
+        }
+        boolean isPartial = false;
+        boolean isTotalHitsLowerBound = false;
+        for (Results next : resultsList)
+        {
+            isPartial |= next.isPartial();
+            isTotalHitsLowerBound |= next.isTotalHitsLowerBound();
+        }
+        setLimitHeaders(response, isPartial, isTotalHitsLowerBound);
+
         // Results are returned in same order as they were submitted
-        Results artistResults = results.get(0).get();
-        Results releaseResults = results.get(1).get();
-        Results releaseGroupResults = results.get(2).get();
-        Results labelResults = results.get(3).get();
-        Results recordingResults = results.get(4).get();
-        Results workResults = results.get(5).get();
+        Results artistResults = resultsList.get(0);
+        Results releaseResults = resultsList.get(1);
+        Results releaseGroupResults = resultsList.get(2);
+        Results labelResults = resultsList.get(3);
+        Results recordingResults = resultsList.get(4);
+        Results workResults = resultsList.get(5);
 
         AllWriter writer = new AllWriter(offset, limit, artistResults, releaseResults, releaseGroupResults, labelResults, recordingResults, workResults);
         response.setCharacterEncoding(CHARSET);
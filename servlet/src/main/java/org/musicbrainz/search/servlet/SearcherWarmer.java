@@ -0,0 +1,155 @@
+package org.musicbrainz.search.servlet;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Warms a new searcher before it is used for searches by running representative queries against it, so that the
+ * first real searches after an index is loaded or reloaded do not pay for loading the index from disk.
+ *
+ * The queries are those read from the warming file for the resource type followed by the most recent queries searched,
+ * they are run until they are all done or the time allowed has passed.
+ */
+public class SearcherWarmer {
+
+    private static final Logger log = Logger.getLogger(SearcherWarmer.class.getName());
+
+    // Number of top documents to load for each query, so their stored fields are read
+    private static final int WARM_DOCS = 10;
+
+    private final ResourceType resourceType;
+    private final long maxWarmMillis;
+    private final int maxRecentQueries;
+
+    private final List<Query> fileQueries = new CopyOnWriteArrayList<Query>();
+    private final LinkedHashSet<Query> recentQueries = new LinkedHashSet<Query>();
+
+    /**
+     * @param resourceType
+     * @param maxWarmMillis time allowed for warming a searcher
+     * @param maxRecentQueries number of most recent queries kept for warming
+     */
+    public SearcherWarmer(ResourceType resourceType, long maxWarmMillis, int maxRecentQueries) {
+        this.resourceType = resourceType;
+        this.maxWarmMillis = maxWarmMillis;
+        this.maxRecentQueries = maxRecentQueries;
+    }
+
+    /**
+     * Load queries from a file with one query per line, lines that cannot be parsed are logged and skipped
+     *
+     * @param file
+     * @param searchServer used to parse the queries
+     * @throws IOException
+     */
+    public void loadQueries(File file, AbstractSearchServer searchServer) throws IOException {
+        List<Query> queries = new ArrayList<Query>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    queries.add(searchServer.parseQuery(line));
+                }
+                catch (ParseException pe) {
+                    log.warning("Unable to parse warming query for " + resourceType.getIndexName() + ":" + line);
+                }
+            }
+        }
+        finally {
+            in.close();
+        }
+        fileQueries.clear();
+        fileQueries.addAll(queries);
+    }
+
+    /**
+     * Remember a query searched so it can be used to warm the next searcher
+     *
+     * @param query
+     */
+    public void recordQuery(Query query) {
+        if (maxRecentQueries <= 0) {
+            return;
+        }
+        synchronized (recentQueries) {
+            // Move to the end as the most recent
+            recentQueries.remove(query);
+            recentQueries.add(query);
+            if (recentQueries.size() > maxRecentQueries) {
+                Iterator<Query> i = recentQueries.iterator();
+                i.next();
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the queries to warm with, file queries first then the most recent queries
+     */
+    List<Query> getQueries() {
+        List<Query> queries = new ArrayList<Query>(fileQueries);
+        List<Query> recent;
+        synchronized (recentQueries) {
+            recent = new ArrayList<Query>(recentQueries);
+        }
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            queries.add(recent.get(i));
+        }
+        return queries;
+    }
+
+    /**
+     * Run the warming queries against the searcher
+     *
+     * @param searcher
+     * @return number of queries run
+     */
+    public int warm(IndexSearcher searcher) {
+        List<Query> queries = getQueries();
+        if (queries.isEmpty() || maxWarmMillis <= 0) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int count = 0;
+        for (Query query : queries) {
+            if (System.currentTimeMillis() - start >= maxWarmMillis) {
+                break;
+            }
+            try {
+                TopDocs topDocs = searcher.search(query, WARM_DOCS);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    searcher.doc(scoreDoc.doc);
+                }
+                count++;
+            }
+            catch (Exception e) {
+                log.log(Level.WARNING, "Warming query failed for " + resourceType.getIndexName() + ":" + query, e);
+            }
+        }
+        log.info("Warmed:" + resourceType.getIndexName() + ",Queries:" + count + "/" + queries.size()
+                + ",Time:" + (System.currentTimeMillis() - start) + "ms");
+        return count;
+    }
+}
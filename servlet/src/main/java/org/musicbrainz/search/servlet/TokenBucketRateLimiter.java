@@ -0,0 +1,212 @@
+package org.musicbrainz.search.servlet;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In process rate limiter, a token bucket for each client and a global bucket shared by all clients
+ *
+ * Each bucket holds up to limit tokens and is refilled at limit tokens per period, a request takes one token from the
+ * client bucket and one from the global bucket and is refused if either is empty. The global bucket is split into
+ * stripes so that requests from different clients do not all contend on one lock, a request starts with the stripe
+ * chosen by its client and moves on to the other stripes when that one is empty, so any client can use the whole
+ * global limit. No I/O is done so checking never blocks a request.
+ */
+public class TokenBucketRateLimiter {
+
+    /**
+     * Source of time, so tests can control it
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    // Check for idle client buckets to remove every this many requests
+    private static final int CLEANUP_INTERVAL = 4096;
+
+    static class Bucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(double capacity, long periodNanos, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = capacity / periodNanos;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void release() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        /**
+         * @return number of requests made within the last period, including this one
+         */
+        synchronized int getUsed() {
+            return (int) Math.ceil(capacity - tokens) + 1;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+    }
+
+    private final int clientLimit;
+    private final int globalLimit;
+    private final long periodNanos;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Bucket> clientBuckets = new ConcurrentHashMap<String, Bucket>();
+    private final Bucket[] globalBuckets;
+    private final AtomicInteger checks = new AtomicInteger();
+
+    /**
+     * @param clientLimit requests allowed per period for each client
+     * @param globalLimit requests allowed per period for all clients together, 0 for no global limit
+     * @param period
+     * @param unit
+     */
+    public TokenBucketRateLimiter(int clientLimit, int globalLimit, long period, TimeUnit unit) {
+        this(clientLimit, globalLimit, period, unit, Runtime.getRuntime().availableProcessors(), SYSTEM_CLOCK);
+    }
+
+    /**
+     * @param clientLimit requests allowed per period for each client
+     * @param globalLimit requests allowed per period for all clients together, 0 for no global limit
+     * @param period
+     * @param unit
+     * @param stripes number of parts the global bucket is split into to spread contention
+     * @param clock
+     */
+    public TokenBucketRateLimiter(int clientLimit, int globalLimit, long period, TimeUnit unit, int stripes, Clock clock) {
+        this.clientLimit = clientLimit;
+        this.globalLimit = globalLimit;
+        this.periodNanos = unit.toNanos(period);
+        this.clock = clock;
+
+        if (globalLimit > 0) {
+            // Each stripe needs at least one token, and holds whole tokens so that a burst is allowed the whole
+            // global limit, the tokens left over from an even split go to the first stripes
+            stripes = Math.max(1, Math.min(stripes, globalLimit));
+            globalBuckets = new Bucket[stripes];
+            long now = clock.nanoTime();
+            for (int i = 0; i < stripes; i++) {
+                int capacity = globalLimit / stripes + (i < globalLimit % stripes ? 1 : 0);
+                globalBuckets[i] = new Bucket(capacity, periodNanos, now);
+            }
+        }
+        else {
+            globalBuckets = null;
+        }
+    }
+
+    public int getClientLimit() {
+        return clientLimit;
+    }
+
+    public int getGlobalLimit() {
+        return globalLimit;
+    }
+
+    public long getPeriodSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(periodNanos);
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Take a token for the client
+     *
+     * @param client
+     * @return response, not valid if the client or global limit has been exceeded
+     */
+    public RateLimiterChecker.RateLimiterResponse check(String client) {
+        long now = clock.nanoTime();
+        if (checks.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            removeIdleClients(now);
+        }
+
+        Bucket bucket = clientBuckets.get(client);
+        if (bucket == null) {
+            Bucket newBucket = new Bucket(clientLimit, periodNanos, now);
+            bucket = clientBuckets.putIfAbsent(client, newBucket);
+            if (bucket == null) {
+                bucket = newBucket;
+            }
+        }
+        if (!bucket.tryAcquire(now)) {
+            return new RateLimiterChecker.RateLimiterResponse(bucket.getUsed(), clientLimit, getPeriodSeconds());
+        }
+
+        if (globalBuckets != null && !tryAcquireGlobal(client, now)) {
+            // Not the client's fault so don't charge them for it
+            bucket.release();
+            return RateLimiterChecker.SERVER_BUSY;
+        }
+        return RateLimiterChecker.ALWAYS_TRUE;
+    }
+
+    /**
+     * Take a global token from the client's stripe, or from any other stripe if that one is empty
+     *
+     * @param client
+     * @param now
+     * @return false if all stripes are empty
+     */
+    private boolean tryAcquireGlobal(String client, long now) {
+        int first = (client.hashCode() & 0x7fffffff) % globalBuckets.length;
+        for (int i = 0; i < globalBuckets.length; i++) {
+            if (globalBuckets[(first + i) % globalBuckets.length].tryAcquire(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A client whose bucket has refilled is the same as a new client, so can be removed
+     *
+     * @param now
+     */
+    private void removeIdleClients(long now) {
+        Iterator<Bucket> i = clientBuckets.values().iterator();
+        while (i.hasNext()) {
+            if (i.next().isFull(now)) {
+                i.remove();
+            }
+        }
+    }
+
+    int getClientCount() {
+        return clientBuckets.size();
+    }
+}
@@ -2,6 +2,10 @@ package org.musicbrainz.search.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -16,6 +20,14 @@ import org.musicbrainz.search.servlet.mmd2.WorkWriter;
 
 public class WorkSearch extends AbstractSearchServer {
 
+  private static final Set<String> FILTER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      WorkIndexField.TYPE.getName(),
+      WorkIndexField.LYRICS_LANG.getName())));
+
+  private static final Set<String> IDENTIFIER_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+      WorkIndexField.WORK_ID.getName(),
+      WorkIndexField.ISWC.getName())));
+
   protected void setupDefaultFields() {
     defaultFields = new ArrayList<String>();
     defaultFields.add(WorkIndexField.WORK.getName());
@@ -40,6 +52,16 @@ public class WorkSearch extends AbstractSearchServer {
     return new WorkQueryParser(defaultFields.toArray(new String[0]), analyzer);
   }
 
+  @Override
+  protected Set<String> getFilterFields() {
+    return FILTER_FIELDS;
+  }
+
+  @Override
+  protected Set<String> getIdentifierFields() {
+    return IDENTIFIER_FIELDS;
+  }
+
   @Override
   protected  String printExplainHeader(Document doc)
       throws IOException, ParseException {
@@ -56,9 +78,9 @@ public class WorkSearch extends AbstractSearchServer {
      * @return
      * @throws IOException
      */
-    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset) throws IOException
+    protected Results processResults(IndexSearcher searcher, TopDocs topDocs, int offset, Set<String> fieldsToLoad) throws IOException
     {
-        Results results = super.processResults(searcher, topDocs, offset);
+        Results results = super.processResults(searcher, topDocs, offset, fieldsToLoad);
         results.setResourceType(ResourceType.WORK);
         return results;
     }
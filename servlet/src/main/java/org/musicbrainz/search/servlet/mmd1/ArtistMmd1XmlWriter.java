@@ -60,7 +60,7 @@ public class ArtistMmd1XmlWriter extends Mmd1XmlWriter {
             artist.getOtherAttributes().put(getScore(), String.valueOf(result.getNormalizedScore()));
 
             org.musicbrainz.mmd2.Artist artistv2
-                    = (org.musicbrainz.mmd2.Artist) MMDSerializer.unserialize(doc.get(ArtistIndexField.ARTIST_STORE), org.musicbrainz.mmd2.Artist.class);
+                    = (org.musicbrainz.mmd2.Artist) MMDSerializer.unserialize(doc, ArtistIndexField.ARTIST_STORE, org.musicbrainz.mmd2.Artist.class);
             artist.setId(artistv2.getId());
             artist.setType(StringUtils.capitalize(artistv2.getType()));
             artist.setName(artistv2.getName());
@@ -56,7 +56,7 @@ public class LabelMmd1XmlWriter extends Mmd1XmlWriter {
             label.getOtherAttributes().put(getScore(), String.valueOf(result.getNormalizedScore()));
 
             org.musicbrainz.mmd2.Label labelv2
-                    = (org.musicbrainz.mmd2.Label) MMDSerializer.unserialize(doc.get(LabelIndexField.LABEL_STORE), org.musicbrainz.mmd2.Label.class);
+                    = (org.musicbrainz.mmd2.Label) MMDSerializer.unserialize(doc, LabelIndexField.LABEL_STORE, org.musicbrainz.mmd2.Label.class);
             label.setId(labelv2.getId());
             label.setType(StringUtils.capitalize(labelv2.getType()));
             label.setName(labelv2.getName());
@@ -71,8 +71,8 @@ public class ReleaseGroupMmd1XmlWriter extends Mmd1XmlWriter {
 
             //Just add the first Artist (if there are more than one, this means that once releases get added with multiple
             //name credits using this old interface isnt going to give very good results
-            if(doc.get(ReleaseGroupIndexField.ARTIST_CREDIT)!=null) {
-                ArtistCredit ac = ArtistCreditHelper.unserialize(doc.get(ReleaseGroupIndexField.ARTIST_CREDIT));
+            ArtistCredit ac = ArtistCreditHelper.unserialize(doc, ReleaseGroupIndexField.ARTIST_CREDIT);
+            if(ac!=null) {
                 if (ac.getNameCredit().size()>0) {
                     Artist artist = of.createArtist();
                     artist.setName(ac.getNameCredit().get(0).getArtist().getName());
@@ -3,6 +3,7 @@ package org.musicbrainz.search.servlet.mmd2;
 import org.musicbrainz.mmd2.EntityList;
 import org.musicbrainz.mmd2.Metadata;
 import org.musicbrainz.mmd2.ObjectFactory;
+import org.musicbrainz.search.servlet.ResourceType;
 import org.musicbrainz.search.servlet.Result;
 import org.musicbrainz.search.servlet.Results;
 
@@ -10,7 +11,9 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Take the output from multiple results sets and merged into single output
@@ -52,9 +55,7 @@ public class AllWriter extends ResultsWriter {
 
     public Metadata write(Results results) throws IOException {
 
-        List<Result> allResults = new ArrayList<Result>();
-
-        //Sort by best max score, then set this as the max score for each entity
+        //Sort by best max score, then use this to normalize the scores of each entity
         List<Results> resultsList = new ArrayList<Results>();
         resultsList.add(artistResults);
         resultsList.add(releaseResults);
@@ -67,20 +68,8 @@ public class AllWriter extends ResultsWriter {
         Collections.sort(resultsList);
         Collections.reverse(resultsList);
         float bestMaxScore= resultsList.get(0).getMaxScore();
-        for(Results next:resultsList)
-        {
-            next.setMaxScore(bestMaxScore);
-            //Calculate Normalized Scores and set resourcetype
-            for(Result nextResult:next.results)
-            {
-                nextResult.setNormalizedScore(bestMaxScore);
-                nextResult.setResourceType(next.getResourceType());
-            }
-            allResults.addAll(next.results);
-        }
-        //Now sort merged results
-        Collections.sort(allResults);
-        Collections.reverse(allResults);
+
+        List<Result> allResults = merge(resultsList, bestMaxScore, offset, limit);
 
         //Create entitylist stuff
         ObjectFactory of  = new ObjectFactory();
@@ -95,11 +84,6 @@ public class AllWriter extends ResultsWriter {
         RecordingWriter recordingWriter = new RecordingWriter();
         WorkWriter workWriter = new WorkWriter();
 
-        //Limit results returned to the limit
-        if(allResults.size()>limit)
-        {
-            allResults = allResults.subList(0,limit);
-        }
         //Now use the correct writer to write the result
         for(Result result:allResults)
         {
@@ -134,7 +118,6 @@ public class AllWriter extends ResultsWriter {
 
         //Then write total matches
         int totalHits=0;
-        int offset= resultsList.get(0).getOffset();
         for(Results next:resultsList)
         {
             totalHits+= next.getTotalHits();
@@ -144,4 +127,81 @@ public class AllWriter extends ResultsWriter {
 
         return metadata;
     }
+
+    /**
+     * Head of the remaining results of one entity, ordered by normalized score
+     */
+    private static class MergeHead implements Comparable<MergeHead>
+    {
+        private final Iterator<Result> iterator;
+        private final ResourceType resourceType;
+        private final float maxScore;
+        private Result result;
+
+        private MergeHead(Results results, float maxScore)
+        {
+            this.iterator = results.results.iterator();
+            this.resourceType = results.getResourceType();
+            this.maxScore = maxScore;
+        }
+
+        /**
+         * @return false if there are no more results
+         */
+        private boolean next()
+        {
+            if (!iterator.hasNext())
+            {
+                return false;
+            }
+            result = iterator.next();
+            result.setNormalizedScore(maxScore);
+            result.setResourceType(resourceType);
+            return true;
+        }
+
+        public int compareTo(MergeHead o)
+        {
+            return result.compareTo(o.result);
+        }
+    }
+
+    /**
+     * Merge the results of each entity, each already in score order, by normalized score stopping once past offset
+     * plus limit results
+     *
+     * @param resultsList
+     * @param bestMaxScore
+     * @param offset
+     * @param limit
+     * @return up to limit results starting from offset
+     */
+    static List<Result> merge(List<Results> resultsList, float bestMaxScore, int offset, int limit)
+    {
+        PriorityQueue<MergeHead> heads = new PriorityQueue<MergeHead>(resultsList.size(), Collections.reverseOrder());
+        for(Results next:resultsList)
+        {
+            MergeHead head = new MergeHead(next, bestMaxScore);
+            if (head.next())
+            {
+                heads.add(head);
+            }
+        }
+
+        List<Result> merged = new ArrayList<Result>(limit);
+        int count = 0;
+        while (!heads.isEmpty() && merged.size() < limit)
+        {
+            MergeHead head = heads.poll();
+            if (count++ >= offset)
+            {
+                merged.add(head.result);
+            }
+            if (head.next())
+            {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
 }
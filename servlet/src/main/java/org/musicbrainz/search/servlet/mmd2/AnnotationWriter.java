@@ -40,10 +40,22 @@ import org.musicbrainz.search.servlet.Results;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Set;
 
 
 public class AnnotationWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(
+            AnnotationIndexField.NAME,
+            AnnotationIndexField.TEXT,
+            AnnotationIndexField.TYPE,
+            AnnotationIndexField.ENTITY);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
     /**
      *
      * @param metadata
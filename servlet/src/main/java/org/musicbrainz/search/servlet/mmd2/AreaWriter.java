@@ -36,13 +36,38 @@ import org.musicbrainz.search.index.AreaIndexField;
 import org.musicbrainz.search.servlet.Result;
 import org.musicbrainz.search.servlet.Results;
 
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class AreaWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(AreaIndexField.AREA_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "area-list";
+    }
+
+    /**
+     * DefAreaElementInner is not an @XmlRootElement so needs wrapping to be marshalled on its own
+     *
+     * @param item
+     * @return
+     */
+    @Override
+    protected Object toXmlElement(Object item) {
+        return new JAXBElement<DefAreaElementInner>(new QName(MMD_NAMESPACE, "area"), DefAreaElementInner.class, (DefAreaElementInner) item);
+    }
 
     /**
      * @param metadata
@@ -82,7 +107,7 @@ public class AreaWriter extends ResultsWriter {
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
         //TODO DefAreaElementInner not defined as @Xmlrootelement so we have to wrap in list
-        AreaList areaList = (AreaList) MMDSerializer.unserialize(doc.get(AreaIndexField.AREA_STORE), AreaList.class);
+        AreaList areaList = (AreaList) MMDSerializer.unserialize(doc, AreaIndexField.AREA_STORE, AreaList.class);
         DefAreaElementInner area= areaList.getArea().get(0);
         area.setScore(result.getNormalizedScore());
         list.add(area);
@@ -41,10 +41,23 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 
 public class ArtistWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(ArtistIndexField.ARTIST_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "artist-list";
+    }
+
     /**
      * @param metadata
      * @param results
@@ -83,7 +96,7 @@ public class ArtistWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Artist artist = (Artist) MMDSerializer.unserialize(doc.get(ArtistIndexField.ARTIST_STORE), Artist.class);
+        Artist artist = (Artist) MMDSerializer.unserialize(doc, ArtistIndexField.ARTIST_STORE, Artist.class);
         artist.setScore(result.getNormalizedScore());
         list.add(artist);
     }
@@ -40,10 +40,24 @@ import org.musicbrainz.search.servlet.Results;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Set;
 
 
 public class CDStubWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(
+            CDStubIndexField.ARTIST,
+            CDStubIndexField.TITLE,
+            CDStubIndexField.DISCID,
+            CDStubIndexField.COMMENT,
+            CDStubIndexField.BARCODE,
+            CDStubIndexField.NUM_TRACKS);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
     /**
      *
      * @param metadata
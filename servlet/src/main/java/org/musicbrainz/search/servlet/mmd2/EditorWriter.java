@@ -39,10 +39,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class EditorWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(EditorIndexField.EDITOR_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "editor-list";
+    }
 
     /**
      * @param metadata
@@ -81,7 +93,7 @@ public class EditorWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Editor editor = (Editor) MMDSerializer.unserialize(doc.get(EditorIndexField.EDITOR_STORE), Editor.class);
+        Editor editor = (Editor) MMDSerializer.unserialize(doc, EditorIndexField.EDITOR_STORE, Editor.class);
         editor.setScore(result.getNormalizedScore());
         list.add(editor);
     }
@@ -39,10 +39,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class EventWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(EventIndexField.EVENT_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "event-list";
+    }
 
     /**
      * @param metadata
@@ -81,7 +93,7 @@ public class EventWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Event event = (Event) MMDSerializer.unserialize(doc.get(EventIndexField.EVENT_STORE), Event.class);
+        Event event = (Event) MMDSerializer.unserialize(doc, EventIndexField.EVENT_STORE, Event.class);
         event.setScore(result.getNormalizedScore());
         list.add(event);
     }
@@ -37,10 +37,24 @@ import org.musicbrainz.search.servlet.Results;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Set;
 
 
 public class FreeDBWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(
+            FreeDBIndexField.ARTIST,
+            FreeDBIndexField.TITLE,
+            FreeDBIndexField.DISCID,
+            FreeDBIndexField.CATEGORY,
+            FreeDBIndexField.YEAR,
+            FreeDBIndexField.TRACKS);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
     /**
      *
      * @param metadata
@@ -39,10 +39,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class InstrumentWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(InstrumentIndexField.INSTRUMENT_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "instrument-list";
+    }
 
     /**
      * @param metadata
@@ -81,7 +93,7 @@ public class InstrumentWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Instrument instrument = (Instrument) MMDSerializer.unserialize(doc.get(InstrumentIndexField.INSTRUMENT_STORE), Instrument.class);
+        Instrument instrument = (Instrument) MMDSerializer.unserialize(doc, InstrumentIndexField.INSTRUMENT_STORE, Instrument.class);
         instrument.setScore(result.getNormalizedScore());
         list.add(instrument);
     }
@@ -39,12 +39,24 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Write Label Output
  */
 public class LabelWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(LabelIndexField.LABEL_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "label-list";
+    }
 
     /**
      * Write Search results
@@ -87,7 +99,7 @@ public class LabelWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Label label = (Label) MMDSerializer.unserialize(doc.get(LabelIndexField.LABEL_STORE), Label.class);
+        Label label = (Label) MMDSerializer.unserialize(doc, LabelIndexField.LABEL_STORE, Label.class);
         label.setScore(result.getNormalizedScore());
         list.add(label);
     }
@@ -39,10 +39,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class PlaceWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(PlaceIndexField.PLACE_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "place-list";
+    }
 
     /**
      * @param metadata
@@ -81,7 +93,7 @@ public class PlaceWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Place place = (Place) MMDSerializer.unserialize(doc.get(PlaceIndexField.PLACE_STORE), Place.class);
+        Place place = (Place) MMDSerializer.unserialize(doc, PlaceIndexField.PLACE_STORE, Place.class);
         place.setScore(result.getNormalizedScore());
         list.add(place);
     }
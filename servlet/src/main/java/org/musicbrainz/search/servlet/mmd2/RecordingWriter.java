@@ -41,9 +41,21 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 public class RecordingWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(RecordingIndexField.RECORDING_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "recording-list";
+    }
 
     /**
      *
@@ -90,7 +102,7 @@ public class RecordingWriter extends ResultsWriter {
     public void write(List list, Result result) throws IOException
     {
         MbDocument doc = result.getDoc();
-        Recording recording = (Recording) MMDSerializer.unserialize(doc.get(RecordingIndexField.RECORDING_STORE), Recording.class);
+        Recording recording = (Recording) MMDSerializer.unserialize(doc, RecordingIndexField.RECORDING_STORE, Recording.class);
         recording.setScore(result.getNormalizedScore());
         list.add(recording);
     }
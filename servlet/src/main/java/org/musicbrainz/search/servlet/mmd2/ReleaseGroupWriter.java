@@ -38,9 +38,33 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 public class ReleaseGroupWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(
+            ReleaseGroupIndexField.RELEASEGROUP_ID,
+            ReleaseGroupIndexField.RELEASEGROUP,
+            ReleaseGroupIndexField.COMMENT,
+            ReleaseGroupIndexField.TYPE,
+            ReleaseGroupIndexField.PRIMARY_TYPE,
+            ReleaseGroupIndexField.SECONDARY_TYPE,
+            ReleaseGroupIndexField.ARTIST_CREDIT,
+            ReleaseGroupIndexField.RELEASE_ID,
+            ReleaseGroupIndexField.RELEASE,
+            ReleaseGroupIndexField.RELEASESTATUS,
+            ReleaseGroupIndexField.TAG,
+            ReleaseGroupIndexField.TAGCOUNT);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "release-group-list";
+    }
 
     /**
      * @param metadata
@@ -117,8 +141,8 @@ public class ReleaseGroupWriter extends ResultsWriter {
             releaseGroup.setSecondaryTypeList(stl);
         }
 
-        if (doc.get(ReleaseGroupIndexField.ARTIST_CREDIT) != null) {
-            ArtistCredit ac = ArtistCreditHelper.unserialize(doc.get(ReleaseGroupIndexField.ARTIST_CREDIT));
+        ArtistCredit ac = ArtistCreditHelper.unserialize(doc, ReleaseGroupIndexField.ARTIST_CREDIT);
+        if (ac != null) {
             releaseGroup.setArtistCredit(ac);
         }
 
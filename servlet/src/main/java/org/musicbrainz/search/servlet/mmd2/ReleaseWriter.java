@@ -42,10 +42,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class ReleaseWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(ReleaseIndexField.RELEASE_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "release-list";
+    }
 
     /**
      * @param metadata
@@ -84,7 +96,7 @@ public class ReleaseWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Release release = (Release) MMDSerializer.unserialize(doc.get(ReleaseIndexField.RELEASE_STORE), Release.class);
+        Release release = (Release) MMDSerializer.unserialize(doc, ReleaseIndexField.RELEASE_STORE, Release.class);
         release.setScore(result.getNormalizedScore());
         list.add(release);
     }
@@ -29,15 +29,16 @@
 package org.musicbrainz.search.servlet.mmd2;
 
 
-import com.sun.jersey.api.json.JSONConfiguration;
-import com.sun.jersey.api.json.JSONJAXBContext;
-import com.sun.jersey.api.json.JSONMarshaller;
 import com.sun.xml.bind.marshaller.NamespacePrefixMapper;
-import org.eclipse.persistence.jaxb.JAXBContextFactory;
-import org.eclipse.persistence.jaxb.JAXBContextProperties;
 import org.musicbrainz.mmd2.Metadata;
+import org.musicbrainz.mmd2.MetadataJsonNewWriter;
+import org.musicbrainz.mmd2.MetadataJsonWriter;
 import org.musicbrainz.mmd2.ObjectFactory;
+import org.musicbrainz.mmd2.json.JsonOutput;
+import org.musicbrainz.search.servlet.EmptyElementXMLStreamWriter;
 import org.musicbrainz.search.servlet.ErrorMessage;
+import org.musicbrainz.search.servlet.EscapingXMLStreamWriter;
+import org.musicbrainz.search.servlet.Result;
 import org.musicbrainz.search.servlet.Results;
 import org.musicbrainz.search.servlet.SearchServerServlet;
 
@@ -47,19 +48,36 @@ import javax.xml.bind.Marshaller;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Queue;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 public abstract class ResultsWriter extends org.musicbrainz.search.servlet.ResultsWriter {
 
     static final JAXBContext            context                 = initContext();
     static final NamespacePrefixMapper  prefixMapper            = new PreferredMapper();
-    static final JSONJAXBContext        internalJsoncontext     = initInternalJsonContext();
-    static final JAXBContext            jsonContext             = initJsonContext();
+    static final NamespacePrefixMapper  fragmentPrefixMapper    = new FragmentMapper();
+    static final XMLOutputFactory       xmlOutputFactory        = XMLOutputFactory.newInstance();
+
+    // Marshallers are not thread safe and are too costly to create for every response, so they are pooled for each
+    // format and option, the pools are emptied by clearMarshallers() when the servlet is destroyed
+    private static final ConcurrentMap<String, Queue<Marshaller>> marshallers = new ConcurrentHashMap<String, Queue<Marshaller>>();
+
+    private static final String MARSHALLER_XML_FRAGMENT = "xmlfragment";
+
+    static final String MMD_NAMESPACE = "http://musicbrainz.org/ns/mmd-2.0#";
+    static final String EXT_NAMESPACE = "http://musicbrainz.org/ns/ext#-2.0";
+    static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
 
     public String getMimeType() {
           return "application/xml; charset=UTF-8";
@@ -80,32 +98,6 @@ public abstract class ResultsWriter extends org.musicbrainz.search.servlet.Resul
         }
     }
 
-    private static JSONJAXBContext initInternalJsonContext() {
-        try {
-            return new JSONJAXBContext(JSONConfiguration.natural().build(),
-            "org.musicbrainz.mmd2");
-        }
-        catch (JAXBException ex) {
-            //Unable to initilize jaxb context, should never happen
-            throw new RuntimeException(ex);
-        }
-    }
-
-    private static JAXBContext initJsonContext() {
-        try {
-            Map<String, Object> properties = new HashMap<String, Object>(3);
-            properties.put(JAXBContextProperties.OXM_METADATA_SOURCE, "oxml.xml");
-            properties.put(JAXBContextProperties.MEDIA_TYPE, "application/json");
-            properties.put(JAXBContextProperties.JSON_INCLUDE_ROOT, false);
-            properties.put(JAXBContextProperties.JSON_VALUE_WRAPPER, "name");
-            return JAXBContextFactory.createContext(new Class[]{Metadata.class}, properties);
-        }
-        catch (JAXBException ex) {
-            //Unable to initilize jaxb/Users/paul/code/MusicBrainz/SearchServer/servlet/src/main/resources/oxml.xml context, should never happen
-            throw new RuntimeException(ex);
-        }
-    }
-
 
     /**
      * Put results into an XML representation class whereby it can be manipulated further or
@@ -154,53 +146,198 @@ public abstract class ResultsWriter extends org.musicbrainz.search.servlet.Resul
     public void write(PrintWriter out, Results results, String outputFormat, boolean isPretty) throws IOException {
 
         if(outputFormat.equals(SearchServerServlet.RESPONSE_XML)) {
-
-            try {
-                Metadata metadata = write(results);
-                Marshaller m = context.createMarshaller();
-                m.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
-                if(isPretty) {
-                    m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                }
-                m.marshal(metadata, out);
+            if(!isPretty && getXmlListName() != null) {
+                writeStreamingXml(out, results);
             }
-            catch (JAXBException je) {
-                throw new IOException(je);
+            else {
+                writeMarshalledXml(out, results, isPretty);
             }
         }
         else if(outputFormat.equals(SearchServerServlet.RESPONSE_JSON_NEW)) {
-            try {
-                Metadata metadata = write(results);
-                adjustForJson(metadata);
-                Marshaller m = jsonContext.createMarshaller();
-                if(isPretty) {
-                    m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                }
-                m.marshal(metadata, out);
-            }
-            catch (JAXBException je) {
-                throw new IOException(je);
-            }
+            // Json is written by writers generated from the mmd2 classes, giving the same output as marshalling with
+            // MOXy (jsonnew) or Jersey (json) without walking the classes reflectively for every response
+            Metadata metadata = write(results);
+            adjustForJson(metadata);
+            JsonOutput json = new JsonOutput(out, JsonOutput.Dialect.MOXY, isPretty);
+            MetadataJsonNewWriter.write(json, metadata);
+            json.flush();
         }
         else if(outputFormat.equals(SearchServerServlet.RESPONSE_JSON)) {
-            try {
-                Metadata metadata = write(results);
-                adjustForJson(metadata);
-                JSONMarshaller m = internalJsoncontext.createJSONMarshaller();
-                if(isPretty) {
-                    m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                }
-                m.marshallToJSON(metadata, out);
-            }
-            catch (JAXBException je) {
-                throw new IOException(je);
-            }
+            Metadata metadata = write(results);
+            adjustForJson(metadata);
+            JsonOutput json = new JsonOutput(out, JsonOutput.Dialect.JERSEY_NATURAL, isPretty);
+            MetadataJsonWriter.write(json, metadata);
+            json.flush();
         }
         else {
            throw new RuntimeException(ErrorMessage.NO_HANDLER_FOR_TYPE_AND_FORMAT.getMsg(this.getClass(), outputFormat));
         }
     }
 
+    /**
+     * Write the results as Xml by building the complete Metadata and then marshalling it
+     *
+     * @param out
+     * @param results
+     * @param isPretty
+     * @throws IOException
+     */
+    public void writeMarshalledXml(PrintWriter out, Results results, boolean isPretty) throws IOException {
+        try {
+            Metadata metadata = write(results);
+            Marshaller m = borrowMarshaller(SearchServerServlet.RESPONSE_XML, isPretty);
+            m.marshal(metadata, out);
+            returnMarshaller(SearchServerServlet.RESPONSE_XML, isPretty, m);
+        }
+        catch (JAXBException je) {
+            throw new IOException(je);
+        }
+    }
+
+    /**
+     * Write the results as Xml one result at a time, so the start of the response is sent before the later results
+     * are read and only one result is held in memory at a time. The output is the same as writeMarshalledXml() without
+     * pretty printing.
+     *
+     * Only supported by writers that return a list name, each result is added by write(List, Result)
+     *
+     * @param out
+     * @param results
+     * @throws IOException
+     */
+    public void writeStreamingXml(PrintWriter out, Results results) throws IOException {
+        try {
+            Marshaller m = borrowMarshaller(MARSHALLER_XML_FRAGMENT, false);
+
+            out.write(XML_DECLARATION);
+            XMLStreamWriter xml = new EmptyElementXMLStreamWriter(
+                    new EscapingXMLStreamWriter(xmlOutputFactory.createXMLStreamWriter(out)));
+            xml.setDefaultNamespace(MMD_NAMESPACE);
+            xml.setPrefix("ext", EXT_NAMESPACE);
+            xml.writeStartElement(MMD_NAMESPACE, "metadata");
+            xml.writeAttribute("created", getIndexUpdateDate().toXMLFormat());
+            xml.writeDefaultNamespace(MMD_NAMESPACE);
+            xml.writeNamespace("ext", EXT_NAMESPACE);
+            xml.writeStartElement(MMD_NAMESPACE, getXmlListName());
+            xml.writeAttribute("count", String.valueOf(results.getTotalHits()));
+            xml.writeAttribute("offset", String.valueOf(results.getOffset()));
+
+            List list = new ArrayList(1);
+            for (Result result : results.results) {
+                result.setNormalizedScore(results.getMaxScore());
+                write(list, result);
+                m.marshal(toXmlElement(list.get(0)), xml);
+                list.clear();
+            }
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.flush();
+            returnMarshaller(MARSHALLER_XML_FRAGMENT, false, m);
+        }
+        catch (JAXBException je) {
+            throw new IOException(je);
+        }
+        catch (XMLStreamException xe) {
+            throw new IOException(xe);
+        }
+    }
+
+    /**
+     * Take a marshaller from the pool, it is returned by returnMarshaller() once used. A marshaller that failed may
+     * have been left part way through, so is not returned.
+     *
+     * @param format output format, or MARSHALLER_XML_FRAGMENT for marshalling single results as Xml
+     * @param isPretty
+     * @return a marshaller for the format
+     * @throws JAXBException
+     */
+    private static Marshaller borrowMarshaller(String format, boolean isPretty) throws JAXBException {
+        Marshaller m = getMarshallerPool(format, isPretty).poll();
+        if (m == null) {
+            m = createMarshaller(format, isPretty);
+        }
+        return m;
+    }
+
+    private static void returnMarshaller(String format, boolean isPretty, Marshaller m) {
+        getMarshallerPool(format, isPretty).offer(m);
+    }
+
+    private static Queue<Marshaller> getMarshallerPool(String format, boolean isPretty) {
+        String key = isPretty ? format + "pretty" : format;
+        Queue<Marshaller> pool = marshallers.get(key);
+        if (pool == null) {
+            marshallers.putIfAbsent(key, new ConcurrentLinkedQueue<Marshaller>());
+            pool = marshallers.get(key);
+        }
+        return pool;
+    }
+
+    /**
+     * Drop the pooled marshallers, called when the servlet is destroyed
+     */
+    public static void clearMarshallers() {
+        marshallers.clear();
+    }
+
+    private static Marshaller createMarshaller(String format, boolean isPretty) throws JAXBException {
+        Marshaller m;
+        if (format.equals(MARSHALLER_XML_FRAGMENT)) {
+            m = context.createMarshaller();
+            m.setProperty("com.sun.xml.bind.namespacePrefixMapper", fragmentPrefixMapper);
+            m.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        }
+        else {
+            m = context.createMarshaller();
+            m.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
+        }
+        if(isPretty) {
+            m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        }
+        return m;
+    }
+
+    /**
+     * Name of the list element the results are written in, writers that return a name support streaming Xml
+     *
+     * @return null if streaming Xml is not supported
+     */
+    protected String getXmlListName() {
+        return null;
+    }
+
+    /**
+     * Add a result to the list, must be implemented by writers that support streaming Xml
+     *
+     * @param list
+     * @param result
+     * @throws IOException
+     */
+    public void write(List list, Result result) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Can be overridden if the objects added by write(List, Result) are not Xml root elements
+     *
+     * @param item
+     * @return the object to marshal
+     */
+    protected Object toXmlElement(Object item) {
+        return item;
+    }
+
+    /**
+     * Used when marshalling a single result within the metadata element already written, so the namespaces declared
+     * on the metadata element are not declared again on each result
+     */
+    public static class FragmentMapper extends PreferredMapper {
+        @Override
+        public String[] getContextualNamespaceDecls() {
+            return new String[] { "", MMD_NAMESPACE, "ext", EXT_NAMESPACE };
+        }
+    }
+
     /**
      * Required to map score to ext namespace now that score defined properly because by default JAXB creates
      * namespaces with names ns1,ns2..
@@ -208,7 +345,7 @@ public abstract class ResultsWriter extends org.musicbrainz.search.servlet.Resul
     public static class PreferredMapper extends NamespacePrefixMapper {
         @Override
         public String getPreferredPrefix(String namespaceUri, String suggestion, boolean requirePrefix) {
-            if(namespaceUri.equals("http://musicbrainz.org/ns/ext#-2.0"))
+            if(namespaceUri.equals(EXT_NAMESPACE))
             {
                 return "ext";
             }
@@ -218,16 +355,21 @@ public abstract class ResultsWriter extends org.musicbrainz.search.servlet.Resul
 
     public void setIndexUpdateDate(Metadata metadata)
     {
-        XMLGregorianCalendar indexLastUpdatedTime;
+        metadata.setCreated(getIndexUpdateDate());
+    }
+
+    private XMLGregorianCalendar getIndexUpdateDate()
+    {
+        XMLGregorianCalendar indexLastUpdatedTime = null;
         try {
             GregorianCalendar cal = (GregorianCalendar)GregorianCalendar.getInstance(TimeZone.getTimeZone("UTC"));
             cal.setTime(serverLastUpdatedDate);
             indexLastUpdatedTime = DatatypeFactory.newInstance().newXMLGregorianCalendar(cal);
-            metadata.setCreated(indexLastUpdatedTime);
         } catch (DatatypeConfigurationException e) {
 
             e.printStackTrace();
         }
+        return indexLastUpdatedTime;
     }
 
 
@@ -39,10 +39,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class SeriesWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(SeriesIndexField.SERIES_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "series-list";
+    }
 
     /**
      * @param metadata
@@ -81,7 +93,7 @@ public class SeriesWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Series series = (Series) MMDSerializer.unserialize(doc.get(SeriesIndexField.SERIES_STORE), Series.class);
+        Series series = (Series) MMDSerializer.unserialize(doc, SeriesIndexField.SERIES_STORE, Series.class);
         series.setScore(result.getNormalizedScore());
         list.add(series);
     }
@@ -39,6 +39,7 @@ import org.musicbrainz.search.servlet.Results;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Set;
 
 /**
  * Write Folksonomy Tags
@@ -46,6 +47,13 @@ import java.math.BigInteger;
  */
 public class TagWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(TagIndexField.TAG);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
     /**
      *
      * @param metadata
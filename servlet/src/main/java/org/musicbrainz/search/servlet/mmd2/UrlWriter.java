@@ -39,10 +39,22 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 
 public class UrlWriter extends ResultsWriter {
 
+    private static final Set<String> STORED_FIELDS = storedFields(UrlIndexField.URL_STORE);
+
+    @Override
+    public Set<String> getStoredFields() {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName() {
+        return "url-list";
+    }
 
     /**
      * @param metadata
@@ -81,7 +93,7 @@ public class UrlWriter extends ResultsWriter {
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Url url = (Url) MMDSerializer.unserialize(doc.get(UrlIndexField.URL_STORE), Url.class);
+        Url url = (Url) MMDSerializer.unserialize(doc, UrlIndexField.URL_STORE, Url.class);
         url.setScore(result.getNormalizedScore());
         list.add(url);
     }
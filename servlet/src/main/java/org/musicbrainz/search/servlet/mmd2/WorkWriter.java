@@ -40,6 +40,7 @@ import org.musicbrainz.search.servlet.Results;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Write Works
@@ -47,6 +48,19 @@ import java.util.List;
 public class WorkWriter extends ResultsWriter
 {
 
+    private static final Set<String> STORED_FIELDS = storedFields(WorkIndexField.WORK_STORE);
+
+    @Override
+    public Set<String> getStoredFields()
+    {
+        return STORED_FIELDS;
+    }
+
+    @Override
+    protected String getXmlListName()
+    {
+        return "work-list";
+    }
 
     /**
      * @param metadata
@@ -89,7 +103,7 @@ public class WorkWriter extends ResultsWriter
      */
     public void write(List list, Result result) throws IOException {
         MbDocument doc = result.getDoc();
-        Work work = (Work) MMDSerializer.unserialize(doc.get(WorkIndexField.WORK_STORE), Work.class);
+        Work work = (Work) MMDSerializer.unserialize(doc, WorkIndexField.WORK_STORE, Work.class);
         work.setScore(result.getNormalizedScore());
         list.add(work);
     }
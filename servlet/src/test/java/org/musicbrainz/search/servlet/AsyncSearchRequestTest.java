@@ -0,0 +1,163 @@
+package org.musicbrainz.search.servlet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class AsyncSearchRequestTest {
+
+    private final StringWriter output = new StringWriter();
+    private int errorCode;
+    private int completed;
+    private AsyncListener listener;
+
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    private final List<Runnable> queued = new ArrayList<Runnable>();
+    private final Executor queueingExecutor = new Executor() {
+        public void execute(Runnable command) {
+            queued.add(command);
+        }
+    };
+
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, handler));
+    }
+
+    @Before
+    public void setUp() {
+        final AsyncContext asyncContext = stub(AsyncContext.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getRequest")) {
+                    return request;
+                }
+                if (method.getName().equals("getResponse")) {
+                    return response;
+                }
+                if (method.getName().equals("addListener")) {
+                    listener = (AsyncListener) args[0];
+                }
+                if (method.getName().equals("complete")) {
+                    completed++;
+                }
+                return null;
+            }
+        });
+        request = stub(HttpServletRequest.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("startAsync")) {
+                    return asyncContext;
+                }
+                return null;
+            }
+        });
+        response = stub(HttpServletResponse.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getWriter")) {
+                    return new PrintWriter(output);
+                }
+                if (method.getName().equals("sendError")) {
+                    errorCode = (Integer) args[0];
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Servlet that writes a fixed response, calling beforeWrite first
+     */
+    private static class WritingServlet extends SearchServerServlet {
+        int processed;
+
+        void beforeWrite() throws IOException {
+        }
+
+        @Override
+        void processRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            processed++;
+            beforeWrite();
+            response.getWriter().write("results");
+            response.getWriter().flush();
+        }
+    }
+
+    @Test
+    public void testSearchCompletes() throws Exception {
+        WritingServlet servlet = new WritingServlet();
+        AsyncSearchRequest.start(servlet, request, response, queueingExecutor, 1000);
+        assertEquals(1, queued.size());
+        assertEquals(0, completed);
+
+        queued.get(0).run();
+        assertEquals("results", output.toString());
+        assertEquals(1, completed);
+
+        // Timeout after completion does nothing
+        listener.onTimeout(null);
+        assertEquals(0, errorCode);
+        assertEquals(1, completed);
+    }
+
+    @Test
+    public void testTimeoutBeforeSearchStarted() throws Exception {
+        WritingServlet servlet = new WritingServlet();
+        AsyncSearchRequest.start(servlet, request, response, queueingExecutor, 1000);
+
+        listener.onTimeout(null);
+        assertEquals(HttpServletResponse.SC_REQUEST_TIMEOUT, errorCode);
+        assertEquals(1, completed);
+
+        // Search is not run once timed out
+        queued.get(0).run();
+        assertEquals(0, servlet.processed);
+        assertEquals("", output.toString());
+        assertEquals(1, completed);
+    }
+
+    @Test
+    public void testTimeoutWhileSearching() throws Exception {
+        WritingServlet servlet = new WritingServlet() {
+            @Override
+            void beforeWrite() throws IOException {
+                listener.onTimeout(null);
+            }
+        };
+        AsyncSearchRequest.start(servlet, request, response, queueingExecutor, 1000);
+        queued.get(0).run();
+
+        assertEquals(1, servlet.processed);
+        assertEquals(HttpServletResponse.SC_REQUEST_TIMEOUT, errorCode);
+        assertEquals("", output.toString());
+        assertEquals(1, completed);
+    }
+
+    @Test
+    public void testExecutorFull() throws Exception {
+        Executor fullExecutor = new Executor() {
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        };
+        AsyncSearchRequest.start(new WritingServlet(), request, response, fullExecutor, 1000);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, errorCode);
+        assertEquals(1, completed);
+    }
+}
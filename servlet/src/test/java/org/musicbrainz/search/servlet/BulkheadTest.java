@@ -0,0 +1,53 @@
+package org.musicbrainz.search.servlet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BulkheadTest {
+
+    @Test
+    public void testRefusedWhenFull() {
+        Bulkhead bulkhead = new Bulkhead(2, 10);
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertEquals(2, bulkhead.getInFlight());
+
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(1, bulkhead.getRejected());
+
+        bulkhead.release();
+        assertEquals(1, bulkhead.getInFlight());
+        assertTrue(bulkhead.tryAcquire());
+        assertEquals(1, bulkhead.getRejected());
+    }
+
+    @Test
+    public void testWaitsForPermit() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(1, 5000);
+        assertTrue(bulkhead.tryAcquire());
+        Thread releaser = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                }
+                catch (InterruptedException ie) {
+                    return;
+                }
+                bulkhead.release();
+            }
+        };
+        releaser.start();
+        assertTrue(bulkhead.tryAcquire());
+        releaser.join();
+        assertEquals(0, bulkhead.getRejected());
+    }
+
+    @Test(expected = Bulkhead.BulkheadFullException.class)
+    public void testCallableSearchRefusedWhenFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 0);
+        assertTrue(bulkhead.tryAcquire());
+        new CallableSearch(null, bulkhead, "fred", 0, 10).call();
+    }
+}
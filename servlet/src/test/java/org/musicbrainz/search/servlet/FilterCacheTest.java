@@ -0,0 +1,136 @@
+package org.musicbrainz.search.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.FilteredQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.MbDocument;
+import org.musicbrainz.search.analysis.MusicbrainzSimilarity;
+import org.musicbrainz.search.index.DatabaseIndex;
+import org.musicbrainz.search.index.MetaIndexField;
+import org.musicbrainz.search.index.ReleaseIndexField;
+
+/**
+ * Required clauses on filter fields are searched as cached filters and find the same releases
+ */
+public class FilterCacheTest {
+
+  private static final String[] STATUSES = { "Official", "Promotion", "Bootleg" };
+  private static final String[] TYPES = { "Album", "Single" };
+
+  private AbstractSearchServer ss;
+  private AbstractSearchServer cached;
+  private FilterCache filterCache;
+
+  @Before
+  public void setUp() throws Exception {
+    RAMDirectory ramDir = new RAMDirectory();
+    Analyzer analyzer = DatabaseIndex.getAnalyzer(ReleaseIndexField.class);
+    IndexWriterConfig writerConfig = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, analyzer);
+    writerConfig.setSimilarity(new MusicbrainzSimilarity());
+    IndexWriter writer = new IndexWriter(ramDir, writerConfig);
+
+    for (int i = 0; i < 60; i++) {
+      MbDocument doc = new MbDocument();
+      doc.addField(ReleaseIndexField.RELEASE_ID, "release-" + i);
+      doc.addField(ReleaseIndexField.RELEASE, i % 4 == 0 ? "Our Glorious Ten Years" : "Our Ten Years");
+      doc.addField(ReleaseIndexField.STATUS, STATUSES[i % STATUSES.length]);
+      doc.addField(ReleaseIndexField.TYPE, TYPES[i % TYPES.length]);
+      writer.addDocument(doc.getLuceneDocument());
+      if (i % 20 == 19) {
+        writer.commit();
+      }
+    }
+
+    {
+      MbDocument doc = new MbDocument();
+      doc.addField(MetaIndexField.META, MetaIndexField.META_VALUE);
+      doc.addNumericField(MetaIndexField.LAST_UPDATED, new Date().getTime());
+      writer.addDocument(doc.getLuceneDocument());
+    }
+    writer.close();
+
+    ss = new ReleaseSearch(new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.RELEASE)));
+    cached = new ReleaseSearch(new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.RELEASE)));
+    filterCache = new FilterCache(1024 * 1024);
+    cached.setFilterCache(filterCache, ResourceType.RELEASE.getIndexName());
+  }
+
+  private void assertSameReleases(Results expected, Results actual) {
+    assertEquals(expected.getTotalHits(), actual.getTotalHits());
+    assertEquals(expected.results.size(), actual.results.size());
+    for (int i = 0; i < expected.results.size(); i++) {
+      assertEquals(expected.results.get(i).getDoc().get(ReleaseIndexField.RELEASE_ID),
+          actual.results.get(i).getDoc().get(ReleaseIndexField.RELEASE_ID));
+    }
+  }
+
+  @Test
+  public void testSameReleasesWhenFiltered() throws Exception {
+    String[] queries = { "release:glorious AND status:official", "release:years AND status:bootleg AND type:single",
+        "(release:glorious OR release:ten) AND type:album", "release:years AND NOT status:promotion",
+        "status:official", "+status:official release:glorious", "+status:official +type:album release:glorious release:ten" };
+    for (String query : queries) {
+      assertSameReleases(ss.search(query, 0, 100), cached.search(query, 0, 100));
+    }
+  }
+
+  @Test
+  public void testOnlyFilterClausesReplaced() throws Exception {
+    Query query = cached.parseQuery("release:years AND status:official");
+    assertTrue(cached.filterClauses(query) instanceof FilteredQuery);
+
+    // Nothing left to score the hits with, so kept as a term query
+    query = cached.parseQuery("status:official");
+    assertSame(query, cached.filterClauses(query));
+
+    query = cached.parseQuery("release:years OR status:official");
+    assertSame(query, cached.filterClauses(query));
+  }
+
+  @Test
+  public void testOptionalClausesStayOptional() throws Exception {
+    // Official releases whatever their name, those named glorious first
+    Results results = cached.search("+status:official release:glorious", 0, 100);
+    assertEquals(20, results.getTotalHits());
+    assertEquals(ss.search("status:official", 0, 100).getTotalHits(), results.getTotalHits());
+    assertEquals("Our Glorious Ten Years", results.results.get(0).getDoc().get(ReleaseIndexField.RELEASE));
+  }
+
+  @Test
+  public void testFiltersAreReused() throws Exception {
+    cached.search("release:glorious AND status:official", 0, 10);
+    cached.search("release:ten AND status:official", 0, 10);
+    assertEquals(1, filterCache.size());
+    assertTrue(filterCache.getUsedBytes() > 0);
+    assertTrue(filterCache.toString(), filterCache.toString().contains("release:status:") && filterCache.toString().contains("hitrate:50%"));
+  }
+
+  @Test
+  public void testEvictedWhenFull() throws Exception {
+    FilterCache smallCache = new FilterCache(1);
+    cached.setFilterCache(smallCache, ResourceType.RELEASE.getIndexName());
+    for (String status : STATUSES) {
+      cached.search("release:years AND status:" + status, 0, 10);
+    }
+    assertEquals(1, smallCache.size());
+    assertEquals(STATUSES.length - 1, smallCache.getEvictions());
+
+    // The filter added last is kept even though it does not fit
+    assertSame(smallCache.getFilter("release", new Term("status", "bootleg")),
+        smallCache.getFilter("release", new Term("status", "bootleg")));
+  }
+}
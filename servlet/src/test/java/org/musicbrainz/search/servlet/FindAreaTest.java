@@ -455,4 +455,37 @@ public class FindAreaTest {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Streamed Xml must be the same as the marshalled Xml
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutputXmlStreamed() throws Exception {
+
+        Results res = ss.search("area:\"Afghanistan\"", 0, 10);
+        org.musicbrainz.search.servlet.mmd2.ResultsWriter writer = ss.getMmd2Writer();
+        StringWriter marshalled = new StringWriter();
+        PrintWriter pr = new PrintWriter(marshalled);
+        writer.writeMarshalledXml(pr, res, false);
+        pr.close();
+
+        StringWriter streamed = new StringWriter();
+        pr = new PrintWriter(streamed);
+        writer.write(pr, res, SearchServerServlet.RESPONSE_XML, false);
+        pr.close();
+
+        assertEquals(marshalled.toString(), streamed.toString());
+    }
+
+    /**
+     * The json written for all the documents is the same as marshalled by Jersey and MOXy
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testOutputJsonSameAsMarshalled() throws Exception {
+        Results res = ss.search("*:* -index_meta:1", 0, 100);
+        JsonWriterAssert.assertSameAsMarshalled(ss.getMmd2Writer(), res);
+    }
+}
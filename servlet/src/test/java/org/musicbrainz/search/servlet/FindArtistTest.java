@@ -161,7 +161,9 @@ public class FindArtistTest {
             alias.setContent("Echo & The Bunymen");
             aliasList.getAlias().add(alias);
             artist.setAliasList(aliasList);
-            doc.addField(ArtistIndexField.ARTIST_STORE, MMDSerializer.serialize(artist));
+
+            //Stored in the binary format, output should be the same as for xml
+            doc.addField(ArtistIndexField.ARTIST_STORE, MMDCodec.encode(artist));
             writer.addDocument(doc.getLuceneDocument());
         }
 
@@ -197,7 +199,7 @@ public class FindArtistTest {
     }
 
     protected String getArtistId(MbDocument doc) {
-        Artist artist = (Artist) MMDSerializer.unserialize(doc.get(ArtistIndexField.ARTIST_STORE), Artist.class);
+        Artist artist = (Artist) MMDSerializer.unserialize(doc, ArtistIndexField.ARTIST_STORE, Artist.class);
         return artist.getId();
     }
 
@@ -715,4 +717,60 @@ public class FindArtistTest {
 
     }
 
+    /**
+     * Streamed Xml must be the same as the marshalled Xml
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutputXmlStreamed() throws Exception {
+
+        Results res = ss.search("artist:\"Farming Incident\" OR artist:\"Echo & The Bunnymen\"", 0, 10);
+        org.musicbrainz.search.servlet.mmd2.ResultsWriter writer = ss.getMmd2Writer();
+        StringWriter marshalled = new StringWriter();
+        PrintWriter pr = new PrintWriter(marshalled);
+        writer.writeMarshalledXml(pr, res, false);
+        pr.close();
+
+        StringWriter streamed = new StringWriter();
+        pr = new PrintWriter(streamed);
+        writer.write(pr, res, SearchServerServlet.RESPONSE_XML, false);
+        pr.close();
+
+        assertEquals(marshalled.toString(), streamed.toString());
+    }
+
+    /**
+     * Streamed Xml must be the same as the marshalled Xml
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutputXmlStreamedNoMatches() throws Exception {
+
+        Results res = ss.search("artist:\"no such artist\"", 0, 10);
+        org.musicbrainz.search.servlet.mmd2.ResultsWriter writer = ss.getMmd2Writer();
+        StringWriter marshalled = new StringWriter();
+        PrintWriter pr = new PrintWriter(marshalled);
+        writer.writeMarshalledXml(pr, res, false);
+        pr.close();
+
+        StringWriter streamed = new StringWriter();
+        pr = new PrintWriter(streamed);
+        writer.write(pr, res, SearchServerServlet.RESPONSE_XML, false);
+        pr.close();
+
+        assertEquals(marshalled.toString(), streamed.toString());
+    }
+
+    /**
+     * The json written for all the documents is the same as marshalled by Jersey and MOXy
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testOutputJsonSameAsMarshalled() throws Exception {
+        Results res = ss.search("*:* -index_meta:1", 0, 100);
+        JsonWriterAssert.assertSameAsMarshalled(ss.getMmd2Writer(), res);
+    }
 }
@@ -421,4 +421,14 @@ public class FindEventTest
 
     }
 
+    /**
+     * The json written for all the documents is the same as marshalled by Jersey and MOXy
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testOutputJsonSameAsMarshalled() throws Exception {
+        Results res = ss.search("*:* -index_meta:1", 0, 100);
+        JsonWriterAssert.assertSameAsMarshalled(ss.getMmd2Writer(), res);
+    }
 }
\ No newline at end of file
@@ -232,4 +232,15 @@ public class FindFreeDBTest  {
     assertTrue(output.contains("\"offset\" : 0,"));
 
   }
+
+  /**
+   * The json written for all the documents is the same as marshalled by Jersey and MOXy
+   *
+   * @throws Exception exception
+   */
+  @Test
+  public void testOutputJsonSameAsMarshalled() throws Exception {
+    Results res = ss.search("*:* -index_meta:1", 0, 100);
+    JsonWriterAssert.assertSameAsMarshalled(new FreeDBWriter(), res);
+  }
 }
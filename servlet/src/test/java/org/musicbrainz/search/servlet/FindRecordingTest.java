@@ -654,4 +654,42 @@ public class FindRecordingTest {
         assertTrue(output.contains("\"offset\" : 0"));
     }
 
+    /**
+     * Marshallers are reused, so writing the same results again must give the same output
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutputSameWhenMarshallersReused() throws Exception {
+
+        Results res = ss.search("recording:\"Gravitational Lenz\"", 0, 10);
+        org.musicbrainz.search.servlet.mmd2.ResultsWriter writer = ss.getMmd2Writer();
+        for (String format : new String[] { SearchServerServlet.RESPONSE_XML, SearchServerServlet.RESPONSE_JSON,
+                SearchServerServlet.RESPONSE_JSON_NEW }) {
+            String first = write(writer, res, format, false);
+            String pretty = write(writer, res, format, true);
+            assertEquals(first, write(writer, res, format, false));
+            assertEquals(pretty, write(writer, res, format, true));
+        }
+    }
+
+    private String write(org.musicbrainz.search.servlet.mmd2.ResultsWriter writer, Results res, String format,
+                         boolean isPretty) throws Exception {
+        StringWriter sw = new StringWriter();
+        PrintWriter pr = new PrintWriter(sw);
+        writer.write(pr, res, format, isPretty);
+        pr.close();
+        return sw.toString();
+    }
+
+    /**
+     * The json written for all the documents is the same as marshalled by Jersey and MOXy
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testOutputJsonSameAsMarshalled() throws Exception {
+        Results res = ss.search("*:* -index_meta:1", 0, 100);
+        JsonWriterAssert.assertSameAsMarshalled(ss.getMmd2Writer(), res);
+    }
 }
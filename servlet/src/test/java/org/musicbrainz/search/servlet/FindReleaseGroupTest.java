@@ -1,6 +1,7 @@
 package org.musicbrainz.search.servlet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.PrintWriter;
@@ -590,4 +591,44 @@ public class FindReleaseGroupTest {
     assertTrue(output.contains("\"name\" : \"indie\""));
 
   }
+
+  /**
+   * Loading only the stored fields the writer needs must give the same output as loading all fields
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testOutputWithOnlyWriterStoredFieldsLoaded() throws Exception {
+
+    org.musicbrainz.search.servlet.mmd2.ResultsWriter writer = ss.getMmd2Writer();
+    Results all = ss.search("releasegroup:\"Nobody's Twisting Your Arm\"", 0, 10);
+    Results some = ss.search("releasegroup:\"Nobody's Twisting Your Arm\"", 0, 10, writer.getStoredFields());
+    assertEquals(1, some.results.size());
+    assertEquals("707622da-475f-48e1-905d-248718df6521", all.results.get(0).getDoc().get(ReleaseGroupIndexField.ARTIST_ID));
+    assertNull(some.results.get(0).getDoc().get(ReleaseGroupIndexField.ARTIST_ID));
+
+    for (String format : new String[] { SearchServerServlet.RESPONSE_XML, SearchServerServlet.RESPONSE_JSON_NEW }) {
+      StringWriter allOutput = new StringWriter();
+      PrintWriter pr = new PrintWriter(allOutput);
+      writer.write(pr, all, format, false);
+      pr.close();
+
+      StringWriter someOutput = new StringWriter();
+      pr = new PrintWriter(someOutput);
+      writer.write(pr, some, format, false);
+      pr.close();
+      assertEquals(allOutput.toString(), someOutput.toString());
+    }
+  }
+
+  /**
+   * The json written for all the documents is the same as marshalled by Jersey and MOXy
+   *
+   * @throws Exception exception
+   */
+  @Test
+  public void testOutputJsonSameAsMarshalled() throws Exception {
+    Results res = ss.search("*:* -index_meta:1", 0, 100);
+    JsonWriterAssert.assertSameAsMarshalled(ss.getMmd2Writer(), res);
+  }
 }
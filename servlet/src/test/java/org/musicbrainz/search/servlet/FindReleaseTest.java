@@ -1,6 +1,8 @@
 package org.musicbrainz.search.servlet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -172,7 +174,7 @@ public class FindReleaseTest {
             release.setAsin("B00004Y6O9");
 
             doc.addField(ReleaseIndexField.COUNTRY, "GB");
-            doc.addField(ReleaseIndexField.DATE, "2005");
+            doc.addDateField(ReleaseIndexField.DATE, "2005");
             ReleaseEventList rel = of.createReleaseEventList();
             ReleaseEvent     re  = of.createReleaseEvent();
             DefAreaElementInner areaInner = of.createDefAreaElementInner();
@@ -287,7 +289,7 @@ public class FindReleaseTest {
             doc.addField(ReleaseIndexField.FORMAT, "CD");
 
             doc.addField(ReleaseIndexField.COUNTRY, "US");
-            doc.addField(ReleaseIndexField.DATE, "2003-09-23");
+            doc.addDateField(ReleaseIndexField.DATE, "2003-09-23");
             doc.addNumericField(ReleaseIndexField.NUM_MEDIUMS, 1);
             doc.addField(ReleaseIndexField.BARCODE, ReleaseIndex.BARCODE_NONE);
 
@@ -746,6 +748,47 @@ public class FindReleaseTest {
         assertEquals(2, res.getTotalHits());
     }
 
+    @Test
+    public void testSearchAfterCursor() throws Exception {
+        Results page1 = ss.search("tracksmedium:[7 TO 17]", 0, 1);
+        assertEquals(2, page1.getTotalHits());
+        assertEquals(1, page1.results.size());
+
+        Results page2 = ss.searchAfter("tracksmedium:[7 TO 17]", SearchCursor.valueOf(page1.getCursor().toString()), 1);
+        assertEquals(2, page2.getTotalHits());
+        assertEquals(1, page2.getOffset());
+        assertEquals(1, page2.results.size());
+        assertNull(page2.getCursor());
+        assertFalse(page1.results.get(0).getDoc().get(ReleaseIndexField.RELEASE_ID).equals(page2.results.get(0).getDoc().get(ReleaseIndexField.RELEASE_ID)));
+
+        Results offsetPage2 = ss.search("tracksmedium:[7 TO 17]", 1, 1);
+        assertEquals(offsetPage2.results.get(0).getDoc().get(ReleaseIndexField.RELEASE_ID), page2.results.get(0).getDoc().get(ReleaseIndexField.RELEASE_ID));
+        assertNull(offsetPage2.getCursor());
+    }
+
+    @Test(expected = SearchCursor.InvalidCursorException.class)
+    public void testSearchAfterCursorForOtherQuery() throws Exception {
+        Results page1 = ss.search("tracksmedium:[7 TO 17]", 0, 1);
+        ss.searchAfter("tracksmedium:[7 TO 18]", page1.getCursor(), 1);
+    }
+
+    @Test(expected = SearchCursor.InvalidCursorException.class)
+    public void testInvalidCursor() throws Exception {
+        SearchCursor.valueOf("not-a-cursor");
+    }
+
+    @Test
+    public void testFindReleaseByDateRange() throws Exception {
+        Results res = ss.search("date:[2004 TO 2006]", 0, 10);
+        assertEquals(1, res.getTotalHits());
+        res = ss.search("date:[2003-09 TO 2003-10]", 0, 10);
+        assertEquals(1, res.getTotalHits());
+        res = ss.search("date:[* TO 2010]", 0, 10);
+        assertEquals(2, res.getTotalHits());
+        res = ss.search("date:2005", 0, 10);
+        assertEquals(1, res.getTotalHits());
+    }
+
     /**
      * Tests get same results as
      * http://musicbrainz.org/ws/1/release/?type=xml&query=%22Our%20Glorious%205%20Year%20Plan%22
@@ -933,4 +976,37 @@ public class FindReleaseTest {
 
     }
 
+    /**
+     * Streamed Xml must be the same as the marshalled Xml
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutputXmlStreamed() throws Exception {
+
+        Results res = ss.search("release:\"Our Glorious 5 Year Plan\"", 0, 10);
+        org.musicbrainz.search.servlet.mmd2.ResultsWriter writer = ss.getMmd2Writer();
+        StringWriter marshalled = new StringWriter();
+        PrintWriter pr = new PrintWriter(marshalled);
+        writer.writeMarshalledXml(pr, res, false);
+        pr.close();
+
+        StringWriter streamed = new StringWriter();
+        pr = new PrintWriter(streamed);
+        writer.write(pr, res, SearchServerServlet.RESPONSE_XML, false);
+        pr.close();
+
+        assertEquals(marshalled.toString(), streamed.toString());
+    }
+
+    /**
+     * The json written for all the documents is the same as marshalled by Jersey and MOXy
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testOutputJsonSameAsMarshalled() throws Exception {
+        Results res = ss.search("*:* -index_meta:1", 0, 100);
+        JsonWriterAssert.assertSameAsMarshalled(ss.getMmd2Writer(), res);
+    }
 }
@@ -0,0 +1,141 @@
+package org.musicbrainz.search.servlet;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import javax.xml.bind.annotation.XmlAnyAttribute;
+import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElements;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.junit.Test;
+import org.musicbrainz.mmd2.Metadata;
+
+/**
+ * The generated json writers write random Metadata the same as Jersey and MOXy marshal it
+ */
+public class GeneratedJsonWriterTest {
+
+    private static final String[] STRINGS = { "", "Echo & The Bunnymen", "true", "false", "\"quoted\" \\ /",
+            "tab\tnew line\nreturn\r\b\f", "\u0000\u001F\u007F\u0080\u009F ", "\u00E9t\u00E9 \u00A0\u2028\uFEFF\uFFFF",
+            "\uD83C\uDFB5 pair", "high \uD800 alone", "low \uDC00 alone", "\uDC00\uD800" };
+
+    private static final float[] FLOATS = { 0f, 4.5f, 5f, 100f, 1.0E7f, 1.0E10f, 1.0E-5f, 0.001f, -2.25f,
+            Float.MIN_VALUE };
+
+    private final Random random = new Random(0);
+
+    private final DatatypeFactory datatypeFactory;
+
+    public GeneratedJsonWriterTest() throws Exception {
+        datatypeFactory = DatatypeFactory.newInstance();
+    }
+
+    @Test
+    public void testRandomMetadata() throws Exception {
+        for (int i = 0; i < 300; i++) {
+            Metadata metadata = (Metadata) create(Metadata.class, 0);
+            try {
+                JsonWriterAssert.assertSameAsMarshalled(metadata);
+            }
+            catch (AssertionError e) {
+                throw new AssertionError("Metadata " + i + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyMetadata() throws Exception {
+        JsonWriterAssert.assertSameAsMarshalled(new Metadata());
+    }
+
+    /**
+     * Create an instance with each field left unset, or set to a random value, deeper objects having fewer fields set
+     */
+    private Object create(Class<?> type, int depth) throws Exception {
+        Object o = type.newInstance();
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(XmlAnyElement.class)
+                        || field.isAnnotationPresent(XmlAnyAttribute.class)) {
+                    continue;
+                }
+                // The root has a single list or entity, as the search server writes it
+                if (depth == 0 ? random.nextInt(20) > 0 : random.nextInt(depth + 2) > 0) {
+                    continue;
+                }
+                field.setAccessible(true);
+                if (List.class.isAssignableFrom(field.getType())) {
+                    field.set(o, createList(field, depth));
+                }
+                else {
+                    Object value = createValue(field.getType(), depth);
+                    if (value != null) {
+                        field.set(o, value);
+                    }
+                }
+            }
+        }
+        return o;
+    }
+
+    private List<Object> createList(Field field, int depth) throws Exception {
+        List<Class<?>> itemTypes = new ArrayList<Class<?>>();
+        if (field.isAnnotationPresent(XmlElements.class)) {
+            for (XmlElement element : field.getAnnotation(XmlElements.class).value()) {
+                itemTypes.add(element.type());
+            }
+        }
+        else {
+            itemTypes.add((Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0]);
+        }
+
+        // Left empty sometimes, MOXy writes an empty list
+        List<Object> list = new ArrayList<Object>();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            Object item = createValue(itemTypes.get(random.nextInt(itemTypes.size())), depth + 1);
+            if (item != null) {
+                list.add(item);
+            }
+        }
+        return list;
+    }
+
+    private Object createValue(Class<?> type, int depth) throws Exception {
+        if (type == String.class) {
+            return STRINGS[random.nextInt(STRINGS.length)];
+        }
+        if (type == BigInteger.class) {
+            return BigInteger.valueOf(random.nextInt(2000) - 10);
+        }
+        if (type == Integer.class) {
+            return random.nextInt(101);
+        }
+        if (type == float.class) {
+            return FLOATS[random.nextInt(FLOATS.length)];
+        }
+        if (type == XMLGregorianCalendar.class) {
+            GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+            calendar.setTimeInMillis(random.nextInt() * (random.nextBoolean() ? 1000L : 7L));
+            return datatypeFactory.newXMLGregorianCalendar(calendar);
+        }
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[random.nextInt(constants.length)];
+        }
+        if (depth > 5) {
+            return null;
+        }
+        return create(type, depth + 1);
+    }
+}
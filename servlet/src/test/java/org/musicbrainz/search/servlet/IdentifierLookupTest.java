@@ -0,0 +1,159 @@
+package org.musicbrainz.search.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.MbDocument;
+import org.musicbrainz.search.analysis.MusicbrainzSimilarity;
+import org.musicbrainz.search.index.DatabaseIndex;
+import org.musicbrainz.search.index.MetaIndexField;
+import org.musicbrainz.search.index.RecordingIndexField;
+
+/**
+ * Queries only for identifiers are looked up directly and find the same recordings as when scored
+ */
+public class IdentifierLookupTest {
+
+  private AbstractSearchServer ss;
+  private AbstractSearchServer scored;
+
+  @Before
+  public void setUp() throws Exception {
+    RAMDirectory ramDir = new RAMDirectory();
+    Analyzer analyzer = DatabaseIndex.getAnalyzer(RecordingIndexField.class);
+    IndexWriterConfig writerConfig = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, analyzer);
+    writerConfig.setSimilarity(new MusicbrainzSimilarity());
+    writerConfig.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter writer = new IndexWriter(ramDir, writerConfig);
+
+    // Three segments, each recording on one release and the isrcs shared by many recordings
+    for (int i = 0; i < 30; i++) {
+      MbDocument doc = new MbDocument();
+      doc.addField(RecordingIndexField.RECORDING_ID, "recording-" + i);
+      doc.addField(RecordingIndexField.RECORDING, "Recording " + i);
+      doc.addField(RecordingIndexField.RELEASE_ID, "release-" + (i % 4));
+      doc.addField(RecordingIndexField.ISRC, "GBAAA000000" + (i % 3));
+      writer.addDocument(doc.getLuceneDocument());
+      if (i % 10 == 9) {
+        writer.commit();
+      }
+    }
+    writer.deleteDocuments(new Term(RecordingIndexField.RECORDING_ID.getName(), "recording-4"));
+
+    // An isrc listed twice on one recording scores higher than on the other
+    for (int i = 30; i < 32; i++) {
+      MbDocument doc = new MbDocument();
+      doc.addField(RecordingIndexField.RECORDING_ID, "recording-" + i);
+      doc.addField(RecordingIndexField.RECORDING, "Recording " + i);
+      for (int j = i; j < 32; j++) {
+        doc.addField(RecordingIndexField.ISRC, "GBAAA0000009");
+      }
+      writer.addDocument(doc.getLuceneDocument());
+    }
+
+    {
+      MbDocument doc = new MbDocument();
+      doc.addField(MetaIndexField.META, MetaIndexField.META_VALUE);
+      doc.addNumericField(MetaIndexField.LAST_UPDATED, new Date().getTime());
+      writer.addDocument(doc.getLuceneDocument());
+    }
+    writer.close();
+
+    ss = new RecordingSearch(new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.RECORDING)));
+    scored = new RecordingSearch(new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.RECORDING))) {
+      @Override
+      protected Set<String> getIdentifierFields() {
+        return Collections.emptySet();
+      }
+    };
+  }
+
+  private void assertSameRecordings(Results expected, Results actual) {
+    assertEquals(expected.getTotalHits(), actual.getTotalHits());
+    assertEquals(expected.results.size(), actual.results.size());
+    for (int i = 0; i < expected.results.size(); i++) {
+      assertEquals(expected.results.get(i).getDoc().get(RecordingIndexField.RECORDING_ID),
+          actual.results.get(i).getDoc().get(RecordingIndexField.RECORDING_ID));
+      // Relative scores as output
+      assertEquals(expected.results.get(i).getScore() / expected.getMaxScore(),
+          actual.results.get(i).getScore() / actual.getMaxScore(), 0.0001f);
+    }
+  }
+
+  @Test
+  public void testIdentifierQueriesLookedUp() throws Exception {
+    assertEquals(new Term("rid", "recording-1"), ss.getIdentifierTerm(ss.parseQuery("rid:recording-1")));
+    assertNull(ss.getIdentifierTerm(ss.parseQuery("rid:recording-1 OR reid:release-2 OR isrc:GBAAA0000001")));
+    assertNull(ss.getIdentifierTerm(ss.parseQuery("rid:recording-1 AND reid:release-2")));
+    assertNull(ss.getIdentifierTerm(ss.parseQuery("rid:recording-1 OR recording:recording")));
+    assertNull(ss.getIdentifierTerm(ss.parseQuery("recording:recording")));
+  }
+
+  @Test
+  public void testSameRecordingsAsScored() throws Exception {
+    String[] queries = { "rid:recording-7", "rid:recording-4", "rid:nomatch", "reid:release-1", "isrc:gbaaa0000002",
+        "isrc:GBAAA0000002" };
+    for (String query : queries) {
+      Results results = ss.search(query, 0, 5);
+      assertSameRecordings(scored.search(query, 0, 5), results);
+      for (Result result : results.results) {
+        assertEquals(MusicBrainzIndexSearcher.LOOKUP_SCORE, result.getScore(), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void testIdentifierWithDifferentScoresScored() throws Exception {
+    String query = "isrc:GBAAA0000009";
+    Results results = ss.search(query, 0, 5);
+    assertSameRecordings(scored.search(query, 0, 5), results);
+    assertEquals("recording-30", results.results.get(0).getDoc().get(RecordingIndexField.RECORDING_ID));
+    assertTrue(results.results.get(0).getScore() > results.results.get(1).getScore());
+  }
+
+  @Test
+  public void testManyIdentifiersSameAsScored() throws Exception {
+    String query = "rid:recording-1 OR rid:recording-12 OR rid:recording-4 OR rid:recording-25 OR "
+        + "reid:release-1 OR rid:nomatch";
+    Results results = ss.search(query, 0, 100);
+    // recording-4 is deleted, recording-1 and recording-25 are also on release-1 so rank first
+    assertEquals(9, results.getTotalHits());
+    assertSameRecordings(scored.search(query, 0, 100), results);
+    assertTrue(results.results.get(0).getScore() > results.results.get(8).getScore());
+  }
+
+  @Test
+  public void testPagesSameAsScored() throws Exception {
+    for (String query : new String[] { "isrc:GBAAA0000002", "reid:release-0 OR reid:release-3 OR rid:recording-5" }) {
+      Results page = ss.search(query, 0, 3);
+      Results scoredPage = scored.search(query, 0, 3);
+      int offset = 0;
+      while (true) {
+        assertSameRecordings(scoredPage, page);
+        offset += page.results.size();
+        if (page.getCursor() == null) {
+          assertNull(scoredPage.getCursor());
+          break;
+        }
+        page = ss.searchAfter(query, page.getCursor(), 3);
+        scoredPage = scored.searchAfter(query, scoredPage.getCursor(), 3);
+      }
+      assertEquals(page.getTotalHits(), offset);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package org.musicbrainz.search.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+
+import org.eclipse.persistence.jaxb.JAXBContextFactory;
+import org.eclipse.persistence.jaxb.JAXBContextProperties;
+import org.musicbrainz.mmd2.Metadata;
+import org.musicbrainz.mmd2.MetadataJsonNewWriter;
+import org.musicbrainz.mmd2.MetadataJsonWriter;
+import org.musicbrainz.mmd2.json.JsonOutput;
+import org.musicbrainz.search.servlet.mmd2.ResultsWriter;
+
+import com.sun.jersey.api.json.JSONConfiguration;
+import com.sun.jersey.api.json.JSONJAXBContext;
+import com.sun.jersey.api.json.JSONMarshaller;
+
+/**
+ * Compares the json written by the generated writers with the json marshalled by Jersey (json) and MOXy (jsonnew),
+ * configured as the search server configured them before the writers replaced them
+ */
+public class JsonWriterAssert {
+
+    private static JSONJAXBContext jerseyContext;
+    private static JAXBContext     moxyContext;
+
+    private static synchronized void initContexts() throws Exception {
+        if (jerseyContext == null) {
+            jerseyContext = new JSONJAXBContext(JSONConfiguration.natural().build(), "org.musicbrainz.mmd2");
+            Map<String, Object> properties = new HashMap<String, Object>(4);
+            properties.put(JAXBContextProperties.OXM_METADATA_SOURCE, "oxml.xml");
+            properties.put(JAXBContextProperties.MEDIA_TYPE, "application/json");
+            properties.put(JAXBContextProperties.JSON_INCLUDE_ROOT, false);
+            properties.put(JAXBContextProperties.JSON_VALUE_WRAPPER, "name");
+            moxyContext = JAXBContextFactory.createContext(new Class[] { Metadata.class }, properties);
+        }
+    }
+
+    /**
+     * @param outputFormat
+     * @param isPretty
+     * @return a JSONMarshaller for json, a Marshaller for jsonnew
+     * @throws Exception
+     */
+    public static Object createMarshaller(String outputFormat, boolean isPretty) throws Exception {
+        initContexts();
+        if (outputFormat.equals(SearchServerServlet.RESPONSE_JSON)) {
+            JSONMarshaller m = jerseyContext.createJSONMarshaller();
+            m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, isPretty);
+            return m;
+        }
+        Marshaller m = moxyContext.createMarshaller();
+        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, isPretty);
+        return m;
+    }
+
+    public static String marshal(Object marshaller, Metadata metadata) throws Exception {
+        StringWriter sw = new StringWriter();
+        if (marshaller instanceof JSONMarshaller) {
+            ((JSONMarshaller) marshaller).marshallToJSON(metadata, sw);
+        }
+        else {
+            ((Marshaller) marshaller).marshal(metadata, sw);
+        }
+        return sw.toString();
+    }
+
+    public static String marshal(Metadata metadata, String outputFormat, boolean isPretty) throws Exception {
+        return marshal(createMarshaller(outputFormat, isPretty), metadata);
+    }
+
+    public static String write(Metadata metadata, String outputFormat, boolean isPretty) throws Exception {
+        StringWriter sw = new StringWriter();
+        if (outputFormat.equals(SearchServerServlet.RESPONSE_JSON)) {
+            JsonOutput out = new JsonOutput(sw, JsonOutput.Dialect.JERSEY_NATURAL, isPretty);
+            MetadataJsonWriter.write(out, metadata);
+            out.flush();
+        }
+        else {
+            JsonOutput out = new JsonOutput(sw, JsonOutput.Dialect.MOXY, isPretty);
+            MetadataJsonNewWriter.write(out, metadata);
+            out.flush();
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Both json formats, pretty printed or not, are written the same by the generated writers as when marshalled
+     *
+     * @param metadata
+     * @throws Exception
+     */
+    public static void assertSameAsMarshalled(Metadata metadata) throws Exception {
+        for (String outputFormat : new String[] { SearchServerServlet.RESPONSE_JSON, SearchServerServlet.RESPONSE_JSON_NEW }) {
+            for (boolean isPretty : new boolean[] { false, true }) {
+                assertEquals(outputFormat + (isPretty ? " pretty" : ""), marshal(metadata, outputFormat, isPretty),
+                        write(metadata, outputFormat, isPretty));
+            }
+        }
+    }
+
+    /**
+     * The json written for the results by the writer is the same as the json marshalled from the Metadata it creates
+     *
+     * @param writer
+     * @param results
+     * @throws Exception
+     */
+    public static void assertSameAsMarshalled(ResultsWriter writer, Results results) throws Exception {
+        assertFalse(results.results.isEmpty());
+        Metadata metadata = writer.write(results);
+        writer.adjustForJson(metadata);
+        for (String outputFormat : new String[] { SearchServerServlet.RESPONSE_JSON, SearchServerServlet.RESPONSE_JSON_NEW }) {
+            for (boolean isPretty : new boolean[] { false, true }) {
+                StringWriter sw = new StringWriter();
+                PrintWriter pr = new PrintWriter(sw);
+                writer.write(pr, results, outputFormat, isPretty);
+                pr.close();
+                assertEquals(outputFormat + (isPretty ? " pretty" : ""), marshal(metadata, outputFormat, isPretty),
+                        sw.toString());
+            }
+        }
+    }
+}
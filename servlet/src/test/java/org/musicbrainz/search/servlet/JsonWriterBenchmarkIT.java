@@ -0,0 +1,174 @@
+package org.musicbrainz.search.servlet;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+
+import org.junit.Test;
+import org.musicbrainz.mmd2.Artist;
+import org.musicbrainz.mmd2.ArtistCredit;
+import org.musicbrainz.mmd2.DefTrackData;
+import org.musicbrainz.mmd2.Isrc;
+import org.musicbrainz.mmd2.IsrcList;
+import org.musicbrainz.mmd2.Medium;
+import org.musicbrainz.mmd2.MediumList;
+import org.musicbrainz.mmd2.Metadata;
+import org.musicbrainz.mmd2.NameCredit;
+import org.musicbrainz.mmd2.PrimaryType;
+import org.musicbrainz.mmd2.Recording;
+import org.musicbrainz.mmd2.RecordingList;
+import org.musicbrainz.mmd2.Release;
+import org.musicbrainz.mmd2.ReleaseGroup;
+import org.musicbrainz.mmd2.ReleaseList;
+import org.musicbrainz.mmd2.Status;
+import org.musicbrainz.mmd2.Tag;
+import org.musicbrainz.mmd2.TagList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the CPU time taken to write a recording search response as json by marshalling with Jersey and MOXy, and by
+ * the generated writers that replace them
+ *
+ * Modify NO_OF_RESPONSES to change the number of responses timed for each way of writing them
+ */
+public class JsonWriterBenchmarkIT {
+
+    final static int NO_OF_RESULTS   = 100;
+    final static int NO_OF_RESPONSES = 2000;
+
+    private static Metadata createRecordingSearchResponse() {
+        Metadata metadata = new Metadata();
+        RecordingList recordingList = new RecordingList();
+        recordingList.setCount(BigInteger.valueOf(NO_OF_RESULTS * 10));
+        recordingList.setOffset(BigInteger.ZERO);
+        for (int i = 0; i < NO_OF_RESULTS; i++) {
+            Recording recording = new Recording();
+            recording.setId("1d9e8ed6-3893-4d3b-aa7d-" + (100000000000L + i));
+            recording.setScore(100 - i / 2);
+            recording.setTitle("Gravitational Lenz " + i);
+            recording.setLength(BigInteger.valueOf(234000 + i));
+            recording.setArtistCredit(createArtistCredit(i));
+
+            ReleaseList releaseList = new ReleaseList();
+            for (int j = 0; j < 3; j++) {
+                releaseList.getRelease().add(createRelease(i, j));
+            }
+            recording.setReleaseList(releaseList);
+
+            IsrcList isrcList = new IsrcList();
+            Isrc isrc = new Isrc();
+            isrc.setId("GBAAA00" + (10000 + i));
+            isrcList.getIsrc().add(isrc);
+            recording.setIsrcList(isrcList);
+
+            TagList tagList = new TagList();
+            for (String name : new String[] { "indie", "post-punk", "rock \"n\" roll" }) {
+                Tag tag = new Tag();
+                tag.setName(name);
+                tag.setCount(BigInteger.valueOf(i % 7 + 1));
+                tagList.getTag().add(tag);
+            }
+            recording.setTagList(tagList);
+            recordingList.getRecording().add(recording);
+        }
+        metadata.setRecordingList(recordingList);
+        return metadata;
+    }
+
+    private static ArtistCredit createArtistCredit(int i) {
+        ArtistCredit artistCredit = new ArtistCredit();
+        for (int j = 0; j < 2; j++) {
+            NameCredit nameCredit = new NameCredit();
+            Artist artist = new Artist();
+            artist.setId("4302e264-1cf0-4d1f-aca7-" + (200000000000L + i * 2 + j));
+            artist.setName(j == 0 ? "Echo & The Bunnymen" : "Sigur R\u00F3s");
+            artist.setSortName(j == 0 ? "Echo & The Bunnymen" : "Sigur R\u00F3s");
+            nameCredit.setArtist(artist);
+            if (j == 0) {
+                nameCredit.setJoinphrase(" feat. ");
+            }
+            artistCredit.getNameCredit().add(nameCredit);
+        }
+        return artistCredit;
+    }
+
+    private static Release createRelease(int i, int j) {
+        Release release = new Release();
+        release.setId("c3b8dbc9-c1ff-4743-9015-" + (300000000000L + i * 3 + j));
+        release.setTitle("Crocodiles");
+        Status status = new Status();
+        status.setContent("Official");
+        release.setStatus(status);
+        release.setDate("1980-07-18");
+        release.setCountry("GB");
+        ReleaseGroup releaseGroup = new ReleaseGroup();
+        releaseGroup.setId("e9b7ff8b-3f9b-3c5b-9d0c-" + (400000000000L + i));
+        PrimaryType primaryType = new PrimaryType();
+        primaryType.setContent("Album");
+        releaseGroup.setPrimaryType(primaryType);
+        release.setReleaseGroup(releaseGroup);
+
+        MediumList mediumList = new MediumList();
+        mediumList.setTrackCount(BigInteger.valueOf(11));
+        Medium medium = new Medium();
+        medium.setPosition(BigInteger.ONE);
+        Medium.TrackList trackList = new Medium.TrackList();
+        trackList.setCount(BigInteger.valueOf(11));
+        trackList.setOffset(BigInteger.valueOf(j));
+        DefTrackData track = new DefTrackData();
+        track.setId("a1b1d4c1-04ab-4e6c-9e1a-" + (500000000000L + i * 3 + j));
+        track.setNumber(String.valueOf(j + 1));
+        track.setTitle("Going Up");
+        track.setLength(BigInteger.valueOf(239000));
+        trackList.getDefTrack().add(track);
+        medium.setTrackList(trackList);
+        mediumList.getMedium().add(medium);
+        release.setMediumList(mediumList);
+        return release;
+    }
+
+    /**
+     * @return CPU time in microseconds to write one response
+     */
+    private static double timeResponses(Metadata metadata, String outputFormat, boolean isGenerated) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Marshallers are reused as the search server pools them
+        Object marshaller = JsonWriterAssert.createMarshaller(outputFormat, false);
+        long length = 0;
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < NO_OF_RESPONSES; i++) {
+            String json = isGenerated ? JsonWriterAssert.write(metadata, outputFormat, false)
+                    : JsonWriterAssert.marshal(marshaller, metadata);
+            length += json.length();
+        }
+        long cpuTime = threads.getCurrentThreadCpuTime() - start;
+        System.out.println(outputFormat + (isGenerated ? ":Generated" : ":Marshalled") + ":Data:" + length);
+        return cpuTime / 1000.0 / NO_OF_RESPONSES;
+    }
+
+    /**
+     * Run twice so the second run shows the warmed up times
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCpuTimePerResponse() throws Exception {
+        Metadata metadata = createRecordingSearchResponse();
+        for (String outputFormat : new String[] { SearchServerServlet.RESPONSE_JSON, SearchServerServlet.RESPONSE_JSON_NEW }) {
+            assertEquals(JsonWriterAssert.marshal(metadata, outputFormat, false),
+                    JsonWriterAssert.write(metadata, outputFormat, false));
+        }
+
+        for (int run = 1; run <= 2; run++) {
+            for (String outputFormat : new String[] { SearchServerServlet.RESPONSE_JSON, SearchServerServlet.RESPONSE_JSON_NEW }) {
+                double marshalled = timeResponses(metadata, outputFormat, false);
+                double generated = timeResponses(metadata, outputFormat, true);
+                System.out.println("Run" + run + ":" + outputFormat
+                        + ":Marshalled us:" + Math.round(marshalled)
+                        + ":Generated us:" + Math.round(generated)
+                        + ":Ratio:" + Math.round(marshalled / generated * 10) / 10.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.musicbrainz.search.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.MbDocument;
+import org.musicbrainz.search.analysis.MusicbrainzSimilarity;
+import org.musicbrainz.search.index.ArtistIndexField;
+import org.musicbrainz.search.index.DatabaseIndex;
+import org.musicbrainz.search.index.MetaIndexField;
+
+/**
+ * Searching the segments of an index in parallel must give the same hits as searching them one after another
+ */
+public class ParallelSegmentSearchTest {
+
+  private static final int SEGMENTS = 5;
+  private static final int ARTISTS_PER_SEGMENT = 40;
+
+  private static final String[] NAMES = { "Farming", "Incident", "Farming Incident", "The Farmers", "Incidental" };
+  private static final String[] TAGS = { "rock", "thrash", "rock thrash", "jazz" };
+
+  private ExecutorService executor;
+  private SearcherManager serialSearcherManager;
+  private SearcherManager parallelSearcherManager;
+  private AbstractSearchServer serial;
+  private AbstractSearchServer parallel;
+
+  @Before
+  public void setUp() throws Exception {
+    RAMDirectory ramDir = new RAMDirectory();
+    Analyzer analyzer = DatabaseIndex.getAnalyzer(ArtistIndexField.class);
+    IndexWriterConfig writerConfig = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, analyzer);
+    writerConfig.setSimilarity(new MusicbrainzSimilarity());
+    writerConfig.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter writer = new IndexWriter(ramDir, writerConfig);
+
+    // Each commit writes a segment, names are repeated so many hits have the same score
+    int id = 0;
+    for (int i = 0; i < SEGMENTS; i++) {
+      for (int j = 0; j < ARTISTS_PER_SEGMENT; j++) {
+        MbDocument doc = new MbDocument();
+        doc.addField(ArtistIndexField.ARTIST_ID, "artist-" + id);
+        doc.addField(ArtistIndexField.ARTIST, NAMES[id % NAMES.length]);
+        doc.addField(ArtistIndexField.SORTNAME, NAMES[id % NAMES.length]);
+        doc.addField(ArtistIndexField.TAG, TAGS[(id / NAMES.length) % TAGS.length]);
+        writer.addDocument(doc.getLuceneDocument());
+        id++;
+      }
+      writer.commit();
+    }
+
+    {
+      MbDocument doc = new MbDocument();
+      doc.addField(MetaIndexField.META, MetaIndexField.META_VALUE);
+      doc.addNumericField(MetaIndexField.LAST_UPDATED, new Date().getTime());
+      writer.addDocument(doc.getLuceneDocument());
+    }
+    writer.close();
+
+    executor = Executors.newFixedThreadPool(3);
+    serialSearcherManager = new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.ARTIST));
+    parallelSearcherManager = new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.ARTIST, null, executor));
+    serial = new ArtistSearch(serialSearcherManager);
+    parallel = new ArtistSearch(parallelSearcherManager);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    serial.close();
+    parallel.close();
+    executor.shutdownNow();
+  }
+
+  private void assertSameResults(Results expected, Results actual) {
+    assertEquals(expected.getTotalHits(), actual.getTotalHits());
+    assertEquals(expected.getMaxScore(), actual.getMaxScore(), 0.0f);
+    assertEquals(expected.getOffset(), actual.getOffset());
+    assertEquals(expected.results.size(), actual.results.size());
+    for (int i = 0; i < expected.results.size(); i++) {
+      assertEquals(expected.results.get(i).getDoc().get(ArtistIndexField.ARTIST_ID),
+          actual.results.get(i).getDoc().get(ArtistIndexField.ARTIST_ID));
+      assertEquals(expected.results.get(i).getScore(), actual.results.get(i).getScore(), 0.0f);
+    }
+    assertEquals(String.valueOf(expected.getCursor()), String.valueOf(actual.getCursor()));
+  }
+
+  @Test
+  public void testSearchersAreSerialAndParallel() throws Exception {
+    IndexSearcher searcher = serialSearcherManager.acquire();
+    try {
+      assertFalse(((MusicBrainzIndexSearcher) searcher).isParallel());
+    } finally {
+      serialSearcherManager.release(searcher);
+    }
+
+    searcher = parallelSearcherManager.acquire();
+    try {
+      assertTrue(searcher.getIndexReader().leaves().size() > 1);
+      assertTrue(((MusicBrainzIndexSearcher) searcher).isParallel());
+    } finally {
+      parallelSearcherManager.release(searcher);
+    }
+  }
+
+  @Test
+  public void testSameHitsWhenSegmentsSearchedInParallel() throws Exception {
+    String[] queries = { "artist:farming", "artist:incident OR tag:rock", "tag:thrash", "artist:\"farming incident\"",
+        "arid:artist-17", "artist:nomatch" };
+    for (String query : queries) {
+      for (int offset = 0; offset < 60; offset += 25) {
+        assertSameResults(serial.search(query, offset, 25), parallel.search(query, offset, 25));
+      }
+    }
+  }
+
+  @Test
+  public void testSamePagesWhenSegmentsSearchedInParallel() throws Exception {
+    String query = "artist:incident OR tag:rock";
+    Results serialResults = serial.search(query, 0, 10);
+    Results parallelResults = parallel.search(query, 0, 10);
+    assertSameResults(serialResults, parallelResults);
+    assertTrue(serialResults.getTotalHits() > 30);
+
+    // Page through using the cursor of the other search, so each page is found from the same position
+    for (int page = 1; page < 4; page++) {
+      Results nextSerial = serial.searchAfter(query, parallelResults.getCursor(), 10);
+      Results nextParallel = parallel.searchAfter(query, serialResults.getCursor(), 10);
+      assertSameResults(nextSerial, nextParallel);
+      serialResults = nextSerial;
+      parallelResults = nextParallel;
+    }
+  }
+}
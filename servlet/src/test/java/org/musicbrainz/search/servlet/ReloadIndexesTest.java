@@ -3,12 +3,16 @@ package org.musicbrainz.search.servlet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.RAMDirectory;
@@ -182,6 +186,88 @@ public class ReloadIndexesTest {
     assertEquals(1, res.getTotalHits());
   }
 
+  @Test
+  public void testCachedResultsDroppedWhenIndexChanged() throws Exception {
+    ResultsCache cache = new ResultsCache(1024 * 1024);
+    ss.setResultsCache(cache);
+
+    Results res = ss.search("type:\"group\"", 0, 10);
+    assertEquals(1, res.getTotalHits());
+    assertEquals(0, cache.getHits());
+    assertEquals(1, cache.getMisses());
+
+    // Same query with different whitespace
+    res = ss.search(" type:\"group\"  ", 0, 10);
+    assertEquals(1, res.getTotalHits());
+    assertEquals(1, cache.getHits());
+
+    // Nothing changed so cache is kept
+    ss.reloadIndex();
+    assertEquals(1, cache.size());
+
+    addArtist2();
+    ss.reloadIndex();
+    assertEquals(0, cache.size());
+
+    res = ss.search("type:\"group\"", 0, 10);
+    assertEquals(2, res.getTotalHits());
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testDismaxResultsCachedSeparately() throws Exception {
+    ResultsCache cache = new ResultsCache(1024 * 1024);
+    ss.setResultsCache(cache);
+
+    ss.search("Farming", 0, 10);
+    sd.search("Farming", 0, 10);
+    assertEquals(2, cache.size());
+    Results res = sd.search("Farming", 0, 10);
+    assertEquals(1, res.getTotalHits());
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testCacheEvictsWhenFull() throws Exception {
+    // Only room for the results of one query, each query matches the same single artist
+    long size = ResultsCache.estimateSize(ss.search("Farming", 0, 10));
+    ResultsCache cache = new ResultsCache(size + size / 2);
+    ss.setResultsCache(cache);
+
+    ss.search("type:\"group\"", 0, 10);
+    ss.search("Farming", 0, 10);
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getEvictions());
+    assertEquals(size, cache.getUsedBytes());
+  }
+
+  @Test
+  public void testNewSearcherWarmedWithRecentQueries() throws Exception {
+    final List<Integer> warmed = new ArrayList<Integer>();
+    SearcherWarmer warmer = new SearcherWarmer(ResourceType.ARTIST, 5000, 2) {
+      @Override
+      public int warm(IndexSearcher searcher) {
+        int count = super.warm(searcher);
+        warmed.add(count);
+        return count;
+      }
+    };
+    SearcherManager searcherManager = new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.ARTIST, warmer));
+    AbstractSearchServer searchServer = new ArtistSearch(searcherManager);
+    searchServer.setSearcherWarmer(warmer);
+    assertEquals(Arrays.asList(0), warmed);
+
+    searchServer.search("type:\"group\"", 0, 10);
+    searchServer.search("Farming", 0, 10);
+    searchServer.search("Incident", 0, 10);
+    searchServer.search("Farming", 0, 10);
+    assertEquals(2, warmer.getQueries().size());
+
+    addArtist2();
+    searchServer.reloadIndex();
+    assertEquals(Arrays.asList(0, 2), warmed);
+  }
+
   @Test
   public void testDismaxSearchUsesSameResultWriter() throws Exception {
 /*
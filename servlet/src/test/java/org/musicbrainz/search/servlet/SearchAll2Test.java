@@ -29,6 +29,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -399,6 +400,28 @@ public class SearchAll2Test
 
     }
 
+    @Test
+    public void testSearchAllWithOffset() throws Exception
+    {
+        // Label has the best score then the artists, skip the label
+        AllWriter writer = new AllWriter(1, 2,
+                artistSearch.search("dark", 0, 3),
+                releaseSearch.search("dark", 0, 3),
+                releaseGroupSearch.search("dark", 0, 3),
+                labelSearch.search("dark", 0, 3),
+                recordingSearch.search("dark", 0, 3),
+                workSearch.search("dark", 0, 3));
+        StringWriter sw = new StringWriter();
+        PrintWriter pr = new PrintWriter(sw);
+        writer.write(pr, new Results(), "xml", true);
+        pr.close();
+        String output = sw.toString();
+        assertTrue(output.contains("<entity-list count=\"4\" offset=\"1\">"));
+        assertFalse(output.contains("a539bb1e-f2e1-4b45-9db8-8053841e7504"));
+        assertTrue(output.contains("<artist id=\"4302e264-1cf0-4d1f-aca7-2a6f89e34b36\" type=\"Group\" ext:score=\"56\">"));
+        assertEquals(2, output.split("<artist id=").length - 1);
+    }
+
     @Test
     public void testSearchAllJson() throws Exception
     {
@@ -0,0 +1,161 @@
+package org.musicbrainz.search.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Counter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.MbDocument;
+import org.musicbrainz.search.analysis.MusicbrainzSimilarity;
+import org.musicbrainz.search.index.ArtistIndexField;
+import org.musicbrainz.search.index.DatabaseIndex;
+import org.musicbrainz.search.index.MetaIndexField;
+
+/**
+ * Searches stopped by the time allowed or the number of hits counted return the hits found so far
+ */
+public class SearchLimitsTest {
+
+  private static final int SEGMENTS = 4;
+  private static final int ARTISTS_PER_SEGMENT = 50;
+
+  private ExecutorService executor;
+  private AbstractSearchServer ss;
+  private AbstractSearchServer parallel;
+
+  /**
+   * Clock that moves on a millisecond every time it is read, so a search runs out of time after reading it a known
+   * number of times
+   */
+  private static class TickingCounter extends Counter {
+    private long ticks;
+
+    @Override
+    public synchronized long addAndGet(long delta) {
+      ticks += delta;
+      return ticks;
+    }
+
+    @Override
+    public synchronized long get() {
+      return ++ticks;
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    RAMDirectory ramDir = new RAMDirectory();
+    Analyzer analyzer = DatabaseIndex.getAnalyzer(ArtistIndexField.class);
+    IndexWriterConfig writerConfig = new IndexWriterConfig(LuceneVersion.LUCENE_VERSION, analyzer);
+    writerConfig.setSimilarity(new MusicbrainzSimilarity());
+    writerConfig.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter writer = new IndexWriter(ramDir, writerConfig);
+
+    int id = 0;
+    for (int i = 0; i < SEGMENTS; i++) {
+      for (int j = 0; j < ARTISTS_PER_SEGMENT; j++) {
+        MbDocument doc = new MbDocument();
+        doc.addField(ArtistIndexField.ARTIST_ID, "artist-" + id);
+        doc.addField(ArtistIndexField.ARTIST, id % 2 == 0 ? "Farming Incident" : "Farming");
+        doc.addField(ArtistIndexField.SORTNAME, "Farming");
+        doc.addField(ArtistIndexField.TAG, "rock");
+        writer.addDocument(doc.getLuceneDocument());
+        id++;
+      }
+      writer.commit();
+    }
+
+    {
+      MbDocument doc = new MbDocument();
+      doc.addField(MetaIndexField.META, MetaIndexField.META_VALUE);
+      doc.addNumericField(MetaIndexField.LAST_UPDATED, new Date().getTime());
+      writer.addDocument(doc.getLuceneDocument());
+    }
+    writer.close();
+
+    executor = Executors.newFixedThreadPool(2);
+    ss = new ArtistSearch(new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.ARTIST)));
+    parallel = new ArtistSearch(new SearcherManager(ramDir, new MusicBrainzSearcherFactory(ResourceType.ARTIST, null, executor)));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    ss.close();
+    parallel.close();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testNoLimitsReached() throws Exception {
+    ss.setMaxCountedHits(1000);
+    Results res = ss.search("tag:rock", 0, 10);
+    assertEquals(SEGMENTS * ARTISTS_PER_SEGMENT, res.getTotalHits());
+    assertFalse(res.isPartial());
+    assertFalse(res.isTotalHitsLowerBound());
+    assertNotNull(res.getCursor());
+  }
+
+  @Test
+  public void testCountStopsAtMaxCountedHits() throws Exception {
+    ss.setMaxCountedHits(30);
+    Results res = ss.search("tag:rock", 0, 10);
+    assertEquals(30, res.getTotalHits());
+    assertEquals(10, res.results.size());
+    // Better hits may come after the hits counted, so no cursor to page through them
+    assertTrue(res.isPartial());
+    assertTrue(res.isTotalHitsLowerBound());
+    assertNull(res.getCursor());
+  }
+
+  @Test
+  public void testCountStopsAtMaxCountedHitsWhenSegmentsSearchedInParallel() throws Exception {
+    parallel.setMaxCountedHits(30);
+    Results res = parallel.search("tag:rock", 0, 10);
+    assertTrue(res.getTotalHits() >= 30);
+    assertTrue(res.getTotalHits() < SEGMENTS * ARTISTS_PER_SEGMENT);
+    assertEquals(10, res.results.size());
+    assertTrue(res.isPartial());
+    assertTrue(res.isTotalHitsLowerBound());
+    assertNull(res.getCursor());
+  }
+
+  @Test
+  public void testPartialResultsWhenTimeRunsOut() throws Exception {
+    MusicBrainzIndexSearcher searcher = (MusicBrainzIndexSearcher) ss.getSearcherManager().acquire();
+    try {
+      searcher.setClock(new TickingCounter());
+    } finally {
+      ss.getSearcherManager().release(searcher);
+    }
+
+    ss.setMaxSearchTimeMs(20);
+    Results res = ss.search("artist:farming", 0, 10);
+    assertTrue(res.isPartial());
+    assertFalse(res.isTotalHitsLowerBound());
+    assertTrue(res.getTotalHits() > 0);
+    assertTrue(res.getTotalHits() < SEGMENTS * ARTISTS_PER_SEGMENT);
+    assertNull(res.getCursor());
+
+    // With no time limit all hits are found
+    ss.setMaxSearchTimeMs(0);
+    res = ss.search("artist:farming", 0, 10);
+    assertFalse(res.isPartial());
+    assertEquals(SEGMENTS * ARTISTS_PER_SEGMENT, res.getTotalHits());
+  }
+}
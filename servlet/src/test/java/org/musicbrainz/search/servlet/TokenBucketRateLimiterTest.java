@@ -0,0 +1,129 @@
+package org.musicbrainz.search.servlet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketRateLimiterTest {
+
+    private static class TestClock implements TokenBucketRateLimiter.Clock {
+        long now = 1000;
+
+        public long nanoTime() {
+            return now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now += TimeUnit.SECONDS.toNanos(seconds);
+        }
+    }
+
+    private TestClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new TestClock();
+    }
+
+    @Test
+    public void testClientLimit() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 0, 10, TimeUnit.SECONDS, 1, clock);
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertTrue(limiter.check("1.2.3.4").isValid());
+
+        RateLimiterChecker.RateLimiterResponse response = limiter.check("1.2.3.4");
+        assertFalse(response.isValid());
+        assertEquals("3", response.getLimit());
+        assertEquals("10", response.getPeriod());
+        assertEquals("4 3 10", response.getHeaderMsg());
+
+        // Other clients not affected
+        assertTrue(limiter.check("5.6.7.8").isValid());
+    }
+
+    @Test
+    public void testTokensRefilledOverPeriod() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 0, 10, TimeUnit.SECONDS, 1, clock);
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertFalse(limiter.check("1.2.3.4").isValid());
+
+        // One token every five seconds
+        clock.advanceSeconds(5);
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertFalse(limiter.check("1.2.3.4").isValid());
+
+        // Never more than the limit however long idle
+        clock.advanceSeconds(1000);
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertTrue(limiter.check("1.2.3.4").isValid());
+        assertFalse(limiter.check("1.2.3.4").isValid());
+    }
+
+    @Test
+    public void testGlobalLimit() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 2, 10, TimeUnit.SECONDS, 1, clock);
+        assertTrue(limiter.check("1.1.1.1").isValid());
+        assertTrue(limiter.check("2.2.2.2").isValid());
+
+        RateLimiterChecker.RateLimiterResponse response = limiter.check("3.3.3.3");
+        assertFalse(response.isValid());
+        assertNull(response.getHeaderMsg());
+        assertNotNull(response.getMsg());
+
+        clock.advanceSeconds(5);
+        assertTrue(limiter.check("3.3.3.3").isValid());
+    }
+
+    @Test
+    public void testGlobalLimitStriped() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 8, 10, TimeUnit.SECONDS, 4, clock);
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (limiter.check("10.0.0." + i).isValid()) {
+                allowed++;
+            }
+        }
+        assertEquals(8, allowed);
+    }
+
+    @Test
+    public void testGlobalLimitNotDivisibleByStripes() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 10, 10, TimeUnit.SECONDS, 4, clock);
+        for (int period = 0; period < 2; period++) {
+            int allowed = 0;
+            for (int i = 0; i < 100; i++) {
+                if (limiter.check("10.0." + period + "." + i).isValid()) {
+                    allowed++;
+                }
+            }
+            assertEquals(10, allowed);
+            clock.advanceSeconds(10);
+        }
+    }
+
+    @Test
+    public void testClientsOnTheSameStripeShareTheGlobalLimit() {
+        // Two clients starting with the same one of four stripes
+        String client1 = "10.0.0.0";
+        String client2 = null;
+        for (int i = 1; client2 == null; i++) {
+            String client = "10.0.0." + i;
+            if ((client.hashCode() & 0x7fffffff) % 4 == (client1.hashCode() & 0x7fffffff) % 4) {
+                client2 = client;
+            }
+        }
+
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 8, 10, TimeUnit.SECONDS, 4, clock);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.check(client1).isValid());
+            assertTrue(limiter.check(client2).isValid());
+        }
+        assertFalse(limiter.check(client1).isValid());
+        assertFalse(limiter.check(client2).isValid());
+    }
+}
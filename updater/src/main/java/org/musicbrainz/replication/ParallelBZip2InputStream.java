@@ -0,0 +1,317 @@
+package org.musicbrainz.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * Decompresses a bzip2 stream on several threads.
+ *
+ * A bzip2 stream is a sequence of blocks compressed independently of each other, starting at bit rather than byte
+ * boundaries. The compressed stream is read in memory and the blocks are found by their magic number. Each block is
+ * then copied to a bzip2 stream of its own, so that it can be decompressed by {@link BZip2CompressorInputStream} on
+ * one of the threads, checking its CRC. A few blocks are decompressed ahead of the reader, and returned in order.
+ *
+ * A magic number may also appear by chance inside compressed data, a block that then fails to decompress is retried
+ * together with the following one.
+ */
+public class ParallelBZip2InputStream extends InputStream {
+
+	private static final long BLOCK_MAGIC = 0x314159265359L;
+	private static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+	private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+	private static final int MAGIC_BITS = 48;
+	private static final int CRC_BITS = 32;
+	private static final int HEADER_BITS = 32;
+
+	private final byte[] compressed;
+	private final int blockSizeLevel;
+	// Bit offsets of the magic numbers found, the last one ending the stream
+	private final List<Long> magicOffsets = new ArrayList<Long>();
+	private final List<Boolean> magicIsBlock = new ArrayList<Boolean>();
+
+	private final ExecutorService executor;
+	private final int maxBlocksAhead;
+	private final LinkedList<Block> blocksAhead = new LinkedList<Block>();
+	private int nextMagic = 0;
+
+	private byte[] data = new byte[0];
+	private int dataPosition = 0;
+	private boolean closed = false;
+
+	/**
+	 * Decompressed data of the blocks between two magic numbers
+	 */
+	private class Block {
+
+		private final int firstMagic;
+		private final int lastMagic;
+		private final Future<byte[]> data;
+
+		private Block(final int firstMagic, final int lastMagic) {
+			this.firstMagic = firstMagic;
+			this.lastMagic = lastMagic;
+			this.data = executor.submit(new Callable<byte[]>() {
+				@Override
+				public byte[] call() throws Exception {
+					return decompress(firstMagic, lastMagic);
+				}
+			});
+		}
+	}
+
+	/**
+	 * @param input
+	 *            the compressed stream, read to the end and closed
+	 * @param numThreads
+	 *            the number of threads decompressing blocks
+	 */
+	public ParallelBZip2InputStream(InputStream input, int numThreads) throws IOException {
+
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				content.write(buffer, 0, read);
+			}
+		} finally {
+			input.close();
+		}
+		compressed = content.toByteArray();
+
+		if (compressed.length < HEADER_BITS / 8 || compressed[0] != 'B' || compressed[1] != 'Z' || compressed[2] != 'h'
+				|| compressed[3] < '1' || compressed[3] > '9') {
+			throw new IOException("Not a bzip2 stream");
+		}
+		blockSizeLevel = compressed[3];
+		findMagicNumbers();
+
+		maxBlocksAhead = numThreads * 2;
+		executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "bzip2-decompression");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	private void findMagicNumbers() throws IOException {
+		long bits = 0;
+		for (int i = 0; i < compressed.length; i++) {
+			bits = (bits << 8) | (compressed[i] & 0xFF);
+			long end = (i + 1) * 8L;
+			// Check each magic number ending in this byte, the earliest first
+			for (int shift = 7; shift >= 0; shift--) {
+				long start = end - shift - MAGIC_BITS;
+				if (start < HEADER_BITS) {
+					continue;
+				}
+				long candidate = (bits >>> shift) & MAGIC_MASK;
+				if (candidate == BLOCK_MAGIC || candidate == END_OF_STREAM_MAGIC) {
+					magicOffsets.add(start);
+					magicIsBlock.add(candidate == BLOCK_MAGIC);
+				}
+			}
+		}
+		if (magicOffsets.isEmpty() || magicIsBlock.get(magicIsBlock.size() - 1)) {
+			throw new IOException("Truncated bzip2 stream");
+		}
+	}
+
+	/**
+	 * Copy the compressed data from the magic number firstMagic to the magic number lastMagic to a stream of its own
+	 * and decompress it.
+	 */
+	private byte[] decompress(int firstMagic, int lastMagic) throws IOException {
+
+		long start = magicOffsets.get(firstMagic);
+		long end = magicOffsets.get(lastMagic);
+
+		BitWriter writer = new BitWriter((int) ((end - start) / 8) + 20);
+		for (int i = 0; i < HEADER_BITS / 8; i++) {
+			writer.write(8, compressed[i] & 0xFF);
+		}
+		long position = start;
+		for (; position + 8 <= end; position += 8) {
+			writer.write(8, readBits(position, 8));
+		}
+		writer.write((int) (end - position), readBits(position, (int) (end - position)));
+		// A stream of a single block has the CRC of the block as its own
+		writer.write(MAGIC_BITS, END_OF_STREAM_MAGIC);
+		writer.write(CRC_BITS, readBits(start + MAGIC_BITS, CRC_BITS));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream((blockSizeLevel - '0') * 100000);
+		try {
+			InputStream blockInput = new BZip2CompressorInputStream(new ByteArrayInputStream(writer.toByteArray()));
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = blockInput.read(buffer)) != -1) {
+				output.write(buffer, 0, read);
+			}
+		} catch (RuntimeException e) {
+			// Data that is not a block may make the decompressor fail in other ways than a CRC error
+			throw new IOException("Invalid bzip2 block", e);
+		}
+		return output.toByteArray();
+	}
+
+	private long readBits(long position, int count) {
+		long result = 0;
+		for (int i = 0; i < count; i++, position++) {
+			int bit = (compressed[(int) (position >>> 3)] >>> (7 - (int) (position & 7))) & 1;
+			result = (result << 1) | bit;
+		}
+		return result;
+	}
+
+	private static class BitWriter extends ByteArrayOutputStream {
+
+		private long pending = 0;
+		private int pendingBits = 0;
+
+		private BitWriter(int size) {
+			super(size);
+		}
+
+		private void write(int count, long value) {
+			for (int i = count - 1; i >= 0; i--) {
+				pending = (pending << 1) | ((value >>> i) & 1);
+				if (++pendingBits == 8) {
+					write((int) pending);
+					pending = 0;
+					pendingBits = 0;
+				}
+			}
+		}
+
+		@Override
+		public synchronized byte[] toByteArray() {
+			if (pendingBits > 0) {
+				write((int) (pending << (8 - pendingBits)));
+				pending = 0;
+				pendingBits = 0;
+			}
+			return super.toByteArray();
+		}
+	}
+
+	/**
+	 * Start decompressing blocks up to the look-ahead limit
+	 */
+	private void submitBlocks() {
+		while (blocksAhead.size() < maxBlocksAhead && nextMagic < magicOffsets.size() - 1) {
+			if (magicIsBlock.get(nextMagic)) {
+				blocksAhead.add(new Block(nextMagic, nextMagic + 1));
+			}
+			nextMagic++;
+		}
+	}
+
+	private boolean nextBlock() throws IOException {
+		submitBlocks();
+		if (blocksAhead.isEmpty()) {
+			return false;
+		}
+
+		Block block = blocksAhead.removeFirst();
+		try {
+			data = block.data.get();
+		} catch (InterruptedException e) {
+			throw new IOException("Interrupted", e);
+		} catch (ExecutionException e) {
+			data = decompressWithFollowingBlocks(block, e.getCause());
+		}
+		dataPosition = 0;
+		submitBlocks();
+		return true;
+	}
+
+	/**
+	 * The end of a block was a magic number appearing by chance, so try again up to the next magic numbers
+	 */
+	private byte[] decompressWithFollowingBlocks(Block block, Throwable cause) throws IOException {
+		int lastMagic = block.lastMagic;
+		while (lastMagic < magicOffsets.size() - 1) {
+			lastMagic++;
+			if (!blocksAhead.isEmpty() && blocksAhead.getFirst().firstMagic < lastMagic) {
+				blocksAhead.removeFirst().data.cancel(true);
+			}
+			nextMagic = Math.max(nextMagic, lastMagic);
+			try {
+				return decompress(block.firstMagic, lastMagic);
+			} catch (IOException e) {
+				// Try with the next magic number
+			}
+		}
+		throw new IOException("Unable to decompress bzip2 block", cause);
+	}
+
+	/**
+	 * @return false at the end of the stream
+	 */
+	private boolean ensureData() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (dataPosition == data.length) {
+			if (!nextBlock()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!ensureData()) {
+			return -1;
+		}
+		return data[dataPosition++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!ensureData()) {
+			return -1;
+		}
+		int count = Math.min(len, data.length - dataPosition);
+		System.arraycopy(data, dataPosition, b, off, count);
+		dataPosition += count;
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return data.length - dataPosition;
+	}
+
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			for (Block block : blocksAhead) {
+				block.data.cancel(true);
+			}
+			blocksAhead.clear();
+			executor.shutdownNow();
+		}
+	}
+}
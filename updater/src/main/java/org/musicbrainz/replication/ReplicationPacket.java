@@ -2,7 +2,8 @@ package org.musicbrainz.replication;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -15,10 +16,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.SortedMap;
-import java.util.StringTokenizer;
 import java.util.TreeMap;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
@@ -137,13 +136,26 @@ public class ReplicationPacket {
 	}
 	
 	public static ReplicationPacket loadFromRepository(int sequence, String repositoryPath) {
+		return loadFromRepository(sequence, repositoryPath, 1);
+	}
+	
+	/**
+	 * @param decompressionThreads
+	 *            the number of threads decompressing the packet, 1 to decompress it as it is read
+	 * @return the packet, null if it isn't available
+	 */
+	public static ReplicationPacket loadFromRepository(int sequence, String repositoryPath, int decompressionThreads) {
 
 		ReplicationPacket packet = null;
 		
 		try {
 			URL url = new URL(repositoryPath + "/" + "replication-"+sequence+".tar.bz2");
 			InputStream input = url.openStream();
-			packet = ReplicationPacket.loadFromRepository(input);
+			try {
+				packet = ReplicationPacket.load(input, decompressionThreads);
+			} finally {
+				input.close();
+			}
 		} catch (MalformedURLException e) {
 			e.printStackTrace();
 		} catch (FileNotFoundException e) {
@@ -155,118 +167,138 @@ public class ReplicationPacket {
 		return packet;
 	}	
 	
-	private static ReplicationPacket loadFromRepository(InputStream input) throws IOException {
+	public static ReplicationPacket loadFromFile(File file, int decompressionThreads) throws IOException {
+		InputStream input = new FileInputStream(file);
+		try {
+			return load(input, decompressionThreads);
+		} finally {
+			input.close();
+		}
+	}
+	
+	/**
+	 * Rows of the pending tables are parsed as they are decompressed, rather than after reading each table.
+	 */
+	private static ReplicationPacket load(InputStream input, int decompressionThreads) throws IOException {
 		
 		ReplicationPacket packet = new ReplicationPacket();
 		
         // Create the archive input stream from the dump, assuming it's a tar.bz2 file
-        BufferedInputStream fileInput = new BufferedInputStream(input);
-        BZip2CompressorInputStream bzIn = new BZip2CompressorInputStream(fileInput);
+        InputStream bzIn;
+        if (decompressionThreads > 1) {
+        	bzIn = new ParallelBZip2InputStream(input, decompressionThreads);
+        } else {
+        	BufferedInputStream fileInput = new BufferedInputStream(input);
+        	// The decompressor refuses a stream with nothing available yet, as a remote one may be at first
+        	fileInput.mark(1);
+        	fileInput.read();
+        	fileInput.reset();
+        	bzIn = new BZip2CompressorInputStream(fileInput);
+        }
         TarArchiveInputStream tarIn = new TarArchiveInputStream(bzIn);
 
         SortedMap<Integer,ReplicationChange> changes = new TreeMap<Integer,ReplicationChange>();
         
-        ArchiveEntry entry;
-        while ((entry = tarIn.getNextEntry()) != null) {
-        	
-        	// REPLICATION_SEQUENCE
-            if (entry.getName().equals("REPLICATION_SEQUENCE") ) {
-            
-                byte[] content = new byte[(int) entry.getSize()];
-                tarIn.read(content, 0, (int) entry.getSize());
-
-                BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)));
-                String line = reader.readLine();
-                packet.setReplicationSequence(Integer.parseInt(line));
-		
-           	// SCHEMA_SEQUENCE
-            } else if (entry.getName().equals("SCHEMA_SEQUENCE") ) {
-                
-                byte[] content = new byte[(int) entry.getSize()];
-                tarIn.read(content, 0, (int) entry.getSize());
-
-                BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)));
-                String line = reader.readLine();
-                packet.setSchemaSequence(Integer.parseInt(line));
-		
-            // dbmirror_pending
-            } else if (entry.getName().equals("mbdump/dbmirror_pending")
-            		|| entry.getName().equals("mbdump/Pending")) {
-                
-                byte[] content = new byte[(int) entry.getSize()];
-                tarIn.read(content, 0, (int) entry.getSize());
-
-                BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)));
-                String line;
-                while ((line = reader.readLine()) != null) {
-              	   
-                	StringTokenizer st = new StringTokenizer(line, "\t");
-                	int id = Integer.parseInt(st.nextToken());
-                	
-                	ReplicationChange change;
-                	if (changes.containsKey(id)) {
-                		change = changes.get(id);
-                	} else {
-                		change = new ReplicationChange(id);
-                		changes.put(id, change);
-                	}
-                	
-                	change.setTableName(sanitizeTableName(st.nextToken()));
-                	change.setOperation(st.nextToken());
-                	
-                	changes.put(change.getId(), change);
-                }
-		
-             // dbmirror_pendingdata
-            } else if (entry.getName().equals("mbdump/dbmirror_pendingdata") 
-            		|| entry.getName().equals("mbdump/PendingData")) {
-                
-                byte[] content = new byte[(int) entry.getSize()];
-                tarIn.read(content, 0, (int) entry.getSize());
-
-                BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                	 
-                	StringTokenizer st = new StringTokenizer(line, "\t");
-                	int id = Integer.parseInt(st.nextToken());
-                	
-                	ReplicationChange change;
-                	if (changes.containsKey(id)) {
-                		change = changes.get(id);
-                	} else {
-                		change = new ReplicationChange(id);
-                		changes.put(id, change);
-                	}
-                	
-                	String opcode = st.nextToken();
-                	String values = st.nextToken();
-                	
-                	switch (change.getOperation()) {
-                		case INSERT:
-                			change.setNewValues(UnpackUtils.unpackData(values));
-                			break;
-                		case UPDATE:
-                			if ("f".equals(opcode)) change.setOldValues(UnpackUtils.unpackData(values));
-                			if ("t".equals(opcode)) change.setNewValues(UnpackUtils.unpackData(values));
-                			break;
-                		case DELETE:
-                			change.setOldValues(UnpackUtils.unpackData(values));
-                			break;
-                	}
-                	
-                }
-		
-            }
+        try {
+	        ArchiveEntry entry;
+	        while ((entry = tarIn.getNextEntry()) != null) {
+	        	
+	        	// The reader ends with the entry, it mustn't be closed as that would close the archive
+	            BufferedReader reader = new BufferedReader(new InputStreamReader(tarIn, "UTF-8"));
+	
+	            // REPLICATION_SEQUENCE
+	            if (entry.getName().equals("REPLICATION_SEQUENCE") ) {
+	                packet.setReplicationSequence(readSequence(reader, entry));
+			
+	           	// SCHEMA_SEQUENCE
+	            } else if (entry.getName().equals("SCHEMA_SEQUENCE") ) {
+	                packet.setSchemaSequence(readSequence(reader, entry));
+			
+	            // dbmirror_pending
+	            } else if (entry.getName().equals("mbdump/dbmirror_pending")
+	            		|| entry.getName().equals("mbdump/Pending")) {
+	                
+	                String line;
+	                while ((line = reader.readLine()) != null) {
+	                	
+	                	// seqid, tablename, op
+	                	int tableStart = line.indexOf('\t') + 1;
+	                	int operationStart = line.indexOf('\t', tableStart) + 1;
+	                	if (tableStart == 0 || operationStart == 0) {
+	                		throw new IOException("Invalid row in " + entry.getName() + ": " + line);
+	                	}
+	                	int operationEnd = line.indexOf('\t', operationStart);
+	                	
+	                	ReplicationChange change = getChange(changes, Integer.parseInt(line.substring(0, tableStart - 1)));
+	                	change.setTableName(sanitizeTableName(line.substring(tableStart, operationStart - 1)));
+	                	change.setOperation(operationEnd < 0 ? line.substring(operationStart) : line.substring(operationStart, operationEnd));
+	                }
+			
+	             // dbmirror_pendingdata
+	            } else if (entry.getName().equals("mbdump/dbmirror_pendingdata") 
+	            		|| entry.getName().equals("mbdump/PendingData")) {
+	                
+	                String line;
+	                while ((line = reader.readLine()) != null) {
+	                	
+	                	// seqid, iskey, data
+	                	int opcodeStart = line.indexOf('\t') + 1;
+	                	int valuesStart = line.indexOf('\t', opcodeStart) + 1;
+	                	if (opcodeStart == 0 || valuesStart == 0) {
+	                		throw new IOException("Invalid row in " + entry.getName() + ": " + line);
+	                	}
+	                	
+	                	ReplicationChange change = getChange(changes, Integer.parseInt(line.substring(0, opcodeStart - 1)));
+	                	if (change.getOperation() == null) {
+	                		throw new IOException("No pending operation for the data of change #" + change.getId());
+	                	}
+	                	
+	                	String opcode = line.substring(opcodeStart, valuesStart - 1);
+	                	String values = UnpackUtils.unescapeCopyText(line.substring(valuesStart));
+	                	
+	                	switch (change.getOperation()) {
+	                		case INSERT:
+	                			change.setNewValues(UnpackUtils.unpackData(values));
+	                			break;
+	                		case UPDATE:
+	                			if ("f".equals(opcode)) change.setOldValues(UnpackUtils.unpackData(values));
+	                			if ("t".equals(opcode)) change.setNewValues(UnpackUtils.unpackData(values));
+	                			break;
+	                		case DELETE:
+	                			change.setOldValues(UnpackUtils.unpackData(values));
+	                			break;
+	                	}
+	                	
+	                }
+			
+	            }
+	        }
+        } finally {
+        	bzIn.close();
         }
         
-        for (Iterator<Integer> iterator = changes.keySet().iterator(); iterator.hasNext();) {
-        	packet.getChanges().add(changes.get(iterator.next()));
-		}
+        packet.getChanges().addAll(changes.values());
         
 		return packet;
 	}
 	
+	private static int readSequence(BufferedReader reader, ArchiveEntry entry) throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			throw new IOException("Empty " + entry.getName());
+		}
+		return Integer.parseInt(line.trim());
+	}
+	
+	private static ReplicationChange getChange(SortedMap<Integer,ReplicationChange> changes, int id) {
+		ReplicationChange change = changes.get(id);
+		if (change == null) {
+			change = new ReplicationChange(id);
+			changes.put(id, change);
+		}
+		return change;
+	}
+	
 	private static String sanitizeTableName(String inputTableName) {
 		String outputTableName = inputTableName.replace("\"public\".", "").replace("\"musicbrainz\".", ""); 
 		return outputTableName.substring(1, outputTableName.length()-1);
@@ -2,6 +2,14 @@ package org.musicbrainz.replication;
 
 import java.sql.Connection;
 import java.util.Iterator;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.musicbrainz.search.index.ReplicationInformation;
 import org.musicbrainz.search.update.LiveDataFeedIndexUpdaterOptions;
@@ -15,6 +23,10 @@ public class ReplicationPacketIterator implements Iterator<ReplicationPacket> {
 
 	private ReplicationInformation currentReplicationPosition = null;
 
+	private int maxPrefetchedPackets = 0;
+	private ExecutorService prefetchExecutor = null;
+	private final SortedMap<Integer, Future<ReplicationPacket>> prefetchedPackets = new TreeMap<Integer, Future<ReplicationPacket>>();
+
 	/**
 	 * 
 	 * @param initialReplicationInfo
@@ -35,6 +47,17 @@ public class ReplicationPacketIterator implements Iterator<ReplicationPacket> {
 		this.databaseConnection = databaseConnection;
 	}
 
+	/**
+	 * Load the following packets from the repository in the background while the current one is used. Packets are
+	 * still returned strictly in sequence, and the iteration ends at the first packet that can't be loaded.
+	 * 
+	 * @param maxPrefetchedPackets
+	 *            the most packets loaded ahead of the current one, 0 to load each packet when needed
+	 */
+	public void setMaxPrefetchedPackets(int maxPrefetchedPackets) {
+		this.maxPrefetchedPackets = maxPrefetchedPackets;
+	}
+
 	@Override
 	public boolean hasNext() {
 		if (!nextPacketChecked) {
@@ -69,7 +92,11 @@ public class ReplicationPacketIterator implements Iterator<ReplicationPacket> {
 		int packetNo = currentReplicationPosition.replicationSequence + 1;
 
 		// First try to load from repository
-		nextPacket = ReplicationPacket.loadFromRepository(packetNo, LiveDataFeedIndexUpdaterOptions.getInstance().getRepositoryPath());
+		if (maxPrefetchedPackets > 0) {
+			nextPacket = loadPrefetchedPacket(packetNo);
+		} else {
+			nextPacket = loadPacket(packetNo);
+		}
 
 		// No packet in repository: let's try with pending changes from database
 		if (useLocalDatabase && databaseConnection != null && nextPacket == null && currentReplicationPosition.changeSequence != null) {
@@ -79,6 +106,82 @@ public class ReplicationPacketIterator implements Iterator<ReplicationPacket> {
 		nextPacketChecked = true;
 	}
 
+	private static ReplicationPacket loadPacket(int packetNo) {
+		LiveDataFeedIndexUpdaterOptions options = LiveDataFeedIndexUpdaterOptions.getInstance();
+		return ReplicationPacket.loadFromRepository(packetNo, options.getRepositoryPath(), options.getDecompressionThreads());
+	}
+
+	private ReplicationPacket loadPrefetchedPacket(int packetNo) {
+		if (prefetchExecutor == null) {
+			prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "replication-packet-prefetch");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		// Packets before this one are no longer needed
+		SortedMap<Integer, Future<ReplicationPacket>> passedPackets = prefetchedPackets.headMap(packetNo);
+		for (Future<ReplicationPacket> passedPacket : passedPackets.values()) {
+			passedPacket.cancel(false);
+		}
+		passedPackets.clear();
+
+		// Packets are loaded one at a time in sequence, so the following ones are loaded while this one is used
+		for (int prefetchedPacketNo = packetNo; prefetchedPacketNo <= packetNo + maxPrefetchedPackets; prefetchedPacketNo++) {
+			if (!prefetchedPackets.containsKey(prefetchedPacketNo)) {
+				final int loadedPacketNo = prefetchedPacketNo;
+				prefetchedPackets.put(loadedPacketNo, prefetchExecutor.submit(new Callable<ReplicationPacket>() {
+					@Override
+					public ReplicationPacket call() {
+						return loadPacket(loadedPacketNo);
+					}
+				}));
+			}
+		}
+
+		ReplicationPacket packet;
+		try {
+			packet = prefetchedPackets.remove(packetNo).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while loading packet #" + packetNo, e);
+		} catch (ExecutionException e) {
+			cancelPrefetchedPackets();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("Unable to load packet #" + packetNo, e.getCause());
+		}
+
+		// The following packets mustn't be used without this one, and may be published later
+		if (packet == null) {
+			cancelPrefetchedPackets();
+		}
+		return packet;
+	}
+
+	private void cancelPrefetchedPackets() {
+		for (Future<ReplicationPacket> prefetchedPacket : prefetchedPackets.values()) {
+			prefetchedPacket.cancel(false);
+		}
+		prefetchedPackets.clear();
+	}
+
+	/**
+	 * Stop loading packets in the background
+	 */
+	public void close() {
+		cancelPrefetchedPackets();
+		if (prefetchExecutor != null) {
+			prefetchExecutor.shutdown();
+			prefetchExecutor = null;
+		}
+	}
+
 	@Override
 	public void remove() {
 		throw new UnsupportedOperationException();
@@ -2,32 +2,95 @@ package org.musicbrainz.replication;
 
 import java.util.HashMap;
 import java.util.Map;
-import jregex.Pattern;
-import jregex.Matcher;
 
 public class UnpackUtils {
 
-	private static Pattern UNPACK_PATTERN = new Pattern("\"([^\"]+)\"=('(?:''|[^'])*')? ");
-	
+	/**
+	 * Unpack the values of a row as written by dbmirror: <code>"name"='value' </code> for each column, with ' and \
+	 * escaped by doubling them, and <code>"name"= </code> for a null value.
+	 */
 	static Map<String, String> unpackData(String data) {
 
 		Map<String, String> map = new HashMap<String, String>();
-		
-		Matcher m = UNPACK_PATTERN.matcher(data);
-		while (m.find()) {	
-			String name = m.group(1);
-			String value = m.group(2);
-			
-			if (value != null) {
-				value = value.substring(1, value.length()-1) // remove leading white space
-						.replace("''", "'")					 // remove escaping of ' 
-						.replace("\\\\", "\\");				 // remove escaping of \
+		StringBuilder value = new StringBuilder();
+
+		int length = data.length();
+		int i = 0;
+		while (i < length) {
+			int nameStart = data.indexOf('"', i) + 1;
+			if (nameStart == 0) {
+				break;
+			}
+			int nameEnd = data.indexOf('"', nameStart);
+			if (nameEnd < 0 || nameEnd + 1 >= length || data.charAt(nameEnd + 1) != '=') {
+				break;
+			}
+			String name = data.substring(nameStart, nameEnd);
+			i = nameEnd + 2;
+
+			if (i < length && data.charAt(i) == '\'') {
+				value.setLength(0);
+				i++;
+				while (i < length) {
+					char c = data.charAt(i);
+					if (c == '\'') {
+						// A doubled ' is an escaped one, a single one ends the value
+						if (i + 1 < length && data.charAt(i + 1) == '\'') {
+							value.append(c);
+							i += 2;
+						} else {
+							i++;
+							break;
+						}
+					} else if (c == '\\' && i + 1 < length && data.charAt(i + 1) == '\\') {
+						value.append(c);
+						i += 2;
+					} else {
+						value.append(c);
+						i++;
+					}
+				}
+				map.put(name, value.toString());
+			} else {
+				map.put(name, null);
 			}
-			
-			map.put(name, value);
 		}
-		
+
 		return map;
 	}
-	
+
+	/**
+	 * Undo the escaping of a column written by the PostgreSQL COPY text format, where tabs, line breaks and
+	 * backslashes are written as backslash sequences.
+	 */
+	static String unescapeCopyText(String text) {
+
+		int i = text.indexOf('\\');
+		if (i < 0) {
+			return text;
+		}
+
+		int length = text.length();
+		StringBuilder result = new StringBuilder(length);
+		result.append(text, 0, i);
+		while (i < length) {
+			char c = text.charAt(i++);
+			if (c != '\\' || i == length) {
+				result.append(c);
+				continue;
+			}
+			char escaped = text.charAt(i++);
+			switch (escaped) {
+				case 'b': result.append('\b'); break;
+				case 'f': result.append('\f'); break;
+				case 'n': result.append('\n'); break;
+				case 'r': result.append('\r'); break;
+				case 't': result.append('\t'); break;
+				case 'v': result.append('\u000B'); break;
+				default: result.append(escaped); break;
+			}
+		}
+		return result.toString();
+	}
+
 }
@@ -2,15 +2,20 @@ package org.musicbrainz.search.update;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
@@ -20,7 +25,6 @@ import java.util.logging.Logger;
 
 import org.apache.commons.lang.time.StopWatch;
 import org.apache.lucene.index.*;
-import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.FSDirectory;
 import org.jdom.JDOMException;
 import org.kohsuke.args4j.CmdLineException;
@@ -33,7 +37,7 @@ import org.musicbrainz.search.index.ArtistIndex;
 import org.musicbrainz.search.index.CommonTables;
 import org.musicbrainz.search.index.DatabaseIndex;
 import org.musicbrainz.search.index.LabelIndex;
-import org.musicbrainz.search.index.MetaIndexField;
+import org.musicbrainz.search.index.MMDSerializer;
 import org.musicbrainz.search.index.RecordingIndex;
 import org.musicbrainz.search.index.ReleaseGroupIndex;
 import org.musicbrainz.search.index.ReleaseIndex;
@@ -54,6 +58,14 @@ public class LiveDataFeedIndexUpdater {
 	private final Map<DatabaseIndex, IndexWriter> indexWriters = new HashMap<DatabaseIndex, IndexWriter>();
 	private final Map<DatabaseIndex, ReplicationInformation> indexReplicationInfos = new HashMap<DatabaseIndex, ReplicationInformation>();
 	private final Map<DatabaseIndex, ChangesAnalyzer> indexChangesAnalyzers = new HashMap<DatabaseIndex, ChangesAnalyzer>();
+	// Indexes whose prepared statements have been created, they are kept open until destroy
+	private final Set<DatabaseIndex> preparedIndexes = new HashSet<DatabaseIndex>();
+	// Indexes with applied changes that have not been committed yet
+	private final Set<DatabaseIndex> uncommittedIndexes = new HashSet<DatabaseIndex>();
+	private boolean temporaryTablesCreated = false;
+
+	private volatile boolean running = false;
+	private final Object pollLock = new Object();
 
 	public LiveDataFeedIndexUpdater(LiveDataFeedIndexUpdaterOptions options) {
 
@@ -76,21 +88,38 @@ public class LiveDataFeedIndexUpdater {
 	public void init() throws SQLException, IOException {
 
 		// Connect to main database
-		mainDbConn = this.options.getMainDatabaseConnection();
+		final Connection dbConn = this.options.getMainDatabaseConnection();
 
 		// MusicBrainz data indexing
-		indexes = new ArrayList<DatabaseIndex>() {
+		init(dbConn, new ArrayList<DatabaseIndex>() {
 			{
-				add(new ArtistIndex(mainDbConn));
-				add(new ReleaseIndex(mainDbConn));
-				add(new ReleaseGroupIndex(mainDbConn));
-				add(new RecordingIndex(mainDbConn));
-				add(new LabelIndex(mainDbConn));
-				add(new WorkIndex(mainDbConn));
-				add(new AnnotationIndex(mainDbConn));
-				add(new TagIndex(mainDbConn));
+				add(new ArtistIndex(dbConn));
+				add(new ReleaseIndex(dbConn));
+				add(new ReleaseGroupIndex(dbConn));
+				add(new RecordingIndex(dbConn));
+				add(new LabelIndex(dbConn));
+				add(new WorkIndex(dbConn));
+				add(new AnnotationIndex(dbConn));
+				add(new TagIndex(dbConn));
 			}
-		};
+		});
+	}
+
+	/**
+	 * Open the writers of the given indexes that should be handled in this run
+	 *
+	 * @param dbConn connection used to find changes not yet packaged and to reindex changed rows
+	 * @param allIndexes
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	void init(Connection dbConn, List<DatabaseIndex> allIndexes) throws SQLException, IOException {
+
+		// Updated documents are stored in the same format as a full build with these options
+		MMDSerializer.setStoreFormat(this.options.getStoreFormat());
+
+		mainDbConn = dbConn;
+		indexes = allIndexes;
 
 		// Remove from the indexes list indexes that should not be handled in this run
 		Iterator<DatabaseIndex> it = indexes.iterator();
@@ -127,57 +156,170 @@ public class LiveDataFeedIndexUpdater {
 	}
 
 	public void destroy() throws CorruptIndexException, IOException, SQLException {
+		for (DatabaseIndex index : preparedIndexes) {
+			index.destroy();
+		}
+		preparedIndexes.clear();
 		for (DatabaseIndex index : indexes) {
 			indexWriters.get(index).close();
 		}
-		mainDbConn.close();
+		if (mainDbConn != null) {
+			mainDbConn.close();
+		}
 	}
 
+	/**
+	 * Apply all the available replication packets and commit the changes
+	 *
+	 * @throws SQLException
+	 * @throws IOException
+	 */
 	public void update() throws SQLException, IOException {
 
-		StopWatch clock = new StopWatch();
+		if (indexes.size() == 0) {
+			LOGGER.info("No selected indexes to update, aborting");
+			return;
+		}
+
+		if (applyAvailablePackets()) {
+			commit();
+		}
+	}
+
+	/**
+	 * Keep applying replication packets as they become available until stopped, committing the changes at most every
+	 * commit interval and once more when stopped. The writers and prepared statements are kept open between packets.
+	 *
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void runDaemon() throws SQLException, IOException {
 
 		if (indexes.size() == 0) {
 			LOGGER.info("No selected indexes to update, aborting");
 			return;
 		}
 
+		LOGGER.info("Polling for replication packets every " + options.getPollInterval() + " seconds, committing at most every "
+				+ options.getCommitInterval() + " seconds");
+		running = true;
+		long lastCommitTime = System.currentTimeMillis();
+		while (running) {
+			try {
+				applyAvailablePackets();
+			} catch (SQLException e) {
+				// Nothing is recorded as applied for the index that failed, so its packets are applied again on the next poll
+				LOGGER.severe("Unable to apply replication packets, will retry: " + e.getMessage());
+			}
+
+			if (!uncommittedIndexes.isEmpty()
+					&& System.currentTimeMillis() - lastCommitTime >= options.getCommitInterval() * 1000L) {
+				commit();
+				lastCommitTime = System.currentTimeMillis();
+			}
+			waitForNextPoll();
+		}
+
+		commit();
+		LOGGER.info("Stopped polling for replication packets");
+	}
+
+	/**
+	 * Stop the daemon after the packets being applied, it then commits the applied changes
+	 */
+	public void stop() {
+		synchronized (pollLock) {
+			running = false;
+			pollLock.notifyAll();
+		}
+	}
+
+	private void waitForNextPoll() {
+		synchronized (pollLock) {
+			if (!running) {
+				return;
+			}
+			try {
+				pollLock.wait(options.getPollInterval() * 1000L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				running = false;
+			}
+		}
+	}
+
+	/**
+	 * @param indexName
+	 * @return the replication position the index has been updated to, including changes not yet committed
+	 */
+	ReplicationInformation getReplicationInformation(String indexName) {
+		for (DatabaseIndex index : indexes) {
+			if (index.getName().equals(indexName)) {
+				return indexReplicationInfos.get(index);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Load all replication packets after the earliest position of the indexes, and apply the changes they contain to
+	 * each index without committing them
+	 *
+	 * @return false if a packet could not be analyzed, nothing has been applied then
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	private boolean applyAvailablePackets() throws SQLException, IOException {
+
+		StopWatch clock = new StopWatch();
+
+		// Changes found by an earlier attempt that failed are found again
+		for (ChangesAnalyzer changesAnalyzer : indexChangesAnalyzers.values()) {
+			changesAnalyzer.reset();
+		}
+
 		// Step 1: Load all replication packets and analyze changes to determine what need to be reindexed
 		List<ReplicationInformation> list = new ArrayList<ReplicationInformation>(indexReplicationInfos.values());
 		Collections.sort(list);
-		ReplicationInformation earliestReplicationInformation = list.get(0);
+		// The iterator moves its position on, so give it a copy rather than the position of an index
+		ReplicationInformation earliestReplicationInformation = copy(list.get(0));
 
 		Integer lastChangeSequence = earliestReplicationInformation.changeSequence;
 		ReplicationPacketIterator itPacket = new ReplicationPacketIterator(earliestReplicationInformation, true);
-		itPacket.setDatabaseConnection(LiveDataFeedIndexUpdaterOptions.getInstance().getMainDatabaseConnection());
-		while (itPacket.hasNext()) {
-
-			ReplicationPacket packet = itPacket.next();
-			LOGGER.info("Loading packet #" + packet.getReplicationSequence());
-
-			for (DatabaseIndex index : indexes) {
-
-				// SchemaSequence of packet should match the packet's one
-				if (indexReplicationInfos.get(index).schemaSequence != packet.getSchemaSequence()) {
-					LOGGER.fine("Ignoring packet #" + packet.getReplicationSequence() + " for index " + index.getName()
-							+ ": SCHEMA sequence mismatches");
-					// Check if this packet hasn't already been processed for this index (by comparing replication information)
-				} else if (indexReplicationInfos.get(index).compareTo(itPacket.getCurrentReplicationPosition()) > 0) {
-					LOGGER.fine("Ignoring packet #" + packet.getReplicationSequence() + " for index " + index.getName()
-							+ ": already indexed");
-					// Otherwise process the packet to find changes
-				} else {
-					LOGGER.fine("Analyzing packet #" + packet.getReplicationSequence() + " for index " + index.getName());
-					try {
-						indexChangesAnalyzers.get(index).analyze(packet, lastChangeSequence);
-					} catch (InvalidReplicationChangeException e) {
-						LOGGER.severe("Aborting: " + e.getMessage());
-						return;
+		itPacket.setDatabaseConnection(mainDbConn);
+		itPacket.setMaxPrefetchedPackets(options.getPrefetchedPackets());
+		try {
+			while (itPacket.hasNext()) {
+
+				ReplicationPacket packet = itPacket.next();
+				LOGGER.info("Loading packet #" + packet.getReplicationSequence());
+
+				for (DatabaseIndex index : indexes) {
+
+					// SchemaSequence of packet should match the packet's one
+					if (indexReplicationInfos.get(index).schemaSequence != packet.getSchemaSequence()) {
+						LOGGER.fine("Ignoring packet #" + packet.getReplicationSequence() + " for index " + index.getName()
+								+ ": SCHEMA sequence mismatches");
+						// Check if this packet hasn't already been processed for this index (by comparing replication information)
+					} else if (indexReplicationInfos.get(index).compareTo(itPacket.getCurrentReplicationPosition()) > 0) {
+						LOGGER.fine("Ignoring packet #" + packet.getReplicationSequence() + " for index " + index.getName()
+								+ ": already indexed");
+						// Otherwise process the packet to find changes
+					} else {
+						LOGGER.fine("Analyzing packet #" + packet.getReplicationSequence() + " for index " + index.getName());
+						try {
+							indexChangesAnalyzers.get(index).analyze(packet, lastChangeSequence);
+						} catch (InvalidReplicationChangeException e) {
+							LOGGER.severe("Aborting: " + e.getMessage());
+							return false;
+						}
 					}
 				}
-			}
 
-			lastChangeSequence = packet.getMaxChangeId();
+				lastChangeSequence = packet.getMaxChangeId();
+			}
+		} finally {
+			itPacket.close();
 		}
 
 		// Step 2: Create temporary tables, used by multiple indexes, if changes has been found
@@ -194,7 +336,12 @@ public class LiveDataFeedIndexUpdater {
 				indexesToBeBuilt.add(index.getName());
 			}
 			CommonTables commonTables = new CommonTables(mainDbConn, indexesToBeBuilt);
+			// Tables created for earlier packets hold the data as it was then
+			if (temporaryTablesCreated) {
+				commonTables.dropTemporaryTables();
+			}
 			commonTables.createTemporaryTables(true);
+			temporaryTablesCreated = true;
 		}
 
 		// Step 3: Update the existing indexes from found changes
@@ -220,6 +367,68 @@ public class LiveDataFeedIndexUpdater {
 			clock.reset();
 		}
 
+		return true;
+	}
+
+	/**
+	 * Commit the changes applied to each index since the last commit, then ask the search server to reload
+	 *
+	 * @throws IOException
+	 * @throws SQLException
+	 */
+	private void commit() throws IOException, SQLException {
+
+		if (uncommittedIndexes.isEmpty()) {
+			return;
+		}
+
+		for (DatabaseIndex index : indexes) {
+			if (!uncommittedIndexes.contains(index)) {
+				continue;
+			}
+			IndexWriter indexWriter = indexWriters.get(index);
+			indexWriter.commit();
+			// TODO: index don't need to be optimized on each update, it's way too resource intensive
+			// => disabled for now, need to be done on a regular basis that should determined
+			// indexWriter.optimize();
+			LOGGER.info("Committed index " + index.getName() + " up to replication_sequence="
+					+ indexReplicationInfos.get(index).replicationSequence);
+
+			// Check to we have as much Lucene documents as Database rows, counting the rows is too slow to do on every
+			// commit of the daemon
+			if (!options.isDaemon()) {
+				int dbRows = index.getNoOfRows(Integer.MAX_VALUE);
+				IndexReader indexReader = DirectoryReader.open(indexWriter, true);
+				LOGGER.info(dbRows + " rows in database, " + (indexReader.maxDoc() - 1) + " lucene documents");
+				indexReader.close();
+			}
+		}
+		uncommittedIndexes.clear();
+
+		if (options.isDaemon() && options.getReloadUrl() != null) {
+			reloadSearchServer(options.getReloadUrl());
+		}
+	}
+
+	private void reloadSearchServer(String reloadUrl) {
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL(reloadUrl).openConnection();
+			int responseCode = connection.getResponseCode();
+			connection.disconnect();
+			if (responseCode != HttpURLConnection.HTTP_OK) {
+				LOGGER.warning("Search server reload returned " + responseCode);
+			}
+		} catch (IOException e) {
+			LOGGER.warning("Unable to reload search server: " + e.getMessage());
+		}
+	}
+
+	private static ReplicationInformation copy(ReplicationInformation info) {
+		ReplicationInformation result = new ReplicationInformation();
+		result.schemaSequence = info.schemaSequence;
+		result.replicationSequence = info.replicationSequence;
+		result.changeSequence = info.changeSequence;
+		return result;
 	}
 
 	private IndexWriter createWriterForIndex(DatabaseIndex index, LiveDataFeedIndexUpdaterOptions options) throws IOException {
@@ -249,50 +458,40 @@ public class LiveDataFeedIndexUpdater {
 				+ (currentReplicationInfo.changeSequence != null ? currentReplicationInfo.changeSequence : ""));
 
 		// We're done parsing all replication packets and analyzing impacted entities
-		Term term = new Term(MetaIndexField.META.getName(), MetaIndexField.META_VALUE);
-		TermQuery query = new TermQuery(term);
 
 		// Delete obsolete documents
 		for (Integer id : changesAnalyzer.getDeletedIds()) {
 			LOGGER.fine("Deleting " + index.getName() + " #" + id.toString());
-			term = new Term(index.getIdentifierField().getName(), id.toString());
-			query = new TermQuery(term);
-			indexWriter.deleteDocuments(query);
+			indexWriter.deleteDocuments(new Term(index.getIdentifierField().getName(), id.toString()));
 		}
 
 		// Index new (or udpated) ones
 		if (!changesAnalyzer.getInsertedOrUpdatedIds().isEmpty()) {
-			index.init(indexWriter, true);
-
-			for (Integer id : changesAnalyzer.getInsertedOrUpdatedIds()) {
-				LOGGER.fine("Reindexing " + index.getName() + " #" + id.toString());
-				term = new Term(index.getIdentifierField().getName(), id.toString());
-				query = new TermQuery(term);
-				indexWriter.deleteDocuments(query);
-				index.indexData(indexWriter, id, id);
+			if (preparedIndexes.add(index)) {
+				index.init(indexWriter, true);
+			}
+
+			// Reindex in batches of sorted ids, indexes able to load a list of ids then run their queries once per batch
+			List<Integer> ids = new ArrayList<Integer>(changesAnalyzer.getInsertedOrUpdatedIds());
+			Collections.sort(ids);
+			for (int i = 0; i < ids.size(); i += DatabaseIndex.MAX_IDS_PER_BATCH) {
+				List<Integer> batch = ids.subList(i, Math.min(i + DatabaseIndex.MAX_IDS_PER_BATCH, ids.size()));
+				LOGGER.fine("Reindexing " + index.getName() + " #" + batch.get(0) + " to #" + batch.get(batch.size() - 1) + " ("
+						+ batch.size() + " rows)");
+				index.updateData(indexWriter, batch);
 			}
-			index.destroy();
 		}
 
-		// Only update the index if we've processed some database changes
+		// Only update the index if we've processed some database changes, they are committed later
 		if (currentReplicationInfo.compareTo(newReplicationInfo) != 0) {
 
 			index.updateMetaInformation(indexWriter, newReplicationInfo);
-			indexWriter.commit();
-			// TODO: index don't need to be optimized on each update, it's way too resource intensive
-			// => disabled for now, need to be done on a regular basis that should determined
-			// indexWriter.optimize();
-
-			// Check to we have as much Lucene documents as Database rows
-			int dbRows = index.getNoOfRows(Integer.MAX_VALUE);
-			IndexReader indexReader = DirectoryReader.open(indexWriter, true);
-			LOGGER.info(dbRows + " rows in database, " + (indexReader.maxDoc() - 1) + " lucene documents");
+			indexReplicationInfos.put(index, copy(newReplicationInfo));
+			uncommittedIndexes.add(index);
 		} else {
 			LOGGER.info("No changes found");
 		}
 
-		indexWriter.close();
-
 	}
 
 	/**
@@ -326,10 +525,32 @@ public class LiveDataFeedIndexUpdater {
 			System.exit(1);
 		}
 
-		LiveDataFeedIndexUpdater updater = new LiveDataFeedIndexUpdater(options);
+		final LiveDataFeedIndexUpdater updater = new LiveDataFeedIndexUpdater(options);
 		updater.init();
-		updater.update();
-		updater.destroy();
+		if (options.isDaemon()) {
+			// On a signal stop polling, and wait until the applied changes have been committed and the indexes closed
+			final CountDownLatch closed = new CountDownLatch(1);
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					updater.stop();
+					try {
+						closed.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			try {
+				updater.runDaemon();
+			} finally {
+				updater.destroy();
+				closed.countDown();
+			}
+		} else {
+			updater.update();
+			updater.destroy();
+		}
 	}
 
 }
@@ -5,6 +5,10 @@ import org.musicbrainz.search.index.IndexOptions;
 
 public class LiveDataFeedIndexUpdaterOptions extends IndexOptions {
 
+	private static final int POLL_INTERVAL = 60;
+	private static final int COMMIT_INTERVAL = 300;
+	private static final int PREFETCHED_PACKETS = 2;
+
 	private static LiveDataFeedIndexUpdaterOptions instance = null;
 	
 	private LiveDataFeedIndexUpdaterOptions() {}	
@@ -20,8 +24,32 @@ public class LiveDataFeedIndexUpdaterOptions extends IndexOptions {
     private String repositoryPath = "http://ftp.musicbrainz.org/pub/musicbrainz/data/replication/";
     public String getRepositoryPath() { return repositoryPath; }
 
+    @Option(name="--decompression-threads", usage="The number of threads decompressing each replication packet, at most the number of processors, 1 decompresses packets as they are downloaded. (default: 1)")
+    private int decompressionThreads = 1;
+    public int getDecompressionThreads() { return Math.max(1, Math.min(decompressionThreads, Runtime.getRuntime().availableProcessors())); }
+
+    @Option(name="--prefetch-packets", usage="The number of replication packets loaded in the background while the current packet is analyzed, 0 loads each packet when needed. (default: "+PREFETCHED_PACKETS+")")
+    private int prefetchedPackets = PREFETCHED_PACKETS;
+    public int getPrefetchedPackets() { return Math.max(0, prefetchedPackets); }
+
     @Option(name="--verbose", usage="More verbosity")
     private boolean verbose = false;
     public boolean isVerbose() { return verbose; }
+
+    @Option(name="--daemon", usage="Keep running, polling for new replication packets and applying them as they appear, until stopped by a signal.")
+    private boolean daemon = false;
+    public boolean isDaemon() { return daemon; }
+
+    @Option(name="--poll-interval", usage="In daemon mode, the number of seconds to wait for new replication packets once all available packets have been applied. (default: "+POLL_INTERVAL+")")
+    private int pollInterval = POLL_INTERVAL;
+    public int getPollInterval() { return Math.max(1, pollInterval); }
+
+    @Option(name="--commit-interval", usage="In daemon mode, the least number of seconds between commits of changes to the indexes, 0 commits as soon as packets have been applied. (default: "+COMMIT_INTERVAL+")")
+    private int commitInterval = COMMIT_INTERVAL;
+    public int getCommitInterval() { return Math.max(0, commitInterval); }
+
+    @Option(name="--reload-url", usage="In daemon mode, the URL to request after changes have been committed so the search server reloads its indexes, for example http://localhost:8080/?reload")
+    private String reloadUrl = null;
+    public String getReloadUrl() { return reloadUrl; }
 	
 }
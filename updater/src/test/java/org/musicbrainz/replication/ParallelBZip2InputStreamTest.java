@@ -0,0 +1,89 @@
+package org.musicbrainz.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+public class ParallelBZip2InputStreamTest extends TestCase {
+
+	/**
+	 * Text compressing to several blocks of the smallest size
+	 */
+	private static byte[] createText(int size) {
+		String[] words = { "echo", "bunnymen", "crocodiles", "do", "it", "clean", "pixies", "doolittle", "\t", "\n" };
+		Random random = new Random(0);
+		StringBuilder text = new StringBuilder(size + 20);
+		while (text.length() < size) {
+			text.append(words[random.nextInt(words.length)]).append(random.nextInt(1000)).append(' ');
+		}
+		return text.substring(0, size).getBytes();
+	}
+
+	private static byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		BZip2CompressorOutputStream bzOut = new BZip2CompressorOutputStream(output, 1);
+		bzOut.write(data);
+		bzOut.close();
+		return output.toByteArray();
+	}
+
+	private static byte[] readAll(InputStream input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int read;
+		while ((read = input.read(buffer)) != -1) {
+			output.write(buffer, 0, read);
+		}
+		input.close();
+		return output.toByteArray();
+	}
+
+	public void testSeveralBlocks() throws Exception {
+		byte[] text = createText(1000000);
+		byte[] compressed = compress(text);
+
+		assertTrue(Arrays.equals(text, readAll(new ParallelBZip2InputStream(new ByteArrayInputStream(compressed), 3))));
+		assertTrue(Arrays.equals(text, readAll(new ParallelBZip2InputStream(new ByteArrayInputStream(compressed), 1))));
+	}
+
+	public void testReadByByte() throws Exception {
+		byte[] text = createText(250000);
+		InputStream input = new ParallelBZip2InputStream(new ByteArrayInputStream(compress(text)), 2);
+		for (int i = 0; i < text.length; i++) {
+			assertEquals(text[i] & 0xFF, input.read());
+		}
+		assertEquals(-1, input.read());
+		input.close();
+	}
+
+	public void testEmptyStream() throws Exception {
+		assertEquals(0, readAll(new ParallelBZip2InputStream(new ByteArrayInputStream(compress(new byte[0])), 2)).length);
+	}
+
+	public void testCorruptedBlock() throws Exception {
+		byte[] compressed = compress(createText(500000));
+		compressed[compressed.length / 2] ^= 0x10;
+		try {
+			readAll(new ParallelBZip2InputStream(new ByteArrayInputStream(compressed), 2));
+			fail("Corrupted block decompressed");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	public void testNotBZip2() throws Exception {
+		try {
+			new ParallelBZip2InputStream(new ByteArrayInputStream("Not compressed".getBytes()), 2);
+			fail("Uncompressed data accepted");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+}
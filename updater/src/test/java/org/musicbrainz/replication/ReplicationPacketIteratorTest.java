@@ -0,0 +1,138 @@
+package org.musicbrainz.replication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.kohsuke.args4j.CmdLineParser;
+import org.musicbrainz.search.index.ReplicationInformation;
+import org.musicbrainz.search.update.LiveDataFeedIndexUpdaterOptions;
+
+/**
+ * Packets are replayed from a local repository directory
+ */
+public class ReplicationPacketIteratorTest extends TestCase {
+
+	private static final int SCHEMA_SEQUENCE = 13;
+
+	private File packetsDir;
+
+	@Override
+	protected void setUp() throws Exception {
+		packetsDir = File.createTempFile("packets", "");
+		packetsDir.delete();
+		packetsDir.mkdirs();
+		new CmdLineParser(LiveDataFeedIndexUpdaterOptions.getInstance()).parseArgument(new String[] { "--replication-repository",
+				"file:" + packetsDir.getAbsolutePath() });
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File file : packetsDir.listFiles()) {
+			file.delete();
+		}
+		packetsDir.delete();
+	}
+
+	private File getPacketFile(int sequence) {
+		return new File(packetsDir, "replication-" + sequence + ".tar.bz2");
+	}
+
+	/**
+	 * Write a replication packet with a single change
+	 */
+	private void writePacket(int sequence) throws IOException {
+		int changeId = sequence * 10;
+		TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new BZip2CompressorOutputStream(new FileOutputStream(
+				getPacketFile(sequence))));
+		addEntry(tarOut, "REPLICATION_SEQUENCE", sequence + "\n");
+		addEntry(tarOut, "SCHEMA_SEQUENCE", SCHEMA_SEQUENCE + "\n");
+		addEntry(tarOut, "mbdump/Pending", changeId + "\t\"public\".\"tag\"\td\n");
+		addEntry(tarOut, "mbdump/PendingData", changeId + "\tf\t\"id\"='" + sequence + "' \n");
+		tarOut.close();
+	}
+
+	private static void addEntry(TarArchiveOutputStream tarOut, String name, String content) throws IOException {
+		byte[] bytes = content.getBytes("UTF-8");
+		TarArchiveEntry entry = new TarArchiveEntry(name);
+		entry.setSize(bytes.length);
+		tarOut.putArchiveEntry(entry);
+		tarOut.write(bytes);
+		tarOut.closeArchiveEntry();
+	}
+
+	private ReplicationPacketIterator createIterator(int prefetchedPackets) {
+		ReplicationInformation info = new ReplicationInformation();
+		info.schemaSequence = SCHEMA_SEQUENCE;
+		info.replicationSequence = 100;
+		ReplicationPacketIterator iterator = new ReplicationPacketIterator(info, false);
+		iterator.setMaxPrefetchedPackets(prefetchedPackets);
+		return iterator;
+	}
+
+	private static List<Integer> replay(ReplicationPacketIterator iterator) {
+		List<Integer> sequences = new ArrayList<Integer>();
+		try {
+			while (iterator.hasNext()) {
+				ReplicationPacket packet = iterator.next();
+				assertEquals(packet.getReplicationSequence() * 10, packet.getMaxChangeId().intValue());
+				assertEquals(Integer.toString(packet.getReplicationSequence()), packet.getChanges().get(0).getOldValues().get("id"));
+				sequences.add(packet.getReplicationSequence());
+			}
+		} finally {
+			iterator.close();
+		}
+		return sequences;
+	}
+
+	private static List<Integer> sequences(int first, int last) {
+		List<Integer> sequences = new ArrayList<Integer>();
+		for (int sequence = first; sequence <= last; sequence++) {
+			sequences.add(sequence);
+		}
+		return sequences;
+	}
+
+	public void testPacketsReplayedInSequence() throws Exception {
+		for (int sequence = 101; sequence <= 110; sequence++) {
+			writePacket(sequence);
+		}
+
+		ReplicationPacketIterator iterator = createIterator(3);
+		assertEquals(sequences(101, 110), replay(iterator));
+		assertEquals(110, iterator.getCurrentReplicationPosition().replicationSequence.intValue());
+		assertEquals(1100, iterator.getCurrentReplicationPosition().changeSequence.intValue());
+
+		assertEquals(sequences(101, 110), replay(createIterator(0)));
+	}
+
+	public void testMissingPacketEndsReplay() throws Exception {
+		writePacket(101);
+		writePacket(102);
+		writePacket(104);
+		writePacket(105);
+
+		ReplicationPacketIterator iterator = createIterator(3);
+		assertEquals(sequences(101, 102), replay(iterator));
+		assertEquals(102, iterator.getCurrentReplicationPosition().replicationSequence.intValue());
+	}
+
+	public void testCorruptedPacketEndsReplay() throws Exception {
+		writePacket(101);
+		FileOutputStream out = new FileOutputStream(getPacketFile(102));
+		out.write("Not a packet".getBytes());
+		out.close();
+		writePacket(103);
+
+		ReplicationPacketIterator iterator = createIterator(2);
+		assertEquals(sequences(101, 101), replay(iterator));
+		assertEquals(101, iterator.getCurrentReplicationPosition().replicationSequence.intValue());
+	}
+}
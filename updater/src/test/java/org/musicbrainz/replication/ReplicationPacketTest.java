@@ -1,5 +1,13 @@
 package org.musicbrainz.replication;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.musicbrainz.replication.DatabaseOperation;
 import org.musicbrainz.replication.ReplicationPacket;
 
@@ -78,6 +86,129 @@ public class ReplicationPacketTest extends TestCase {
 	}
 	*/ 
 	
+	/**
+	 * Write a packet with an update, an insert with escaped values, and a number of other inserts
+	 */
+	private File writeTestPacket(int otherInserts) throws IOException {
+		StringBuilder pending = new StringBuilder();
+		StringBuilder pendingData = new StringBuilder();
+		pending.append("2\t\"musicbrainz\".\"tag\"\ti\n");
+		pendingData.append("2\tf\t\"id\"='2' \"name\"='It''s a\\\\\\\\b\\ttab\\nline' \"ref_count\"= \n");
+		pending.append("1\t\"public\".\"recording\"\tu\n");
+		pendingData.append("1\tf\t\"id\"='1' \"name\"='Old' \n");
+		pendingData.append("1\tt\t\"id\"='1' \"name\"='New' \n");
+		for (int id = 3; id < otherInserts + 3; id++) {
+			pending.append(id + "\t\"public\".\"tag\"\ti\n");
+			pendingData.append(id + "\tf\t\"id\"='" + id + "' \"name\"='tag" + id + "' \n");
+		}
+
+		File file = File.createTempFile("replication-", ".tar.bz2");
+		TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new BZip2CompressorOutputStream(new FileOutputStream(file), 1));
+		addEntry(tarOut, "REPLICATION_SEQUENCE", REPLICATION_SEQUENCE + "\n");
+		addEntry(tarOut, "SCHEMA_SEQUENCE", SCHEMA_SEQUENCE + "\n");
+		addEntry(tarOut, "mbdump/Pending", pending.toString());
+		addEntry(tarOut, "mbdump/PendingData", pendingData.toString());
+		tarOut.close();
+		return file;
+	}
+
+	private static void addEntry(TarArchiveOutputStream tarOut, String name, String content) throws IOException {
+		byte[] bytes = content.getBytes("UTF-8");
+		TarArchiveEntry entry = new TarArchiveEntry(name);
+		entry.setSize(bytes.length);
+		tarOut.putArchiveEntry(entry);
+		tarOut.write(bytes);
+		tarOut.closeArchiveEntry();
+	}
+
+	private void checkTestPacket(ReplicationPacket packet, int otherInserts) {
+		assertEquals(REPLICATION_SEQUENCE, packet.getReplicationSequence());
+		assertEquals(SCHEMA_SEQUENCE, packet.getSchemaSequence());
+		assertEquals(otherInserts + 2, packet.getChanges().size());
+		assertEquals(new Integer(otherInserts + 2), packet.getMaxChangeId());
+
+		ReplicationChange update = packet.getChanges().get(0);
+		assertEquals(1, update.getId());
+		assertEquals("recording", update.getTableName());
+		assertEquals(DatabaseOperation.UPDATE, update.getOperation());
+		assertEquals("Old", update.getOldValues().get("name"));
+		assertEquals("New", update.getNewValues().get("name"));
+
+		ReplicationChange insert = packet.getChanges().get(1);
+		assertEquals("tag", insert.getTableName());
+		assertEquals(DatabaseOperation.INSERT, insert.getOperation());
+		assertEquals("It's a\\b\ttab\nline", insert.getNewValues().get("name"));
+		assertTrue(insert.getNewValues().containsKey("ref_count"));
+		assertNull(insert.getNewValues().get("ref_count"));
+
+		ReplicationChange last = packet.getChanges().get(otherInserts + 1);
+		assertEquals("tag" + (otherInserts + 2), last.getNewValues().get("name"));
+	}
+
+	public void testLoadFromFile() throws Exception {
+		File file = writeTestPacket(10);
+		try {
+			checkTestPacket(ReplicationPacket.loadFromFile(file, 1), 10);
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testLoadFromFileWithDecompressionThreads() throws Exception {
+		File file = writeTestPacket(10000);
+		try {
+			checkTestPacket(ReplicationPacket.loadFromFile(file, 1), 10000);
+			checkTestPacket(ReplicationPacket.loadFromFile(file, 4), 10000);
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testLoadFromRepositoryDirectory() throws Exception {
+		File file = writeTestPacket(10);
+		File packetFile = new File(file.getParentFile(), "replication-" + REPLICATION_SEQUENCE + ".tar.bz2");
+		file.renameTo(packetFile);
+		try {
+			String repositoryPath = "file:" + packetFile.getParentFile().getAbsolutePath();
+			checkTestPacket(ReplicationPacket.loadFromRepository(REPLICATION_SEQUENCE, repositoryPath, 2), 10);
+			assertNull(ReplicationPacket.loadFromRepository(REPLICATION_SEQUENCE + 1, repositoryPath, 2));
+		} finally {
+			packetFile.delete();
+		}
+	}
+
+	/**
+	 * Compare decompressing the packets of a directory given by -Dreplication.packets.dir on one and on all processors
+	 */
+	public void testPacketsOnDisk() throws Exception {
+		String dir = System.getProperty("replication.packets.dir");
+		if (dir == null) {
+			return;
+		}
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (File file : new File(dir).listFiles()) {
+			if (!file.getName().endsWith(".tar.bz2")) {
+				continue;
+			}
+			long t0 = System.currentTimeMillis();
+			ReplicationPacket packet = ReplicationPacket.loadFromFile(file, 1);
+			long t1 = System.currentTimeMillis();
+			ReplicationPacket parallelPacket = ReplicationPacket.loadFromFile(file, processors);
+			long t2 = System.currentTimeMillis();
+			System.out.println(file.getName() + ": " + packet.getChanges().size() + " changes loaded in " + (t1 - t0)
+					+ " ms, in " + (t2 - t1) + " ms with " + processors + " threads");
+
+			List<ReplicationChange> changes = packet.getChanges();
+			List<ReplicationChange> parallelChanges = parallelPacket.getChanges();
+			assertEquals(changes.size(), parallelChanges.size());
+			for (int i = 0; i < changes.size(); i++) {
+				assertEquals(changes.get(i).getId(), parallelChanges.get(i).getId());
+				assertEquals(changes.get(i).getOldValues(), parallelChanges.get(i).getOldValues());
+				assertEquals(changes.get(i).getNewValues(), parallelChanges.get(i).getNewValues());
+			}
+		}
+	}
+
 	public void testNotExistingPacket() throws Exception {
 		ReplicationPacket nullPacket;
 		nullPacket = ReplicationPacket.loadFromRepository(99999999);
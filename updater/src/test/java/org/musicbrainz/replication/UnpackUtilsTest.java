@@ -39,6 +39,29 @@ public class UnpackUtilsTest extends TestCase {
 		assertEquals("'4 Minutes' is a shorter version.\r\n'Ray of Light' is a radio edit.", map.get("text"));
 	}
 
+	public void testEscapedBackslash() throws Exception {
+		String data = "\"id\"='1' \"name\"='AC\\\\DC' \"comment\"='\\\\' ";
+		Map<String, String> map = UnpackUtils.unpackData(data);
+		
+		assertEquals("AC\\DC", map.get("name"));
+		assertEquals("\\", map.get("comment"));
+	}
+	
+	public void testQuotesInValue() throws Exception {
+		String data = "\"id\"='1' \"name\"='\"Heroes\" ''77' \"comment\"= ";
+		Map<String, String> map = UnpackUtils.unpackData(data);
+		
+		assertEquals(3, map.size());
+		assertEquals("\"Heroes\" '77", map.get("name"));
+		assertNull(map.get("comment"));
+	}
+	
+	public void testUnescapeCopyText() throws Exception {
+		assertEquals("no escapes", UnpackUtils.unescapeCopyText("no escapes"));
+		assertEquals("a\tb\nc\r\\d", UnpackUtils.unescapeCopyText("a\\tb\\nc\\r\\\\d"));
+		assertEquals("trailing\\", UnpackUtils.unescapeCopyText("trailing\\"));
+	}
+	
 	// http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6337993
 	public void testLongString() throws Exception {
 		String data = "\"id\"='467948' \"editor\"='4' \"text\"='''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/Glenn_Gould_Complete|Series/Glenn_Gould_Complete]''''''\n\n-------\n\n''''''[http://wiki.musicbrainz.org/Series/GlennGouldComplete|Series/GlennGouldComplete]''''''' \"changelog\"='Result of release merge' \"created\"='2011-09-12 10:40:46.212817+00'";
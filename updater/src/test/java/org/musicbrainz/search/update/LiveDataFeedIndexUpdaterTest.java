@@ -0,0 +1,203 @@
+package org.musicbrainz.search.update;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.kohsuke.args4j.CmdLineParser;
+import org.musicbrainz.search.LuceneVersion;
+import org.musicbrainz.search.MbDocument;
+import org.musicbrainz.search.index.DatabaseIndex;
+import org.musicbrainz.search.index.ReplicationInformation;
+import org.musicbrainz.search.index.TagIndex;
+import org.musicbrainz.search.index.TagIndexField;
+
+/**
+ * The daemon applies replication packets from a local repository as they appear, packets only delete tags so no
+ * database is needed
+ */
+public class LiveDataFeedIndexUpdaterTest extends TestCase {
+
+	private static final int SCHEMA_SEQUENCE = 13;
+	private static final long TIMEOUT_MS = 20000;
+
+	private File baseDir;
+	private File packetsDir;
+	private File indexDir;
+
+	@Override
+	protected void setUp() throws Exception {
+		baseDir = File.createTempFile("updater", "");
+		baseDir.delete();
+		packetsDir = new File(baseDir, "packets");
+		packetsDir.mkdirs();
+
+		TagIndex index = new TagIndex();
+		indexDir = new File(baseDir, index.getFilename());
+		IndexWriter writer = new IndexWriter(FSDirectory.open(indexDir), new IndexWriterConfig(LuceneVersion.LUCENE_VERSION,
+				index.getAnalyzer()));
+		for (int id = 1; id <= 3; id++) {
+			MbDocument doc = new MbDocument();
+			doc.addField(TagIndexField.ID, Integer.toString(id));
+			doc.addField(TagIndexField.TAG, "tag" + id);
+			writer.addDocument(doc.getLuceneDocument());
+		}
+		ReplicationInformation info = new ReplicationInformation();
+		info.schemaSequence = SCHEMA_SEQUENCE;
+		info.replicationSequence = 100;
+		index.addMetaInformation(writer, info);
+		writer.close();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(baseDir);
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Write a replication packet deleting one tag
+	 */
+	private void writePacket(int sequence, int deletedTagId) throws IOException {
+		int changeId = sequence * 10;
+		TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new BZip2CompressorOutputStream(new FileOutputStream(
+				new File(packetsDir, "replication-" + sequence + ".tar.bz2"))));
+		addEntry(tarOut, "REPLICATION_SEQUENCE", sequence + "\n");
+		addEntry(tarOut, "SCHEMA_SEQUENCE", SCHEMA_SEQUENCE + "\n");
+		addEntry(tarOut, "mbdump/Pending", changeId + "\t\"public\".\"tag\"\td\n");
+		addEntry(tarOut, "mbdump/PendingData", changeId + "\tf\t\"id\"='" + deletedTagId + "' \"name\"='tag" + deletedTagId + "' \n");
+		tarOut.close();
+	}
+
+	private static void addEntry(TarArchiveOutputStream tarOut, String name, String content) throws IOException {
+		byte[] bytes = content.getBytes("UTF-8");
+		TarArchiveEntry entry = new TarArchiveEntry(name);
+		entry.setSize(bytes.length);
+		tarOut.putArchiveEntry(entry);
+		tarOut.write(bytes);
+		tarOut.closeArchiveEntry();
+	}
+
+	private LiveDataFeedIndexUpdater startDaemon(int commitInterval, final List<Throwable> errors) throws Exception {
+		LiveDataFeedIndexUpdaterOptions options = LiveDataFeedIndexUpdaterOptions.getInstance();
+		new CmdLineParser(options).parseArgument(new String[] { "--daemon", "--indexes", "tag", "--indexes-dir",
+				baseDir.getAbsolutePath(), "--replication-repository", "file:" + packetsDir.getAbsolutePath(), "--poll-interval", "1",
+				"--commit-interval", Integer.toString(commitInterval) });
+
+		final LiveDataFeedIndexUpdater updater = new LiveDataFeedIndexUpdater(options);
+		List<DatabaseIndex> indexes = new ArrayList<DatabaseIndex>();
+		indexes.add(new TagIndex());
+		updater.init(null, indexes);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					updater.runDaemon();
+					updater.destroy();
+				} catch (Throwable t) {
+					errors.add(t);
+				}
+			}
+		};
+		thread.start();
+		return updater;
+	}
+
+	private int getCommittedReplicationSequence() throws IOException {
+		IndexReader reader = DirectoryReader.open(FSDirectory.open(indexDir));
+		try {
+			return new TagIndex().readReplicationInformationFromIndex(reader).replicationSequence;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private int countCommittedTags(int tagId) throws IOException {
+		IndexReader reader = DirectoryReader.open(FSDirectory.open(indexDir));
+		try {
+			return new IndexSearcher(reader).search(new TermQuery(new Term(TagIndexField.ID.getName(), Integer.toString(tagId))), 1).totalHits;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void waitForCommittedReplicationSequence(int sequence) throws Exception {
+		long end = System.currentTimeMillis() + TIMEOUT_MS;
+		while (getCommittedReplicationSequence() < sequence) {
+			assertTrue("Packet #" + sequence + " not committed in time", System.currentTimeMillis() < end);
+			Thread.sleep(50);
+		}
+	}
+
+	private void stopDaemon(LiveDataFeedIndexUpdater updater, List<Throwable> errors) throws Exception {
+		updater.stop();
+		long end = System.currentTimeMillis() + TIMEOUT_MS;
+		while (IndexWriter.isLocked(FSDirectory.open(indexDir))) {
+			assertTrue("Daemon not stopped in time", System.currentTimeMillis() < end);
+			Thread.sleep(50);
+		}
+		assertTrue(errors.toString(), errors.isEmpty());
+	}
+
+	public void testPacketsAppliedAsTheyAppear() throws Exception {
+		writePacket(101, 2);
+		List<Throwable> errors = new ArrayList<Throwable>();
+		LiveDataFeedIndexUpdater updater = startDaemon(0, errors);
+		try {
+			waitForCommittedReplicationSequence(101);
+			assertEquals(0, countCommittedTags(2));
+			assertEquals(1, countCommittedTags(3));
+
+			// Picked up on a later poll by the same writer
+			writePacket(102, 3);
+			waitForCommittedReplicationSequence(102);
+			assertEquals(0, countCommittedTags(3));
+			assertEquals(1, countCommittedTags(1));
+		} finally {
+			stopDaemon(updater, errors);
+		}
+	}
+
+	public void testChangesCommittedWhenStopped() throws Exception {
+		writePacket(101, 2);
+		List<Throwable> errors = new ArrayList<Throwable>();
+		LiveDataFeedIndexUpdater updater = startDaemon(3600, errors);
+		try {
+			long end = System.currentTimeMillis() + TIMEOUT_MS;
+			while (updater.getReplicationInformation(TagIndex.INDEX_NAME).replicationSequence < 101) {
+				assertTrue("Packet #101 not applied in time", System.currentTimeMillis() < end);
+				Thread.sleep(50);
+			}
+			assertEquals(100, getCommittedReplicationSequence());
+			assertEquals(1, countCommittedTags(2));
+		} finally {
+			stopDaemon(updater, errors);
+		}
+		assertEquals(101, getCommittedReplicationSequence());
+		assertEquals(0, countCommittedTags(2));
+	}
+}